@@ -1,12 +1,20 @@
 package com.example.banking;
 
+import com.example.banking.ingest.CsvTransactionImporter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BankingServiceApiApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(BankingServiceApiApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(BankingServiceApiApplication.class, args);
+        // An import run is offline: it ends once the importer is done, with the importer's exit code
+        if (context.getBeanProvider(CsvTransactionImporter.class).getIfAvailable() != null) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 }
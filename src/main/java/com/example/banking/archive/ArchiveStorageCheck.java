@@ -0,0 +1,68 @@
+package com.example.banking.archive;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Makes sure every instance reads the archive the archiver writes. The archiver records the
+ * {@link ArchiveStore#storageId() storage ID} of its directory in Mongo, and an instance whose directory has another
+ * ID, or none, refuses to start: it would silently miss every archived transaction.
+ */
+@Component
+public class ArchiveStorageCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveStorageCheck.class);
+
+    static final String COLLECTION = "archive_storage";
+    private static final String DOCUMENT_ID = "archive";
+    private static final String STORAGE_ID = "storageId";
+
+    private final MongoTemplate mongoTemplate;
+    private final ArchiveStore archiveStore;
+
+    public ArchiveStorageCheck(MongoTemplate mongoTemplate, ArchiveStore archiveStore) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveStore = archiveStore;
+    }
+
+    /**
+     * Checks that the local archive directory is the registered one. Passes while nothing is registered.
+     *
+     * @throws IllegalStateException if the directory is not the shared archive.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        Document registered = mongoTemplate.findById(DOCUMENT_ID, Document.class, COLLECTION);
+        if (registered == null) {
+            return;
+        }
+        String expected = registered.getString(STORAGE_ID);
+        String local = archiveStore.storageId();
+        if (!expected.equals(local)) {
+            logger.error("Archive directory has storage ID {} but the archive in use has {}", local, expected);
+            throw new IllegalStateException("banking.archive.directory is not the shared archive directory (storage ID "
+                    + local + ", expected " + expected + ")");
+        }
+    }
+
+    /**
+     * Registers the local archive directory if none is registered yet, then {@link #verify() verifies} it. Called by
+     * the archiver before it writes.
+     */
+    public void register() throws IOException {
+        String local = archiveStore.createStorageId();
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(DOCUMENT_ID)),
+                new Update().setOnInsert(STORAGE_ID, local), COLLECTION);
+        verify();
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.banking.archive;
+
+import com.example.banking.model.Transaction;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local archive of old transactions, partitioned by month.
+ * <p>
+ * Each month directory holds immutable segments: a data file of gzip-compressed NDJSON blocks in timestamp order,
+ * and a JSON index with each block's byte range, time range and a bloom filter of its accounts. A read for one
+ * account and time range only opens the months and segments overlapping the range, and only decompresses the
+ * blocks whose time range and bloom filter match.
+ * <p>
+ * The watermark splits the tiers: transactions before it are read from the archive, and are only in Mongo as well
+ * until the archiver deletes them. It only moves forward once the transactions before it are written to segments.
+ * Every instance reads the watermark file at most once per {@code banking.archive.watermark-refresh}, so the
+ * directory must be shared storage; {@link #storageId()} lets instances check that they see the same one.
+ */
+@Component
+public class ArchiveStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveStore.class);
+
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx.json";
+    private static final String WATERMARK = "watermark";
+    private static final String STORAGE_ID = "storage-id";
+
+    private final Path directory;
+    private final int blockSize;
+    private final ObjectWriter lineWriter;
+    private final ObjectReader lineReader;
+    private final ObjectMapper indexMapper;
+    private final Cache<Path, SegmentIndex> indexes = Caffeine.newBuilder().maximumSize(256).build();
+    private final long watermarkRefreshNanos;
+    private volatile CachedWatermark cachedWatermark;
+
+    public ArchiveStore(@Value("${banking.archive.directory:archive}") Path directory,
+                        @Value("${banking.archive.block-size:4096}") int blockSize,
+                        @Value("${banking.archive.watermark-refresh:10s}") Duration watermarkRefresh) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Archive block size must be positive");
+        }
+        this.directory = directory;
+        this.blockSize = blockSize;
+        this.watermarkRefreshNanos = watermarkRefresh.toNanos();
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.lineWriter = mapper.writerFor(ArchivedTransaction.class);
+        this.lineReader = mapper.readerFor(ArchivedTransaction.class);
+        this.indexMapper = mapper;
+    }
+
+    /**
+     * Writes the transactions of one month, in timestamp order, as a new segment. The segment only becomes
+     * visible once both of its files are complete.
+     *
+     * @return the index file of the new segment.
+     */
+    public Path write(YearMonth month, List<Transaction> transactions) throws IOException {
+        if (transactions.isEmpty()) {
+            throw new IllegalArgumentException("Cannot archive an empty segment");
+        }
+        Path monthDirectory = Files.createDirectories(directory.resolve(month.toString()));
+        String name = "segment-" + transactions.get(0).getTimestamp().toLocalDate() + "-" + UUID.randomUUID();
+        Path data = monthDirectory.resolve(name + DATA_SUFFIX);
+        Path index = monthDirectory.resolve(name + INDEX_SUFFIX);
+        Path dataTemp = monthDirectory.resolve(name + DATA_SUFFIX + ".tmp");
+        Path indexTemp = monthDirectory.resolve(name + INDEX_SUFFIX + ".tmp");
+
+        List<SegmentIndex.Block> blocks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(dataTemp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long offset = 0;
+            for (int from = 0; from < transactions.size(); from += blockSize) {
+                List<Transaction> block = transactions.subList(from, Math.min(from + blockSize, transactions.size()));
+                byte[] compressed = compress(block);
+                channel.write(ByteBuffer.wrap(compressed));
+                blocks.add(blockIndex(block, offset, compressed.length));
+                offset += compressed.length;
+            }
+            channel.force(true);
+        }
+        SegmentIndex segmentIndex = new SegmentIndex(blocks.get(0).from(), blocks.get(blocks.size() - 1).to(),
+                transactions.size(), blocks);
+        try (FileChannel channel = FileChannel.open(indexTemp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(indexMapper.writeValueAsBytes(segmentIndex)));
+            channel.force(true);
+        }
+        // Data first: an index is only ever visible next to its complete data file
+        Files.move(dataTemp, data, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTemp, index, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Archived {} transactions of {} to segment {} in {} blocks", transactions.size(), month, name, blocks.size());
+        return index;
+    }
+
+    /**
+     * The time before which transactions are served from the archive, or null if nothing was archived yet. Read
+     * from disk at most once per refresh interval, so it may lag the archiver by that long.
+     */
+    public LocalDateTime watermark() {
+        CachedWatermark cached = cachedWatermark;
+        long now = System.nanoTime();
+        if (cached == null || now - cached.readAt() >= watermarkRefreshNanos) {
+            cached = new CachedWatermark(readWatermark(), now);
+            cachedWatermark = cached;
+        }
+        return cached.value();
+    }
+
+    private LocalDateTime readWatermark() {
+        Path file = directory.resolve(WATERMARK);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(Files.readString(file).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive watermark " + file, e);
+        }
+    }
+
+    /**
+     * Moves the watermark forward to {@code watermark}. Call once every transaction before it is archived.
+     */
+    public void advanceWatermark(LocalDateTime watermark) throws IOException {
+        LocalDateTime current = readWatermark();
+        if (current != null && !watermark.isAfter(current)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(WATERMARK + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(watermark.toString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(WATERMARK), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        cachedWatermark = new CachedWatermark(watermark, System.nanoTime());
+        logger.info("Archive watermark advanced to {}", watermark);
+    }
+
+    /**
+     * The random ID of this archive directory, or null if none was created yet. Two instances that see the same ID
+     * share the directory.
+     */
+    public String storageId() {
+        Path file = directory.resolve(STORAGE_ID);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return Files.readString(file).trim();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive storage ID " + file, e);
+        }
+    }
+
+    /**
+     * Returns the ID of this archive directory, creating it on first use.
+     */
+    public String createStorageId() throws IOException {
+        Files.createDirectories(directory);
+        try {
+            Files.writeString(directory.resolve(STORAGE_ID), UUID.randomUUID().toString(), StandardOpenOption.CREATE_NEW);
+        } catch (FileAlreadyExistsException e) {
+            // Created by an earlier run
+        }
+        return storageId();
+    }
+
+    /**
+     * Streams the archived transactions of an account with a timestamp in {@code [from, to]} (either bound may be
+     * null), month by month in timestamp order. Entries archived twice, by a run that was interrupted before it
+     * advanced the watermark and then repeated, are returned once.
+     */
+    public Stream<Transaction> stream(String accountId, LocalDateTime from, LocalDateTime to) {
+        return stream(block -> block.matches(accountId, from, to), entry -> entry.accountId().equals(accountId), from, to);
+    }
+
+    /**
+     * Streams the archived transactions of all accounts with a timestamp in {@code [from, to]}, like
+     * {@link #stream(String, LocalDateTime, LocalDateTime)}. Every block overlapping the range is decompressed.
+     */
+    public Stream<Transaction> stream(LocalDateTime from, LocalDateTime to) {
+        return stream(block -> block.overlaps(from, to), entry -> true, from, to);
+    }
+
+    private Stream<Transaction> stream(Predicate<SegmentIndex.Block> blocks, Predicate<ArchivedTransaction> entries,
+                                       LocalDateTime from, LocalDateTime to) {
+        return months(from, to).stream().flatMap(month -> {
+            Set<String> seen = new HashSet<>();
+            return segments(month).stream()
+                    .filter(segment -> index(segment).overlaps(from, to))
+                    .flatMap(segment -> index(segment).blocks().stream()
+                            .filter(blocks)
+                            .flatMap(block -> readBlock(segment, block).stream()))
+                    .filter(entry -> entries.test(entry)
+                            && (from == null || !entry.timestamp().isBefore(from))
+                            && (to == null || !entry.timestamp().isAfter(to))
+                            && seen.add(entry.id()))
+                    .map(ArchivedTransaction::toTransaction);
+        });
+    }
+
+    /**
+     * The archived months overlapping {@code [from, to]}, oldest first.
+     */
+    List<YearMonth> months(LocalDateTime from, LocalDateTime to) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.filter(Files::isDirectory)
+                    .map(path -> parseMonth(path.getFileName().toString()))
+                    .filter(month -> month != null
+                            && (from == null || !month.isBefore(YearMonth.from(from)))
+                            && (to == null || !month.isAfter(YearMonth.from(to))))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list archive " + directory, e);
+        }
+    }
+
+    private List<Path> segments(YearMonth month) {
+        try (Stream<Path> entries = Files.list(directory.resolve(month.toString()))) {
+            return entries.filter(path -> path.getFileName().toString().endsWith(INDEX_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list archive month " + month, e);
+        }
+    }
+
+    SegmentIndex index(Path indexFile) {
+        return indexes.get(indexFile, path -> {
+            try {
+                return indexMapper.readValue(path.toFile(), SegmentIndex.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read archive index " + path, e);
+            }
+        });
+    }
+
+    private List<ArchivedTransaction> readBlock(Path indexFile, SegmentIndex.Block block) {
+        String indexName = indexFile.getFileName().toString();
+        Path data = indexFile.resolveSibling(indexName.substring(0, indexName.length() - INDEX_SUFFIX.length()) + DATA_SUFFIX);
+        ByteBuffer compressed = ByteBuffer.allocate(block.length());
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            while (compressed.hasRemaining()) {
+                if (channel.read(compressed, block.offset() + compressed.position()) < 0) {
+                    throw new IOException("Archive segment " + data + " is truncated");
+                }
+            }
+            List<ArchivedTransaction> entries = new ArrayList<>(block.count());
+            try (MappingIterator<ArchivedTransaction> lines = lineReader.readValues(
+                    new GZIPInputStream(new ByteArrayInputStream(compressed.array())))) {
+                lines.forEachRemaining(entries::add);
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive segment " + data, e);
+        }
+    }
+
+    private byte[] compress(List<Transaction> block) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes, 64 * 1024)) {
+            for (Transaction transaction : block) {
+                gzip.write(lineWriter.writeValueAsBytes(ArchivedTransaction.of(transaction)));
+                gzip.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SegmentIndex.Block blockIndex(List<Transaction> block, long offset, int length) {
+        Set<String> accounts = new HashSet<>();
+        block.forEach(transaction -> accounts.add(transaction.getAccountId()));
+        BloomFilter bloom = BloomFilter.forKeys(accounts.size());
+        accounts.forEach(bloom::add);
+        LocalDateTime from = block.get(0).getTimestamp();
+        LocalDateTime to = from;
+        for (Transaction transaction : block) {
+            from = transaction.getTimestamp().isBefore(from) ? transaction.getTimestamp() : from;
+            to = transaction.getTimestamp().isAfter(to) ? transaction.getTimestamp() : to;
+        }
+        return new SegmentIndex.Block(offset, length, block.size(), from, to, bloom.bits());
+    }
+
+    private record CachedWatermark(LocalDateTime value, long readAt) {
+    }
+
+    private static YearMonth parseMonth(String name) {
+        try {
+            return YearMonth.parse(name);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.banking.archive;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.Currency;
+
+/**
+ * One line of an archive segment. Unlike the API representation of a {@link Transaction}, it keeps the ID and
+ * ledger sequence.
+ */
+record ArchivedTransaction(String id, String accountId, Transaction.TransactionType type, long amount,
+                           String currency, LocalDateTime timestamp, Long sequence) {
+
+    static ArchivedTransaction of(Transaction transaction) {
+        return new ArchivedTransaction(transaction.getId(), transaction.getAccountId(), transaction.getType(),
+                transaction.getAmount().getMinorUnits(), transaction.getAmount().getCurrency().getCurrencyCode(),
+                transaction.getTimestamp(), transaction.getSequence());
+    }
+
+    Transaction toTransaction() {
+        Transaction transaction = new Transaction(accountId, type, Money.ofMinor(amount, Currency.getInstance(currency)));
+        transaction.setId(id);
+        transaction.setTimestamp(timestamp);
+        transaction.setSequence(sequence);
+        return transaction;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.banking.archive;
+
+/**
+ * Fixed-size bloom filter over account IDs, used to skip archive blocks that hold no entry of an account.
+ * About 1% false positives at ten bits per key.
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASHES = 7;
+
+    private final long[] bits;
+
+    BloomFilter(long[] bits) {
+        this.bits = bits;
+    }
+
+    static BloomFilter forKeys(int expectedKeys) {
+        int words = Math.max(1, (expectedKeys * BITS_PER_KEY + 63) / 64);
+        return new BloomFilter(new long[words]);
+    }
+
+    long[] bits() {
+        return bits;
+    }
+
+    void add(String key) {
+        long size = bits.length * 64L;
+        int h1 = key.hashCode();
+        int h2 = secondHash(key);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, size);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String key) {
+        long size = bits.length * 64L;
+        int h1 = key.hashCode();
+        int h2 = secondHash(key);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, size);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a, independent of String.hashCode, forced odd so the probe sequence does not repeat early
+    private static int secondHash(String key) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash | 1;
+    }
+}
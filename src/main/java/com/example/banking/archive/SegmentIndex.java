@@ -0,0 +1,27 @@
+package com.example.banking.archive;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sidecar index of an archive segment: the time range of the whole segment and, per gzip block, its byte range,
+ * time range and a bloom filter of the accounts in it. Stored as JSON next to the segment; its presence is what
+ * marks the segment as complete.
+ */
+record SegmentIndex(LocalDateTime from, LocalDateTime to, long count, List<Block> blocks) {
+
+    boolean overlaps(LocalDateTime rangeFrom, LocalDateTime rangeTo) {
+        return (rangeFrom == null || !to.isBefore(rangeFrom)) && (rangeTo == null || !from.isAfter(rangeTo));
+    }
+
+    record Block(long offset, int length, int count, LocalDateTime from, LocalDateTime to, long[] bloom) {
+
+        boolean matches(String accountId, LocalDateTime rangeFrom, LocalDateTime rangeTo) {
+            return overlaps(rangeFrom, rangeTo) && new BloomFilter(bloom).mightContain(accountId);
+        }
+
+        boolean overlaps(LocalDateTime rangeFrom, LocalDateTime rangeTo) {
+            return (rangeFrom == null || !to.isBefore(rangeFrom)) && (rangeTo == null || !from.isAfter(rangeTo));
+        }
+    }
+}
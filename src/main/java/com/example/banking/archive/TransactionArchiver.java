@@ -0,0 +1,190 @@
+package com.example.banking.archive;
+
+import com.example.banking.ledger.LedgerService;
+import com.example.banking.lock.ClusterLock;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Moves transactions older than {@code banking.archive.age} out of the transactions collection into the
+ * {@link ArchiveStore}, whole months at a time.
+ * <p>
+ * Each batch is written to segments, then the watermark is advanced past it, then it is deleted from Mongo. The
+ * delete waits for {@code banking.archive.watermark-refresh}, so instances that still see the old watermark find
+ * the batch in Mongo until they see the new one. Readers dedupe the two tiers by ID, so a run that stops part way
+ * leaves every transaction readable, and the next run repeats the unfinished batch.
+ * <p>
+ * Every instance may schedule the archiver: a run only proceeds on the instance holding the {@link ClusterLock},
+ * and only once its archive directory is registered as the shared one ({@link ArchiveStorageCheck}).
+ */
+@Component
+@ConditionalOnProperty(name = "banking.archive.enabled", havingValue = "true")
+public class TransactionArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    static final String LOCK = "transaction-archiver";
+
+    private final TransactionRepository transactionRepository;
+    private final ArchiveStore archiveStore;
+    private final LedgerService ledgerService;
+    private final ClusterLock clusterLock;
+    private final ArchiveStorageCheck storageCheck;
+    private final Duration age;
+    private final int segmentSize;
+    private final Duration lease;
+    private final long deleteDelayNanos;
+    private final Counter archivedCounter;
+
+    public TransactionArchiver(TransactionRepository transactionRepository,
+                               ArchiveStore archiveStore,
+                               LedgerService ledgerService,
+                               ClusterLock clusterLock,
+                               ArchiveStorageCheck storageCheck,
+                               MeterRegistry meterRegistry,
+                               @Value("${banking.archive.age:90d}") Duration age,
+                               @Value("${banking.archive.segment-size:20000}") int segmentSize,
+                               @Value("${banking.archive.lease:10m}") Duration lease,
+                               @Value("${banking.archive.watermark-refresh:10s}") Duration deleteDelay) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Archive segment size must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        this.archiveStore = archiveStore;
+        this.ledgerService = ledgerService;
+        this.clusterLock = clusterLock;
+        this.storageCheck = storageCheck;
+        this.age = age;
+        this.segmentSize = segmentSize;
+        this.lease = lease;
+        this.deleteDelayNanos = deleteDelay.toNanos();
+        this.archivedCounter = Counter.builder("banking.archive.transactions")
+                .description("Transactions moved from Mongo to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${banking.archive.interval-ms:3600000}")
+    public void archive() {
+        if (!clusterLock.tryAcquire(LOCK, lease)) {
+            logger.debug("Transaction archiver is running on another instance");
+            return;
+        }
+        LocalDateTime cutoff = YearMonth.from(LocalDateTime.now().minus(age)).atDay(1).atStartOfDay();
+        try {
+            storageCheck.register();
+            long archived = archiveBefore(cutoff);
+            logger.info("Archived {} transactions before {}", archived, cutoff);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Transaction archiving failed, will retry on next run", e);
+        } finally {
+            clusterLock.release(LOCK);
+        }
+    }
+
+    /**
+     * Archives every transaction before {@code cutoff}, one batch of at most {@code segment-size} at a time.
+     *
+     * @return the number of transactions archived.
+     */
+    long archiveBefore(LocalDateTime cutoff) {
+        long archived = 0;
+        Deque<PendingDelete> pendingDeletes = new ArrayDeque<>();
+        try {
+            while (true) {
+                List<Transaction> batch = transactionRepository.findArchivable(cutoff, segmentSize);
+                if (batch.size() < segmentSize) {
+                    archived += archiveBatch(batch, cutoff, pendingDeletes);
+                    return archived;
+                }
+                // Only a full timestamp is moved below the watermark, so the batch stops before the last one
+                LocalDateTime boundary = batch.get(batch.size() - 1).getTimestamp();
+                List<Transaction> complete = batch.stream().filter(transaction -> transaction.getTimestamp().isBefore(boundary)).toList();
+                if (complete.isEmpty()) {
+                    // The whole batch shares one timestamp: take every transaction at it
+                    LocalDateTime next = boundary.plusNanos(1);
+                    archived += archiveBatch(transactionRepository.findArchivable(next, 0), next, pendingDeletes);
+                } else {
+                    archived += archiveBatch(complete, boundary, pendingDeletes);
+                }
+                if (!clusterLock.tryAcquire(LOCK, lease)) {
+                    logger.error("Transaction archiver lost its lock after archiving {} transactions", archived);
+                    throw new IllegalStateException("Transaction archiver lock was taken over");
+                }
+            }
+        } finally {
+            deletePending(pendingDeletes, true);
+        }
+    }
+
+    private int archiveBatch(List<Transaction> batch, LocalDateTime watermark, Deque<PendingDelete> pendingDeletes) {
+        try {
+            if (!batch.isEmpty()) {
+                // Ledger balances are a checkpoint plus the entries after it, so no entry may leave before its checkpoint
+                Set<String> ledgerAccounts = batch.stream()
+                        .filter(transaction -> transaction.getSequence() != null)
+                        .map(Transaction::getAccountId)
+                        .collect(Collectors.toSet());
+                if (!ledgerAccounts.isEmpty()) {
+                    ledgerService.checkpoint(ledgerAccounts);
+                }
+                Map<YearMonth, List<Transaction>> months = batch.stream().collect(Collectors.groupingBy(
+                        transaction -> YearMonth.from(transaction.getTimestamp()), LinkedHashMap::new, Collectors.toList()));
+                for (Map.Entry<YearMonth, List<Transaction>> month : months.entrySet()) {
+                    archiveStore.write(month.getKey(), month.getValue());
+                }
+            }
+            archiveStore.advanceWatermark(watermark);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment", e);
+        }
+        if (!batch.isEmpty()) {
+            pendingDeletes.add(new PendingDelete(batch.stream().map(Transaction::getId).toList(),
+                    System.nanoTime() + deleteDelayNanos));
+            archivedCounter.increment(batch.size());
+        }
+        deletePending(pendingDeletes, false);
+        return batch.size();
+    }
+
+    /**
+     * Deletes the archived batches whose delay has passed, or with {@code wait} all of them, waiting as needed.
+     */
+    private void deletePending(Deque<PendingDelete> pendingDeletes, boolean wait) {
+        while (!pendingDeletes.isEmpty()) {
+            long remaining = pendingDeletes.peek().dueNanos() - System.nanoTime();
+            if (remaining > 0) {
+                if (!wait) {
+                    return;
+                }
+                LockSupport.parkNanos(remaining);
+                continue;
+            }
+            transactionRepository.deleteAllById(pendingDeletes.poll().ids());
+        }
+    }
+
+    private record PendingDelete(List<String> ids, long dueNanos) {
+    }
+}
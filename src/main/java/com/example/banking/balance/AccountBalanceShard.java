@@ -0,0 +1,57 @@
+package com.example.banking.balance;
+
+import com.example.banking.model.Money;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One slot of a sharded account balance. The account's balance is its own balance field plus all of its slots.
+ */
+@Document(collection = "account_balance_shards")
+public class AccountBalanceShard {
+
+    @Id
+    private String id;
+
+    private String accountId;
+
+    private int slot;
+
+    private Money balance;
+
+    public static String id(String accountId, int slot) {
+        return accountId + ":" + slot;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Money balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.banking.balance;
+
+import com.example.banking.model.Money;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Rewrites account balances stored as strings, the default mapping of the {@code BigDecimal} balances from before
+ * {@link Money}, as Decimal128. Until then the server-side debit never matches such an account (a string never
+ * compares {@code $gte} a number) and a credit fails on it.
+ * <p>
+ * Values with more decimal places than the currency has are rounded half-even, as they are when read, and logged.
+ * Each update only matches the string it read, so the job can run next to live traffic and be re-run safely.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.migration.balances.enabled", havingValue = "true")
+public class BalanceMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceMigration.class);
+
+    private static final String ACCOUNTS = "accounts";
+    private static final String BALANCE = "balance";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${banking.migration.balances.batch-size:500}")
+    private int batchSize;
+
+    public BalanceMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Migrates all accounts whose balance is still a string.
+     *
+     * @return the number of migrated accounts.
+     */
+    public int migrate() {
+        logger.info("Migrating string account balances to Decimal128");
+        int migrated = 0;
+        String lastId = null;
+        while (true) {
+            Criteria criteria = Criteria.where(BALANCE).type(2);
+            if (lastId != null) {
+                criteria = criteria.and("_id").gt(lastId);
+            }
+            Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+            query.fields().include(BALANCE);
+
+            List<Document> accounts = mongoTemplate.find(query, Document.class, ACCOUNTS);
+            if (accounts.isEmpty()) {
+                break;
+            }
+            for (Document account : accounts) {
+                if (migrateAccount(account)) {
+                    migrated++;
+                }
+            }
+            lastId = accounts.get(accounts.size() - 1).getString("_id");
+            logger.info("Migrated balances of {} accounts so far", migrated);
+        }
+        logger.info("Balance migration completed: {} accounts migrated", migrated);
+        return migrated;
+    }
+
+    boolean migrateAccount(Document account) {
+        String accountId = account.getString("_id");
+        String stored = account.getString(BALANCE);
+        BigDecimal balance;
+        try {
+            balance = new BigDecimal(stored.trim());
+        } catch (NumberFormatException e) {
+            logger.error("Balance migration skipped account {}: Balance '{}' is not a number", accountId, stored);
+            return false;
+        }
+        BigDecimal rounded = balance.setScale(Money.DEFAULT_CURRENCY.getDefaultFractionDigits(), RoundingMode.HALF_EVEN);
+        if (rounded.compareTo(balance) != 0) {
+            logger.warn("Balance of account {} rounded from {} to {}", accountId, balance.toPlainString(),
+                    rounded.toPlainString());
+        }
+        // Matching the string read keeps a balance changed in between from being overwritten
+        Query query = Query.query(Criteria.where("_id").is(accountId).and(BALANCE).is(stored));
+        return mongoTemplate.updateFirst(query, new Update().set(BALANCE, new Decimal128(rounded)), ACCOUNTS)
+                .getModifiedCount() == 1;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.banking.balance;
+
+import com.example.banking.exception.BalanceContentionException;
+import com.example.banking.model.Money;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opt-in sub-balances for hot accounts.
+ * <p>
+ * A sharded account's balance is its own balance field plus the balances of its slots in the
+ * {@code account_balance_shards} collection. Credits go to a random slot, so concurrent credits to the same
+ * account update different documents instead of queueing on one. Debits try a single slot first and otherwise
+ * draw across the account's balance and all slots. Slot counts can only grow, so no slot is ever abandoned
+ * while another node still credits it.
+ */
+@Service
+public class ShardedBalanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedBalanceService.class);
+
+    private static final int MAX_DEBIT_ATTEMPTS = 3;
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceShardRepository shardRepository;
+    private final int maxShards;
+    private final Cache<String, Integer> shardCounts;
+    private final Cache<String, Money> shardTotals;
+
+    public ShardedBalanceService(AccountRepository accountRepository,
+                                 AccountBalanceShardRepository shardRepository,
+                                 @Value("${banking.balance.shards.max:64}") int maxShards,
+                                 @Value("${banking.balance.shards.count-cache-ttl:30s}") Duration countCacheTtl,
+                                 @Value("${banking.balance.shards.read-cache-ttl:500ms}") Duration readCacheTtl) {
+        this.accountRepository = accountRepository;
+        this.shardRepository = shardRepository;
+        this.maxShards = maxShards;
+        this.shardCounts = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(countCacheTtl).build();
+        this.shardTotals = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(readCacheTtl).build();
+    }
+
+    /**
+     * Splits the balance of an account into {@code shards} slots. Existing funds stay where they are.
+     */
+    public void enableSharding(String accountId, int shards) {
+        logger.info("Enabling {} balance shards for account {}", shards, accountId);
+        if (shards < 2 || shards > maxShards) {
+            logger.error("Balance sharding failed: Shard count {} outside of [2, {}]", shards, maxShards);
+            throw new IllegalArgumentException("Balance shard count must be between 2 and " + maxShards);
+        }
+
+        Integer current = accountRepository.findBalanceShards(accountId);
+        if (current == null) {
+            logger.error("Balance sharding failed: Account ID {} not found", accountId);
+            throw new IllegalArgumentException("Account not found with ID: " + accountId);
+        }
+        if (shards < current) {
+            logger.error("Balance sharding failed: Account {} already has {} shards", accountId, current);
+            throw new IllegalArgumentException("Balance shard count can only be increased, account has " + current);
+        }
+        if (shards > current && !accountRepository.increaseBalanceShards(accountId, shards)) {
+            logger.error("Balance sharding failed: Shard count of account {} changed concurrently", accountId);
+            throw new IllegalArgumentException("Balance shard count of account " + accountId + " changed concurrently");
+        }
+
+        shardCounts.invalidate(accountId);
+        logger.info("Balance shards enabled for account {}: {}", accountId, shards);
+    }
+
+    public boolean isSharded(String accountId) {
+        return shardCount(accountId) > 1;
+    }
+
+    /**
+     * Credits a random slot of a sharded account.
+     */
+    public void credit(String accountId, Money amount) {
+        int slot = ThreadLocalRandom.current().nextInt(shardCount(accountId));
+        shardRepository.credit(accountId, slot, amount);
+    }
+
+    /**
+     * Debits a sharded account if its balance across all slots covers {@code amount}.
+     * Callers must hold the account's lock so local debits do not compete for the same slots.
+     *
+     * @return {@code false} if the balance is insufficient.
+     * @throws BalanceContentionException if the balance covers the amount but the slots kept changing while they
+     *                                    were drained.
+     */
+    public boolean debit(String accountId, Money amount) {
+        // Usually a single slot covers the amount, which costs one conditional update
+        int slot = ThreadLocalRandom.current().nextInt(shardCount(accountId));
+        if (shardRepository.debitIfSufficient(accountId, slot, amount)) {
+            return true;
+        }
+
+        for (int attempt = 0; attempt < MAX_DEBIT_ATTEMPTS; attempt++) {
+            List<Map.Entry<Integer, Money>> sources = loadSources(accountId);
+            Money total = Money.sum(sources.stream().map(Map.Entry::getValue).toList());
+            if (total.compareTo(amount) < 0) {
+                return false;
+            }
+            if (drain(accountId, amount, sources)) {
+                return true;
+            }
+            logger.warn("Balance shards of account {} changed during debit, retrying", accountId);
+        }
+        logger.error("Debit failed: Balance shards of account {} kept changing during {} attempts", accountId,
+                MAX_DEBIT_ATTEMPTS);
+        throw new BalanceContentionException("Balance of account " + accountId + " is changing too fast, try again");
+    }
+
+    /**
+     * Returns the account balance including all slots. The slot total is cached briefly, so reads of hot
+     * accounts may lag behind concurrent writes by up to the read cache TTL.
+     */
+    public Money totalBalance(String accountId, Money accountBalance) {
+        Money shards = shardTotals.get(accountId, id -> Money.sum(shardRepository.findByAccountId(id).stream()
+                .map(AccountBalanceShard::getBalance)
+                .toList()));
+        return accountBalance == null ? shards : accountBalance.plus(shards);
+    }
+
+    /**
+     * Returns the exact account balance including all slots, bypassing the read cache.
+     */
+    public Money currentBalance(String accountId, Money accountBalance) {
+        shardTotals.invalidate(accountId);
+        return totalBalance(accountId, accountBalance);
+    }
+
+    private int shardCount(String accountId) {
+        return shardCounts.get(accountId, id -> {
+            Integer shards = accountRepository.findBalanceShards(id);
+            return shards == null ? 0 : shards;
+        });
+    }
+
+    /**
+     * Balance sources of an account, largest first. Slot {@code -1} stands for the account's own balance.
+     */
+    private List<Map.Entry<Integer, Money>> loadSources(String accountId) {
+        List<Map.Entry<Integer, Money>> sources = new ArrayList<>();
+        Money accountBalance = accountRepository.findBalances(List.of(accountId)).get(accountId);
+        if (accountBalance != null && accountBalance.signum() > 0) {
+            sources.add(Map.entry(-1, accountBalance));
+        }
+        for (AccountBalanceShard shard : shardRepository.findByAccountId(accountId)) {
+            if (shard.getBalance() != null && shard.getBalance().signum() > 0) {
+                sources.add(Map.entry(shard.getSlot(), shard.getBalance()));
+            }
+        }
+        sources.sort(Map.Entry.<Integer, Money>comparingByValue(Comparator.reverseOrder()));
+        return sources;
+    }
+
+    /**
+     * Takes {@code amount} from the given sources with conditional updates. If a source no longer holds what
+     * was read, everything taken so far is put back and {@code false} is returned.
+     */
+    private boolean drain(String accountId, Money amount, List<Map.Entry<Integer, Money>> sources) {
+        List<Map.Entry<Integer, Money>> taken = new ArrayList<>();
+        Money remaining = amount;
+        for (Map.Entry<Integer, Money> source : sources) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            Money portion = source.getValue().min(remaining);
+            if (!take(accountId, source.getKey(), portion)) {
+                taken.forEach(entry -> restore(accountId, entry.getKey(), entry.getValue()));
+                return false;
+            }
+            taken.add(Map.entry(source.getKey(), portion));
+            remaining = remaining.minus(portion);
+        }
+        return true;
+    }
+
+    private boolean take(String accountId, int slot, Money amount) {
+        return slot < 0
+                ? accountRepository.debitIfSufficient(accountId, amount)
+                : shardRepository.debitIfSufficient(accountId, slot, amount);
+    }
+
+    private void restore(String accountId, int slot, Money amount) {
+        if (slot < 0) {
+            accountRepository.credit(accountId, amount);
+        } else {
+            shardRepository.credit(accountId, slot, amount);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.banking.cache;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.Money;
+import com.example.banking.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache of accounts by ID and of account IDs by customer, bounded in size and age.
+ * <p>
+ * Writers invalidate the affected entries synchronously once their update is done. Balances are handled
+ * separately: with {@code bypass-balance} every read fetches the current balances in one projected query, otherwise
+ * a cached balance is served until it is older than {@code balance-staleness} and then re-read. Entries are stamped
+ * before their read is issued, so the staleness bound also holds for an entry loaded concurrently with a write.
+ * <p>
+ * Callers always get a copy and may modify it freely.
+ */
+@Component
+public class AccountCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountCache.class);
+
+    private final AccountRepository accountRepository;
+    private final Cache<String, CachedAccount> accounts;
+    private final Cache<String, List<String>> customerAccountIds;
+    private final boolean bypassBalance;
+    private final long balanceStalenessNanos;
+    private final Counter balanceReadCounter;
+
+    public AccountCache(AccountRepository accountRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${banking.cache.accounts.maximum-size:10000}") long maximumSize,
+                        @Value("${banking.cache.accounts.ttl:5m}") Duration ttl,
+                        @Value("${banking.cache.accounts.bypass-balance:false}") boolean bypassBalance,
+                        @Value("${banking.cache.accounts.balance-staleness:1s}") Duration balanceStaleness) {
+        this.accountRepository = accountRepository;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.customerAccountIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.bypassBalance = bypassBalance;
+        this.balanceStalenessNanos = balanceStaleness.toNanos();
+
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size per cache
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, "accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, customerAccountIds, "customerAccounts");
+        this.balanceReadCounter = Counter.builder("banking.cache.accounts.balance.reads")
+                .description("Balance reads issued for cached accounts, because of bypass or staleness")
+                .register(meterRegistry);
+    }
+
+    public Optional<Account> get(String accountId) {
+        CachedAccount cached = accounts.get(accountId, this::load);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        return withCurrentBalances(List.of(cached)).stream().findFirst();
+    }
+
+    public List<Account> getByCustomerId(String customerId) {
+        List<String> ids = customerAccountIds.get(customerId, this::loadCustomer);
+        Map<String, CachedAccount> cached = accounts.getAll(ids, this::loadAll);
+        List<CachedAccount> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            CachedAccount entry = cached.get(id);
+            if (entry != null) {
+                ordered.add(entry);
+            }
+        }
+        return withCurrentBalances(ordered);
+    }
+
+    /**
+     * Drops the given accounts. Call after every write to their balance or settings.
+     */
+    public void invalidate(Collection<String> accountIds) {
+        accounts.invalidateAll(accountIds);
+        logger.debug("Invalidated cached accounts {}", accountIds);
+    }
+
+    /**
+     * Drops the cached account list of a customer. Call after an account of the customer has been created.
+     */
+    public void invalidateCustomer(String customerId) {
+        if (customerId == null) {
+            return;
+        }
+        customerAccountIds.invalidate(customerId);
+        logger.debug("Invalidated cached accounts of customer {}", customerId);
+    }
+
+    private CachedAccount load(String accountId) {
+        long readNanos = System.nanoTime();
+        return accountRepository.findById(accountId)
+                .map(account -> new CachedAccount(account, readNanos))
+                .orElse(null);
+    }
+
+    private Map<String, CachedAccount> loadAll(Collection<? extends String> accountIds) {
+        long readNanos = System.nanoTime();
+        Map<String, CachedAccount> loaded = new HashMap<>();
+        accountRepository.findAllById(List.copyOf(accountIds))
+                .forEach(account -> loaded.put(account.getId(), new CachedAccount(account, readNanos)));
+        return loaded;
+    }
+
+    private List<String> loadCustomer(String customerId) {
+        long readNanos = System.nanoTime();
+        List<String> ids = new ArrayList<>();
+        for (Account account : accountRepository.findByCustomerId(customerId)) {
+            ids.add(account.getId());
+            // Seed the account entries too, the customer's accounts are usually read next
+            accounts.asMap().putIfAbsent(account.getId(), new CachedAccount(account, readNanos));
+        }
+        return List.copyOf(ids);
+    }
+
+    /**
+     * Copies the cached accounts, re-reading the balances that are bypassed or too old in a single query.
+     */
+    private List<Account> withCurrentBalances(List<CachedAccount> cached) {
+        long now = System.nanoTime();
+        Set<String> stale = new HashSet<>();
+        for (CachedAccount entry : cached) {
+            if (bypassBalance || now - entry.balanceReadNanos() > balanceStalenessNanos) {
+                stale.add(entry.account().getId());
+            }
+        }
+
+        Map<String, Money> balances = Map.of();
+        if (!stale.isEmpty()) {
+            balanceReadCounter.increment(stale.size());
+            balances = accountRepository.findBalances(stale);
+        }
+
+        List<Account> result = new ArrayList<>(cached.size());
+        for (CachedAccount entry : cached) {
+            Account account = entry.account().copy();
+            if (stale.contains(account.getId())) {
+                Money balance = balances.get(account.getId());
+                if (balance == null) {
+                    // Deleted since it was cached
+                    accounts.asMap().remove(account.getId(), entry);
+                    continue;
+                }
+                account.setBalance(balance);
+                if (!bypassBalance) {
+                    // Only replace the entry we read; a concurrent invalidation wins
+                    accounts.asMap().replace(account.getId(), entry, new CachedAccount(account.copy(), now));
+                }
+            }
+            result.add(account);
+        }
+        return result;
+    }
+
+    private record CachedAccount(Account account, long balanceReadNanos) {
+    }
+}
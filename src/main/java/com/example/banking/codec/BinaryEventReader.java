@@ -0,0 +1,123 @@
+package com.example.banking.codec;
+
+import com.example.banking.model.Money;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Reads the primitives written by {@link BinaryEventWriter}. Every read throws an {@link IllegalArgumentException}
+ * if the bytes end early or are not a valid encoding.
+ */
+class BinaryEventReader {
+
+    private final byte[] bytes;
+    private int position;
+
+    BinaryEventReader(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.position = offset;
+    }
+
+    int readByte() {
+        require(1);
+        return bytes[position++] & 0xFF;
+    }
+
+    int readInt() {
+        require(4);
+        int value = (bytes[position] & 0xFF) << 24 | (bytes[position + 1] & 0xFF) << 16
+                | (bytes[position + 2] & 0xFF) << 8 | (bytes[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    long readVarLong() {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 10 bytes at " + position);
+    }
+
+    int readVarInt() {
+        long value = readVarLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Integer out of range at " + position);
+        }
+        return (int) value;
+    }
+
+    Long readNullableLong() {
+        return readMarker() ? readVarLong() : null;
+    }
+
+    String readString() {
+        long length = readVarLong() - 1;
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    Money readMoney() {
+        int marker = readByte();
+        Currency currency = switch (marker) {
+            case 0 -> null;
+            case 1 -> Money.DEFAULT_CURRENCY;
+            case 2 -> Currency.getInstance(readString());
+            default -> throw new IllegalArgumentException("Invalid money marker " + marker);
+        };
+        return currency == null ? null : Money.ofMinor(readVarLong(), currency);
+    }
+
+    LocalDateTime readTimestamp() {
+        if (!readMarker()) {
+            return null;
+        }
+        long seconds = readVarLong();
+        return LocalDateTime.ofEpochSecond(seconds, readVarInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Reads an enum written as the position of its symbol in the writer's schema, and maps it by name.
+     */
+    <E extends Enum<E>> E readEnum(Class<E> type, List<String> symbols) {
+        int index = readVarInt() - 1;
+        if (index < 0) {
+            return null;
+        }
+        if (index >= symbols.size()) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " symbol " + index);
+        }
+        return Enum.valueOf(type, symbols.get(index));
+    }
+
+    boolean hasRemaining() {
+        return position < bytes.length;
+    }
+
+    private boolean readMarker() {
+        int marker = readByte();
+        if (marker > 1) {
+            throw new IllegalArgumentException("Invalid null marker " + marker);
+        }
+        return marker == 1;
+    }
+
+    private void require(long length) {
+        if (bytes.length - position < length) {
+            throw new IllegalArgumentException("Event ends early at " + position);
+        }
+    }
+}
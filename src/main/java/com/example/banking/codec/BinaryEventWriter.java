@@ -0,0 +1,105 @@
+package com.example.banking.codec;
+
+import com.example.banking.model.Money;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Appends the primitives of the binary event encoding to a growing byte array. Integers are zigzag varints, so
+ * small magnitudes of either sign take one or two bytes. Nullable values start with a marker that is {@code 0}
+ * for null.
+ */
+class BinaryEventWriter {
+
+    private byte[] bytes;
+    private int size;
+
+    BinaryEventWriter(int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    void writeByte(int b) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) b;
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(4);
+        bytes[size++] = (byte) (value >>> 24);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        bytes[size++] = (byte) zigzag;
+    }
+
+    void writeNullableLong(Long value) {
+        writeByte(value == null ? 0 : 1);
+        if (value != null) {
+            writeVarLong(value);
+        }
+    }
+
+    // The length plus one, then the UTF-8 bytes
+    void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(utf8.length + 1L);
+        ensureCapacity(utf8.length);
+        System.arraycopy(utf8, 0, bytes, size, utf8.length);
+        size += utf8.length;
+    }
+
+    // 0 for null, 1 for the default currency, 2 followed by the currency code; then the minor units
+    void writeMoney(Money money) {
+        if (money == null) {
+            writeByte(0);
+            return;
+        }
+        if (money.getCurrency().equals(Money.DEFAULT_CURRENCY)) {
+            writeByte(1);
+        } else {
+            writeByte(2);
+            writeString(money.getCurrency().getCurrencyCode());
+        }
+        writeVarLong(money.getMinorUnits());
+    }
+
+    // Seconds since the epoch as if in UTC, then nanoseconds
+    void writeTimestamp(LocalDateTime timestamp) {
+        writeByte(timestamp == null ? 0 : 1);
+        if (timestamp != null) {
+            writeVarLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+            writeVarLong(timestamp.getNano());
+        }
+    }
+
+    // The position of the symbol plus one
+    void writeEnum(Enum<?> value) {
+        writeVarLong(value == null ? 0 : value.ordinal() + 1L);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+}
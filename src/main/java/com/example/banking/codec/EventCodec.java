@@ -0,0 +1,240 @@
+package com.example.banking.codec;
+
+import com.example.banking.event.TransferEvent;
+import com.example.banking.model.Account;
+import com.example.banking.model.Customer;
+import com.example.banking.model.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the events of each topic as JSON or, for the topics in {@code banking.events.binary-topics}, in a compact
+ * binary form.
+ * <p>
+ * JSON events are the UTF-8 JSON the topics have always carried. A binary event is a zero byte, the 4-byte ID of
+ * its {@link EventSchema} in the {@link SchemaRegistry}, and the body laid out as that schema says. Unlike the JSON
+ * form, binary bodies carry the entity IDs. JSON never starts with a zero byte, so decoding tells the two apart
+ * and a topic can be switched while events of the other encoding are still on it.
+ */
+@Component
+public class EventCodec {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventCodec.class);
+
+    static final byte MAGIC = 0;
+    private static final int INITIAL_CAPACITY = 128;
+
+    private final SchemaRegistry schemaRegistry;
+    private final Set<String> binaryTopics;
+    private final Map<String, JavaType> jsonTypes;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final Map<Integer, List<String>> typeSymbols = new ConcurrentHashMap<>();
+    private final int accountSchemaId;
+    private final int customerSchemaId;
+    private final int transactionsSchemaId;
+    private final int transferSchemaId;
+
+    public EventCodec(SchemaRegistry schemaRegistry,
+                      @Value("${banking.events.binary-topics:}") List<String> binaryTopics,
+                      @Value("${kafka.topic.account-events}") String accountEventsTopic,
+                      @Value("${kafka.topic.customer-events}") String customerEventsTopic,
+                      @Value("${kafka.topic.transaction-events}") String transactionEventsTopic,
+                      @Value("${kafka.topic.transfer-events}") String transferEventsTopic) {
+        this.schemaRegistry = schemaRegistry;
+        this.binaryTopics = Set.copyOf(binaryTopics);
+        // JSON carries no schema ID, so the topic says what to decode it into
+        this.jsonTypes = Map.of(
+                accountEventsTopic, objectMapper.constructType(Account.class),
+                customerEventsTopic, objectMapper.constructType(Customer.class),
+                transactionEventsTopic, objectMapper.getTypeFactory().constructCollectionType(List.class, Transaction.class),
+                transferEventsTopic, objectMapper.constructType(TransferEvent.class));
+        this.accountSchemaId = schemaRegistry.register(EventSchema.ACCOUNT);
+        this.customerSchemaId = schemaRegistry.register(EventSchema.CUSTOMER);
+        this.transactionsSchemaId = schemaRegistry.register(EventSchema.TRANSACTIONS);
+        this.transferSchemaId = schemaRegistry.register(EventSchema.TRANSFER);
+        logger.info("Event encoding: binary for {}, JSON for other topics", this.binaryTopics);
+    }
+
+    public boolean isBinary(String topic) {
+        return binaryTopics.contains(topic);
+    }
+
+    /**
+     * Encodes an event of the topic: an {@link Account}, a {@link Customer}, a list of {@link Transaction}s or a
+     * {@link TransferEvent}. On JSON topics any object Jackson can serialize is accepted.
+     *
+     * @throws IllegalArgumentException if the topic is binary and the event is none of those.
+     */
+    public byte[] encode(String topic, Object event) {
+        if (!isBinary(topic)) {
+            return encodeJson(event);
+        }
+        BinaryEventWriter writer = new BinaryEventWriter(INITIAL_CAPACITY);
+        writer.writeByte(MAGIC);
+        if (event instanceof Account account) {
+            writer.writeInt(accountSchemaId);
+            writeAccount(writer, account);
+        } else if (event instanceof Customer customer) {
+            writer.writeInt(customerSchemaId);
+            writeCustomer(writer, customer);
+        } else if (event instanceof TransferEvent transfer) {
+            writer.writeInt(transferSchemaId);
+            writeTransfer(writer, transfer);
+        } else if (event instanceof List<?> list && list.stream().allMatch(Transaction.class::isInstance)) {
+            writer.writeInt(transactionsSchemaId);
+            writer.writeVarLong(list.size());
+            for (Object transaction : list) {
+                writeTransaction(writer, (Transaction) transaction);
+            }
+        } else {
+            logger.error("Event encoding failed: No binary schema for {} on topic {}",
+                    event == null ? null : event.getClass().getSimpleName(), topic);
+            throw new IllegalArgumentException("No binary schema for event " + event);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes an event encoded by {@link #encode}. JSON events of topics other than the four event topics are
+     * returned as a {@link com.fasterxml.jackson.databind.JsonNode}.
+     *
+     * @throws IllegalArgumentException if the bytes are not a valid event or name an unknown schema.
+     */
+    public Object decode(String topic, byte[] data) {
+        if (data.length > 0 && data[0] == MAGIC) {
+            return decodeBinary(data);
+        }
+        try {
+            JavaType type = jsonTypes.get(topic);
+            return type == null ? objectMapper.readTree(data) : objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON event on topic " + topic, e);
+        }
+    }
+
+    private byte[] encodeJson(Object event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize event: " + event, e);
+        }
+    }
+
+    private Object decodeBinary(byte[] data) {
+        BinaryEventReader reader = new BinaryEventReader(data, 1);
+        int schemaId = reader.readInt();
+        EventSchema schema = schemaRegistry.lookup(schemaId);
+        if (schema.version() != 1) {
+            throw new IllegalArgumentException("Unsupported version " + schema.version() + " of schema "
+                    + schema.name());
+        }
+        Object event = switch (schema.name()) {
+            case "account" -> readAccount(reader);
+            case "customer" -> readCustomer(reader);
+            case "transfer" -> readTransfer(reader);
+            case "transactions" -> {
+                int count = reader.readVarInt();
+                if (count < 0) {
+                    throw new IllegalArgumentException("Negative transaction count");
+                }
+                List<String> symbols = typeSymbols.computeIfAbsent(schemaId, id -> enumSymbols(schema, "type"));
+                List<Transaction> transactions = new ArrayList<>(Math.min(count, data.length));
+                for (int i = 0; i < count; i++) {
+                    transactions.add(readTransaction(reader, symbols));
+                }
+                yield transactions;
+            }
+            default -> throw new IllegalArgumentException("Unknown schema " + schema.name());
+        };
+        if (reader.hasRemaining()) {
+            throw new IllegalArgumentException("Unexpected bytes after " + schema.name() + " event");
+        }
+        return event;
+    }
+
+    private static void writeAccount(BinaryEventWriter writer, Account account) {
+        writer.writeString(account.getId());
+        writer.writeString(account.getCustomerId());
+        writer.writeMoney(account.getBalance());
+        writer.writeVarLong(account.getBalanceShards());
+        writer.writeNullableLong(account.getTransactionCount());
+    }
+
+    private static Account readAccount(BinaryEventReader reader) {
+        Account account = new Account();
+        account.setId(reader.readString());
+        account.setCustomerId(reader.readString());
+        account.setBalance(reader.readMoney());
+        account.setBalanceShards(reader.readVarInt());
+        account.setTransactionCount(reader.readNullableLong());
+        return account;
+    }
+
+    private static void writeCustomer(BinaryEventWriter writer, Customer customer) {
+        writer.writeString(customer.getId());
+        writer.writeString(customer.getName());
+        writer.writeString(customer.getEmail());
+        writer.writeString(customer.getPhoneNumber());
+    }
+
+    private static Customer readCustomer(BinaryEventReader reader) {
+        Customer customer = new Customer();
+        customer.setId(reader.readString());
+        customer.setName(reader.readString());
+        customer.setEmail(reader.readString());
+        customer.setPhoneNumber(reader.readString());
+        return customer;
+    }
+
+    private static void writeTransaction(BinaryEventWriter writer, Transaction transaction) {
+        writer.writeString(transaction.getId());
+        writer.writeString(transaction.getAccountId());
+        writer.writeEnum(transaction.getType());
+        writer.writeMoney(transaction.getAmount());
+        writer.writeTimestamp(transaction.getTimestamp());
+        writer.writeNullableLong(transaction.getSequence());
+    }
+
+    private static Transaction readTransaction(BinaryEventReader reader, List<String> typeSymbols) {
+        String id = reader.readString();
+        String accountId = reader.readString();
+        Transaction.TransactionType type = reader.readEnum(Transaction.TransactionType.class, typeSymbols);
+        Transaction transaction = new Transaction(id, accountId, type, reader.readMoney(), reader.readTimestamp());
+        transaction.setSequence(reader.readNullableLong());
+        return transaction;
+    }
+
+    private static void writeTransfer(BinaryEventWriter writer, TransferEvent transfer) {
+        writer.writeString(transfer.getFromAccountId());
+        writer.writeString(transfer.getToAccountId());
+        writer.writeMoney(transfer.getAmount());
+    }
+
+    private static TransferEvent readTransfer(BinaryEventReader reader) {
+        return new TransferEvent(reader.readString(), reader.readString(), reader.readMoney());
+    }
+
+    // The symbols of a name:enum(A,B,C) field, in the order the writer numbered them
+    private static List<String> enumSymbols(EventSchema schema, String field) {
+        String prefix = field + ":enum(";
+        for (String definition : schema.fields()) {
+            if (definition.startsWith(prefix) && definition.endsWith(")")) {
+                return List.of(definition.substring(prefix.length(), definition.length() - 1).split(","));
+            }
+        }
+        throw new IllegalArgumentException("Schema " + schema.name() + " has no enum field " + field);
+    }
+}
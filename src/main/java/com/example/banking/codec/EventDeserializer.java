@@ -0,0 +1,28 @@
+package com.example.banking.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka {@link Deserializer} for events of either encoding; see {@link EventCodec#decode}.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    private final EventCodec eventCodec;
+
+    public EventDeserializer(EventCodec eventCodec) {
+        this.eventCodec = eventCodec;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return eventCodec.decode(topic, data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Could not decode event on topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.banking.codec;
+
+import java.util.List;
+
+/**
+ * The layout of one version of a binary event body: its fields in the order they are written, each as
+ * {@code name:type}. Enum fields list their symbols, since they are written as the position in that list; the
+ * fields after a {@code count} field repeat that many times.
+ * <p>
+ * A body layout never changes once registered; a changed layout is a new version with its own schema ID, and
+ * readers keep decoding the versions before it.
+ */
+public record EventSchema(String name, int version, List<String> fields) {
+
+    public static final EventSchema ACCOUNT = new EventSchema("account", 1, List.of(
+            "id:string", "customerId:string", "balance:money", "balanceShards:int", "transactionCount:long"));
+
+    public static final EventSchema CUSTOMER = new EventSchema("customer", 1, List.of(
+            "id:string", "name:string", "email:string", "phoneNumber:string"));
+
+    public static final EventSchema TRANSACTIONS = new EventSchema("transactions", 1, List.of(
+            "count:int", "id:string", "accountId:string", "type:enum(DEPOSIT,WITHDRAWAL,TRANSFER)", "amount:money",
+            "timestamp:timestamp", "sequence:long"));
+
+    public static final EventSchema TRANSFER = new EventSchema("transfer", 1, List.of(
+            "fromAccountId:string", "toAccountId:string", "amount:money"));
+
+    public static final List<EventSchema> ALL = List.of(ACCOUNT, CUSTOMER, TRANSACTIONS, TRANSFER);
+}
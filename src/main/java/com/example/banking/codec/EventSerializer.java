@@ -0,0 +1,24 @@
+package com.example.banking.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka {@link Serializer} that encodes events with the {@link EventCodec} for their topic. Events that are
+ * already encoded, as the outbox stores them, are passed through unchanged.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    private final EventCodec eventCodec;
+
+    public EventSerializer(EventCodec eventCodec) {
+        this.eventCodec = eventCodec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object event) {
+        if (event == null || event instanceof byte[]) {
+            return (byte[]) event;
+        }
+        return eventCodec.encode(topic, event);
+    }
+}
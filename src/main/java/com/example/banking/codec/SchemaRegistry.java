@@ -0,0 +1,118 @@
+package com.example.banking.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A local, file-based stand-in for a schema registry. Each schema is a JSON file named after its ID in
+ * {@code directory}; producers and consumers pointed at the same directory agree on the IDs.
+ * <p>
+ * Registering a schema that is already there returns its ID, so every process can register the schemas it writes
+ * at startup. A new ID is claimed by creating its file, which fails if another process claimed it first.
+ */
+@Component
+public class SchemaRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaRegistry.class);
+
+    record RegisteredSchema(int id, String name, int version, List<String> fields) {
+
+        EventSchema schema() {
+            return new EventSchema(name, version, fields);
+        }
+    }
+
+    private final Path directory;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Integer, EventSchema> schemas = new ConcurrentHashMap<>();
+
+    public SchemaRegistry(@Value("${banking.schema-registry.directory:schemas}") Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the ID of the schema, registering it first if needed.
+     *
+     * @throws IllegalArgumentException if the same name and version is registered with other fields.
+     */
+    public synchronized int register(EventSchema schema) {
+        while (true) {
+            load();
+            int next = 1;
+            for (Map.Entry<Integer, EventSchema> entry : schemas.entrySet()) {
+                EventSchema registered = entry.getValue();
+                if (registered.name().equals(schema.name()) && registered.version() == schema.version()) {
+                    if (!registered.fields().equals(schema.fields())) {
+                        logger.error("Schema registration failed: {} v{} is already registered with other fields",
+                                schema.name(), schema.version());
+                        throw new IllegalArgumentException("Schema " + schema.name() + " v" + schema.version()
+                                + " is already registered with ID " + entry.getKey() + " and other fields");
+                    }
+                    return entry.getKey();
+                }
+                next = Math.max(next, entry.getKey() + 1);
+            }
+            try {
+                byte[] file = mapper.writeValueAsBytes(
+                        new RegisteredSchema(next, schema.name(), schema.version(), schema.fields()));
+                Files.write(directory.resolve(next + ".json"), file, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.WRITE);
+                schemas.put(next, schema);
+                logger.info("Registered schema {} v{} with ID {}", schema.name(), schema.version(), next);
+                return next;
+            } catch (FileAlreadyExistsException e) {
+                logger.debug("Schema ID {} was claimed concurrently, retrying", next);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not register schema " + schema.name(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the schema with the ID, reading the directory again for IDs registered since it was last read.
+     *
+     * @throws IllegalArgumentException if no schema has the ID.
+     */
+    public EventSchema lookup(int id) {
+        EventSchema schema = schemas.get(id);
+        if (schema == null) {
+            synchronized (this) {
+                load();
+            }
+            schema = schemas.get(id);
+            if (schema == null) {
+                logger.error("Schema lookup failed: ID {} not found in {}", id, directory);
+                throw new IllegalArgumentException("Schema not found with ID: " + id);
+            }
+        }
+        return schema;
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+                for (Path file : files) {
+                    RegisteredSchema registered = mapper.readValue(file.toFile(), RegisteredSchema.class);
+                    schemas.putIfAbsent(registered.id(), registered.schema());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read schema registry " + directory, e);
+        }
+    }
+}
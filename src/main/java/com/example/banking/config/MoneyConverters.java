@@ -0,0 +1,95 @@
+package com.example.banking.config;
+
+import com.example.banking.model.Money;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Stores {@link Money} as Decimal128 in the default currency, so balances can still be compared and $inc'ed
+ * server-side and documents written before Money existed read back unchanged.
+ * <p>
+ * A Decimal128 has no room for the currency, and every stored amount reads back in the default currency, so
+ * amounts of any other currency are refused rather than silently stored as default-currency amounts.
+ * <p>
+ * Values written before Money existed may have more decimal places than the currency. They are rounded half-even
+ * when read, with a warning, so the documents holding them stay readable.
+ */
+public final class MoneyConverters {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoneyConverters.class);
+
+    private MoneyConverters() {
+    }
+
+    public static List<Converter<?, ?>> all() {
+        return List.of(new MoneyToDecimal128(), new Decimal128ToMoney(), new StringToMoney(), new DoubleToMoney());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount is not in the default currency.
+     */
+    public static Decimal128 toDecimal128(Money money) {
+        if (!Money.DEFAULT_CURRENCY.equals(money.getCurrency())) {
+            throw new IllegalArgumentException("Only " + Money.DEFAULT_CURRENCY.getCurrencyCode()
+                    + " amounts can be stored, got " + money);
+        }
+        return new Decimal128(money.toBigDecimal());
+    }
+
+    /**
+     * Converts a stored amount, rounding it half-even to the default currency's decimal places if it has more.
+     */
+    public static Money toMoney(BigDecimal stored) {
+        BigDecimal rounded = stored.setScale(Money.DEFAULT_CURRENCY.getDefaultFractionDigits(), RoundingMode.HALF_EVEN);
+        if (rounded.compareTo(stored) != 0) {
+            logger.warn("Stored amount {} has more decimal places than {} allows, read as {}", stored.toPlainString(),
+                    Money.DEFAULT_CURRENCY.getCurrencyCode(), rounded.toPlainString());
+        }
+        return Money.of(rounded);
+    }
+
+    @WritingConverter
+    static class MoneyToDecimal128 implements Converter<Money, Decimal128> {
+
+        @Override
+        public Decimal128 convert(Money source) {
+            return toDecimal128(source);
+        }
+    }
+
+    @ReadingConverter
+    static class Decimal128ToMoney implements Converter<Decimal128, Money> {
+
+        @Override
+        public Money convert(Decimal128 source) {
+            return toMoney(source.bigDecimalValue());
+        }
+    }
+
+    // Transaction amounts were stored with the default BigDecimal mapping, which is a string
+    @ReadingConverter
+    static class StringToMoney implements Converter<String, Money> {
+
+        @Override
+        public Money convert(String source) {
+            return toMoney(new BigDecimal(source));
+        }
+    }
+
+    @ReadingConverter
+    static class DoubleToMoney implements Converter<Double, Money> {
+
+        @Override
+        public Money convert(Double source) {
+            return toMoney(BigDecimal.valueOf(source));
+        }
+    }
+}
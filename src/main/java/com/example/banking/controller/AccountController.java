@@ -1,18 +1,30 @@
 package com.example.banking.controller;
 
+import com.example.banking.idempotency.IdempotencyService;
 import com.example.banking.model.Account;
+import com.example.banking.model.AccountPeriodSummary;
+import com.example.banking.model.AccountSummary;
+import com.example.banking.model.BatchTransferResponse;
+import com.example.banking.model.Money;
+import com.example.banking.model.TransferRequest;
+import com.example.banking.model.TransferStatus;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.service.AccountService;
+import com.example.banking.transfer.AsyncTransferService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/accounts")
@@ -21,9 +33,15 @@ public class AccountController {
     private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
 
     private final AccountService accountService;
+    private final IdempotencyService idempotencyService;
+    private final AsyncTransferService asyncTransferService;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService,
+                             IdempotencyService idempotencyService,
+                             AsyncTransferService asyncTransferService) {
         this.accountService = accountService;
+        this.idempotencyService = idempotencyService;
+        this.asyncTransferService = asyncTransferService;
     }
 
     @PostMapping
@@ -38,11 +56,89 @@ public class AccountController {
     public ResponseEntity<String> transfer(
             @RequestParam @NotBlank String fromAccountId,
             @RequestParam @NotBlank String toAccountId,
-            @RequestParam @Min(1) BigDecimal amount) {
+            @RequestParam @Min(1) BigDecimal amount,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.info("Request received to transfer from account {} to account {} with amount {}", fromAccountId, toAccountId, amount);
-        accountService.transfer(fromAccountId, toAccountId, amount);
-        logger.info("Transfer completed successfully from {} to {} with amount {}", fromAccountId, toAccountId, amount);
-        return ResponseEntity.status(HttpStatus.CREATED).body("Transfer successful");
+        Money money = Money.of(amount);
+        return idempotencyService.execute("transfer", idempotencyKey,
+                () -> idempotencyService.fingerprint(List.of(fromAccountId, toAccountId, money, async)),
+                new TypeReference<>() {}, () -> {
+            if (async) {
+                // The body is the transfer ID, to be polled at GET /accounts/transfers/{id}
+                TransferStatus status = asyncTransferService.submit(fromAccountId, toAccountId, money);
+                logger.info("Transfer accepted for asynchronous execution with ID {}", status.getId());
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(status.getId());
+            }
+            accountService.transfer(fromAccountId, toAccountId, money);
+            logger.info("Transfer completed successfully from {} to {} with amount {}", fromAccountId, toAccountId, amount);
+            return ResponseEntity.status(HttpStatus.CREATED).body("Transfer successful");
+        });
+    }
+
+    @GetMapping("/transfers/{id}")
+    public ResponseEntity<TransferStatus> getTransferStatus(@PathVariable @NotBlank String id) {
+        logger.info("Fetching status of transfer with ID: {}", id);
+        TransferStatus status = asyncTransferService.getStatus(id);
+        logger.info("Transfer status fetched successfully: {}", status);
+        return ResponseEntity.ok(status);
+    }
+
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(@RequestBody List<TransferRequest> transfers) {
+        logger.info("Request received to execute a batch of {} transfers", transfers.size());
+        BatchTransferResponse response = accountService.transferBatch(transfers);
+        logger.info("Batch transfer completed: {} succeeded, {} failed", response.getSucceeded(), response.getFailed());
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/{id}/balance-shards")
+    public ResponseEntity<String> enableBalanceShards(@PathVariable @NotBlank String id, @RequestParam @Min(2) int count) {
+        logger.info("Request received to split the balance of account {} into {} shards", id, count);
+        accountService.enableBalanceShards(id, count);
+        logger.info("Balance shards enabled for account {}: {}", id, count);
+        return ResponseEntity.ok("Balance shards enabled");
+    }
+
+    /**
+     * Lists accounts as summaries read with a field projection; {@code fields} selects a subset of
+     * {@link AccountSummary#FIELDS}.
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<CursorPage<AccountSummary>> getAccountSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) Set<String> fields) {
+        logger.info("Fetching account summaries, cursor: {}, size: {}, fields: {}", cursor, size, fields);
+        CursorPage<AccountSummary> summaries = accountService.getAccountSummaries(cursor, size, includeTotal, fields);
+        logger.info("Account summaries fetched successfully: {}", summaries.getContent().size());
+        return ResponseEntity.ok(summaries);
+    }
+
+    @GetMapping("/customer/{customerId}/summaries")
+    public ResponseEntity<List<AccountSummary>> getAccountSummariesByCustomerId(
+            @PathVariable @NotBlank String customerId,
+            @RequestParam(required = false) Set<String> fields) {
+        logger.info("Fetching account summaries for customer ID: {}, fields: {}", customerId, fields);
+        List<AccountSummary> summaries = accountService.getAccountSummariesByCustomerId(customerId, fields);
+        logger.info("Account summaries fetched for customer ID {}: {}", customerId, summaries.size());
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * Opening and closing balance and per-type debit and credit totals of an account over {@code [from, to]}, read
+     * from daily rollups.
+     */
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<AccountPeriodSummary> getAccountPeriodSummary(
+            @PathVariable @NotBlank String id,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        logger.info("Fetching summary of account {} from {} to {}", id, from, to);
+        AccountPeriodSummary summary = accountService.getAccountPeriodSummary(id, from, to);
+        logger.info("Summary of account {} fetched successfully", id);
+        return ResponseEntity.ok(summary);
     }
 
     @GetMapping("/{id}")
@@ -54,11 +150,12 @@ public class AccountController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<Account>> getAllAccounts(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        logger.info("Fetching all accounts, page: {}, size: {}", page, size);
-        Page<Account> accounts = accountService.getAllAccounts(page, size);
+    public ResponseEntity<CursorPage<Account>> getAllAccounts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        logger.info("Fetching all accounts, cursor: {}, size: {}", cursor, size);
+        CursorPage<Account> accounts = accountService.getAllAccounts(cursor, size, includeTotal);
         logger.info("Accounts fetched successfully: {}", accounts.getContent());
         return ResponseEntity.ok(accounts);
     }
@@ -0,0 +1,45 @@
+package com.example.banking.controller;
+
+import com.example.banking.export.TransactionDumpService;
+import com.example.banking.model.DumpStatus;
+import jakarta.validation.constraints.NotBlank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    private final TransactionDumpService transactionDumpService;
+
+    public AdminController(TransactionDumpService transactionDumpService) {
+        this.transactionDumpService = transactionDumpService;
+    }
+
+    /**
+     * Starts a dump of all transactions from {@code from} to {@code to} (inclusive) to files on this node. The
+     * response is the dump's status, to be polled at {@code GET /admin/dumps/{id}}.
+     */
+    @PostMapping("/dumps")
+    public ResponseEntity<DumpStatus> startDump(@RequestParam LocalDateTime from, @RequestParam LocalDateTime to) {
+        logger.info("Request received to dump transactions from: {} to: {}", from, to);
+        DumpStatus status = transactionDumpService.start(from, to);
+        logger.info("Transaction dump accepted with ID {}", status.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/dumps/{id}")
+    public ResponseEntity<DumpStatus> getDumpStatus(@PathVariable @NotBlank String id) {
+        logger.info("Fetching status of transaction dump {}", id);
+        DumpStatus status = transactionDumpService.getStatus(id);
+        logger.info("Transaction dump status: {}", status);
+        return ResponseEntity.ok(status);
+    }
+}
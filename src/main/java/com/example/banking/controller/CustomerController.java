@@ -1,12 +1,12 @@
 package com.example.banking.controller;
 
 import com.example.banking.model.Customer;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.service.CustomerService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -32,11 +32,12 @@ public class CustomerController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<Customer>> getAllCustomers(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        logger.info("Fetching all customers, page: {}, size: {}", page, size);
-        Page<Customer> customers = customerService.getAllCustomers(page, size);
+    public ResponseEntity<CursorPage<Customer>> getAllCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        logger.info("Fetching all customers, cursor: {}, size: {}", cursor, size);
+        CursorPage<Customer> customers = customerService.getAllCustomers(cursor, size, includeTotal);
         logger.info("Customers fetched successfully: {}", customers.getContent());
         return ResponseEntity.ok(customers);
     }
@@ -1,20 +1,28 @@
 package com.example.banking.controller;
 
+import com.example.banking.export.TransactionExportService;
+import com.example.banking.idempotency.IdempotencyService;
+import com.example.banking.ingest.TransactionIngestionService;
+import com.example.banking.model.IngestionResponse;
 import com.example.banking.model.Transaction;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.service.TransactionService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
-import jakarta.validation.Valid;
 import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.security.DigestInputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
@@ -26,17 +34,28 @@ public class TransactionController {
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
 
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionExportService transactionExportService;
+    private final TransactionIngestionService transactionIngestionService;
 
     @Autowired
     private Validator validator;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, IdempotencyService idempotencyService,
+                                 TransactionExportService transactionExportService,
+                                 TransactionIngestionService transactionIngestionService) {
         this.transactionService = transactionService;
+        this.idempotencyService = idempotencyService;
+        this.transactionExportService = transactionExportService;
+        this.transactionIngestionService = transactionIngestionService;
     }
 
     @PostMapping
-    public ResponseEntity<List<Transaction>> recordTransactions(@Valid @RequestBody List<Transaction> transactions) {
+    public ResponseEntity<List<Transaction>> recordTransactions(
+            @RequestBody List<Transaction> transactions,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.info("Request received to record transactions: {}", transactions);
+        // Validated once, here; @Valid would validate every element a second time
         transactions.forEach(transaction -> {
             Set<ConstraintViolation<Transaction>> violations = validator.validate(transaction);
             if (!violations.isEmpty()) {
@@ -44,9 +63,30 @@ public class TransactionController {
                 throw new ConstraintViolationException(violations);
             }
         });
-        List<Transaction> savedTransactions = transactionService.recordTransactions(transactions);
-        logger.info("Transactions recorded successfully: {}", savedTransactions);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedTransactions);
+        return idempotencyService.execute("transactions", idempotencyKey,
+                () -> idempotencyService.fingerprint(transactions), new TypeReference<>() {}, () -> {
+            List<Transaction> savedTransactions = transactionService.recordTransactions(transactions);
+            logger.info("Transactions recorded successfully: {}", savedTransactions);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedTransactions);
+        });
+    }
+
+    /**
+     * Records a large upload with chunked, parallel bulk inserts. The body is parsed as it arrives rather than bound
+     * up front, and invalid or rejected items are reported by index instead of failing the upload.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<IngestionResponse> ingestTransactions(
+            InputStream upload,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        logger.info("Request received to ingest a transaction upload");
+        DigestInputStream body = IdempotencyService.digesting(upload);
+        return idempotencyService.execute("transactions-bulk", idempotencyKey,
+                () -> IdempotencyService.fingerprint(body), new TypeReference<>() {}, () -> {
+            IngestionResponse response = transactionIngestionService.ingest(body, idempotencyKey);
+            logger.info("Transactions ingested: {} inserted, {} failed", response.getInserted(), response.getFailed());
+            return ResponseEntity.ok(response);
+        });
     }
 
     @GetMapping("/{accountId}")
@@ -57,12 +97,27 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * Streams the account's transactions as NDJSON, optionally limited to a time range. Unlike the JSON endpoints,
+     * nothing is collected in memory, so this is the one to use for large histories.
+     */
+    @GetMapping(value = "/{accountId}/export", produces = TransactionExportService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable @NotBlank String accountId,
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to) {
+        logger.info("Request received to export transactions for account ID: {} from: {} to: {}", accountId, from, to);
+        StreamingResponseBody body = out -> transactionExportService.exportNdjson(accountId, from, to, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(TransactionExportService.NDJSON)).body(body);
+    }
+
     @GetMapping
-    public ResponseEntity<Page<Transaction>> getAllTransactions(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        logger.info("Fetching all transactions, page: {}, size: {}", page, size);
-        Page<Transaction> transactions = transactionService.getAllTransactions(page, size);
+    public ResponseEntity<CursorPage<Transaction>> getAllTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        logger.info("Fetching all transactions, cursor: {}, size: {}", cursor, size);
+        CursorPage<Transaction> transactions = transactionService.getAllTransactions(cursor, size, includeTotal);
         logger.info("Fetched transactions: {}", transactions.getContent());
         return ResponseEntity.ok(transactions);
     }
@@ -0,0 +1,37 @@
+package com.example.banking.event;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns each event to a partition by the murmur2 hash of its key, the account or customer ID, the same way
+ * Kafka's default partitioner hashes keys. All events of one account therefore go to one partition in the order
+ * they are sent, and consumers can process partitions in parallel without reordering an account's events.
+ * <p>
+ * Events without a key, from outbox entries written before events had keys, are spread round-robin. The mapping
+ * only holds while the partition count of a topic stays the same; adding partitions moves keys.
+ */
+public class AccountPartitioner implements Partitioner {
+
+    private final AtomicInteger unkeyed = new AtomicInteger();
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+                         Cluster cluster) {
+        int partitions = cluster.partitionsForTopic(topic).size();
+        int hash = keyBytes == null ? unkeyed.getAndIncrement() : Utils.murmur2(keyBytes);
+        return Utils.toPositive(hash) % partitions;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
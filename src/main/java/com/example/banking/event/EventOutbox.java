@@ -0,0 +1,123 @@
+package com.example.banking.event;
+
+import com.example.banking.codec.EventCodec;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records domain events next to the state change that caused them, encoded for their topic by the
+ * {@link EventCodec}. {@link OutboxRelay} ships them to Kafka later, so request threads only pay for the encoding
+ * and the Mongo insert, and a failed send can be retried.
+ * <p>
+ * Every event is keyed by the account (or customer) it belongs to, so Kafka keeps the events of one account on
+ * one partition and in order. A transfer belongs to two accounts; {@code banking.events.transfer-routing} decides
+ * whether it is recorded once per account ({@code BOTH_ACCOUNTS}, the record key telling the copies apart) or
+ * only for the debited account ({@code SOURCE_ACCOUNT}).
+ * <p>
+ * {@link OutboxRelay} sends events by creation time, then ID. Both come from one sequence per process that never
+ * goes backwards, the creation time in milliseconds in its high bits and a counter in the low ones, so the events
+ * recorded by one process are sent in the order they were recorded, even within a millisecond.
+ * <p>
+ * Transactions are recorded as events of at most {@code banking.events.transactions-per-event} transactions, one
+ * by default, so a large upload becomes many small records that consumers can process and checkpoint one by one
+ * rather than one record that may exceed the producer's {@code max.request.size}.
+ */
+@Component
+public class EventOutbox {
+
+    public enum TransferRouting {
+        BOTH_ACCOUNTS, SOURCE_ACCOUNT
+    }
+
+    private static final int COUNTER_BITS = 20;
+
+    private final OutboxRepository outboxRepository;
+    private final EventCodec eventCodec;
+    private final TransferRouting transferRouting;
+    private final int transactionsPerEvent;
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    public EventOutbox(OutboxRepository outboxRepository,
+                       EventCodec eventCodec,
+                       @Value("${banking.events.transfer-routing:BOTH_ACCOUNTS}") TransferRouting transferRouting,
+                       @Value("${banking.events.transactions-per-event:1}") int transactionsPerEvent) {
+        if (transactionsPerEvent <= 0) {
+            throw new IllegalArgumentException("Transactions per event must be positive");
+        }
+        this.outboxRepository = outboxRepository;
+        this.eventCodec = eventCodec;
+        this.transferRouting = transferRouting;
+        this.transactionsPerEvent = transactionsPerEvent;
+    }
+
+    public void enqueue(String topic, String key, Object event) {
+        OutboxEvent outboxEvent = new OutboxEvent(topic, key, eventCodec.encode(topic, event));
+        outboxRepository.insert(sequence(List.of(outboxEvent)).get(0));
+    }
+
+    /**
+     * Records the transactions as events of up to {@code transactions-per-event} transactions of one account,
+     * keyed by the account ID. Each account's transactions keep their order in {@code transactions}.
+     */
+    public void enqueueTransactions(String topic, List<Transaction> transactions) {
+        Map<String, List<Transaction>> byAccount = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            byAccount.computeIfAbsent(transaction.getAccountId(), accountId -> new ArrayList<>()).add(transaction);
+        }
+        List<OutboxEvent> events = new ArrayList<>(transactions.size() / transactionsPerEvent + byAccount.size());
+        for (Map.Entry<String, List<Transaction>> account : byAccount.entrySet()) {
+            List<Transaction> accountTransactions = account.getValue();
+            for (int start = 0; start < accountTransactions.size(); start += transactionsPerEvent) {
+                List<Transaction> chunk = accountTransactions.subList(start,
+                        Math.min(start + transactionsPerEvent, accountTransactions.size()));
+                events.add(new OutboxEvent(topic, account.getKey(), eventCodec.encode(topic, chunk)));
+            }
+        }
+        if (!events.isEmpty()) {
+            outboxRepository.insert(sequence(events));
+        }
+    }
+
+    /**
+     * Records the transfers, keyed as {@code banking.events.transfer-routing} says.
+     */
+    public void enqueueTransfers(String topic, List<TransferEvent> transfers) {
+        List<OutboxEvent> events = new ArrayList<>(transfers.size() * 2);
+        for (TransferEvent transfer : transfers) {
+            byte[] data = eventCodec.encode(topic, transfer);
+            events.add(new OutboxEvent(topic, transfer.getFromAccountId(), data));
+            if (transferRouting == TransferRouting.BOTH_ACCOUNTS) {
+                events.add(new OutboxEvent(topic, transfer.getToAccountId(), data));
+            }
+        }
+        if (!events.isEmpty()) {
+            outboxRepository.insert(sequence(events));
+        }
+    }
+
+    // Gives the events consecutive IDs and creation times from the sequence, in list order
+    private List<OutboxEvent> sequence(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            long sequence = nextSequence();
+            event.setId(String.format("%016x-%s", sequence, instanceId));
+            event.setCreatedAt(Instant.ofEpochMilli(sequence >>> COUNTER_BITS));
+        }
+        return events;
+    }
+
+    long nextSequence() {
+        long floor = System.currentTimeMillis() << COUNTER_BITS;
+        return lastSequence.updateAndGet(last -> Math.max(last + 1, floor));
+    }
+}
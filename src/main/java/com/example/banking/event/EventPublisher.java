@@ -1,18 +1,277 @@
 package com.example.banking.event;
 
+import com.example.banking.exception.EventBackpressureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes events to Kafka asynchronously. The returned future completes once Kafka acknowledges the event, or
+ * exceptionally once it is given up on.
+ * <p>
+ * Events are queued and handed to the producer by a single dispatcher thread in micro-batches of up to
+ * {@code batch-size}, waiting up to {@code linger} for a batch to fill. Transient errors are retried by the
+ * idempotent producer itself, which keeps the order of a key; a send that still fails fails the event, and the
+ * {@link OutboxRelay} sends it again in order on its next poll.
+ * <p>
+ * At most {@code max-in-flight} events are queued or awaiting acknowledgement. Beyond that the {@code backpressure}
+ * policy applies: {@code BLOCK} waits up to {@code block-timeout} for room, {@code FAIL} fails the event at once
+ * with an {@link EventBackpressureException}, and {@code SPILL} appends it to a file in {@code spill-directory}
+ * that is replayed in order as room frees up. Spilled events are not kept across restarts; the outbox still holds
+ * them as unsent.
+ */
 @Component
 public class EventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(EventPublisher.class);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    public enum BackpressurePolicy {
+        BLOCK, FAIL, SPILL
+    }
+
+    /**
+     * An event waiting to be sent; {@code publishedAt} is a {@link System#nanoTime()} reading.
+     */
+    record PendingEvent(String topic, String key, byte[] payload,
+                        CompletableFuture<SendResult<String, byte[]>> future, long publishedAt) {
+
+        PendingEvent withoutPayload() {
+            return new PendingEvent(null, null, null, future, publishedAt);
+        }
 
-    public EventPublisher(KafkaTemplate<String, String> kafkaTemplate) {
+        PendingEvent withPayload(String topic, String key, byte[] payload) {
+            return new PendingEvent(topic, key, payload, future, publishedAt);
+        }
+    }
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int maxInFlight;
+    private final BackpressurePolicy policy;
+    private final Duration blockTimeout;
+    private final BlockingQueue<PendingEvent> queue = new LinkedBlockingQueue<>();
+    private final Semaphore inFlight;
+    private final EventSpill spill;
+    private final Thread dispatcher;
+    private final Timer sendTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private volatile boolean running = true;
+
+    public EventPublisher(KafkaTemplate<String, byte[]> kafkaTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${banking.events.batch-size:500}") int batchSize,
+                          @Value("${banking.events.linger:5ms}") Duration linger,
+                          @Value("${banking.events.max-in-flight:10000}") int maxInFlight,
+                          @Value("${banking.events.backpressure:BLOCK}") BackpressurePolicy policy,
+                          @Value("${banking.events.block-timeout:5s}") Duration blockTimeout,
+                          @Value("${banking.events.spill-directory:event-spill}") Path spillDirectory) {
+        if (batchSize <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Event batch size and in-flight limit must be positive");
+        }
         this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.maxInFlight = maxInFlight;
+        this.policy = policy;
+        this.blockTimeout = blockTimeout;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.spill = new EventSpill(spillDirectory.resolve("events.spill"));
+
+        this.sendTimer = Timer.builder("banking.events.send")
+                .description("Time from publishing an event to its acknowledgement by Kafka")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("banking.events.batch.size")
+                .description("Events handed to the producer per micro-batch")
+                .register(meterRegistry);
+        Gauge.builder("banking.events.in-flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Events queued or awaiting acknowledgement by Kafka")
+                .register(meterRegistry);
+        Gauge.builder("banking.events.spilled", spill, EventSpill::size)
+                .description("Events spilled to disk while the in-flight limit is reached")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("banking.events.rejected")
+                .description("Events rejected because the in-flight limit was reached")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("banking.events.failed")
+                .description("Events whose send failed after the producer's own retries")
+                .register(meterRegistry);
+
+        this.dispatcher = new Thread(this::dispatch, "event-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Publishes the event with the key, which picks its partition: events with the same key are delivered in the
+     * order they are published.
+     */
+    public CompletableFuture<SendResult<String, byte[]>> publishEvent(String topic, String key, byte[] event) {
+        PendingEvent pending = new PendingEvent(topic, key, event, new CompletableFuture<>(), System.nanoTime());
+        if (!running) {
+            pending.future().completeExceptionally(new IllegalStateException("Event publisher is shut down"));
+            return pending.future();
+        }
+        try {
+            admit(pending);
+        } catch (EventBackpressureException e) {
+            rejectedCounter.increment();
+            pending.future().completeExceptionally(e);
+        } catch (IOException e) {
+            logger.error("Could not spill event for topic {}", topic, e);
+            pending.future().completeExceptionally(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future().completeExceptionally(e);
+        }
+        return pending.future();
+    }
+
+    private void admit(PendingEvent pending) throws IOException, InterruptedException {
+        switch (policy) {
+            case BLOCK -> {
+                if (!inFlight.tryAcquire(blockTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw new EventBackpressureException("No room for the event after waiting " + blockTimeout
+                            + "; " + maxInFlight + " events are in flight");
+                }
+                queue.add(pending);
+            }
+            case FAIL -> {
+                if (!inFlight.tryAcquire()) {
+                    throw new EventBackpressureException(maxInFlight + " events are in flight");
+                }
+                queue.add(pending);
+            }
+            case SPILL -> {
+                // While anything is spilled, later events go behind it to keep the order
+                synchronized (spill) {
+                    if (spill.isEmpty() && inFlight.tryAcquire()) {
+                        queue.add(pending);
+                    } else {
+                        spill.append(pending);
+                    }
+                }
+            }
+        }
+    }
+
+    private void dispatch() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                replaySpilled();
+                PendingEvent first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batchSizeSummary.record(batch.size());
+                batch.forEach(this::send);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                logger.error("Event dispatch failed", e);
+                batch.forEach(event -> giveUp(event, e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Moves spilled events back into the queue as far as the in-flight limit allows
+    private void replaySpilled() throws IOException {
+        synchronized (spill) {
+            while (!spill.isEmpty() && inFlight.tryAcquire()) {
+                try {
+                    queue.add(spill.poll());
+                } catch (IOException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void send(PendingEvent event) {
+        CompletableFuture<SendResult<String, byte[]>> sent;
+        try {
+            sent = kafkaTemplate.send(event.topic(), event.key(), event.payload());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((result, e) -> {
+            if (e == null) {
+                inFlight.release();
+                sendTimer.record(System.nanoTime() - event.publishedAt(), TimeUnit.NANOSECONDS);
+                event.future().complete(result);
+            } else {
+                // Retrying here could put the event behind later ones of its key; the outbox resends it in order
+                logger.warn("Send to topic {} failed: {}", event.topic(), e.getMessage());
+                giveUp(event, e);
+            }
+        });
+    }
+
+    private void giveUp(PendingEvent event, Throwable cause) {
+        inFlight.release();
+        failedCounter.increment();
+        event.future().completeExceptionally(cause);
     }
 
-    public void publishEvent(String topic, String event) {
-        kafkaTemplate.send(topic, event);
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        // Queued events still get handed to the producer; spilled ones are left to the outbox
+        List<PendingEvent> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        queued.forEach(this::send);
+        if (!queued.isEmpty()) {
+            kafkaTemplate.flush();
+        }
+        try {
+            IllegalStateException shutDown = new IllegalStateException("Event publisher is shut down");
+            spill.clear().forEach(event -> event.future().completeExceptionally(shutDown));
+        } catch (IOException e) {
+            logger.warn("Could not remove the event spill file", e);
+        }
     }
 }
@@ -0,0 +1,120 @@
+package com.example.banking.event;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A FIFO of events kept in a local file instead of on the heap, used by {@link EventPublisher} while it is at its
+ * in-flight limit. Each record is the topic, the key and the payload, each prefixed with its length ({@code -1} for
+ * a missing key). Only the completion futures stay in memory.
+ * <p>
+ * The file is not meant to survive a restart: every spilled event is still unsent in the outbox, which sends it
+ * again. A leftover file is therefore discarded when the spill is opened.
+ */
+class EventSpill {
+
+    private final Path file;
+    private final Deque<EventPublisher.PendingEvent> spilled = new ArrayDeque<>();
+    private FileChannel channel;
+    private long readPosition;
+
+    EventSpill(Path file) {
+        this.file = file;
+    }
+
+    synchronized void append(EventPublisher.PendingEvent event) throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        byte[] topic = event.topic().getBytes(StandardCharsets.UTF_8);
+        byte[] key = event.key() == null ? new byte[0] : event.key().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = event.payload();
+        ByteBuffer record = ByteBuffer.allocate(12 + topic.length + key.length + payload.length)
+                .putInt(topic.length).put(topic)
+                .putInt(event.key() == null ? -1 : key.length).put(key)
+                .putInt(payload.length).put(payload)
+                .flip();
+        long position = channel.size();
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        // The payload now lives in the file; the queued entry only keeps the future
+        spilled.addLast(event.withoutPayload());
+    }
+
+    /**
+     * Removes the oldest spilled event, with its topic and payload read back from the file.
+     *
+     * @return the event, or {@code null} if nothing is spilled.
+     */
+    synchronized EventPublisher.PendingEvent poll() throws IOException {
+        EventPublisher.PendingEvent event = spilled.pollFirst();
+        if (event == null) {
+            return null;
+        }
+        String topic = new String(readField(), StandardCharsets.UTF_8);
+        byte[] key = readField();
+        byte[] payload = readField();
+        if (spilled.isEmpty()) {
+            // Drained: start the file over instead of letting it grow
+            channel.truncate(0);
+            readPosition = 0;
+        }
+        return event.withPayload(topic, key == null ? null : new String(key, StandardCharsets.UTF_8), payload);
+    }
+
+    synchronized int size() {
+        return spilled.size();
+    }
+
+    synchronized boolean isEmpty() {
+        return spilled.isEmpty();
+    }
+
+    /**
+     * Removes all spilled events, without reading them back.
+     */
+    synchronized Deque<EventPublisher.PendingEvent> clear() throws IOException {
+        Deque<EventPublisher.PendingEvent> events = new ArrayDeque<>(spilled);
+        spilled.clear();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(file);
+        readPosition = 0;
+        return events;
+    }
+
+    // A length-prefixed field; null for length -1
+    private byte[] readField() throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(length);
+        int size = length.flip().getInt();
+        if (size < 0) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(size);
+        readFully(bytes);
+        return bytes.array();
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, readPosition);
+            if (read < 0) {
+                throw new IOException("Event spill file " + file + " ends inside a record");
+            }
+            readPosition += read;
+        }
+    }
+}
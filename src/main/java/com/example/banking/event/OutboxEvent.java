@@ -0,0 +1,119 @@
+package com.example.banking.event;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An event waiting in the outbox collection until {@link OutboxRelay} has handed it to Kafka, already encoded for
+ * its topic by {@link com.example.banking.codec.EventCodec}, and with the ID of the account or customer it belongs
+ * to as the record key. Entries written before events were encoded to bytes hold their JSON in {@code payload}
+ * instead, and have no key.
+ */
+@Document(collection = "outbox")
+public class OutboxEvent {
+
+    @Id
+    private String id;
+
+    private String topic;
+
+    private String key;
+
+    private String payload;
+
+    private byte[] data;
+
+    private Instant createdAt;
+
+    private Instant sentAt;
+
+    public OutboxEvent() {
+        this.id = UUID.randomUUID().toString();
+    }
+
+    public OutboxEvent(String topic, String key, byte[] data) {
+        this.id = UUID.randomUUID().toString();
+        this.topic = topic;
+        this.key = key;
+        this.data = data;
+        this.createdAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Returns the encoded event, as it is sent to Kafka.
+     */
+    public byte[] encodedPayload() {
+        return data != null ? data : payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Instant sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "id='" + id + '\'' +
+                ", topic='" + topic + '\'' +
+                ", key='" + key + '\'' +
+                ", createdAt=" + createdAt +
+                ", sentAt=" + sentAt +
+                '}';
+    }
+}
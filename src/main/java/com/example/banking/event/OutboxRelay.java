@@ -0,0 +1,149 @@
+package com.example.banking.event;
+
+import com.example.banking.lock.ClusterLock;
+import com.example.banking.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox to Kafka in ordered batches. Entries are marked as sent only up to the first failed send,
+ * so the remainder is retried in order on the next poll (at-least-once delivery).
+ * <p>
+ * Only the instance holding the {@code outbox-relay} {@link ClusterLock} relays, so batches are not sent twice or
+ * interleaved across instances. The holder renews its lease on every poll and batch; the lease must outlast a
+ * batch's sends. Sent entries expire through the TTL index on {@code sentAt}.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final String LOCK = "outbox-relay";
+
+    private final OutboxRepository outboxRepository;
+    private final EventPublisher eventPublisher;
+    private final ClusterLock clusterLock;
+    private final Duration lease;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter sentCounter;
+
+    @Value("${banking.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${banking.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       EventPublisher eventPublisher,
+                       ClusterLock clusterLock,
+                       MeterRegistry meterRegistry,
+                       @Value("${banking.outbox.lease:1m}") Duration lease) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.clusterLock = clusterLock;
+        this.lease = lease;
+        Gauge.builder("banking.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest outbox entry not yet sent to Kafka")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("banking.outbox.sent")
+                .description("Outbox entries delivered to Kafka")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${banking.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            // Kept between polls rather than released, so the relay stays on one instance while it is alive
+            if (!clusterLock.tryAcquire(LOCK, lease)) {
+                logger.debug("Outbox relay is running on another instance");
+                return;
+            }
+            // Keep draining while batches come back full, so a backlog is not limited to one batch per poll
+            while (relayBatch() == batchSize) {
+                if (!clusterLock.tryAcquire(LOCK, lease)) {
+                    logger.error("Outbox relay lost its lock, stopping until the next poll");
+                    return;
+                }
+                logger.debug("Outbox batch of {} relayed, continuing", batchSize);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Outbox relay failed, will retry on next poll", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Another instance takes over at its next poll instead of after the lease
+        try {
+            clusterLock.release(LOCK);
+        } catch (RuntimeException e) {
+            logger.warn("Could not release the outbox relay lock, it expires with its lease", e);
+        }
+    }
+
+    /**
+     * Sends one batch of pending entries and marks the delivered prefix as sent.
+     *
+     * @return the number of entries marked as sent.
+     */
+    int relayBatch() {
+        List<OutboxEvent> batch = outboxRepository.findBySentAtIsNullOrderByCreatedAtAscIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            futures.add(eventPublisher.publishEvent(event.getTopic(), event.getKey(), event.encodedPayload()));
+        }
+
+        List<String> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!awaitSend(futures.get(i), batch.get(i))) {
+                break;
+            }
+            sentIds.add(batch.get(i).getId());
+        }
+
+        if (!sentIds.isEmpty()) {
+            outboxRepository.markSent(sentIds, Instant.now());
+            sentCounter.increment(sentIds.size());
+        }
+        logger.info("Relayed {} of {} outbox entries", sentIds.size(), batch.size());
+        return sentIds.size();
+    }
+
+    private boolean awaitSend(CompletableFuture<?> future, OutboxEvent event) {
+        try {
+            future.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Failed to send outbox entry {}, it will be retried", event, e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.example.banking.event;
 
-import java.math.BigDecimal;
+import com.example.banking.model.Money;
 
 public class TransferEvent {
 
     private String fromAccountId;
     private String toAccountId;
-    private BigDecimal amount;
+    private Money amount;
+
+    public TransferEvent() {
+    }
 
     // Constructor
-    public TransferEvent(String fromAccountId, String toAccountId, BigDecimal amount) {
+    public TransferEvent(String fromAccountId, String toAccountId, Money amount) {
         this.fromAccountId = fromAccountId;
         this.toAccountId = toAccountId;
         this.amount = amount;
@@ -31,11 +34,11 @@ public class TransferEvent {
         this.toAccountId = toAccountId;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -0,0 +1,8 @@
+package com.example.banking.exception;
+
+public class AccountLockTimeoutException extends RuntimeException {
+
+    public AccountLockTimeoutException(String message) {
+        super(message);
+    }
+}
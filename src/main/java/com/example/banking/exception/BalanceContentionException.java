@@ -0,0 +1,8 @@
+package com.example.banking.exception;
+
+public class BalanceContentionException extends RuntimeException {
+
+    public BalanceContentionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.banking.exception;
+
+public class DumpNotFoundException extends RuntimeException {
+
+    public DumpNotFoundException(String message) {
+        super(message);
+    }
+}
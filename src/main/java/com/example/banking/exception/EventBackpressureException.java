@@ -0,0 +1,8 @@
+package com.example.banking.exception;
+
+public class EventBackpressureException extends RuntimeException {
+
+    public EventBackpressureException(String message) {
+        super(message);
+    }
+}
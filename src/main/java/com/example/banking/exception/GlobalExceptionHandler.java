@@ -1,6 +1,7 @@
 package com.example.banking.exception;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestControllerAdvice
@@ -37,9 +39,67 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body("Invalid request format: " + ex.getMessage());
     }
 
+    @ExceptionHandler(AccountLockTimeoutException.class)
+    public ResponseEntity<String> handleAccountLockTimeoutException(AccountLockTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(TransferNotFoundException.class)
+    public ResponseEntity<String> handleTransferNotFoundException(TransferNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DumpNotFoundException.class)
+    public ResponseEntity<String> handleDumpNotFoundException(DumpNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(TransferQueueFullException.class)
+    public ResponseEntity<String> handleTransferQueueFullException(TransferQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(ex.getMessage());
+    }
+
+    @ExceptionHandler(BalanceContentionException.class)
+    public ResponseEntity<String> handleBalanceContentionException(BalanceContentionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<String> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(MalformedUploadException.class)
+    public ResponseEntity<Map<String, Object>> handleMalformedUploadException(MalformedUploadException ex) {
+        return ResponseEntity.badRequest().body(ingestionFailure(ex));
+    }
+
+    @ExceptionHandler(IngestionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handleIngestionFailedException(IngestionFailedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ingestionFailure(ex));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGenericException(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("An unexpected error occurred: INVALID INPUT");
     }
+
+    // The client needs to know how much of the upload is already recorded before it retries
+    private static Map<String, Object> ingestionFailure(IngestionFailedException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", ex.getMessage());
+        body.put("committed", ex.getCommitted());
+        return body;
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.banking.exception;
+
+/**
+ * A bulk upload that stopped part way. The chunks written before the failure stay recorded; {@code committed} says
+ * how many transactions that is, at least.
+ */
+public class IngestionFailedException extends RuntimeException {
+
+    private final long committed;
+
+    public IngestionFailedException(String message, long committed, Throwable cause) {
+        super(message, cause);
+        this.committed = committed;
+    }
+
+    public long getCommitted() {
+        return committed;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.banking.exception;
+
+/**
+ * A bulk upload that is not a well-formed JSON array of transactions from some point on.
+ */
+public class MalformedUploadException extends IngestionFailedException {
+
+    public MalformedUploadException(String message, long committed, Throwable cause) {
+        super(message, committed, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.banking.exception;
+
+public class TransferNotFoundException extends RuntimeException {
+
+    public TransferNotFoundException(String message) {
+        super(message);
+    }
+}
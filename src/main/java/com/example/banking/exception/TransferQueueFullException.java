@@ -0,0 +1,8 @@
+package com.example.banking.exception;
+
+public class TransferQueueFullException extends RuntimeException {
+
+    public TransferQueueFullException(String message) {
+        super(message);
+    }
+}
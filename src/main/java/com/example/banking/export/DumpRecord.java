@@ -0,0 +1,20 @@
+package com.example.banking.export;
+
+import com.example.banking.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One record of a dump shard. Unlike the API representation of a {@link Transaction}, it keeps the ID and ledger
+ * sequence.
+ */
+record DumpRecord(String id, String accountId, Transaction.TransactionType type, BigDecimal amount, String currency,
+                  LocalDateTime timestamp, Long sequence) {
+
+    static DumpRecord of(Transaction transaction) {
+        return new DumpRecord(transaction.getId(), transaction.getAccountId(), transaction.getType(),
+                transaction.getAmount().toBigDecimal(), transaction.getAmount().getCurrency().getCurrencyCode(),
+                transaction.getTimestamp(), transaction.getSequence());
+    }
+}
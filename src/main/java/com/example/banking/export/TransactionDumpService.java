@@ -0,0 +1,278 @@
+package com.example.banking.export;
+
+import com.example.banking.exception.DumpNotFoundException;
+import com.example.banking.model.DumpStatus;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.DumpStatusRepository;
+import com.example.banking.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Dumps every transaction in a time range to local files, for auditors.
+ * <p>
+ * The range is cut into {@code shards} equal time slices, each streamed from its own Mongo cursor on the timestamp
+ * index by one of {@code threads} workers. More shards than threads keep the workers busy when activity is uneven
+ * over time. Each shard is a gzip file of length-prefixed JSON records written through a {@link FileChannel}. A
+ * {@code manifest.json} listing every shard with its record count and SHA-256 is written last, so a dump without
+ * a manifest is incomplete.
+ * <p>
+ * Shards before the archive watermark are read from the archive segments, together with what Mongo still holds
+ * there. Statuses are stored in Mongo and saved as shards complete, so any node can report them; a dump whose node
+ * stopped stays {@code RUNNING} without a manifest and can simply be started again.
+ */
+@Service
+public class TransactionDumpService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDumpService.class);
+
+    static final String MANIFEST = "manifest.json";
+    static final String FORMAT = "gzip; each record is a 4-byte big-endian length followed by that many bytes of "
+            + "UTF-8 JSON";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Transactions with {@code from <= timestamp < to}.
+     */
+    record Shard(int index, LocalDateTime from, LocalDateTime to) {
+    }
+
+    record ShardFile(String file, LocalDateTime from, LocalDateTime to, long transactions, long bytes, String sha256) {
+    }
+
+    record Manifest(String id, LocalDateTime from, LocalDateTime to, String format, long transactions,
+                    List<ShardFile> shards, Instant createdAt) {
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final DumpStatusRepository dumpStatusRepository;
+    private final Path directory;
+    private final int shards;
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+    private final ObjectWriter recordWriter;
+    private final ObjectWriter manifestWriter;
+    private final Counter dumpedCounter;
+
+    public TransactionDumpService(TransactionRepository transactionRepository,
+                                  DumpStatusRepository dumpStatusRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${banking.dump.directory:dumps}") Path directory,
+                                  @Value("${banking.dump.threads:4}") int threads,
+                                  @Value("${banking.dump.shards:16}") int shards,
+                                  @Value("${banking.dump.batch-size:1000}") int batchSize) {
+        if (threads <= 0 || shards <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Dump threads, shards and batch size must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        this.dumpStatusRepository = dumpStatusRepository;
+        this.directory = directory;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        // Dumps started while the workers are busy queue their shards behind the running ones
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory());
+        // A format of its own, independent of how the API renders transactions
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.recordWriter = mapper.writerFor(DumpRecord.class);
+        this.manifestWriter = mapper.writerFor(Manifest.class).withDefaultPrettyPrinter();
+        this.dumpedCounter = Counter.builder("banking.dump.transactions")
+                .description("Transactions written to dump files")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts dumping the transactions from {@code from} to {@code to}, both inclusive, and returns its initial
+     * status.
+     */
+    public DumpStatus start(LocalDateTime from, LocalDateTime to) {
+        logger.info("Starting transaction dump from {} to {}", from, to);
+        if (from.isAfter(to)) {
+            logger.error("Transaction dump failed: Range from {} to {} is empty", from, to);
+            throw new IllegalArgumentException("Dump start must not be after its end");
+        }
+        String id = UUID.randomUUID().toString();
+        Path dumpDirectory = directory.resolve(id);
+        try {
+            Files.createDirectories(dumpDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create dump directory " + dumpDirectory, e);
+        }
+        List<Shard> slices = shards(from, to);
+        DumpStatus status = new DumpStatus(id, from, to, slices.size(), dumpDirectory.toAbsolutePath().toString());
+        dumpStatusRepository.insert(status);
+
+        List<CompletableFuture<ShardFile>> files = slices.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> writeShard(dumpDirectory, shard, status), executor))
+                .toList();
+        CompletableFuture.allOf(files.toArray(CompletableFuture[]::new)).whenComplete((ignored, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                status.fail(cause.getMessage());
+                logger.error("Transaction dump {} failed", id, cause);
+                save(status);
+                return;
+            }
+            try {
+                writeManifest(dumpDirectory, status, files.stream().map(CompletableFuture::join).toList());
+                status.complete("Dump written with manifest");
+                logger.info("Transaction dump {} completed: {} transactions, {} transactions/sec", id,
+                        status.getTransactions(), status.getTransactionsPerSecond());
+            } catch (IOException | RuntimeException manifestError) {
+                status.fail("Could not write manifest: " + manifestError.getMessage());
+                logger.error("Transaction dump {} failed", id, manifestError);
+            }
+            save(status);
+        });
+        logger.info("Transaction dump {} started with {} shards", id, slices.size());
+        return status;
+    }
+
+    public DumpStatus getStatus(String id) {
+        logger.info("Fetching status of transaction dump {}", id);
+        DumpStatus status = dumpStatusRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.error("Transaction dump status fetch failed: Dump ID {} not found", id);
+                    return new DumpNotFoundException("Dump not found with ID: " + id);
+                });
+        logger.info("Transaction dump status fetched: {}", status);
+        return status;
+    }
+
+    /**
+     * Cuts {@code [from, to]} into at most {@code shards} equal, adjacent half-open slices.
+     */
+    List<Shard> shards(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = to.plusNanos(1);
+        Duration length = Duration.between(from, end);
+        int count = length.compareTo(Duration.ofNanos(shards)) < 0 ? (int) length.toNanos() : shards;
+        List<Shard> slices = new ArrayList<>(count);
+        LocalDateTime start = from;
+        for (int i = 0; i < count; i++) {
+            LocalDateTime sliceEnd = i == count - 1 ? end : from.plus(length.multipliedBy(i + 1).dividedBy(count));
+            slices.add(new Shard(i, start, sliceEnd));
+            start = sliceEnd;
+        }
+        return slices;
+    }
+
+    private ShardFile writeShard(Path dumpDirectory, Shard shard, DumpStatus status) {
+        String name = String.format("shard-%04d.bin.gz", shard.index());
+        Path file = dumpDirectory.resolve(name);
+        MessageDigest digest = sha256();
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             Stream<Transaction> transactions =
+                     transactionRepository.streamByTimestamp(shard.from(), shard.to(), batchSize)) {
+            // The digest sees exactly the bytes that reach the file
+            GZIPOutputStream gzip = new GZIPOutputStream(
+                    new DigestOutputStream(Channels.newOutputStream(channel), digest), BUFFER_SIZE);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip, BUFFER_SIZE));
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                byte[] record = recordWriter.writeValueAsBytes(DumpRecord.of(iterator.next()));
+                out.writeInt(record.length);
+                out.write(record);
+                written++;
+            }
+            out.flush();
+            gzip.finish();
+            channel.force(true);
+            long bytes = channel.size();
+            status.shardCompleted(written, bytes);
+            save(status);
+            dumpedCounter.increment(written);
+            logger.debug("Dump shard {} written: {} transactions, {} bytes", file, written, bytes);
+            return new ShardFile(name, shard.from(), shard.to(), written, bytes,
+                    HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write dump shard " + file, e);
+        }
+    }
+
+    // Written to a temporary file and moved into place, so a manifest is only ever seen complete
+    private void writeManifest(Path dumpDirectory, DumpStatus status, List<ShardFile> files) throws IOException {
+        long transactions = files.stream().mapToLong(ShardFile::transactions).sum();
+        Manifest manifest = new Manifest(status.getId(), status.getFrom(), status.getTo(), FORMAT, transactions, files,
+                Instant.now());
+        Path temporary = dumpDirectory.resolve(MANIFEST + ".tmp");
+        manifestWriter.writeValue(temporary.toFile(), manifest);
+        Files.move(temporary, dumpDirectory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Under the status lock, so concurrent shard workers never store an older snapshot over a newer one
+    private void save(DumpStatus status) {
+        synchronized (status) {
+            try {
+                dumpStatusRepository.save(status);
+            } catch (RuntimeException e) {
+                // The dump goes on; pollers see its progress once a later save gets through
+                logger.error("Transaction dump {}: Could not store status {}", status.getId(), status.getState(), e);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // A dump cut short has no manifest and can simply be started again
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "dump-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
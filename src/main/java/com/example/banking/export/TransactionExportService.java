@@ -0,0 +1,79 @@
+package com.example.banking.export;
+
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes an account's transactions as newline-delimited JSON straight from a Mongo cursor.
+ * <p>
+ * Only one cursor batch and the output buffer are held at a time, so heap use does not depend on how many
+ * transactions match. The next batch is only fetched once the previous one has been written; a slow client blocks
+ * the write, which in turn stops the cursor from being advanced.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectWriter writer;
+    private final int batchSize;
+
+    public TransactionExportService(TransactionRepository transactionRepository,
+                                    ObjectMapper objectMapper,
+                                    @Value("${banking.export.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Export batch size must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        // Flushed once per batch rather than after every line
+        this.writer = objectMapper.writerFor(Transaction.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes the account's transactions between {@code from} and {@code to} (both optional) in timestamp order,
+     * one JSON object per line.
+     *
+     * @return the number of transactions written.
+     */
+    public long exportNdjson(String accountId, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        logger.info("Exporting transactions for account ID: {} from: {} to: {}", accountId, from, to);
+        long written = 0;
+        try (Stream<Transaction> transactions = transactionRepository.streamByAccountId(accountId, from, to, batchSize);
+             JsonGenerator generator = writer.createGenerator(out)) {
+            // The response stream belongs to the container, and lines are separated by newlines, not spaces
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++written % batchSize == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Export of account {} aborted after {} transactions: {}", accountId, written, e.getMessage());
+            throw e;
+        }
+        logger.info("Exported {} transactions for account ID: {}", written, accountId);
+        return written;
+    }
+}
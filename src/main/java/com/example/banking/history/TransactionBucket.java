@@ -0,0 +1,81 @@
+package com.example.banking.history;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-size page of an account's transaction IDs. Buckets are keyed by account and sequence number, so an
+ * account's history grows by adding buckets instead of growing the account document.
+ */
+@Document(collection = "transaction_buckets")
+public class TransactionBucket {
+
+    @Id
+    private String id;
+
+    private String accountId;
+
+    private long seq;
+
+    private int count;
+
+    private List<String> transactionIds = new ArrayList<>();
+
+    private Instant createdAt;
+
+    public static String id(String accountId, long seq) {
+        return accountId + ":" + seq;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<String> getTransactionIds() {
+        return transactionIds;
+    }
+
+    public void setTransactionIds(List<String> transactionIds) {
+        this.transactionIds = transactionIds;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
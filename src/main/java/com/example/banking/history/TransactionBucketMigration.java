@@ -0,0 +1,125 @@
+package com.example.banking.history;
+
+import com.example.banking.repository.TransactionBucketRepository;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves the embedded {@code transactions} and {@code transactionHistory} arrays of existing accounts into
+ * transaction buckets and removes them from the account documents.
+ * <p>
+ * Migrated history is written to buckets numbered backwards from {@code -1}, so it sorts before any bucket
+ * appended since the upgrade. Buckets are replaced rather than appended to, so the job can be re-run safely.
+ * <p>
+ * Accounts that embed their history have no {@code transactionCount}, and appends leave a missing count alone. The
+ * count is set in the same update that removes the embedded arrays: the migrated IDs plus those appended since the
+ * upgrade.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.migration.transaction-buckets.enabled", havingValue = "true")
+public class TransactionBucketMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBucketMigration.class);
+
+    private static final String ACCOUNTS = "accounts";
+    private static final String TRANSACTIONS = "transactions";
+    private static final String TRANSACTION_HISTORY = "transactionHistory";
+    private static final String TRANSACTION_COUNT = "transactionCount";
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionBucketRepository bucketRepository;
+    private final int bucketSize;
+
+    @Value("${banking.migration.transaction-buckets.batch-size:500}")
+    private int batchSize;
+
+    public TransactionBucketMigration(MongoTemplate mongoTemplate,
+                                      TransactionBucketRepository bucketRepository,
+                                      @Value("${banking.transaction.bucket-size:200}") int bucketSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketRepository = bucketRepository;
+        this.bucketSize = bucketSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Migrates all accounts that still embed their transaction history.
+     *
+     * @return the number of migrated accounts.
+     */
+    public int migrate() {
+        logger.info("Migrating embedded account transaction history to buckets");
+        int migrated = 0;
+        String lastId = null;
+        while (true) {
+            Criteria criteria = new Criteria().orOperator(
+                    Criteria.where(TRANSACTIONS).exists(true), Criteria.where(TRANSACTION_HISTORY).exists(true));
+            if (lastId != null) {
+                criteria = new Criteria().andOperator(Criteria.where("_id").gt(lastId), criteria);
+            }
+            Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+            query.fields().include(TRANSACTIONS).include(TRANSACTION_HISTORY);
+
+            List<Document> accounts = mongoTemplate.find(query, Document.class, ACCOUNTS);
+            if (accounts.isEmpty()) {
+                break;
+            }
+            for (Document account : accounts) {
+                migrateAccount(account);
+                migrated++;
+            }
+            lastId = accounts.get(accounts.size() - 1).getString("_id");
+            logger.info("Migrated transaction history of {} accounts so far", migrated);
+        }
+        logger.info("Transaction history migration completed: {} accounts migrated", migrated);
+        return migrated;
+    }
+
+    void migrateAccount(Document account) {
+        String accountId = account.getString("_id");
+        List<String> ids = new ArrayList<>(transactionIds(account));
+
+        int buckets = (ids.size() + bucketSize - 1) / bucketSize;
+        for (int i = 0; i < buckets; i++) {
+            List<String> chunk = ids.subList(i * bucketSize, Math.min((i + 1) * bucketSize, ids.size()));
+            bucketRepository.replaceBucket(accountId, i - buckets, chunk);
+        }
+
+        long appended = bucketRepository.countFrom(accountId, 0);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(accountId)),
+                new Update().unset(TRANSACTIONS).unset(TRANSACTION_HISTORY).set(TRANSACTION_COUNT, ids.size() + appended),
+                ACCOUNTS);
+    }
+
+    private static Set<String> transactionIds(Document account) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Object id : account.getList(TRANSACTION_HISTORY, Object.class, List.of())) {
+            ids.add(String.valueOf(id));
+        }
+        for (Object reference : account.getList(TRANSACTIONS, Object.class, List.of())) {
+            ids.add(String.valueOf(reference instanceof DBRef dbRef ? dbRef.getId() : reference));
+        }
+        return ids;
+    }
+}
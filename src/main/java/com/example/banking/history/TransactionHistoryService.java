@@ -0,0 +1,168 @@
+package com.example.banking.history;
+
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.TransactionBucketRepository;
+import com.example.banking.rollup.DailyRollupService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains each account's transaction history as a chain of fixed-size {@link TransactionBucket}s.
+ * <p>
+ * New IDs go to the account's head bucket. When the head is full the account's {@code transactionBucketSeq}
+ * is advanced and the IDs go to a new bucket. Head sequences are cached; a stale head is detected by the full
+ * bucket it points at and corrected from there.
+ * <p>
+ * Appended transactions are also added to the accounts' transaction counts, and those that moved a balance to
+ * the accounts' daily rollups.
+ */
+@Service
+public class TransactionHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionHistoryService.class);
+
+    private final TransactionBucketRepository bucketRepository;
+    private final AccountRepository accountRepository;
+    private final DailyRollupService dailyRollupService;
+    private final int bucketSize;
+    private final Cache<String, Long> heads = Caffeine.newBuilder().maximumSize(100_000).build();
+
+    public TransactionHistoryService(TransactionBucketRepository bucketRepository,
+                                     AccountRepository accountRepository,
+                                     DailyRollupService dailyRollupService,
+                                     @Value("${banking.transaction.bucket-size:200}") int bucketSize) {
+        if (bucketSize <= 0) {
+            throw new IllegalArgumentException("Transaction bucket size must be positive");
+        }
+        this.bucketRepository = bucketRepository;
+        this.accountRepository = accountRepository;
+        this.dailyRollupService = dailyRollupService;
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * Appends the IDs of the given transactions to the history of their accounts and adds them to the accounts'
+     * transaction counts and daily rollups. For transactions that moved their accounts' balances: transfer legs
+     * and ledger entries. Transactions of accounts that do not exist are skipped.
+     */
+    public void append(Collection<Transaction> transactions) {
+        append(transactions, true);
+    }
+
+    /**
+     * Like {@link #append}, for transactions that were only recorded and did not move a balance. They are left out
+     * of the daily rollups, whose balances are derived backwards from the accounts' current balances.
+     */
+    public void appendRecorded(Collection<Transaction> transactions) {
+        append(transactions, false);
+    }
+
+    /**
+     * Like {@link #appendRecorded}, but skips the transactions already in their account's history, so it can be
+     * repeated. For transactions whose insert is retried after a failure that may have come before or after their
+     * history append.
+     */
+    public void appendRecordedIfMissing(Collection<Transaction> transactions) {
+        Map<String, List<String>> idsByAccount = new HashMap<>();
+        transactions.forEach(transaction -> idsByAccount
+                .computeIfAbsent(transaction.getAccountId(), accountId -> new ArrayList<>())
+                .add(transaction.getId()));
+        Set<String> appended = bucketRepository.findAppended(idsByAccount);
+        List<Transaction> missing = transactions.stream()
+                .filter(transaction -> !appended.contains(transaction.getId()))
+                .toList();
+        logger.info("Appending {} of {} retried transactions missing from history", missing.size(), transactions.size());
+        if (!missing.isEmpty()) {
+            append(missing, false);
+        }
+    }
+
+    private void append(Collection<Transaction> transactions, boolean movedBalances) {
+        Map<String, Deque<List<String>>> pending = chunkByAccount(transactions);
+        Map<String, Long> appended = new HashMap<>();
+        // Each round appends one chunk per account or finds its head full; a fresh head always has room
+        int maxRounds = 2 * pending.values().stream().mapToInt(Deque::size).sum() + 3;
+        for (int round = 1; !pending.isEmpty(); round++) {
+            if (round > maxRounds) {
+                logger.error("Transaction history append gave up, accounts still pending: {}", pending.keySet());
+                throw new IllegalStateException("Could not append transaction history for accounts " + pending.keySet());
+            }
+
+            Map<String, Long> accountHeads = heads(pending.keySet());
+            pending.keySet().removeIf(accountId -> !accountHeads.containsKey(accountId));
+            if (pending.isEmpty()) {
+                break;
+            }
+
+            Map<String, List<String>> next = new HashMap<>();
+            pending.forEach((accountId, chunks) -> next.put(accountId, chunks.peek()));
+            Set<String> full = bucketRepository.appendToHeads(next, accountHeads, bucketSize);
+
+            for (String accountId : next.keySet()) {
+                if (full.contains(accountId)) {
+                    long seq = accountHeads.get(accountId) + 1;
+                    accountRepository.advanceTransactionBucket(accountId, seq);
+                    heads.put(accountId, seq);
+                } else {
+                    Deque<List<String>> chunks = pending.get(accountId);
+                    appended.merge(accountId, (long) chunks.poll().size(), Long::sum);
+                    if (chunks.isEmpty()) {
+                        pending.remove(accountId);
+                    }
+                }
+            }
+        }
+        accountRepository.incrementTransactionCounts(appended);
+        if (!movedBalances) {
+            return;
+        }
+        dailyRollupService.record(transactions.stream()
+                .filter(transaction -> appended.containsKey(transaction.getAccountId()))
+                .toList());
+    }
+
+    private Map<String, Deque<List<String>>> chunkByAccount(Collection<Transaction> transactions) {
+        Map<String, List<String>> idsByAccount = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            idsByAccount.computeIfAbsent(transaction.getAccountId(), accountId -> new ArrayList<>())
+                    .add(transaction.getId());
+        }
+        Map<String, Deque<List<String>>> chunks = new HashMap<>();
+        idsByAccount.forEach((accountId, ids) -> {
+            Deque<List<String>> accountChunks = new ArrayDeque<>();
+            for (int from = 0; from < ids.size(); from += bucketSize) {
+                accountChunks.add(ids.subList(from, Math.min(from + bucketSize, ids.size())));
+            }
+            chunks.put(accountId, accountChunks);
+        });
+        return chunks;
+    }
+
+    private Map<String, Long> heads(Set<String> accountIds) {
+        Map<String, Long> result = new HashMap<>(heads.getAllPresent(accountIds));
+        if (result.size() < accountIds.size()) {
+            Set<String> missing = new HashSet<>(accountIds);
+            missing.removeAll(result.keySet());
+            Map<String, Long> loaded = accountRepository.findTransactionBucketHeads(missing);
+            heads.putAll(loaded);
+            result.putAll(loaded);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.banking.idempotency;
+
+import com.example.banking.exception.AccountLockTimeoutException;
+import com.example.banking.exception.BalanceContentionException;
+import com.example.banking.exception.IdempotencyConflictException;
+import com.example.banking.exception.IdempotencyKeyReusedException;
+import com.example.banking.exception.IngestionFailedException;
+import com.example.banking.exception.TransferQueueFullException;
+import com.example.banking.repository.IdempotencyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per {@code Idempotency-Key}.
+ * <p>
+ * Completed responses are kept in a bounded in-memory cache in front of a Mongo collection whose TTL index
+ * (see {@code MongoIndexManager}) expires old keys. Concurrent requests with the same key on this node wait for the first execution instead
+ * of running again; a key that is still being executed on another node is rejected with a conflict.
+ * <p>
+ * Each record keeps a fingerprint of the request, and a key reused for a different request is rejected rather
+ * than answered with the first response. A claim is held for {@code banking.idempotency.lease}; a claim left
+ * behind by a node that died mid-request is taken over once its lease has run out, so the lease must be longer
+ * than the slowest request.
+ * <p>
+ * Every claim carries an owner token, and only its owner can complete or release it: a node whose lease ran out
+ * and was taken over cannot overwrite or delete the new owner's claim. A request that failed before writing
+ * anything releases its key so the client can retry with it; a request that failed after it may have written
+ * something keeps its key as failed, and retrying with that key is rejected with a conflict.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration lease;
+    private final Cache<String, IdempotencyRecord> completed;
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${banking.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${banking.idempotency.cache-size:10000}") long cacheSize,
+                              @Value("${banking.idempotency.lease:5m}") Duration lease) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.objectMapper = objectMapper;
+        this.lease = lease;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} unless a response for the same scope and key has already been recorded, in which case
+     * that response is replayed. Without a key the action simply runs.
+     *
+     * @param scope       separates keys of different endpoints.
+     * @param fingerprint the fingerprint of the request, see {@link #fingerprint(Object)}. Only asked for once
+     *                    the action has run or a recorded response is about to be replayed.
+     * @param bodyType    the response body type, used to deserialize a replayed response.
+     * @throws IdempotencyKeyReusedException if the key was used for a request with another fingerprint.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Supplier<String> fingerprint,
+                                         TypeReference<T> bodyType, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String id = scope + ":" + key;
+
+        IdempotencyRecord cached = completed.getIfPresent(id);
+        if (cached != null) {
+            logger.info("Replaying cached response for idempotency key {}", id);
+            return replay(cached, fingerprint, bodyType);
+        }
+
+        CompletableFuture<IdempotencyRecord> execution = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> existing = inFlight.putIfAbsent(id, execution);
+        if (existing != null) {
+            logger.info("Waiting for in-flight request with idempotency key {}", id);
+            return replay(await(existing), fingerprint, bodyType);
+        }
+
+        try {
+            String owner = UUID.randomUUID().toString();
+            IdempotencyRecord stored = claim(id, owner);
+            if (stored != null) {
+                execution.complete(stored);
+                return replay(stored, fingerprint, bodyType);
+            }
+            return runAndRecord(id, owner, fingerprint, action, execution);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, execution);
+        }
+    }
+
+    /**
+     * Claims the key by inserting an in-progress record, or by taking over an in-progress record whose lease ran out.
+     *
+     * @return {@code null} if the key was claimed, or the completed record if the key was already used.
+     */
+    private IdempotencyRecord claim(String id, String owner) {
+        try {
+            IdempotencyRecord claim = new IdempotencyRecord(id);
+            claim.setOwner(owner);
+            claim.setLeaseExpiresAt(claim.getCreatedAt().plus(lease));
+            idempotencyRepository.insert(claim);
+            return null;
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord stored = idempotencyRepository.findById(id).orElse(null);
+            if (stored != null && stored.getStatus() == IdempotencyRecord.Status.IN_PROGRESS
+                    && leaseExpiry(stored).isBefore(Instant.now())
+                    && idempotencyRepository.takeOver(id, stored.getLeaseExpiresAt(), Instant.now().plus(lease), owner)) {
+                logger.warn("Took over idempotency key {}, its lease expired at {}", id, leaseExpiry(stored));
+                return null;
+            }
+            if (stored != null && stored.getStatus() == IdempotencyRecord.Status.FAILED) {
+                logger.error("Idempotent request failed: Request with idempotency key {} failed after it may have made changes", id);
+                throw new IdempotencyConflictException(
+                        "A request with this Idempotency-Key failed after it may have made changes, retry with a new key");
+            }
+            if (stored == null || stored.getStatus() != IdempotencyRecord.Status.COMPLETED) {
+                logger.warn("Request with idempotency key {} is still in progress elsewhere", id);
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is already in progress");
+            }
+            completed.put(id, stored);
+            logger.info("Replaying stored response for idempotency key {}", id);
+            return stored;
+        }
+    }
+
+    // Claims made before leases were kept expire one lease after they were made
+    private Instant leaseExpiry(IdempotencyRecord claim) {
+        return claim.getLeaseExpiresAt() != null ? claim.getLeaseExpiresAt() : claim.getCreatedAt().plus(lease);
+    }
+
+    private <T> ResponseEntity<T> runAndRecord(String id, String owner, Supplier<String> fingerprint,
+                                               Supplier<ResponseEntity<T>> action,
+                                               CompletableFuture<IdempotencyRecord> execution) {
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            if (failedBeforeWriting(e)) {
+                // Nothing was written, so the client can retry with the same key
+                if (!idempotencyRepository.release(id, owner)) {
+                    logger.warn("Idempotency key {} was taken over before it could be released", id);
+                }
+            } else {
+                IdempotencyRecord failed = new IdempotencyRecord(id);
+                failed.setStatus(IdempotencyRecord.Status.FAILED);
+                failed.setFingerprint(fingerprint.get());
+                if (!idempotencyRepository.complete(failed, owner)) {
+                    logger.error("Idempotency key {} was taken over before its failure could be recorded", id);
+                }
+            }
+            throw e;
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord(id);
+        record.setStatus(IdempotencyRecord.Status.COMPLETED);
+        record.setResponseStatus(response.getStatusCode().value());
+        record.setResponseBody(serialize(response.getBody()));
+        record.setFingerprint(fingerprint.get());
+        if (idempotencyRepository.complete(record, owner)) {
+            completed.put(id, record);
+        } else {
+            logger.error("Idempotency key {} was taken over after its lease expired, the request may have run twice", id);
+        }
+        execution.complete(record);
+        return response;
+    }
+
+    /**
+     * Whether {@code failure} is one the services raise before writing anything, or after reverting what they wrote.
+     */
+    private static boolean failedBeforeWriting(RuntimeException failure) {
+        return failure instanceof IllegalArgumentException
+                || failure instanceof AccountLockTimeoutException
+                || failure instanceof TransferQueueFullException
+                || failure instanceof BalanceContentionException
+                || failure instanceof IngestionFailedException ingestion && ingestion.getCommitted() == 0;
+    }
+
+    private static IdempotencyRecord await(CompletableFuture<IdempotencyRecord> execution) {
+        try {
+            return execution.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyRecord record, Supplier<String> fingerprint,
+                                         TypeReference<T> bodyType) {
+        // Records written before fingerprints were kept have none to compare with
+        if (record.getFingerprint() != null && !record.getFingerprint().equals(fingerprint.get())) {
+            logger.error("Idempotent request failed: Key {} was already used for a different request", record.getId());
+            throw new IdempotencyKeyReusedException("This Idempotency-Key was already used for a different request");
+        }
+        try {
+            T body = record.getResponseBody() == null ? null : objectMapper.readValue(record.getResponseBody(), bodyType);
+            return ResponseEntity.status(record.getResponseStatus())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to replay stored response for idempotency key " + record.getId(), e);
+        }
+    }
+
+    /**
+     * Fingerprints a request that binds to an object: the SHA-256 of its JSON form.
+     */
+    public String fingerprint(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request: " + request, e);
+        }
+    }
+
+    /**
+     * Wraps a streamed request body so that it is hashed while it is read. The wrapper ignores {@code close()}, so
+     * {@link #fingerprint(DigestInputStream)} can still read what the consumer left unread.
+     */
+    public static DigestInputStream digesting(InputStream body) {
+        try {
+            return new DigestInputStream(body, MessageDigest.getInstance("SHA-256")) {
+                @Override
+                public void close() {
+                }
+            };
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Fingerprints a request body wrapped by {@link #digesting}: the SHA-256 of all of its bytes.
+     */
+    public static String fingerprint(DigestInputStream body) {
+        try {
+            body.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(body.getMessageDigest().digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read request body", e);
+        }
+    }
+
+    private String serialize(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store response body: " + body, e);
+        }
+    }
+}
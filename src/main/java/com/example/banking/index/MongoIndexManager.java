@@ -0,0 +1,297 @@
+package com.example.banking.index;
+
+import com.example.banking.balance.AccountBalanceShard;
+import com.example.banking.event.OutboxEvent;
+import com.example.banking.history.TransactionBucket;
+import com.example.banking.idempotency.IdempotencyRecord;
+import com.example.banking.model.Account;
+import com.example.banking.model.Transaction;
+import com.example.banking.model.TransferStatus;
+import com.example.banking.rollup.DailyRollup;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Declares every index the repositories rely on and reconciles them with the database at startup.
+ * <p>
+ * Missing indexes are built one at a time, logging the server's build progress. An existing index with the same
+ * name or keys but different options is a conflict: startup fails instead of silently running on the wrong index.
+ * The one exception is a changed TTL, which the server can update in place. Indexes that are not declared here are
+ * left alone.
+ */
+@Component
+public class MongoIndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexManager.class);
+
+    // Options that change what an index does; anything else (version, collation defaults) is ignored
+    private static final List<String> COMPARED_OPTIONS = List.of("unique", "partialFilterExpression", "expireAfterSeconds");
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration idempotencyTtl;
+    private final Duration transferStatusTtl;
+    private final Duration outboxSentTtl;
+    private final Duration progressInterval;
+
+    public MongoIndexManager(MongoTemplate mongoTemplate,
+                             @Value("${banking.idempotency.ttl:24h}") Duration idempotencyTtl,
+                             @Value("${banking.transfer.async.status-ttl:1h}") Duration transferStatusTtl,
+                             @Value("${banking.outbox.sent-ttl:24h}") Duration outboxSentTtl,
+                             @Value("${banking.mongo.indexes.progress-interval:10s}") Duration progressInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.idempotencyTtl = idempotencyTtl;
+        this.transferStatusTtl = transferStatusTtl;
+        this.outboxSentTtl = outboxSentTtl;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * The indexes behind each repository query.
+     */
+    List<RequiredIndex> requiredIndexes() {
+        return List.of(
+                // findByAccountId, findByAccountIdAndTimestampBetween
+                new RequiredIndex(Transaction.class, new Index()
+                        .named("accountId_timestamp")
+                        .on("accountId", Sort.Direction.ASC)
+                        .on("timestamp", Sort.Direction.ASC)),
+                // findArchivable: the oldest transactions across all accounts
+                new RequiredIndex(Transaction.class, new Index()
+                        .named("timestamp")
+                        .on("timestamp", Sort.Direction.ASC)),
+                // Ledger tails; unique so concurrent appends cannot fork a ledger
+                new RequiredIndex(Transaction.class, new Index()
+                        .named("accountId_sequence")
+                        .on("accountId", Sort.Direction.ASC)
+                        .on("sequence", Sort.Direction.ASC)
+                        .unique()
+                        .partial(PartialIndexFilter.of(Criteria.where("sequence").exists(true)))),
+                // findByCustomerId
+                new RequiredIndex(Account.class, new Index()
+                        .named("customerId")
+                        .on("customerId", Sort.Direction.ASC)),
+                // findByAccountId
+                new RequiredIndex(AccountBalanceShard.class, new Index()
+                        .named("accountId")
+                        .on("accountId", Sort.Direction.ASC)),
+                // Account.transactionBuckets lookup, sorted by seq
+                new RequiredIndex(TransactionBucket.class, new Index()
+                        .named("accountId_seq")
+                        .on("accountId", Sort.Direction.ASC)
+                        .on("seq", Sort.Direction.ASC)),
+                // Daily rollups: findDays, sumNetAfter
+                new RequiredIndex(DailyRollup.class, new Index()
+                        .named("accountId_date")
+                        .on("accountId", Sort.Direction.ASC)
+                        .on("date", Sort.Direction.ASC)),
+                // findBySentAtIsNullOrderByCreatedAtAscIdAsc
+                new RequiredIndex(OutboxEvent.class, new Index()
+                        .named("sentAt_createdAt_id")
+                        .on("sentAt", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)),
+                // Expires sent outbox entries; unsent ones have no sentAt and stay
+                new RequiredIndex(OutboxEvent.class, new Index()
+                        .named("sentAt_ttl")
+                        .on("sentAt", Sort.Direction.ASC)
+                        .expire(outboxSentTtl)),
+                // Expires idempotency keys
+                new RequiredIndex(IdempotencyRecord.class, new Index()
+                        .named("createdAt_ttl")
+                        .on("createdAt", Sort.Direction.ASC)
+                        .expire(idempotencyTtl)),
+                // failAbandoned: pending transfers whose lease ran out
+                new RequiredIndex(TransferStatus.class, new Index()
+                        .named("state_leaseExpiresAt")
+                        .on("state", Sort.Direction.ASC)
+                        .on("leaseExpiresAt", Sort.Direction.ASC)),
+                // Expires async transfer statuses
+                new RequiredIndex(TransferStatus.class, new Index()
+                        .named("submittedAt_ttl")
+                        .on("submittedAt", Sort.Direction.ASC)
+                        .expire(transferStatusTtl)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        List<RequiredIndex> required = requiredIndexes();
+        logger.info("Reconciling {} Mongo indexes", required.size());
+        int built = 0;
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "index-build");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < required.size(); i++) {
+                RequiredIndex index = required.get(i);
+                String collection = mongoTemplate.getCollectionName(index.entityClass());
+                if (!isPresent(collection, index)) {
+                    logger.info("Building index {} on {} ({}/{})", index.name(), collection, i + 1, required.size());
+                    build(executor, collection, index);
+                    built++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Mongo indexes reconciled: {} built, {} already present", built, required.size() - built);
+    }
+
+    /**
+     * Checks whether an equivalent index exists.
+     *
+     * @throws IllegalStateException if an index with the same name or keys exists with a different definition.
+     */
+    boolean isPresent(String collection, RequiredIndex index) {
+        Document keys = index.index().getIndexKeys();
+        List<Document> existing = mongoTemplate.getCollection(collection).listIndexes().into(new ArrayList<>());
+        for (Document current : existing) {
+            boolean sameName = index.name().equals(current.getString("name"));
+            boolean sameKeys = sameKeys(keys, current.get("key", Document.class));
+            if (!sameName && !sameKeys) {
+                continue;
+            }
+            if (sameName && sameKeys && sameOptions(index.index().getIndexOptions(), current)) {
+                logger.info("Index {} on {} is present", index.name(), collection);
+                return true;
+            }
+            if (!sameName && sameOptions(index.index().getIndexOptions(), current)) {
+                logger.info("Index {} on {} is covered by existing index {}", index.name(), collection, current.getString("name"));
+                return true;
+            }
+            if (sameKeys && onlyTtlDiffers(index.index().getIndexOptions(), current)) {
+                updateTtl(collection, current, index.index().getIndexOptions().get("expireAfterSeconds"));
+                return true;
+            }
+            logger.error("Index reconciliation failed: Index {} on {} conflicts with existing index {}",
+                    index.name(), collection, current.toJson());
+            throw new IllegalStateException("Index " + index.name() + " on " + collection
+                    + " conflicts with existing index " + current.getString("name")
+                    + "; drop or rename it before starting this version");
+        }
+        return false;
+    }
+
+    private void updateTtl(String collection, Document current, Object expireAfterSeconds) {
+        logger.info("Changing TTL of index {} on {} from {}s to {}s", current.getString("name"), collection,
+                current.get("expireAfterSeconds"), expireAfterSeconds);
+        mongoTemplate.executeCommand(new Document("collMod", collection).append("index",
+                new Document("name", current.getString("name")).append("expireAfterSeconds", expireAfterSeconds)));
+    }
+
+    private void build(ExecutorService executor, String collection, RequiredIndex index) {
+        long startNanos = System.nanoTime();
+        Future<String> build = executor.submit(() -> mongoTemplate.indexOps(collection).ensureIndex(index.index()));
+        while (true) {
+            try {
+                build.get(progressInterval.toMillis(), TimeUnit.MILLISECONDS);
+                break;
+            } catch (TimeoutException e) {
+                logProgress(collection, index.name(), startNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while building index " + index.name() + " on " + collection, e);
+            } catch (ExecutionException e) {
+                logger.error("Index build failed: Index {} on {}: {}", index.name(), collection, e.getCause().getMessage());
+                throw new IllegalStateException("Could not build index " + index.name() + " on " + collection, e.getCause());
+            }
+        }
+        logger.info("Index {} on {} built in {} ms", index.name(), collection,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private void logProgress(String collection, String name, long startNanos) {
+        long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+        try {
+            Document currentOp = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin").runCommand(
+                    new Document("currentOp", true).append("command.createIndexes", collection));
+            for (Document op : currentOp.getList("inprog", Document.class, List.of())) {
+                Document progress = op.get("progress", Document.class);
+                if (progress != null) {
+                    logger.info("Building index {} on {}: {}/{} after {}s", name, collection,
+                            progress.get("done"), progress.get("total"), elapsed);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // currentOp needs extra privileges; the elapsed time is still worth logging
+            logger.debug("Could not read index build progress: {}", e.getMessage());
+        }
+        logger.info("Building index {} on {}: still running after {}s", name, collection, elapsed);
+    }
+
+    private static boolean sameKeys(Document required, Document current) {
+        if (current == null || required.size() != current.size()) {
+            return false;
+        }
+        // Order matters for compound indexes, and the server may return 1 as an int, long or double
+        List<Map.Entry<String, Object>> requiredKeys = new ArrayList<>(required.entrySet());
+        List<Map.Entry<String, Object>> currentKeys = new ArrayList<>(current.entrySet());
+        for (int i = 0; i < requiredKeys.size(); i++) {
+            if (!requiredKeys.get(i).getKey().equals(currentKeys.get(i).getKey())
+                    || !sameValue(requiredKeys.get(i).getValue(), currentKeys.get(i).getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameOptions(Document required, Document current) {
+        for (String option : COMPARED_OPTIONS) {
+            Object requiredValue = required.get(option);
+            Object currentValue = current.get(option);
+            if ("unique".equals(option)) {
+                requiredValue = Boolean.TRUE.equals(requiredValue);
+                currentValue = Boolean.TRUE.equals(currentValue);
+            }
+            if (!sameValue(requiredValue, currentValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean onlyTtlDiffers(Document required, Document current) {
+        Document withCurrentTtl = new Document(required);
+        withCurrentTtl.put("expireAfterSeconds", current.get("expireAfterSeconds"));
+        return required.get("expireAfterSeconds") != null && current.get("expireAfterSeconds") != null
+                && sameOptions(withCurrentTtl, current);
+    }
+
+    private static boolean sameValue(Object required, Object current) {
+        if (required instanceof Number requiredNumber && current instanceof Number currentNumber) {
+            return requiredNumber.doubleValue() == currentNumber.doubleValue();
+        }
+        return Objects.equals(required, current);
+    }
+
+    record RequiredIndex(Class<?> entityClass, Index index) {
+
+        String name() {
+            return index.getIndexOptions().getString("name");
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.banking.index;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rejects any Mongo query that the server would answer with a collection scan. Meant for the test profile, where
+ * a repository method without a matching index in {@link MongoIndexManager} should fail its test instead of
+ * slowing down production once the collection has grown.
+ * <p>
+ * The {@link MongoDatabaseFactory} is wrapped so that the filter of every find, count, update, delete and distinct
+ * is explained first, once per query shape. Unfiltered reads (such as {@code findAll} pages) are deliberate full
+ * scans and are let through. Bulk writes and aggregations are not checked.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.mongo.query-plan-guard.enabled", havingValue = "true")
+public class QueryPlanGuard implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanGuard.class);
+
+    private static final Set<String> FILTERED_METHODS = Set.of(
+            "find", "countDocuments", "distinct", "updateOne", "updateMany", "deleteOne", "deleteMany", "replaceOne",
+            "findOneAndUpdate", "findOneAndDelete", "findOneAndReplace");
+
+    // Query shapes (collection plus filter with values blanked) already shown to use an index
+    private final Set<String> approvedShapes = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof MongoDatabaseFactory) {
+            logger.info("Query plan guard enabled: collection scans are rejected");
+            return wrap(bean);
+        }
+        return bean;
+    }
+
+    /**
+     * Explains the filter against the collection, unless its shape was approved before.
+     *
+     * @throws IllegalStateException if the winning plan contains a collection scan.
+     */
+    void check(MongoCollection<?> collection, Bson filter) {
+        BsonDocument filterDocument = filter.toBsonDocument(BsonDocument.class, collection.getCodecRegistry());
+        if (filterDocument.isEmpty()) {
+            return;
+        }
+        String namespace = collection.getNamespace().getFullName();
+        String shape = namespace + " " + shape(filterDocument).toJson();
+        if (approvedShapes.contains(shape)) {
+            return;
+        }
+        Document plan = collection.find(filter).explain();
+        Document queryPlanner = plan.get("queryPlanner", Document.class);
+        Object winningPlan = queryPlanner == null ? null : queryPlanner.get("winningPlan");
+        if (containsCollectionScan(winningPlan)) {
+            logger.error("Query plan rejected: COLLSCAN on {} for filter {}", namespace, filterDocument.toJson());
+            throw new IllegalStateException("Query on " + namespace + " with filter " + filterDocument.toJson()
+                    + " needs a collection scan; declare a matching index in MongoIndexManager");
+        }
+        approvedShapes.add(shape);
+    }
+
+    private static boolean containsCollectionScan(Object plan) {
+        if (plan instanceof Map<?, ?> stage) {
+            if ("COLLSCAN".equals(stage.get("stage"))) {
+                return true;
+            }
+            return stage.values().stream().anyMatch(QueryPlanGuard::containsCollectionScan);
+        }
+        if (plan instanceof List<?> stages) {
+            return stages.stream().anyMatch(QueryPlanGuard::containsCollectionScan);
+        }
+        return false;
+    }
+
+    private static BsonDocument shape(BsonDocument filter) {
+        BsonDocument shape = new BsonDocument();
+        filter.forEach((key, value) -> {
+            if (value.isDocument()) {
+                shape.put(key, shape(value.asDocument()));
+            } else if (value.isArray() && value.asArray().stream().allMatch(BsonValue::isDocument)) {
+                // $and/$or branches each have their own shape, while $in lists only differ in values
+                shape.put(key, new BsonArray(value.asArray().stream()
+                        .map(element -> (BsonValue) shape(element.asDocument()))
+                        .toList()));
+            } else {
+                shape.put(key, new BsonString(value.getBsonType().name()));
+            }
+        });
+        return shape;
+    }
+
+    private Object wrap(Object target) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfaces(target);
+        return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, new GuardHandler(target));
+    }
+
+    private class GuardHandler implements InvocationHandler {
+
+        private final Object target;
+
+        GuardHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (target instanceof MongoCollection<?> collection && FILTERED_METHODS.contains(method.getName())) {
+                Bson filter = firstFilter(args);
+                if (filter != null) {
+                    check(collection, filter);
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof MongoDatabaseFactory || result instanceof MongoDatabase
+                    || result instanceof MongoCollection) {
+                return wrap(result);
+            }
+            return result;
+        }
+
+        private Bson firstFilter(Object[] args) {
+            if (args == null) {
+                return null;
+            }
+            for (Object arg : args) {
+                if (arg instanceof Bson bson) {
+                    return bson;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.banking.ingest;
+
+import com.example.banking.history.TransactionHistoryService;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.ImportCheckpointRepository;
+import com.example.banking.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline import of historical transactions from CSV files (see {@link CsvTransactionParser} for the format),
+ * for onboarding a bank. Started with {@code banking.import.enabled=true} and {@code banking.import.files}; the
+ * application exits once the import is done, with status 1 if any row was rejected (see {@link #getExitCode()}).
+ * <p>
+ * Each file is cut into splits of about {@code split-size}, ending at line boundaries, which {@code threads} workers
+ * memory-map and parse in parallel. Rows are written with unordered bulk inserts of {@code batch-size} and appended
+ * to the accounts' history and transaction counts. Like other recorded transactions they did not move a balance,
+ * so they stay out of the daily rollups; no events are published for them.
+ * <p>
+ * A split is checkpointed once all its rows are written, and splits with a checkpoint are skipped on the next run.
+ * Checkpoints are keyed by the split's content, so a file that was moved or renamed in between still resumes. Rows
+ * of an interrupted split are inserted again on resume; their IDs are stable, as derived ones come from the split's
+ * content too, so the ones already stored fail as duplicates, and are only appended to history if the interrupted
+ * run stopped before doing so.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.import.enabled", havingValue = "true")
+public class CsvTransactionImporter implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvTransactionImporter.class);
+
+    private static final int BOUNDARY_SCAN_SIZE = 8192;
+
+    /**
+     * Rows of a file from {@code start} (inclusive) to {@code end} (exclusive), both at line boundaries.
+     */
+    record Split(Path file, long start, long end) {
+    }
+
+    /**
+     * Totals of an import run. Rows are those read from the files, including rejected and duplicate ones.
+     */
+    public record ImportResult(long rows, long inserted, long duplicates, long failed, int skippedSplits,
+                               Duration elapsed) {
+
+        public double rowsPerSecond() {
+            return elapsed.isZero() ? 0 : rows * 1e9 / elapsed.toNanos();
+        }
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionHistoryService transactionHistoryService;
+    private final ImportCheckpointRepository checkpointRepository;
+    private final List<String> files;
+    private final int threads;
+    private final long splitSize;
+    private final int batchSize;
+    private final Duration progressInterval;
+    private volatile int exitCode;
+
+    public CsvTransactionImporter(TransactionRepository transactionRepository,
+                                  TransactionHistoryService transactionHistoryService,
+                                  ImportCheckpointRepository checkpointRepository,
+                                  @Value("${banking.import.files:}") List<String> files,
+                                  @Value("${banking.import.threads:4}") int threads,
+                                  @Value("${banking.import.split-size:64MB}") DataSize splitSize,
+                                  @Value("${banking.import.batch-size:1000}") int batchSize,
+                                  @Value("${banking.import.progress-interval:10s}") Duration progressInterval) {
+        // A split is mapped in one piece, and a mapping cannot exceed 2GB
+        if (threads <= 0 || batchSize <= 0 || splitSize.toBytes() <= 0 || splitSize.toGigabytes() >= 1) {
+            throw new IllegalArgumentException("Import threads and batch size must be positive, and the split size "
+                    + "between 1 byte and 1GB");
+        }
+        this.transactionRepository = transactionRepository;
+        this.transactionHistoryService = transactionHistoryService;
+        this.checkpointRepository = checkpointRepository;
+        this.files = files;
+        this.threads = threads;
+        this.splitSize = splitSize.toBytes();
+        this.batchSize = batchSize;
+        this.progressInterval = progressInterval;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (files.isEmpty()) {
+            logger.error("Import failed: No files given in banking.import.files");
+            throw new IllegalArgumentException("banking.import.files must name the files to import");
+        }
+        ImportResult result = importFiles(files.stream().map(Path::of).toList());
+        exitCode = result.failed() == 0 ? 0 : 1;
+    }
+
+    /**
+     * 1 if the import rejected rows, otherwise 0. Picked up by {@code SpringApplication.exit} once the import has
+     * run.
+     */
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Imports the files, skipping splits that an earlier run completed.
+     */
+    public ImportResult importFiles(List<Path> paths) throws IOException {
+        logger.info("Importing transactions from {} with {} threads", paths, threads);
+        long started = System.nanoTime();
+        List<Split> splits = new ArrayList<>();
+        for (Path path : paths) {
+            splits.addAll(splits(path));
+        }
+
+        Progress progress = new Progress();
+        int skipped;
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory());
+        try {
+            List<CompletableFuture<String>> digests = splits.stream()
+                    .map(split -> CompletableFuture.supplyAsync(() -> checkpointId(split), executor))
+                    .toList();
+            List<String> checkpointIds = digests.stream().map(CompletableFuture::join).toList();
+            Set<String> completed = new HashSet<>();
+            checkpointRepository.findAllById(checkpointIds).forEach(checkpoint -> completed.add(checkpoint.getId()));
+            List<CompletableFuture<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < splits.size(); i++) {
+                Split split = splits.get(i);
+                String checkpointId = checkpointIds.get(i);
+                if (!completed.contains(checkpointId)) {
+                    tasks.add(CompletableFuture.runAsync(() -> importSplit(split, checkpointId, progress), executor));
+                }
+            }
+            skipped = splits.size() - tasks.size();
+            logger.info("{} of {} splits to import, {} completed by an earlier run", tasks.size(), splits.size(), skipped);
+            awaitWithProgress(CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)), progress, started);
+        } catch (CompletionException e) {
+            logger.error("Import failed: Could not read the files to import", e.getCause());
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ImportResult result = new ImportResult(progress.rows.sum(), progress.inserted.sum(), progress.duplicates.sum(),
+                progress.failed.sum(), skipped, Duration.ofNanos(System.nanoTime() - started));
+        logger.info("Import completed: {} rows ({} inserted, {} already imported, {} failed) in {}s, {} rows/sec",
+                result.rows(), result.inserted(), result.duplicates(), result.failed(),
+                result.elapsed().toSeconds(), Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * Cuts the file into splits of about {@code split-size}, each ending right after a line feed or at the end
+     * of the file. The same file always gives the same splits.
+     */
+    List<Split> splits(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Split> splits = new ArrayList<>();
+            for (long start = 0; start < size; ) {
+                long end = lineBoundary(channel, Math.min(start + splitSize, size), size);
+                splits.add(new Split(file, start, end));
+                start = end;
+            }
+            return splits;
+        }
+    }
+
+    // The first line boundary at or after position
+    private static long lineBoundary(FileChannel channel, long position, long size) throws IOException {
+        if (position == size) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        // A line feed just before position already ends a line there
+        for (long scanned = position - 1; scanned < size; ) {
+            buffer.clear();
+            int read = channel.read(buffer, scanned);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return scanned + i + 1;
+                }
+            }
+            scanned += read;
+        }
+        return size;
+    }
+
+    /**
+     * The SHA-256 of the split's bytes and their length. Independent of where the file is, and two splits with the
+     * same ID hold the same rows.
+     */
+    String checkpointId(Split split) {
+        try (FileChannel channel = FileChannel.open(split.file(), StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, split.start(), split.end() - split.start()));
+            return HexFormat.of().formatHex(digest.digest()) + ":" + (split.end() - split.start());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + split.file() + " at " + split.start(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void importSplit(Split split, String checkpointId, Progress progress) {
+        String source = split.file().toString();
+        long rows = 0;
+        long failed = 0;
+        try (FileChannel channel = FileChannel.open(split.file(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, split.start(),
+                    split.end() - split.start());
+            CsvTransactionParser parser = new CsvTransactionParser(buffer, split.start(), checkpointId);
+            List<Transaction> batch = new ArrayList<>(batchSize);
+            while (parser.hasNext()) {
+                rows++;
+                progress.rows.increment();
+                try {
+                    batch.add(parser.next());
+                } catch (IllegalArgumentException e) {
+                    failed++;
+                    progress.failed.increment();
+                    logger.warn("Skipping row at {}:{}: {}", source, parser.rowOffset(), e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    failed += write(batch, progress);
+                    batch.clear();
+                }
+            }
+            failed += write(batch, progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Import of " + source + " at " + split.start() + " failed", e);
+        }
+        checkpointRepository.save(new ImportCheckpoint(checkpointId, rows, failed));
+        logger.debug("Imported split {} of {} at {}: {} rows, {} failed", checkpointId, source, split.start(), rows, failed);
+    }
+
+    // Inserts the batch and appends the new rows to history; returns the number of rows the insert rejected
+    private long write(List<Transaction> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, String> rejected = transactionRepository.insertUnordered(batch);
+        List<Transaction> inserted = new ArrayList<>(batch.size() - rejected.size());
+        List<Transaction> duplicates = new ArrayList<>();
+        long failed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            String error = rejected.get(i);
+            if (error == null) {
+                inserted.add(batch.get(i));
+            } else if (TransactionRepository.ALREADY_RECORDED.equals(error)) {
+                // Stored by an earlier run that stopped before checkpointing the split, maybe before its history append
+                duplicates.add(batch.get(i));
+                progress.duplicates.increment();
+            } else {
+                failed++;
+                progress.failed.increment();
+                logger.warn("Insert of imported transaction {} failed: {}", batch.get(i).getId(), error);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            transactionHistoryService.appendRecorded(inserted);
+        }
+        if (!duplicates.isEmpty()) {
+            transactionHistoryService.appendRecordedIfMissing(duplicates);
+        }
+        progress.inserted.add(inserted.size());
+        return failed;
+    }
+
+    // Waits for all splits, logging the throughput every progress-interval
+    private void awaitWithProgress(CompletableFuture<?> tasks, Progress progress, long started) {
+        while (true) {
+            try {
+                tasks.get(progressInterval.toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                long rows = progress.rows.sum();
+                logger.info("Imported {} rows so far ({} failed), {} rows/sec", rows, progress.failed.sum(),
+                        Math.round(rows * 1e9 / (System.nanoTime() - started)));
+            } catch (ExecutionException e) {
+                logger.error("Import failed; completed splits are checkpointed, run it again to resume", e.getCause());
+                throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while importing transactions", e);
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Counters shared by the workers of one run
+    static class Progress {
+        final LongAdder rows = new LongAdder();
+        final LongAdder inserted = new LongAdder();
+        final LongAdder duplicates = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.banking.ingest;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Parses rows of {@code id,accountId,type,amount,timestamp} straight from the bytes of a (memory-mapped) buffer.
+ * Only the two ID columns become strings; type, amount and timestamp are decoded in place.
+ * <p>
+ * Fields are not quoted, amounts are plain decimals that may be signed (debit legs are stored negative) and
+ * timestamps are {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]}, optionally followed by {@code Z}. A row without an ID gets
+ * one derived from the content of its split and the row's offset in the split, so importing the same row again
+ * yields the same ID, also after the file was moved or renamed. A first
+ * line starting with {@code id,} at the start of a file is taken as a header and skipped.
+ */
+class CsvTransactionParser {
+
+    private static final int FIELDS = 5;
+    private static final int CURRENCY_SCALE = Money.DEFAULT_CURRENCY.getDefaultFractionDigits();
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    private static final byte[][] TYPE_NAMES = new byte[TYPES.length][];
+    private static final byte[] HEADER_PREFIX = "id,".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (int i = 0; i < TYPES.length; i++) {
+            TYPE_NAMES[i] = TYPES[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final long offset;
+    private final String splitId;
+    private final int limit;
+    private int position;
+    private int lineEnd;
+    private int fieldStart;
+    private int valueStart;
+    private int valueEnd;
+    private long rowOffset;
+
+    /**
+     * @param buffer the rows, from index 0 to its limit; a row ends at a line feed or at the limit.
+     * @param offset  the offset of the buffer in the file, used for error messages.
+     * @param splitId identifies the content of the buffer, used for derived IDs.
+     */
+    CsvTransactionParser(ByteBuffer buffer, long offset, String splitId) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.splitId = splitId;
+        this.limit = buffer.limit();
+        if (offset == 0 && startsWith(HEADER_PREFIX)) {
+            skipLine();
+        }
+    }
+
+    /**
+     * Skips blank lines and tells whether another row follows.
+     */
+    boolean hasNext() {
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b != '\n' && b != '\r') {
+                return true;
+            }
+            position++;
+        }
+        return false;
+    }
+
+    /**
+     * Parses the next row. The parser moves past the row even if it is rejected.
+     *
+     * @throws IllegalArgumentException if the row is not a valid transaction.
+     */
+    Transaction next() {
+        int lineStart = position;
+        skipLine();
+        rowOffset = offset + lineStart;
+        lineEnd = position - 1;
+        if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        fieldStart = lineStart;
+
+        nextField();
+        String id = string();
+        nextField();
+        String accountId = string();
+        if (accountId.isBlank()) {
+            throw new IllegalArgumentException("Account ID must not be blank");
+        }
+        nextField();
+        Transaction.TransactionType type = type();
+        nextField();
+        Money amount = amount();
+        nextField();
+        LocalDateTime timestamp = timestamp();
+        if (fieldStart <= lineEnd) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields");
+        }
+        if (id.isEmpty()) {
+            id = UUID.nameUUIDFromBytes((splitId + ":" + (rowOffset - offset)).getBytes(StandardCharsets.UTF_8)).toString();
+        }
+        return new Transaction(id, accountId, type, amount, timestamp);
+    }
+
+    /**
+     * Returns the offset in the file of the row last returned or rejected by {@link #next()}.
+     */
+    long rowOffset() {
+        return rowOffset;
+    }
+
+    private void skipLine() {
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        // Past the line feed, or one past the limit for a last line without one
+        position++;
+    }
+
+    private boolean startsWith(byte[] prefix) {
+        if (limit < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Bounds the next field with valueStart and valueEnd, and moves fieldStart past its comma
+    private void nextField() {
+        if (fieldStart > lineEnd) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields");
+        }
+        valueStart = fieldStart;
+        valueEnd = fieldStart;
+        while (valueEnd < lineEnd && buffer.get(valueEnd) != ',') {
+            valueEnd++;
+        }
+        fieldStart = valueEnd + 1;
+    }
+
+    private String string() {
+        byte[] bytes = new byte[valueEnd - valueStart];
+        buffer.get(valueStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Transaction.TransactionType type() {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (equalsIgnoreCase(TYPE_NAMES[i])) {
+                return TYPES[i];
+            }
+        }
+        throw new IllegalArgumentException("Invalid transaction type");
+    }
+
+    private boolean equalsIgnoreCase(byte[] upperCase) {
+        if (valueEnd - valueStart != upperCase.length) {
+            return false;
+        }
+        for (int i = 0; i < upperCase.length; i++) {
+            byte b = buffer.get(valueStart + i);
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != upperCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Money amount() {
+        int i = valueStart;
+        int end = valueEnd;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        try {
+            long units = 0;
+            int scale = -1;
+            boolean digits = false;
+            for (; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else if (b >= '0' && b <= '9') {
+                    units = Math.addExact(Math.multiplyExact(units, 10), b - '0');
+                    digits = true;
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                } else {
+                    throw new IllegalArgumentException("Invalid amount");
+                }
+            }
+            if (!digits) {
+                throw new IllegalArgumentException("Invalid amount");
+            }
+            for (; scale > CURRENCY_SCALE && units % 10 == 0; scale--) {
+                units /= 10;
+            }
+            if (scale > CURRENCY_SCALE) {
+                throw new IllegalArgumentException("Amount has more decimal places than the currency allows");
+            }
+            for (int s = Math.max(scale, 0); s < CURRENCY_SCALE; s++) {
+                units = Math.multiplyExact(units, 10);
+            }
+            if (units == 0) {
+                throw new IllegalArgumentException("Amount must not be zero");
+            }
+            return Money.ofMinor(negative ? -units : units);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range");
+        }
+    }
+
+    private LocalDateTime timestamp() {
+        int i = valueStart;
+        int end = valueEnd;
+        try {
+            int year = digits(i, 4, end);
+            expect(i + 4, '-', end);
+            int month = digits(i + 5, 2, end);
+            expect(i + 7, '-', end);
+            int day = digits(i + 8, 2, end);
+            expect(i + 10, 'T', end);
+            int hour = digits(i + 11, 2, end);
+            expect(i + 13, ':', end);
+            int minute = digits(i + 14, 2, end);
+            i += 16;
+            int second = 0;
+            int nano = 0;
+            if (i < end && buffer.get(i) == ':') {
+                second = digits(i + 1, 2, end);
+                i += 3;
+                if (i < end && buffer.get(i) == '.') {
+                    int fractionDigits = 0;
+                    for (i++; i < end && isDigit(buffer.get(i)); i++) {
+                        if (++fractionDigits > 9) {
+                            throw invalidTimestamp();
+                        }
+                        nano = nano * 10 + buffer.get(i) - '0';
+                    }
+                    if (fractionDigits == 0) {
+                        throw invalidTimestamp();
+                    }
+                    for (; fractionDigits < 9; fractionDigits++) {
+                        nano *= 10;
+                    }
+                }
+            }
+            if (i < end && buffer.get(i) == 'Z') {
+                i++;
+            }
+            if (i != end) {
+                throw invalidTimestamp();
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException e) {
+            throw invalidTimestamp();
+        }
+    }
+
+    private int digits(int start, int count, int end) {
+        if (start + count > end) {
+            throw invalidTimestamp();
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = buffer.get(i);
+            if (!isDigit(b)) {
+                throw invalidTimestamp();
+            }
+            value = value * 10 + b - '0';
+        }
+        return value;
+    }
+
+    private void expect(int index, char c, int end) {
+        if (index >= end || buffer.get(index) != c) {
+            throw invalidTimestamp();
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static IllegalArgumentException invalidTimestamp() {
+        return new IllegalArgumentException("Timestamp must be in ISO-8601 format: yyyy-MM-ddTHH:mm:ss[.SSS]");
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.banking.ingest;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Marks one split of an import file as imported. The ID names the file, its size and the split's start offset, so a
+ * file that changed between runs is imported again rather than resumed.
+ */
+@Document(collection = "import_checkpoints")
+public class ImportCheckpoint {
+
+    @Id
+    private String id;
+
+    private long rows;
+
+    private long failed;
+
+    private Instant completedAt;
+
+    public ImportCheckpoint() {
+    }
+
+    public ImportCheckpoint(String id, long rows, long failed) {
+        this.id = id;
+        this.rows = rows;
+        this.failed = failed;
+        this.completedAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
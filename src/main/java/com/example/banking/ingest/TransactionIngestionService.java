@@ -0,0 +1,250 @@
+package com.example.banking.ingest;
+
+import com.example.banking.event.EventOutbox;
+import com.example.banking.exception.IngestionFailedException;
+import com.example.banking.exception.MalformedUploadException;
+import com.example.banking.history.TransactionHistoryService;
+import com.example.banking.model.IngestionResponse;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * High-volume path for recording transactions. An upload is parsed incrementally into chunks of {@code chunk-size},
+ * each written with one unordered bulk insert, and at most {@code concurrency} chunks are written at a time across
+ * all uploads.
+ * <p>
+ * Invalid items and items the insert rejected are reported back by index; the rest of the upload is still
+ * recorded. Each chunk's inserted transactions get one history append and one outbox event, as a call to
+ * {@code recordTransactions} would.
+ * <p>
+ * Items keep the {@code id} they are uploaded with, or get one derived from the idempotency key, so retrying an
+ * upload that failed part way does not record its first chunks twice: they are reported as already recorded. A
+ * failed upload reports how many of its transactions were committed.
+ */
+@Service
+public class TransactionIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionIngestionService.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionHistoryService transactionHistoryService;
+    private final EventOutbox eventOutbox;
+    private final Validator validator;
+    private final ObjectReader uploadReader;
+    private final int chunkSize;
+    private final int concurrency;
+    private final ThreadPoolExecutor executor;
+    private final Counter insertedCounter;
+    private final Counter failedCounter;
+    private final Timer chunkTimer;
+
+    @Value("${kafka.topic.transaction-events}")
+    private String transactionEventsTopic;
+
+    public TransactionIngestionService(TransactionRepository transactionRepository,
+                                       TransactionHistoryService transactionHistoryService,
+                                       EventOutbox eventOutbox,
+                                       Validator validator,
+                                       ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${banking.ingest.chunk-size:1000}") int chunkSize,
+                                       @Value("${banking.ingest.concurrency:4}") int concurrency) {
+        if (chunkSize <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("Ingestion chunk size and concurrency must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        this.transactionHistoryService = transactionHistoryService;
+        this.eventOutbox = eventOutbox;
+        this.validator = validator;
+        // Floats are read as decimals so that amounts survive the detour through a tree exactly
+        this.uploadReader = objectMapper.readerFor(Transaction.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+        // Chunks beyond the cap wait in the queue; the request threads that submitted them wait for their results
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory());
+        this.insertedCounter = Counter.builder("banking.ingest.inserted")
+                .description("Transactions recorded through bulk ingestion")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("banking.ingest.failed")
+                .description("Transactions of bulk uploads that were rejected")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("banking.ingest.chunk")
+                .description("Time to validate, insert and record one ingestion chunk")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads a JSON array of transactions from {@code upload} and records it chunk by chunk, in parallel, waiting for
+     * all of them. Reading pauses while {@code concurrency} chunks of this upload are being written, so memory use
+     * does not depend on the size of the upload.
+     *
+     * @param idempotencyKey the key the upload was sent with, or null; items without an ID get one derived from it.
+     * @throws MalformedUploadException if the upload is not a JSON array of transactions.
+     * @throws IngestionFailedException if a chunk could not be written.
+     */
+    public IngestionResponse ingest(InputStream upload, String idempotencyKey) {
+        logger.info("Ingesting transaction upload in chunks of {}", chunkSize);
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicBoolean chunkFailed = new AtomicBoolean();
+        AtomicLong committed = new AtomicLong();
+        List<CompletableFuture<List<IngestionResponse.Failure>>> chunks = new ArrayList<>();
+        long received;
+        try (TransactionUploadReader reader = new TransactionUploadReader(uploadReader, upload, idempotencyKey)) {
+            TransactionUploadReader.Chunk chunk;
+            // A failed chunk fails the upload, so there is no point reading on
+            while (!chunkFailed.get() && (chunk = reader.next(chunkSize)) != null) {
+                inFlight.acquire();
+                TransactionUploadReader.Chunk submitted = chunk;
+                chunks.add(CompletableFuture.supplyAsync(() -> writeChunk(submitted, committed), executor)
+                        .whenComplete((failures, e) -> {
+                            if (e != null) {
+                                chunkFailed.set(true);
+                            }
+                            inFlight.release();
+                        }));
+            }
+            received = reader.read();
+        } catch (JsonProcessingException e) {
+            awaitQuietly(chunks);
+            logger.error("Ingestion failed: Upload is not a JSON array of transactions: {}, {} committed",
+                    e.getOriginalMessage(), committed.get());
+            throw new MalformedUploadException("Upload is not a JSON array of transactions: " + e.getOriginalMessage(),
+                    committed.get(), e);
+        } catch (IOException e) {
+            awaitQuietly(chunks);
+            logger.error("Ingestion failed: Upload could not be read, {} committed", committed.get(), e);
+            throw new IngestionFailedException("Upload could not be read", committed.get(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            awaitQuietly(chunks);
+            throw new IngestionFailedException("Interrupted while ingesting transactions", committed.get(), e);
+        }
+
+        List<IngestionResponse.Failure> failures = new ArrayList<>();
+        try {
+            chunks.forEach(chunk -> failures.addAll(chunk.join()));
+        } catch (CompletionException e) {
+            awaitQuietly(chunks);
+            logger.error("Ingestion failed after {} transactions were committed", committed.get(), e.getCause());
+            throw new IngestionFailedException("Ingestion failed: " + e.getCause().getMessage(), committed.get(), e.getCause());
+        }
+        failures.sort(Comparator.comparingLong(IngestionResponse.Failure::getIndex));
+        IngestionResponse response = new IngestionResponse(received, failures);
+        logger.info("Ingestion completed: {} inserted, {} failed", response.getInserted(), response.getFailed());
+        return response;
+    }
+
+    /**
+     * Validates and inserts one chunk. Each item is validated exactly once, here. Inserted items are added to
+     * {@code committed} as soon as they are in Mongo.
+     *
+     * @return the failed items.
+     */
+    List<IngestionResponse.Failure> writeChunk(TransactionUploadReader.Chunk chunk, AtomicLong committed) {
+        return chunkTimer.record(() -> {
+            List<Transaction> transactions = chunk.transactions();
+            long offset = chunk.offset();
+            List<IngestionResponse.Failure> failures = new ArrayList<>();
+            List<Transaction> valid = new ArrayList<>(transactions.size());
+            List<Long> validIndexes = new ArrayList<>(transactions.size());
+            for (int i = 0; i < transactions.size(); i++) {
+                String violations = chunk.unreadable().containsKey(i)
+                        ? chunk.unreadable().get(i)
+                        : violations(transactions.get(i));
+                if (violations != null) {
+                    failures.add(new IngestionResponse.Failure(offset + i, violations));
+                } else {
+                    valid.add(transactions.get(i));
+                    validIndexes.add(offset + i);
+                }
+            }
+
+            Map<Integer, String> rejected = valid.isEmpty() ? Map.of() : transactionRepository.insertUnordered(valid);
+            rejected.forEach((index, message) -> failures.add(new IngestionResponse.Failure(validIndexes.get(index), message)));
+            List<Transaction> inserted = new ArrayList<>(valid.size() - rejected.size());
+            for (int i = 0; i < valid.size(); i++) {
+                if (!rejected.containsKey(i)) {
+                    inserted.add(valid.get(i));
+                }
+            }
+            committed.addAndGet(inserted.size());
+
+            if (!inserted.isEmpty()) {
+                transactionHistoryService.appendRecorded(inserted);
+                eventOutbox.enqueueTransactions(transactionEventsTopic, inserted);
+            }
+            insertedCounter.increment(inserted.size());
+            failedCounter.increment(failures.size());
+            logger.debug("Ingestion chunk at {}: {} inserted, {} failed", offset, inserted.size(), failures.size());
+            return failures;
+        });
+    }
+
+    // Chunks already submitted are still written; the caller only gets its answer once they are done
+    private static void awaitQuietly(List<CompletableFuture<List<IngestionResponse.Failure>>> chunks) {
+        chunks.forEach(chunk -> chunk.handle((failures, e) -> null).join());
+    }
+
+    private String violations(Transaction transaction) {
+        if (transaction == null) {
+            return "Transaction must not be null";
+        }
+        Set<ConstraintViolation<Transaction>> violations = validator.validate(transaction);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "ingest-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.banking.ingest;
+
+import com.example.banking.model.Transaction;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads a JSON array of transactions from a stream one element at a time, so only the chunk being read is held in
+ * memory rather than the whole upload.
+ * <p>
+ * Each element is read into a tree before it is bound. An element that is well-formed JSON but not a valid
+ * transaction (an unknown type, an unparseable timestamp) then only fails that element; malformed JSON fails the
+ * rest of the upload.
+ * <p>
+ * An element's {@code id}, if it has one, becomes the transaction's ID. Otherwise, with an idempotency key, the ID is
+ * derived from the key and the element's position, so a retry of the same upload produces the same IDs.
+ */
+class TransactionUploadReader implements Closeable {
+
+    /**
+     * Consecutive elements of the upload, the first being element {@code offset}. Elements that could not be bound
+     * are {@code null}, with the reason under their position in the chunk in {@code unreadable}.
+     */
+    record Chunk(long offset, List<Transaction> transactions, Map<Integer, String> unreadable) {
+    }
+
+    private final ObjectReader reader;
+    private final JsonParser parser;
+    private final String idempotencyKey;
+    private long read;
+    private boolean finished;
+
+    TransactionUploadReader(ObjectReader reader, InputStream upload, String idempotencyKey) throws IOException {
+        this.reader = reader;
+        this.idempotencyKey = idempotencyKey;
+        this.parser = reader.createParser(upload);
+        // The request stream belongs to the container
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected a JSON array of transactions");
+        }
+    }
+
+    /**
+     * Reads up to {@code size} further elements.
+     *
+     * @return the elements read, or {@code null} once the array has ended.
+     */
+    Chunk next(int size) throws IOException {
+        if (finished) {
+            return null;
+        }
+        long offset = read;
+        List<Transaction> transactions = new ArrayList<>(size);
+        Map<Integer, String> unreadable = new HashMap<>();
+        while (transactions.size() < size) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                if (parser.nextToken() != null) {
+                    throw new JsonParseException(parser, "Unexpected content after the array of transactions");
+                }
+                finished = true;
+                break;
+            }
+            if (token == null) {
+                throw new JsonParseException(parser, "Unexpected end of upload inside the array of transactions");
+            }
+            JsonNode element = reader.readTree(parser);
+            try {
+                Transaction transaction = reader.readValue(element);
+                String id = id(element, read);
+                if (id != null) {
+                    transaction.setId(id);
+                }
+                transactions.add(transaction);
+            } catch (JsonProcessingException e) {
+                unreadable.put(transactions.size(), e.getOriginalMessage());
+                transactions.add(null);
+            } catch (IllegalArgumentException e) {
+                unreadable.put(transactions.size(), e.getMessage());
+                transactions.add(null);
+            }
+            read++;
+        }
+        return transactions.isEmpty() ? null : new Chunk(offset, transactions, unreadable);
+    }
+
+    /**
+     * The ID given in the element, or derived from the idempotency key, or null to keep the random one.
+     */
+    private String id(JsonNode element, long index) {
+        JsonNode id = element.get("id");
+        if (id != null && !id.isNull()) {
+            if (!id.isTextual() || id.asText().isBlank()) {
+                throw new IllegalArgumentException("id: must be a non-blank string");
+            }
+            return id.asText();
+        }
+        if (idempotencyKey == null) {
+            return null;
+        }
+        return UUID.nameUUIDFromBytes((idempotencyKey + ":" + index).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Returns the number of elements read so far.
+     */
+    long read() {
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.banking.ledger;
+
+import com.example.banking.model.Money;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The ledger balance of an account after the entry with {@code sequence}. There is one checkpoint per account,
+ * keyed by the account ID, and it only ever moves forward.
+ */
+@Document(collection = "ledger_checkpoints")
+public class LedgerCheckpoint {
+
+    @Id
+    private String accountId;
+
+    private long sequence;
+
+    private Money balance;
+
+    private Instant updatedAt;
+
+    public LedgerCheckpoint() {
+    }
+
+    public LedgerCheckpoint(String accountId, long sequence, Money balance) {
+        this.accountId = accountId;
+        this.sequence = sequence;
+        this.balance = balance;
+        this.updatedAt = Instant.now();
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Money balance) {
+        this.balance = balance;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.banking.ledger;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.LedgerCheckpointRepository;
+import com.example.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only account ledger, used instead of the mutable {@code Account.balance} when
+ * {@code banking.ledger.enabled} is set.
+ * <p>
+ * Every ledger entry is a {@link Transaction} with a per-account {@code sequence} number. The unique index on
+ * (accountId, sequence) declared in {@code MongoIndexManager} makes a concurrent append to the same ledger fail
+ * instead of forking it. An account's balance is its {@link LedgerCheckpoint} plus the entries after it. The checkpoint is moved forward every
+ * {@code checkpoint-interval} entries, so a balance read is one checkpoint fetch plus a tail scan of fewer entries
+ * than that.
+ * <p>
+ * Accounts created before ledger mode start from a checkpoint at sequence 0 holding their stored balance.
+ */
+@Service
+public class LedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerService.class);
+
+    private final TransactionRepository transactionRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final AccountRepository accountRepository;
+    private final boolean enabled;
+    private final int checkpointInterval;
+    private final DistributionSummary tailSummary;
+
+    public LedgerService(TransactionRepository transactionRepository,
+                         LedgerCheckpointRepository checkpointRepository,
+                         AccountRepository accountRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${banking.ledger.enabled:false}") boolean enabled,
+                         @Value("${banking.ledger.checkpoint-interval:100}") int checkpointInterval) {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Ledger checkpoint interval must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.accountRepository = accountRepository;
+        this.enabled = enabled;
+        this.checkpointInterval = checkpointInterval;
+        this.tailSummary = DistributionSummary.builder("banking.ledger.tail.entries")
+                .description("Ledger entries after the checkpoint, scanned per account balance read")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the ledger of a new account, with its opening balance as the first entry. Call before the account
+     * itself is saved, so it is never seen without a checkpoint.
+     *
+     * @return the opening entry, or an empty list without an opening balance.
+     */
+    public List<Transaction> open(String accountId, Money openingBalance) {
+        logger.info("Opening ledger of account {} with balance {}", accountId, openingBalance);
+        checkpointRepository.insertMissing(List.of(new LedgerCheckpoint(accountId, 0, Money.ZERO)));
+        if (openingBalance == null || !openingBalance.isPositive()) {
+            return List.of();
+        }
+        Map<String, LedgerState> states = new HashMap<>();
+        states.put(accountId, new LedgerState(accountId, 0, Money.ZERO));
+        return append(List.of(new Transaction(accountId, Transaction.TransactionType.DEPOSIT, openingBalance)), states);
+    }
+
+    /**
+     * Loads the current ledger state of each account. Unknown accounts are missing from the result.
+     */
+    public Map<String, LedgerState> load(Collection<String> accountIds) {
+        Map<String, LedgerState> states = new HashMap<>();
+        checkpointRepository.findAllById(accountIds).forEach(checkpoint -> states.put(checkpoint.getAccountId(),
+                new LedgerState(checkpoint.getAccountId(), checkpoint.getSequence(), checkpoint.getBalance())));
+
+        List<String> missing = accountIds.stream().filter(accountId -> !states.containsKey(accountId)).toList();
+        if (!missing.isEmpty()) {
+            List<LedgerCheckpoint> seeds = new ArrayList<>();
+            accountRepository.findBalances(missing).forEach((accountId, balance) -> {
+                LedgerCheckpoint seed = new LedgerCheckpoint(accountId, 0, balance == null ? Money.ZERO : balance);
+                seeds.add(seed);
+                states.put(accountId, new LedgerState(accountId, 0, seed.getBalance()));
+            });
+            checkpointRepository.insertMissing(seeds);
+            logger.info("Seeded ledger checkpoints of {} accounts from their stored balance", seeds.size());
+        }
+
+        if (states.isEmpty()) {
+            return states;
+        }
+        Map<String, Long> after = new HashMap<>();
+        states.forEach((accountId, state) -> after.put(accountId, state.sequence()));
+        List<Transaction> tail = transactionRepository.findLedgerEntriesAfter(after);
+        for (Transaction entry : tail) {
+            LedgerState state = states.get(entry.getAccountId());
+            if (entry.getSequence() != state.sequence() + 1) {
+                logger.warn("Ledger of account {} has a gap before sequence {}", entry.getAccountId(), entry.getSequence());
+            }
+            states.put(entry.getAccountId(),
+                    new LedgerState(entry.getAccountId(), entry.getSequence(), state.balance().plus(entry.getAmount())));
+        }
+        tailSummary.record((double) tail.size() / states.size());
+        return states;
+    }
+
+    public Map<String, Money> balances(Collection<String> accountIds) {
+        Map<String, Money> balances = new HashMap<>();
+        load(accountIds).forEach((accountId, state) -> balances.put(accountId, state.balance()));
+        return balances;
+    }
+
+    /**
+     * Moves the checkpoints of the accounts to their current state, so that none of their ledger entries so far is
+     * needed for a balance read. Called before entries are archived out of the transactions collection.
+     */
+    public void checkpoint(Collection<String> accountIds) {
+        List<LedgerCheckpoint> checkpoints = load(accountIds).values().stream()
+                .map(state -> new LedgerCheckpoint(state.accountId(), state.sequence(), state.balance()))
+                .toList();
+        checkpointRepository.advance(checkpoints);
+        logger.info("Checkpointed the ledgers of {} accounts", checkpoints.size());
+    }
+
+    /**
+     * Appends the entries to their accounts' ledgers in list order, numbering them from {@code states}, which is
+     * updated to the state after the append. Checkpoints are moved forward where an interval boundary was passed.
+     *
+     * @throws OptimisticLockingFailureException if another writer appended to one of the ledgers since
+     *                                           {@code states} was loaded; nothing is appended then.
+     */
+    public List<Transaction> append(List<Transaction> entries, Map<String, LedgerState> states) {
+        Map<String, LedgerState> before = new HashMap<>();
+        for (Transaction entry : entries) {
+            LedgerState state = states.get(entry.getAccountId());
+            if (state == null) {
+                throw new IllegalArgumentException("No ledger loaded for account: " + entry.getAccountId());
+            }
+            before.putIfAbsent(entry.getAccountId(), state);
+            LedgerState next = state.append(entry.getAmount());
+            entry.setSequence(next.sequence());
+            states.put(entry.getAccountId(), next);
+        }
+
+        List<Transaction> inserted;
+        try {
+            inserted = transactionRepository.insert(entries);
+        } catch (DuplicateKeyException e) {
+            // Take back whatever part of the batch made it in, so no ledger is left with half a transfer
+            transactionRepository.deleteAllById(entries.stream().map(Transaction::getId).toList());
+            states.putAll(before);
+            logger.warn("Ledger append conflicted with a concurrent writer for accounts {}", before.keySet());
+            throw new OptimisticLockingFailureException("Ledger of accounts " + before.keySet() + " changed concurrently", e);
+        }
+
+        List<LedgerCheckpoint> checkpoints = new ArrayList<>();
+        before.forEach((accountId, previous) -> {
+            LedgerState current = states.get(accountId);
+            if (current.sequence() / checkpointInterval > previous.sequence() / checkpointInterval) {
+                checkpoints.add(new LedgerCheckpoint(accountId, current.sequence(), current.balance()));
+            }
+        });
+        checkpointRepository.advance(checkpoints);
+        return inserted;
+    }
+}
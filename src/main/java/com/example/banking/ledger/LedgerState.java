@@ -0,0 +1,13 @@
+package com.example.banking.ledger;
+
+import com.example.banking.model.Money;
+
+/**
+ * The last ledger sequence number of an account and its balance after that entry.
+ */
+public record LedgerState(String accountId, long sequence, Money balance) {
+
+    public LedgerState append(Money amount) {
+        return new LedgerState(accountId, sequence + 1, balance.plus(amount));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.banking.lock;
+
+import com.example.banking.exception.AccountLockTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes in-process work on the same accounts by mapping account IDs onto a fixed set of striped locks.
+ * <p>
+ * Stripes are always acquired in ascending index order, so two operations over the same pair of accounts
+ * (in either direction) can never deadlock. Operations whose accounts map to different stripes never block
+ * each other.
+ */
+@Component
+public class AccountLockManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountLockManager.class);
+
+    private final ReentrantLock[] stripes;
+    private final Timer[] waitTimers;
+    private final Counter[] contentionCounters;
+    private final Counter timeoutCounter;
+    private final long timeoutMillis;
+    private final int mask;
+
+    public AccountLockManager(MeterRegistry meterRegistry,
+                              @Value("${banking.lock.stripes:64}") int stripeCount,
+                              @Value("${banking.lock.timeout-ms:2000}") long timeoutMillis) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Lock stripe count must be positive");
+        }
+        // Round up to a power of two so the stripe index is a cheap mask
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+        this.stripes = new ReentrantLock[size];
+        this.waitTimers = new Timer[size];
+        this.contentionCounters = new Counter[size];
+        for (int i = 0; i < size; i++) {
+            String stripe = String.valueOf(i);
+            stripes[i] = new ReentrantLock();
+            waitTimers[i] = Timer.builder("banking.account.lock.wait")
+                    .description("Time spent waiting for an account lock stripe")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+            contentionCounters[i] = Counter.builder("banking.account.lock.contended")
+                    .description("Lock acquisitions that found the stripe already held")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+        }
+        this.timeoutCounter = Counter.builder("banking.account.lock.timeouts")
+                .description("Lock acquisitions that gave up after the configured timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} while holding the stripes of all given accounts.
+     *
+     * @throws AccountLockTimeoutException if the stripes could not be acquired within the configured timeout.
+     */
+    public <T> T executeLocked(Collection<String> accountIds, Supplier<T> action) {
+        int[] indexes = stripeIndexes(accountIds);
+        int acquired = 0;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (int index : indexes) {
+                acquire(index, deadline, accountIds);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    public void executeLocked(Collection<String> accountIds, Runnable action) {
+        executeLocked(accountIds, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    int stripeIndex(String accountId) {
+        int hash = accountId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Distinct stripe indexes in ascending order, which is the global lock acquisition order.
+     */
+    private int[] stripeIndexes(Collection<String> accountIds) {
+        return accountIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private void acquire(int index, long deadline, Collection<String> accountIds) {
+        ReentrantLock lock = stripes[index];
+        if (lock.tryLock()) {
+            waitTimers[index].record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        contentionCounters[index].increment();
+        long start = System.nanoTime();
+        boolean locked;
+        try {
+            locked = lock.tryLock(deadline - start, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountLockTimeoutException("Interrupted while waiting for lock on accounts: " + accountIds);
+        }
+        waitTimers[index].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!locked) {
+            timeoutCounter.increment();
+            logger.warn("Timed out after {} ms waiting for lock stripe {} on accounts {}", timeoutMillis, index, accountIds);
+            throw new AccountLockTimeoutException("Accounts are busy, please retry: " + accountIds);
+        }
+    }
+}
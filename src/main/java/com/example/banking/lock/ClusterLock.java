@@ -0,0 +1,63 @@
+package com.example.banking.lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Named locks shared by every instance through Mongo, for scheduled work that must run on one instance at a time.
+ * <p>
+ * A lock is a document naming its owner and when its lease expires. Acquiring succeeds if the lock is free, expired
+ * or already held by this instance, in which case the lease is extended. A holder that dies stops renewing, and
+ * its lock becomes free once the lease runs out.
+ */
+@Component
+public class ClusterLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterLock.class);
+
+    static final String COLLECTION = "cluster_locks";
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    public ClusterLock(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Takes or renews the lock for {@code lease}.
+     *
+     * @return false if another instance holds it.
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(name)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update().set("owner", owner).set("expiresAt", now.plus(lease));
+        try {
+            // An unexpired lock of another owner does not match, so the upsert collides with its _id
+            mongoTemplate.upsert(query, update, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            logger.debug("Lock {} is held by another instance", name);
+            return false;
+        }
+    }
+
+    /**
+     * Frees the lock if this instance holds it.
+     */
+    public void release(String name) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(name).and("owner").is(owner)), COLLECTION);
+    }
+}
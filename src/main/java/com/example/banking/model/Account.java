@@ -1,17 +1,16 @@
 package com.example.banking.model;
 
+import com.example.banking.history.TransactionBucket;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import jakarta.validation.Valid;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.DocumentReference;
 import org.springframework.validation.annotation.Validated;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,20 +26,46 @@ public class Account {
     private String customerId;
 
     @PositiveOrZero(message = "Account balance cannot be negative")
-    private BigDecimal balance;
+    // Stored as Decimal128 (see MoneyConverters) so balances can be compared and $inc'ed server-side
+    private Money balance;
 
-    @DBRef
-    @NotNull(message = "Transactions must not be null")
-    @Valid
-    private List<Transaction> transactions = new ArrayList<>(); // Establishes relationship with Transaction model
+    // Only changed through enableBalanceShards, which moves the balance into the slots
+    @PositiveOrZero(message = "Balance shards cannot be negative")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int balanceShards; // Number of sub-balance slots for hot accounts, 0 when not sharded
 
-    @NotNull(message = "Transaction history must not be null")
-    private List<String> transactionHistory = new ArrayList<>();
+    @JsonIgnore
+    private long transactionBucketSeq; // Sequence of the bucket new transaction IDs are appended to
+
+    // Number of transactions in the history; null for accounts created before it was counted
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long transactionCount;
+
+    // Transaction IDs live in fixed-size buckets and are only loaded when accessed, so the account stays constant-size
+    @JsonIgnore
+    @ReadOnlyProperty
+    @DocumentReference(lookup = "{ 'accountId' : ?#{#self._id} }", sort = "{ 'seq' : 1 }", lazy = true)
+    private List<TransactionBucket> transactionBuckets;
 
     public Account() {
         this.id = UUID.randomUUID().toString();
     }
 
+    /**
+     * Returns a shallow copy. The lazily loaded transaction buckets are shared with this account.
+     */
+    public Account copy() {
+        Account copy = new Account();
+        copy.id = id;
+        copy.customerId = customerId;
+        copy.balance = balance;
+        copy.balanceShards = balanceShards;
+        copy.transactionBucketSeq = transactionBucketSeq;
+        copy.transactionCount = transactionCount;
+        copy.transactionBuckets = transactionBuckets;
+        return copy;
+    }
+
     public String getId() {
         return id;
     }
@@ -57,27 +82,58 @@ public class Account {
         this.customerId = customerId;
     }
 
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
 
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
 
-    public List<Transaction> getTransactions() {
-        return transactions;
+    public int getBalanceShards() {
+        return balanceShards;
     }
 
-    public void setTransactions(List<Transaction> transactions) {
-        this.transactions = transactions;
+    public void setBalanceShards(int balanceShards) {
+        this.balanceShards = balanceShards;
     }
 
-    public List<String> getTransactionHistory() {
-        return transactionHistory;
+    public long getTransactionBucketSeq() {
+        return transactionBucketSeq;
     }
 
-    public void setTransactionHistory(List<String> transactionHistory) {
-        this.transactionHistory = transactionHistory;
+    public void setTransactionBucketSeq(long transactionBucketSeq) {
+        this.transactionBucketSeq = transactionBucketSeq;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    /**
+     * Where the account's transactions are listed. Accounts used to embed them as {@code transactions} and
+     * {@code transactionHistory}; clients now follow this link, or the NDJSON export below it for long histories.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getTransactionsUrl() {
+        return "/transactions/" + id;
+    }
+
+    public List<TransactionBucket> getTransactionBuckets() {
+        return transactionBuckets == null ? List.of() : transactionBuckets;
+    }
+
+    /**
+     * IDs of all transactions of this account in bucket order. Loads every bucket, so use it sparingly.
+     */
+    @JsonIgnore
+    public List<String> getTransactionHistory() {
+        return getTransactionBuckets().stream()
+                .flatMap(bucket -> bucket.getTransactionIds().stream())
+                .toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.example.banking.model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statement summary of an account over a range of days: opening and closing balance, and debit and credit totals
+ * per transaction type, for the whole range and for each day with transactions.
+ */
+public class AccountPeriodSummary {
+
+    private final String accountId;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Money openingBalance;
+    private final Money closingBalance;
+    private final Map<Transaction.TransactionType, TransactionTotals> totals;
+    private final List<Day> days;
+
+    public AccountPeriodSummary(String accountId, LocalDate from, LocalDate to, Money openingBalance,
+                                Money closingBalance, Map<Transaction.TransactionType, TransactionTotals> totals,
+                                List<Day> days) {
+        this.accountId = accountId;
+        this.from = from;
+        this.to = to;
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+        this.totals = totals;
+        this.days = days;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public Money getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public Money getClosingBalance() {
+        return closingBalance;
+    }
+
+    public Map<Transaction.TransactionType, TransactionTotals> getTotals() {
+        return totals;
+    }
+
+    public List<Day> getDays() {
+        return days;
+    }
+
+    public static class Day {
+
+        private final LocalDate date;
+        private final Money openingBalance;
+        private final Money closingBalance;
+        private final Map<Transaction.TransactionType, TransactionTotals> totals;
+
+        public Day(LocalDate date, Money openingBalance, Money closingBalance,
+                   Map<Transaction.TransactionType, TransactionTotals> totals) {
+            this.date = date;
+            this.openingBalance = openingBalance;
+            this.closingBalance = closingBalance;
+            this.totals = totals;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public Money getOpeningBalance() {
+            return openingBalance;
+        }
+
+        public Money getClosingBalance() {
+            return closingBalance;
+        }
+
+        public Map<Transaction.TransactionType, TransactionTotals> getTotals() {
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.banking.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lightweight view of an account for listings, built from a field projection rather than the full document.
+ * Fields left out of a sparse fieldset are null and omitted from the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountSummary {
+
+    public static final String ID = "id";
+    public static final String CUSTOMER_ID = "customerId";
+    public static final String BALANCE = "balance";
+    public static final String BALANCE_SHARDS = "balanceShards";
+    public static final String TRANSACTION_COUNT = "transactionCount";
+
+    // In response order; also the Account fields they are projected from
+    public static final List<String> FIELDS = List.of(ID, CUSTOMER_ID, BALANCE, BALANCE_SHARDS, TRANSACTION_COUNT);
+
+    private String id;
+    private String customerId;
+    private Money balance;
+    private Integer balanceShards;
+    private Long transactionCount;
+
+    /**
+     * Copies the requested fields of a (projected) account.
+     */
+    public static AccountSummary of(Account account, Set<String> fields) {
+        AccountSummary summary = new AccountSummary();
+        if (fields.contains(ID)) {
+            summary.id = account.getId();
+        }
+        if (fields.contains(CUSTOMER_ID)) {
+            summary.customerId = account.getCustomerId();
+        }
+        if (fields.contains(BALANCE)) {
+            summary.balance = account.getBalance();
+        }
+        if (fields.contains(BALANCE_SHARDS)) {
+            summary.balanceShards = account.getBalanceShards();
+        }
+        if (fields.contains(TRANSACTION_COUNT)) {
+            summary.transactionCount = account.getTransactionCount();
+        }
+        return summary;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public Integer getBalanceShards() {
+        return balanceShards;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.banking.model;
+
+import java.util.List;
+
+public class BatchTransferResponse {
+
+    private final int succeeded;
+    private final int failed;
+    private final List<ItemResult> results;
+
+    public BatchTransferResponse(List<ItemResult> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(ItemResult::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public static class ItemResult {
+
+        private final int index;
+        private final boolean success;
+        private final String message;
+
+        public ItemResult(int index, boolean success, String message) {
+            this.index = index;
+            this.success = success;
+            this.message = message;
+        }
+
+        public static ItemResult success(int index) {
+            return new ItemResult(index, true, "Transfer successful");
+        }
+
+        public static ItemResult failure(int index, String message) {
+            return new ItemResult(index, false, message);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
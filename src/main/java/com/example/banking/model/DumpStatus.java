@@ -0,0 +1,138 @@
+package com.example.banking.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a transaction dump started through {@code POST /admin/dumps}, kept in Mongo so that any node can
+ * answer a poll. The node running the dump updates it as shards complete; the files stay on that node, in
+ * {@code directory}.
+ */
+@Document(collection = "dump_statuses")
+public class DumpStatus {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    private String id;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int shards;
+    private String directory;
+    private Instant startedAt;
+    private int shardsCompleted;
+    private long transactions;
+    private long bytes;
+    private State state;
+    private String message;
+    private Instant completedAt;
+
+    public DumpStatus() {
+    }
+
+    public DumpStatus(String id, LocalDateTime from, LocalDateTime to, int shards, String directory) {
+        this.id = id;
+        this.from = from;
+        this.to = to;
+        this.shards = shards;
+        this.directory = directory;
+        this.startedAt = Instant.now();
+        this.state = State.RUNNING;
+    }
+
+    public synchronized void shardCompleted(long shardTransactions, long shardBytes) {
+        transactions += shardTransactions;
+        bytes += shardBytes;
+        shardsCompleted++;
+    }
+
+    public synchronized void complete(String message) {
+        this.completedAt = Instant.now();
+        this.message = message;
+        this.state = State.COMPLETED;
+    }
+
+    public synchronized void fail(String message) {
+        this.completedAt = Instant.now();
+        this.message = message;
+        this.state = State.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public synchronized int getShardsCompleted() {
+        return shardsCompleted;
+    }
+
+    public synchronized long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Compressed bytes of the completed shards.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getTransactionsPerSecond() {
+        Instant end = completedAt != null ? completedAt : Instant.now();
+        long millis = Duration.between(startedAt, end).toMillis();
+        return millis == 0 ? 0 : transactions * 1000 / millis;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized String getMessage() {
+        return message;
+    }
+
+    public synchronized Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DumpStatus{" +
+                "id='" + id + '\'' +
+                ", from=" + from +
+                ", to=" + to +
+                ", state=" + state +
+                ", shardsCompleted=" + shardsCompleted +
+                ", transactions=" + transactions +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.banking.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk transaction upload. Only the items that were not recorded are listed, by their index in the
+ * upload.
+ */
+public class IngestionResponse {
+
+    private final long received;
+    private final long inserted;
+    private final List<Failure> failures;
+
+    // Also used to read back a response replayed for an idempotency key
+    @JsonCreator
+    public IngestionResponse(@JsonProperty("received") long received, @JsonProperty("failures") List<Failure> failures) {
+        this.received = received;
+        this.inserted = received - failures.size();
+        this.failures = failures;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getFailed() {
+        return failures.size();
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public static class Failure {
+
+        private final long index;
+        private final String message;
+
+        @JsonCreator
+        public Failure(@JsonProperty("index") long index, @JsonProperty("message") String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.banking.model;
+
+import com.example.banking.util.MoneyDeserializer;
+import com.example.banking.util.MoneySerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * An exact amount of money, held as a whole number of minor units (cents for USD) of one currency.
+ * <p>
+ * Arithmetic works on the {@code long} directly and fails with an {@link ArithmeticException} on overflow
+ * instead of wrapping. Amounts of different currencies cannot be combined. In JSON a Money of the default currency
+ * is a plain decimal number in the currency's scale, e.g. {@code 100.50}; other currencies are written as
+ * {@code {"amount": 100.50, "currency": "EUR"}}. Mongo only stores default-currency amounts (see
+ * {@code MoneyConverters}).
+ */
+@JsonSerialize(using = MoneySerializer.class)
+@JsonDeserialize(using = MoneyDeserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, Objects.requireNonNull(currency, "currency"));
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return ofMinor(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Converts a decimal amount exactly.
+     *
+     * @throws IllegalArgumentException if the amount has more decimal places than the currency allows or does not
+     *                                  fit into a {@code long} of minor units.
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        try {
+            return ofMinor(amount.movePointRight(scale(currency)).longValueExact(), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is not a valid "
+                    + currency.getCurrencyCode() + " amount", e);
+        }
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(long amount) {
+        return ofMinor(Math.multiplyExact(amount, pow10(scale(DEFAULT_CURRENCY))), DEFAULT_CURRENCY);
+    }
+
+    public static Money zero(Currency currency) {
+        return DEFAULT_CURRENCY.equals(currency) ? ZERO : ofMinor(0, currency);
+    }
+
+    /**
+     * Adds up amounts of the default currency in a single {@code long}, without an intermediate Money per step.
+     */
+    public static Money sum(Iterable<Money> amounts) {
+        long total = 0;
+        for (Money amount : amounts) {
+            ZERO.checkCurrency(amount);
+            total = Math.addExact(total, amount.minorUnits);
+        }
+        return ofMinor(total);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public Money min(Money other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale(currency));
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money other)) {
+            return false;
+        }
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    private void checkCurrency(Money other) {
+        if (currency != other.currency && !currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot combine " + currency.getCurrencyCode() + " and "
+                    + other.currency.getCurrencyCode() + " amounts");
+        }
+    }
+
+    private static int scale(Currency currency) {
+        // Pseudo-currencies such as XAU report -1; treat them as whole units
+        return Math.max(currency.getDefaultFractionDigits(), 0);
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.banking.model;
 import com.example.banking.util.LocalDateTimeDeserializer;
 import com.example.banking.util.TransactionTypeDeserializer;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -12,7 +13,6 @@ import jakarta.validation.constraints.Positive;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -32,16 +32,19 @@ public class Transaction {
     private TransactionType type;
     @NotNull(message = "Amount must not be null")
     @Positive(message = "Amount must be greater than zero")
-    private BigDecimal amount;
+    private Money amount;
     @NotNull(message = "Timestamp must not be null")
     @JsonDeserialize(using = LocalDateTimeDeserializer.class)
     private LocalDateTime timestamp;
+    // Position in the account's ledger; only set on entries written in ledger mode, never by clients
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long sequence;
 
     public Transaction() {
         this.id = UUID.randomUUID().toString();
     }
 
-    public Transaction(String accountId, TransactionType type, BigDecimal amount) {
+    public Transaction(String accountId, TransactionType type, Money amount) {
         this.accountId = accountId;
         this.type = type;
         this.amount = amount;
@@ -49,6 +52,14 @@ public class Transaction {
         this.id = UUID.randomUUID().toString();
     }
 
+    public Transaction(String id, String accountId, TransactionType type, Money amount, LocalDateTime timestamp) {
+        this.id = id;
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.timestamp = timestamp;
+    }
+
     public String getId() {
         return id;
     }
@@ -73,11 +84,11 @@ public class Transaction {
         this.type = type;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -89,6 +100,14 @@ public class Transaction {
         this.timestamp = timestamp;
     }
 
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
     public enum TransactionType {
         DEPOSIT, WITHDRAWAL, TRANSFER
     }
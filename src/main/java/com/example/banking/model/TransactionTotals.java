@@ -0,0 +1,79 @@
+package com.example.banking.model;
+
+/**
+ * Number and sum of the debits (negative amounts) and credits (positive amounts) of one transaction type. Debit
+ * totals are positive.
+ */
+public class TransactionTotals {
+
+    private long debitCount;
+    private Money debitTotal = Money.ZERO;
+    private long creditCount;
+    private Money creditTotal = Money.ZERO;
+
+    public void add(Money amount) {
+        if (amount.isNegative()) {
+            debitCount++;
+            debitTotal = debitTotal.plus(amount.negate());
+        } else {
+            creditCount++;
+            creditTotal = creditTotal.plus(amount);
+        }
+    }
+
+    public void add(TransactionTotals other) {
+        debitCount += other.debitCount;
+        debitTotal = debitTotal.plus(other.debitTotal);
+        creditCount += other.creditCount;
+        creditTotal = creditTotal.plus(other.creditTotal);
+    }
+
+    /**
+     * Credits minus debits.
+     */
+    public Money net() {
+        return creditTotal.minus(debitTotal);
+    }
+
+    public long getDebitCount() {
+        return debitCount;
+    }
+
+    public void setDebitCount(long debitCount) {
+        this.debitCount = debitCount;
+    }
+
+    public Money getDebitTotal() {
+        return debitTotal;
+    }
+
+    public void setDebitTotal(Money debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+
+    public long getCreditCount() {
+        return creditCount;
+    }
+
+    public void setCreditCount(long creditCount) {
+        this.creditCount = creditCount;
+    }
+
+    public Money getCreditTotal() {
+        return creditTotal;
+    }
+
+    public void setCreditTotal(Money creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionTotals{" +
+                "debitCount=" + debitCount +
+                ", debitTotal=" + debitTotal +
+                ", creditCount=" + creditCount +
+                ", creditTotal=" + creditTotal +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.banking.model;
+
+public class TransferRequest {
+
+    private String fromAccountId;
+    private String toAccountId;
+    private Money amount;
+
+    public TransferRequest() {
+    }
+
+    public TransferRequest(String fromAccountId, String toAccountId, Money amount) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+    }
+
+    public String getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public void setFromAccountId(String fromAccountId) {
+        this.fromAccountId = fromAccountId;
+    }
+
+    public String getToAccountId() {
+        return toAccountId;
+    }
+
+    public void setToAccountId(String toAccountId) {
+        this.toAccountId = toAccountId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferRequest{" +
+                "fromAccountId='" + fromAccountId + '\'' +
+                ", toAccountId='" + toAccountId + '\'' +
+                ", amount=" + amount +
+                '}';
+    }
+}
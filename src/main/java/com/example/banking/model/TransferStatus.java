@@ -0,0 +1,118 @@
+package com.example.banking.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of a transfer submitted with {@code async=true}, kept in Mongo so that any node can answer a poll until
+ * the TTL index on {@code submittedAt} expires it. A pending transfer is leased to the node that queued it, which
+ * renews the lease until the transfer has run.
+ */
+@Document(collection = "transfer_statuses")
+public class TransferStatus {
+
+    public enum State {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    private String id;
+    private String fromAccountId;
+    private String toAccountId;
+    private Money amount;
+    private Instant submittedAt;
+    private volatile State state;
+    private volatile String message;
+    private volatile Instant completedAt;
+    private String owner;
+    private Instant leaseExpiresAt;
+
+    public TransferStatus() {
+    }
+
+    public TransferStatus(String fromAccountId, String toAccountId, Money amount) {
+        this.id = UUID.randomUUID().toString();
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.submittedAt = Instant.now();
+        this.state = State.PENDING;
+    }
+
+    public void lease(String owner, Instant leaseExpiresAt) {
+        this.owner = owner;
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public void complete() {
+        this.completedAt = Instant.now();
+        this.message = "Transfer successful";
+        this.state = State.COMPLETED;
+    }
+
+    public void fail(String message) {
+        this.completedAt = Instant.now();
+        this.message = message;
+        this.state = State.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public String getToAccountId() {
+        return toAccountId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    @JsonIgnore
+    public String getOwner() {
+        return owner;
+    }
+
+    @JsonIgnore
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferStatus{" +
+                "id='" + id + '\'' +
+                ", fromAccountId='" + fromAccountId + '\'' +
+                ", toAccountId='" + toAccountId + '\'' +
+                ", amount=" + amount +
+                ", state=" + state +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.banking.pagination;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. Pages are ordered by document ID and each one starts right after the
+ * ID its cursor names, so every page is an index seek plus {@code size} entries however deep it is.
+ * <p>
+ * {@code nextCursor} is null on the last page. {@code total} is only counted when asked for.
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final Long total;
+
+    public CursorPage(List<T> content, String nextCursor, Long total) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    /**
+     * The query for a page of {@code size}: sorted by ID, without a skip, and one entry longer than the page to
+     * tell whether another page follows without counting.
+     */
+    public static Pageable request(int size) {
+        return PageRequest.of(0, size + 1, Sort.by("id"));
+    }
+
+    /**
+     * Builds the page from the result of a {@link #request(int)} query.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, String> idOf, Long total) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null, total);
+        }
+        List<T> content = fetched.subList(0, size);
+        return new CursorPage<>(content, PageCursor.encode(idOf.apply(content.get(size - 1))), total);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.banking.pagination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for {@link CursorPage}. A token holds the ID of the last entry of the previous page;
+ * clients are only meant to pass it back.
+ */
+public final class PageCursor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageCursor.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private PageCursor() {
+    }
+
+    public static String encode(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the ID the next page starts after, or null for the first page.
+     */
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            logger.error("Page fetch failed: Invalid cursor {}", cursor);
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    public static void validateSize(int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            logger.error("Page fetch failed: Page size {} is not between 1 and {}", size, MAX_PAGE_SIZE);
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+}
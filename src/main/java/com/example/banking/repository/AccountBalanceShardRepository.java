@@ -0,0 +1,10 @@
+package com.example.banking.repository;
+
+import com.example.banking.balance.AccountBalanceShard;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface AccountBalanceShardRepository extends MongoRepository<AccountBalanceShard, String>, AccountBalanceShardRepositoryCustom {
+    List<AccountBalanceShard> findByAccountId(String accountId);
+}
@@ -0,0 +1,16 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.Money;
+
+public interface AccountBalanceShardRepositoryCustom {
+
+    /**
+     * Atomically increments one balance slot of an account, creating the slot if needed.
+     */
+    void credit(String accountId, int slot, Money amount);
+
+    /**
+     * Atomically decrements one balance slot of an account, but only if the slot holds at least {@code amount}.
+     */
+    boolean debitIfSufficient(String accountId, int slot, Money amount);
+}
@@ -0,0 +1,39 @@
+package com.example.banking.repository;
+
+import com.example.banking.balance.AccountBalanceShard;
+import com.example.banking.config.MoneyConverters;
+import com.example.banking.model.Money;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+
+public class AccountBalanceShardRepositoryImpl implements AccountBalanceShardRepositoryCustom {
+
+    private static final String BALANCE = "balance";
+
+    private final MongoTemplate mongoTemplate;
+
+    public AccountBalanceShardRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void credit(String accountId, int slot, Money amount) {
+        Query query = Query.query(Criteria.where("id").is(AccountBalanceShard.id(accountId, slot)));
+        Update update = new Update()
+                .inc(BALANCE, MoneyConverters.toDecimal128(amount))
+                .setOnInsert("accountId", accountId)
+                .setOnInsert("slot", slot);
+        mongoTemplate.upsert(query, update, AccountBalanceShard.class);
+    }
+
+    @Override
+    public boolean debitIfSufficient(String accountId, int slot, Money amount) {
+        Query query = Query.query(Criteria.where("id").is(AccountBalanceShard.id(accountId, slot))
+                .and(BALANCE).gte(MoneyConverters.toDecimal128(amount)));
+        Update update = new Update().inc(BALANCE, MoneyConverters.toDecimal128(amount.negate()));
+        return mongoTemplate.updateFirst(query, update, AccountBalanceShard.class).getModifiedCount() == 1;
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.banking.repository;
 
 import com.example.banking.model.Account;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
-public interface AccountRepository extends MongoRepository<Account, String> {
+public interface AccountRepository extends MongoRepository<Account, String>, AccountRepositoryCustom {
     List<Account> findByCustomerId(String customerId);
-}
\ No newline at end of file
+
+    List<Account> findAllBy(Pageable pageable);
+
+    List<Account> findByIdGreaterThan(String id, Pageable pageable);
+}
@@ -0,0 +1,79 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.Money;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Targeted server-side updates and projections on accounts that avoid the read-modify-write cycle of {@code save}.
+ */
+public interface AccountRepositoryCustom {
+
+    /**
+     * Atomically decrements the balance of an account, but only if it holds at least {@code amount}.
+     *
+     * @return {@code true} if the account was debited, {@code false} if it does not exist or has insufficient funds.
+     */
+    boolean debitIfSufficient(String accountId, Money amount);
+
+    /**
+     * Atomically increments the balance of an account.
+     *
+     * @return {@code true} if the account was credited, {@code false} if it does not exist.
+     */
+    boolean credit(String accountId, Money amount);
+
+    /**
+     * Atomically increments the balances of many accounts with one unordered bulk write.
+     *
+     * @return the number of accounts that were credited.
+     */
+    int creditAll(Map<String, Money> credits);
+
+    /**
+     * Reads only the balances of the given accounts in a single query. Unknown IDs are absent from the result.
+     */
+    Map<String, Money> findBalances(Collection<String> accountIds);
+
+    /**
+     * Reads only the number of balance shards of an account.
+     *
+     * @return the shard count ({@code 0} when the account is not sharded), or {@code null} if the account does not exist.
+     */
+    Integer findBalanceShards(String accountId);
+
+    /**
+     * Raises the number of balance shards of an account. The count can only grow, so slots in use are never orphaned.
+     *
+     * @return {@code true} if the account was updated.
+     */
+    boolean increaseBalanceShards(String accountId, int balanceShards);
+
+    /**
+     * Reads the head transaction bucket sequence of each account; accounts that do not exist are left out.
+     */
+    Map<String, Long> findTransactionBucketHeads(Collection<String> accountIds);
+
+    /**
+     * Moves the head transaction bucket of an account forward to {@code seq}; never moves it backwards.
+     */
+    void advanceTransactionBucket(String accountId, long seq);
+
+    /**
+     * Adds to the transaction counts of the given accounts with one unordered bulk write. Accounts without a count
+     * (created before transactions were counted) are left without one.
+     */
+    void incrementTransactionCounts(Map<String, Long> counts);
+
+    /**
+     * Reads only the given fields of accounts in ID order, in a single query and without resolving references.
+     *
+     * @param customerId only accounts of this customer, or all accounts when null.
+     * @param afterId    only accounts with a greater ID, or from the first when null.
+     * @param limit      the maximum number of accounts, or {@code 0} for no limit.
+     */
+    List<Account> findProjected(String customerId, String afterId, int limit, Collection<String> fields);
+}
@@ -0,0 +1,127 @@
+package com.example.banking.repository;
+
+import com.example.banking.config.MoneyConverters;
+import com.example.banking.model.Account;
+import com.example.banking.model.Money;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AccountRepositoryImpl implements AccountRepositoryCustom {
+
+    private static final String BALANCE = "balance";
+    private static final String BALANCE_SHARDS = "balanceShards";
+    private static final String TRANSACTION_BUCKET_SEQ = "transactionBucketSeq";
+    private static final String TRANSACTION_COUNT = "transactionCount";
+
+    private final MongoTemplate mongoTemplate;
+
+    public AccountRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean debitIfSufficient(String accountId, Money amount) {
+        Query query = Query.query(Criteria.where("id").is(accountId)
+                .and(BALANCE).gte(MoneyConverters.toDecimal128(amount)));
+        Update update = new Update().inc(BALANCE, MoneyConverters.toDecimal128(amount.negate()));
+        return mongoTemplate.updateFirst(query, update, Account.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public boolean credit(String accountId, Money amount) {
+        Query query = Query.query(Criteria.where("id").is(accountId));
+        Update update = new Update().inc(BALANCE, MoneyConverters.toDecimal128(amount));
+        return mongoTemplate.updateFirst(query, update, Account.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public int creditAll(Map<String, Money> credits) {
+        if (credits.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        credits.forEach((accountId, amount) -> bulk.updateOne(
+                Query.query(Criteria.where("id").is(accountId)),
+                new Update().inc(BALANCE, MoneyConverters.toDecimal128(amount))));
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public Map<String, Money> findBalances(Collection<String> accountIds) {
+        Query query = Query.query(Criteria.where("id").in(accountIds));
+        query.fields().include(BALANCE);
+        Map<String, Money> balances = new HashMap<>();
+        mongoTemplate.find(query, Account.class)
+                .forEach(account -> balances.put(account.getId(),
+                        account.getBalance() != null ? account.getBalance() : Money.ZERO));
+        return balances;
+    }
+
+    @Override
+    public Integer findBalanceShards(String accountId) {
+        Query query = Query.query(Criteria.where("id").is(accountId));
+        query.fields().include(BALANCE_SHARDS);
+        Account account = mongoTemplate.findOne(query, Account.class);
+        return account == null ? null : account.getBalanceShards();
+    }
+
+    @Override
+    public boolean increaseBalanceShards(String accountId, int balanceShards) {
+        Query query = Query.query(Criteria.where("id").is(accountId)
+                .orOperator(Criteria.where(BALANCE_SHARDS).exists(false), Criteria.where(BALANCE_SHARDS).lt(balanceShards)));
+        Update update = new Update().set(BALANCE_SHARDS, balanceShards);
+        return mongoTemplate.updateFirst(query, update, Account.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public Map<String, Long> findTransactionBucketHeads(Collection<String> accountIds) {
+        Query query = Query.query(Criteria.where("id").in(accountIds));
+        query.fields().include(TRANSACTION_BUCKET_SEQ);
+        Map<String, Long> heads = new HashMap<>();
+        mongoTemplate.find(query, Account.class)
+                .forEach(account -> heads.put(account.getId(), account.getTransactionBucketSeq()));
+        return heads;
+    }
+
+    @Override
+    public void advanceTransactionBucket(String accountId, long seq) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(accountId)),
+                new Update().max(TRANSACTION_BUCKET_SEQ, seq), Account.class);
+    }
+
+    @Override
+    public void incrementTransactionCounts(Map<String, Long> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        // $inc on a missing count would start it from zero and undercount the older history
+        counts.forEach((accountId, count) -> bulk.updateOne(
+                Query.query(Criteria.where("id").is(accountId).and(TRANSACTION_COUNT).exists(true)),
+                new Update().inc(TRANSACTION_COUNT, count)));
+        bulk.execute();
+    }
+
+    @Override
+    public List<Account> findProjected(String customerId, String afterId, int limit, Collection<String> fields) {
+        Criteria criteria = new Criteria();
+        if (customerId != null) {
+            criteria = criteria.and("customerId").is(customerId);
+        }
+        if (afterId != null) {
+            criteria = criteria.and("id").gt(afterId);
+        }
+        Query query = Query.query(criteria).with(Sort.by("id")).limit(limit);
+        fields.forEach(field -> query.fields().include(field));
+        return mongoTemplate.find(query, Account.class);
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.banking.repository;
 
 import com.example.banking.model.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.List;
+
 public interface CustomerRepository extends MongoRepository<Customer, String> {
+    List<Customer> findAllBy(Pageable pageable);
+
+    List<Customer> findByIdGreaterThan(String id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.banking.repository;
+
+import com.example.banking.rollup.DailyRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface DailyRollupRepository extends MongoRepository<DailyRollup, String>, DailyRollupRepositoryCustom {
+}
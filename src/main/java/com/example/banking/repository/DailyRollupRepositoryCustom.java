@@ -0,0 +1,28 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.Money;
+import com.example.banking.rollup.DailyRollup;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface DailyRollupRepositoryCustom {
+
+    /**
+     * Adds each rollup's totals to the stored rollup of the same account and day, creating it if needed. One bulk
+     * write for all of them.
+     */
+    void increment(Collection<DailyRollup> deltas);
+
+    /**
+     * Returns the rollups of an account from {@code from} to {@code to}, both inclusive, in date order. Days without
+     * transactions have no rollup.
+     */
+    List<DailyRollup> findDays(String accountId, LocalDate from, LocalDate to);
+
+    /**
+     * Sums the net change of an account's balance on all days after {@code date}, server-side.
+     */
+    Money sumNetAfter(String accountId, LocalDate date);
+}
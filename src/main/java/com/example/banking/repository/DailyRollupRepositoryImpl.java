@@ -0,0 +1,73 @@
+package com.example.banking.repository;
+
+import com.example.banking.config.MoneyConverters;
+import com.example.banking.model.Money;
+import com.example.banking.rollup.DailyRollup;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public class DailyRollupRepositoryImpl implements DailyRollupRepositoryCustom {
+
+    private static final String ACCOUNT_ID = "accountId";
+    private static final String DATE = "date";
+    private static final String NET = "net";
+
+    private final MongoTemplate mongoTemplate;
+
+    public DailyRollupRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void increment(Collection<DailyRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyRollup.class);
+        for (DailyRollup delta : deltas) {
+            Update update = new Update()
+                    .inc(NET, MoneyConverters.toDecimal128(delta.getNet()))
+                    .setOnInsert(ACCOUNT_ID, delta.getAccountId())
+                    .setOnInsert(DATE, delta.getDate());
+            delta.getTypes().forEach((type, totals) -> {
+                String prefix = "types." + type.name() + ".";
+                update.inc(prefix + "debitCount", totals.getDebitCount())
+                        .inc(prefix + "debitTotal", MoneyConverters.toDecimal128(totals.getDebitTotal()))
+                        .inc(prefix + "creditCount", totals.getCreditCount())
+                        .inc(prefix + "creditTotal", MoneyConverters.toDecimal128(totals.getCreditTotal()));
+            });
+            bulk.upsert(Query.query(Criteria.where("id").is(delta.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public List<DailyRollup> findDays(String accountId, LocalDate from, LocalDate to) {
+        Query query = Query.query(Criteria.where(ACCOUNT_ID).is(accountId).and(DATE).gte(from).lte(to))
+                .with(Sort.by(DATE));
+        return mongoTemplate.find(query, DailyRollup.class);
+    }
+
+    @Override
+    public Money sumNetAfter(String accountId, LocalDate date) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(ACCOUNT_ID).is(accountId).and(DATE).gt(date)),
+                Aggregation.group().sum(NET).as(NET));
+        Document result = mongoTemplate.aggregate(aggregation, DailyRollup.class, Document.class).getUniqueMappedResult();
+        if (result == null || result.get(NET) == null) {
+            return Money.ZERO;
+        }
+        return Money.of(result.get(NET, Decimal128.class).bigDecimalValue());
+    }
+}
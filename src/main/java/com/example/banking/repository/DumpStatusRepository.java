@@ -0,0 +1,7 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.DumpStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface DumpStatusRepository extends MongoRepository<DumpStatus, String> {
+}
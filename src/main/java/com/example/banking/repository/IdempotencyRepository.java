@@ -0,0 +1,7 @@
+package com.example.banking.repository;
+
+import com.example.banking.idempotency.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface IdempotencyRepository extends MongoRepository<IdempotencyRecord, String>, IdempotencyRepositoryCustom {
+}
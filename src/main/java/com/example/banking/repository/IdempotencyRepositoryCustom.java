@@ -0,0 +1,30 @@
+package com.example.banking.repository;
+
+import com.example.banking.idempotency.IdempotencyRecord;
+
+import java.time.Instant;
+
+public interface IdempotencyRepositoryCustom {
+
+    /**
+     * Takes over an in-progress claim whose lease has run out, giving it a new lease. Fails if the claim was
+     * completed, released or taken over by someone else since {@code expiredLease} was read.
+     *
+     * @return whether the claim was taken over.
+     */
+    boolean takeOver(String id, Instant expiredLease, Instant newLease, String newOwner);
+
+    /**
+     * Replaces the in-progress claim of {@code owner} with the finished {@code record}.
+     *
+     * @return {@code false} if the claim is no longer held by {@code owner}.
+     */
+    boolean complete(IdempotencyRecord record, String owner);
+
+    /**
+     * Deletes the in-progress claim of {@code owner}, so the key can be used again.
+     *
+     * @return {@code false} if the claim is no longer held by {@code owner}.
+     */
+    boolean release(String id, String owner);
+}
@@ -0,0 +1,50 @@
+package com.example.banking.repository;
+
+import com.example.banking.idempotency.IdempotencyRecord;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+public class IdempotencyRepositoryImpl implements IdempotencyRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public IdempotencyRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean takeOver(String id, Instant expiredLease, Instant newLease, String newOwner) {
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").is(IdempotencyRecord.Status.IN_PROGRESS)
+                .and("leaseExpiresAt").is(expiredLease));
+        return mongoTemplate.updateFirst(query, new Update()
+                .set("leaseExpiresAt", newLease)
+                .set("owner", newOwner)
+                .set("createdAt", Instant.now()), IdempotencyRecord.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public boolean complete(IdempotencyRecord record, String owner) {
+        return mongoTemplate.updateFirst(claimedBy(record.getId(), owner), new Update()
+                .set("status", record.getStatus())
+                .set("responseStatus", record.getResponseStatus())
+                .set("responseBody", record.getResponseBody())
+                .set("fingerprint", record.getFingerprint())
+                .unset("leaseExpiresAt"), IdempotencyRecord.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public boolean release(String id, String owner) {
+        return mongoTemplate.remove(claimedBy(id, owner), IdempotencyRecord.class).getDeletedCount() == 1;
+    }
+
+    private static Query claimedBy(String id, String owner) {
+        return Query.query(Criteria.where("_id").is(id)
+                .and("status").is(IdempotencyRecord.Status.IN_PROGRESS)
+                .and("owner").is(owner));
+    }
+}
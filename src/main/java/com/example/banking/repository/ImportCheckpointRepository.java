@@ -0,0 +1,7 @@
+package com.example.banking.repository;
+
+import com.example.banking.ingest.ImportCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ImportCheckpointRepository extends MongoRepository<ImportCheckpoint, String> {
+}
@@ -0,0 +1,7 @@
+package com.example.banking.repository;
+
+import com.example.banking.ledger.LedgerCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface LedgerCheckpointRepository extends MongoRepository<LedgerCheckpoint, String>, LedgerCheckpointRepositoryCustom {
+}
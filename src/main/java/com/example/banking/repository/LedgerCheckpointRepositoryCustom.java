@@ -0,0 +1,19 @@
+package com.example.banking.repository;
+
+import com.example.banking.ledger.LedgerCheckpoint;
+
+import java.util.Collection;
+
+public interface LedgerCheckpointRepositoryCustom {
+
+    /**
+     * Creates the given checkpoints where the account has none yet; existing checkpoints are left alone.
+     */
+    void insertMissing(Collection<LedgerCheckpoint> checkpoints);
+
+    /**
+     * Moves each account's checkpoint forward to the given one. A checkpoint that is already at the same or a
+     * later sequence is kept.
+     */
+    void advance(Collection<LedgerCheckpoint> checkpoints);
+}
@@ -0,0 +1,72 @@
+package com.example.banking.repository;
+
+import com.example.banking.config.MoneyConverters;
+import com.example.banking.ledger.LedgerCheckpoint;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+public class LedgerCheckpointRepositoryImpl implements LedgerCheckpointRepositoryCustom {
+
+    private static final String SEQUENCE = "sequence";
+    private static final String BALANCE = "balance";
+    private static final String UPDATED_AT = "updatedAt";
+
+    private final MongoTemplate mongoTemplate;
+
+    public LedgerCheckpointRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void insertMissing(Collection<LedgerCheckpoint> checkpoints) {
+        if (checkpoints.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LedgerCheckpoint.class);
+        for (LedgerCheckpoint checkpoint : checkpoints) {
+            bulk.upsert(Query.query(Criteria.where("accountId").is(checkpoint.getAccountId())), new Update()
+                    .setOnInsert(SEQUENCE, checkpoint.getSequence())
+                    .setOnInsert(BALANCE, MoneyConverters.toDecimal128(checkpoint.getBalance()))
+                    .setOnInsert(UPDATED_AT, checkpoint.getUpdatedAt()));
+        }
+        executeIgnoringDuplicates(bulk);
+    }
+
+    @Override
+    public void advance(Collection<LedgerCheckpoint> checkpoints) {
+        if (checkpoints.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LedgerCheckpoint.class);
+        for (LedgerCheckpoint checkpoint : checkpoints) {
+            // A newer checkpoint does not match, so the upsert tries to insert its _id again and fails with a duplicate key
+            Query query = Query.query(Criteria.where("accountId").is(checkpoint.getAccountId())
+                    .and(SEQUENCE).lt(checkpoint.getSequence()));
+            bulk.upsert(query, new Update()
+                    .set(SEQUENCE, checkpoint.getSequence())
+                    .set(BALANCE, MoneyConverters.toDecimal128(checkpoint.getBalance()))
+                    .set(UPDATED_AT, checkpoint.getUpdatedAt()));
+        }
+        executeIgnoringDuplicates(bulk);
+    }
+
+    private static void executeIgnoringDuplicates(BulkOperations bulk) {
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.banking.repository;
+
+import com.example.banking.event.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface OutboxRepository extends MongoRepository<OutboxEvent, String>, OutboxRepositoryCustom {
+    List<OutboxEvent> findBySentAtIsNullOrderByCreatedAtAscIdAsc(Pageable pageable);
+}
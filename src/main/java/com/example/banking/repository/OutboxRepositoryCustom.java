@@ -0,0 +1,12 @@
+package com.example.banking.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface OutboxRepositoryCustom {
+
+    /**
+     * Marks the given outbox entries as sent with a single multi-document update.
+     */
+    void markSent(Collection<String> ids, Instant sentAt);
+}
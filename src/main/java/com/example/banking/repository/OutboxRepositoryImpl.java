@@ -0,0 +1,25 @@
+package com.example.banking.repository;
+
+import com.example.banking.event.OutboxEvent;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public class OutboxRepositoryImpl implements OutboxRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public OutboxRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void markSent(Collection<String> ids, Instant sentAt) {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(ids)),
+                new Update().set("sentAt", sentAt), OutboxEvent.class);
+    }
+}
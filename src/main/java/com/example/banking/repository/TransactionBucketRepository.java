@@ -0,0 +1,7 @@
+package com.example.banking.repository;
+
+import com.example.banking.history.TransactionBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TransactionBucketRepository extends MongoRepository<TransactionBucket, String>, TransactionBucketRepositoryCustom {
+}
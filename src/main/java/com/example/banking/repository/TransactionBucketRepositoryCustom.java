@@ -0,0 +1,34 @@
+package com.example.banking.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface TransactionBucketRepositoryCustom {
+
+    /**
+     * Appends transaction IDs to the head bucket of each account in one unordered bulk write, creating the bucket
+     * if needed. An append only succeeds if the bucket has room for all of the account's IDs.
+     *
+     * @param idsByAccount IDs to append per account, at most {@code bucketSize} per account.
+     * @param heads        the head bucket sequence of each account.
+     * @return the accounts whose head bucket was full, so nothing was appended for them.
+     */
+    Set<String> appendToHeads(Map<String, List<String>> idsByAccount, Map<String, Long> heads, int bucketSize);
+
+    /**
+     * Returns which of the given transaction IDs are already in a bucket of their account. Each account's buckets
+     * are looked up through the (accountId, seq) index, so this reads all of them; keep it off the hot path.
+     */
+    Set<String> findAppended(Map<String, List<String>> idsByAccount);
+
+    /**
+     * Writes a complete bucket, replacing any previous content. Used when migrating existing history.
+     */
+    void replaceBucket(String accountId, long seq, List<String> transactionIds);
+
+    /**
+     * Counts the transaction IDs in the account's buckets numbered {@code seq} and up.
+     */
+    long countFrom(String accountId, long seq);
+}
@@ -0,0 +1,105 @@
+package com.example.banking.repository;
+
+import com.example.banking.history.TransactionBucket;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TransactionBucketRepositoryImpl implements TransactionBucketRepositoryCustom {
+
+    private static final String COUNT = "count";
+    private static final String TRANSACTION_IDS = "transactionIds";
+
+    private final MongoTemplate mongoTemplate;
+
+    public TransactionBucketRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Set<String> appendToHeads(Map<String, List<String>> idsByAccount, Map<String, Long> heads, int bucketSize) {
+        if (idsByAccount.isEmpty()) {
+            return Set.of();
+        }
+        List<String> accountIds = new ArrayList<>(idsByAccount.keySet());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionBucket.class);
+        for (String accountId : accountIds) {
+            List<String> ids = idsByAccount.get(accountId);
+            long seq = heads.get(accountId);
+            // A full bucket does not match, so the upsert tries to insert its _id again and fails with a duplicate key
+            Query query = Query.query(Criteria.where("id").is(TransactionBucket.id(accountId, seq))
+                    .and(COUNT).lte(bucketSize - ids.size()));
+            Update update = new Update()
+                    .push(TRANSACTION_IDS).each(ids.toArray())
+                    .inc(COUNT, ids.size())
+                    .setOnInsert("accountId", accountId)
+                    .setOnInsert("seq", seq)
+                    .setOnInsert("createdAt", Instant.now());
+            bulk.upsert(query, update);
+        }
+
+        try {
+            bulk.execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<String> full = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                full.add(accountIds.get(error.getIndex()));
+            }
+            return full;
+        }
+    }
+
+    @Override
+    public Set<String> findAppended(Map<String, List<String>> idsByAccount) {
+        if (idsByAccount.isEmpty()) {
+            return Set.of();
+        }
+        Criteria[] clauses = idsByAccount.entrySet().stream()
+                .map(entry -> Criteria.where("accountId").is(entry.getKey()).and(TRANSACTION_IDS).in(entry.getValue()))
+                .toArray(Criteria[]::new);
+        Query query = Query.query(new Criteria().orOperator(clauses));
+        query.fields().include(TRANSACTION_IDS);
+        Set<String> wanted = new HashSet<>();
+        idsByAccount.values().forEach(wanted::addAll);
+        Set<String> appended = new HashSet<>();
+        for (TransactionBucket bucket : mongoTemplate.find(query, TransactionBucket.class)) {
+            bucket.getTransactionIds().stream().filter(wanted::contains).forEach(appended::add);
+        }
+        return appended;
+    }
+
+    @Override
+    public void replaceBucket(String accountId, long seq, List<String> transactionIds) {
+        Query query = Query.query(Criteria.where("id").is(TransactionBucket.id(accountId, seq)));
+        Update update = new Update()
+                .set("accountId", accountId)
+                .set("seq", seq)
+                .set(TRANSACTION_IDS, transactionIds)
+                .set(COUNT, transactionIds.size())
+                .setOnInsert("createdAt", Instant.now());
+        mongoTemplate.upsert(query, update, TransactionBucket.class);
+    }
+
+    @Override
+    public long countFrom(String accountId, long seq) {
+        Query query = Query.query(Criteria.where("accountId").is(accountId).and("seq").gte(seq));
+        query.fields().include(COUNT);
+        return mongoTemplate.find(query, TransactionBucket.class).stream().mapToLong(TransactionBucket::getCount).sum();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface TransactionRepositoryCustom {
+
+    /**
+     * The {@link #insertUnordered} error of a transaction whose ID is already in the collection.
+     */
+    String ALREADY_RECORDED = "Transaction ID is already recorded";
+
+    /**
+     * Returns all of an account's transactions, archived ones included, in timestamp order.
+     */
+    List<Transaction> findByAccountId(String accountId);
+
+    /**
+     * Returns an account's transactions with a timestamp strictly between {@code from} and {@code to}, in timestamp
+     * order. Only the archive months overlapping the range are read.
+     */
+    List<Transaction> findByAccountIdAndTimestampBetween(String accountId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Inserts the transactions with one unordered bulk write: a failed insert does not stop the others.
+     *
+     * @return the error message of each failed insert, by its index in {@code transactions}; {@link #ALREADY_RECORDED}
+     * for a duplicate ID.
+     */
+    Map<Integer, String> insertUnordered(List<Transaction> transactions);
+
+    /**
+     * Returns up to {@code limit} transactions older than {@code before} that are still in Mongo, oldest first.
+     */
+    List<Transaction> findArchivable(LocalDateTime before, int limit);
+
+    /**
+     * Returns the ledger entries of each account after the given sequence number, in sequence order. Only the
+     * account ID, sequence number and amount are loaded.
+     */
+    List<Transaction> findLedgerEntriesAfter(Map<String, Long> sequences);
+
+    /**
+     * Streams an account's transactions in timestamp order from a server cursor that fetches {@code batchSize}
+     * documents at a time, preceded by the archived transactions in the range. {@code from} and {@code to} are
+     * optional and inclusive. The stream must be closed.
+     */
+    Stream<Transaction> streamByAccountId(String accountId, LocalDateTime from, LocalDateTime to, int batchSize);
+
+    /**
+     * Streams the transactions of all accounts with {@code from <= timestamp < to}, in timestamp order, from a
+     * server cursor that fetches {@code batchSize} documents at a time. Below the archive watermark they are read from
+     * the archive, as for {@link #streamByAccountId}. The stream must be closed.
+     */
+    Stream<Transaction> streamByTimestamp(LocalDateTime from, LocalDateTime to, int batchSize);
+}
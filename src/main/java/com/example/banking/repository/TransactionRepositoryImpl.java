@@ -0,0 +1,285 @@
+package com.example.banking.repository;
+
+import com.example.banking.archive.ArchiveStore;
+import com.example.banking.model.Transaction;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    private static final String SEQUENCE = "sequence";
+
+    private static final String TIMESTAMP = "timestamp";
+
+    private final MongoTemplate mongoTemplate;
+    private final ArchiveStore archiveStore;
+
+    public TransactionRepositoryImpl(MongoTemplate mongoTemplate, ArchiveStore archiveStore) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveStore = archiveStore;
+    }
+
+    @Override
+    public List<Transaction> findByAccountId(String accountId) {
+        return findByAccountIdAndTimestampBetween(accountId, null, null);
+    }
+
+    @Override
+    public List<Transaction> findByAccountIdAndTimestampBetween(String accountId, LocalDateTime from, LocalDateTime to) {
+        // Mongo is read over the whole range: below the archive watermark it still holds transactions the archiver
+        // has not deleted yet, and ones inserted there with an old timestamp. The archive only adds what Mongo lacks.
+        LocalDateTime watermark = archiveStore.watermark();
+        Criteria criteria = Criteria.where("accountId").is(accountId);
+        if (from != null || to != null) {
+            criteria = criteria.and(TIMESTAMP);
+            if (from != null) {
+                criteria = criteria.gt(from);
+            }
+            if (to != null) {
+                criteria = criteria.lt(to);
+            }
+        }
+        List<Transaction> transactions = new ArrayList<>(
+                mongoTemplate.find(Query.query(criteria).with(Sort.by(TIMESTAMP)), Transaction.class));
+        if (watermark != null && (from == null || from.isBefore(watermark))) {
+            Set<String> live = transactions.stream().map(Transaction::getId).collect(Collectors.toSet());
+            int liveCount = transactions.size();
+            try (Stream<Transaction> archived = archiveStore.stream(accountId, from, to)) {
+                archived.filter(transaction -> isBetween(transaction.getTimestamp(), from, to)
+                                && transaction.getTimestamp().isBefore(watermark)
+                                && !live.contains(transaction.getId()))
+                        .forEach(transactions::add);
+            }
+            if (transactions.size() > liveCount) {
+                transactions.sort(Comparator.comparing(Transaction::getTimestamp));
+            }
+        }
+        return transactions;
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Map.of();
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        bulk.insert(transactions);
+        try {
+            bulk.execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new TreeMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                        ? ALREADY_RECORDED : error.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public List<Transaction> findArchivable(LocalDateTime before, int limit) {
+        // A limit of 0 reads every match
+        Query query = Query.query(Criteria.where(TIMESTAMP).lt(before)).with(Sort.by(TIMESTAMP)).limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    @Override
+    public List<Transaction> findLedgerEntriesAfter(Map<String, Long> sequences) {
+        if (sequences.isEmpty()) {
+            return List.of();
+        }
+        // One clause per account, each answered by the (accountId, sequence) index
+        Criteria[] clauses = sequences.entrySet().stream()
+                .map(entry -> Criteria.where("accountId").is(entry.getKey()).and(SEQUENCE).gt(entry.getValue()))
+                .toArray(Criteria[]::new);
+        Query query = Query.query(new Criteria().orOperator(clauses)).with(Sort.by(SEQUENCE));
+        query.fields().include("accountId").include(SEQUENCE).include("amount");
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    @Override
+    public Stream<Transaction> streamByAccountId(String accountId, LocalDateTime from, LocalDateTime to, int batchSize) {
+        LocalDateTime watermark = archiveStore.watermark();
+        Stream<Transaction> archived = Stream.empty();
+        if (watermark != null && (from == null || from.isBefore(watermark))) {
+            // Below the watermark Mongo only holds what the archiver has not deleted yet and late inserts, so those
+            // are loaded up front and merged into the archived stream, which skips its copies of them
+            List<Transaction> cold = mongoTemplate.find(
+                    Query.query(timestampCriteria(accountId, from, to, watermark)).with(Sort.by(TIMESTAMP)),
+                    Transaction.class);
+            Set<String> coldIds = cold.stream().map(Transaction::getId).collect(Collectors.toSet());
+            archived = mergeByTimestamp(archiveStore.stream(accountId, from, to)
+                    .filter(transaction -> transaction.getTimestamp().isBefore(watermark)
+                            && !coldIds.contains(transaction.getId())), cold);
+        }
+        if (to != null && watermark != null && to.isBefore(watermark)) {
+            return archived;
+        }
+        LocalDateTime hotFrom = watermark != null && (from == null || from.isBefore(watermark)) ? watermark : from;
+        // Sorted on the (accountId, timestamp) index, so the server streams without an in-memory sort
+        Query query = Query.query(timestampCriteria(accountId, hotFrom, to, null)).with(Sort.by(TIMESTAMP)).cursorBatchSize(batchSize);
+        return concatLazily(archived, () -> mongoTemplate.stream(query, Transaction.class));
+    }
+
+    @Override
+    public Stream<Transaction> streamByTimestamp(LocalDateTime from, LocalDateTime to, int batchSize) {
+        LocalDateTime watermark = archiveStore.watermark();
+        if (watermark == null || !from.isBefore(watermark)) {
+            return streamHot(from, to, batchSize);
+        }
+        // As for one account: the Mongo rows below the watermark are merged into the archived stream, which skips
+        // its copies of them
+        LocalDateTime coldTo = to.isBefore(watermark) ? to : watermark;
+        List<Transaction> cold = mongoTemplate.find(
+                Query.query(Criteria.where(TIMESTAMP).gte(from).lt(coldTo)).with(Sort.by(TIMESTAMP)), Transaction.class);
+        Set<String> coldIds = cold.stream().map(Transaction::getId).collect(Collectors.toSet());
+        Stream<Transaction> archived = mergeByTimestamp(archiveStore.stream(from, coldTo)
+                .filter(transaction -> transaction.getTimestamp().isBefore(coldTo)
+                        && !coldIds.contains(transaction.getId())), cold);
+        if (!to.isAfter(watermark)) {
+            return archived;
+        }
+        return concatLazily(archived, () -> streamHot(watermark, to, batchSize));
+    }
+
+    private Stream<Transaction> streamHot(LocalDateTime from, LocalDateTime to, int batchSize) {
+        // Runs on the timestamp index, so the server streams without an in-memory sort
+        Query query = Query.query(Criteria.where(TIMESTAMP).gte(from).lt(to))
+                .with(Sort.by(TIMESTAMP))
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    /**
+     * The transactions of an account with a timestamp in {@code [from, to]} and before {@code before}. Any bound
+     * may be null.
+     */
+    private static Criteria timestampCriteria(String accountId, LocalDateTime from, LocalDateTime to, LocalDateTime before) {
+        Criteria criteria = Criteria.where("accountId").is(accountId);
+        if (from == null && to == null && before == null) {
+            return criteria;
+        }
+        criteria = criteria.and(TIMESTAMP);
+        if (from != null) {
+            criteria = criteria.gte(from);
+        }
+        if (to != null) {
+            criteria = criteria.lte(to);
+        }
+        if (before != null) {
+            criteria = criteria.lt(before);
+        }
+        return criteria;
+    }
+
+    /**
+     * {@code first} followed by the stream {@code second} supplies, which is only opened once {@code first} is used
+     * up. Unlike {@code flatMap}, whose iterator reads a whole inner stream before returning its first element, this
+     * pulls one element at a time, so a server cursor is only read a batch ahead. Closing the result closes both.
+     */
+    static <T> Stream<T> concatLazily(Stream<T> first, Supplier<Stream<T>> second) {
+        class Concatenation implements Iterator<T> {
+            private Iterator<T> current = first.iterator();
+            private Stream<T> rest;
+
+            @Override
+            public boolean hasNext() {
+                if (current.hasNext()) {
+                    return true;
+                }
+                if (rest != null) {
+                    return false;
+                }
+                rest = second.get();
+                current = rest.iterator();
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            void close() {
+                try {
+                    first.close();
+                } finally {
+                    if (rest != null) {
+                        rest.close();
+                    }
+                }
+            }
+        }
+        Concatenation concatenation = new Concatenation();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(concatenation, Spliterator.ORDERED), false)
+                .onClose(concatenation::close);
+    }
+
+    /**
+     * Merges two streams sorted by timestamp, taking from {@code sorted} first on equal timestamps.
+     */
+    static Stream<Transaction> mergeByTimestamp(Stream<Transaction> sorted, List<Transaction> others) {
+        if (others.isEmpty()) {
+            return sorted;
+        }
+        Iterator<Transaction> left = sorted.iterator();
+        Iterator<Transaction> right = others.iterator();
+        Iterator<Transaction> merged = new Iterator<>() {
+            private Transaction nextLeft = left.hasNext() ? left.next() : null;
+            private Transaction nextRight = right.next();
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction result;
+                if (nextRight == null || (nextLeft != null && !nextLeft.getTimestamp().isAfter(nextRight.getTimestamp()))) {
+                    result = nextLeft;
+                    nextLeft = left.hasNext() ? left.next() : null;
+                } else {
+                    result = nextRight;
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(sorted::close);
+    }
+
+    private static boolean isBetween(LocalDateTime timestamp, LocalDateTime from, LocalDateTime to) {
+        return (from == null || timestamp.isAfter(from)) && (to == null || timestamp.isBefore(to));
+    }
+}
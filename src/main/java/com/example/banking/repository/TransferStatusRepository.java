@@ -0,0 +1,7 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.TransferStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TransferStatusRepository extends MongoRepository<TransferStatus, String>, TransferStatusRepositoryCustom {
+}
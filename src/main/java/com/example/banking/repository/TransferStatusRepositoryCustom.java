@@ -0,0 +1,22 @@
+package com.example.banking.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public interface TransferStatusRepositoryCustom {
+
+    /**
+     * Extends the leases of the pending transfers queued by {@code owner}.
+     *
+     * @return the number of leases renewed.
+     */
+    long renewLeases(String owner, Instant leaseExpiresAt);
+
+    /**
+     * Fails the pending transfers whose lease ran out before {@code now}, because the node that queued them stopped.
+     * Transfers queued before leases were kept count as leased for {@code lease} after they were submitted.
+     *
+     * @return the number of transfers failed.
+     */
+    long failAbandoned(Instant now, Duration lease, String message);
+}
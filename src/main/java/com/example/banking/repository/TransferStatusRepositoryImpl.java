@@ -0,0 +1,38 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.TransferStatus;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public class TransferStatusRepositoryImpl implements TransferStatusRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public TransferStatusRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long renewLeases(String owner, Instant leaseExpiresAt) {
+        Query query = Query.query(Criteria.where("state").is(TransferStatus.State.PENDING)
+                .and("owner").is(owner));
+        return mongoTemplate.updateMulti(query, new Update().set("leaseExpiresAt", leaseExpiresAt),
+                TransferStatus.class).getModifiedCount();
+    }
+
+    @Override
+    public long failAbandoned(Instant now, Duration lease, String message) {
+        Query query = Query.query(Criteria.where("state").is(TransferStatus.State.PENDING)
+                .orOperator(Criteria.where("leaseExpiresAt").lt(now),
+                        Criteria.where("leaseExpiresAt").exists(false).and("submittedAt").lt(now.minus(lease))));
+        return mongoTemplate.updateMulti(query, new Update()
+                .set("state", TransferStatus.State.FAILED)
+                .set("message", message)
+                .set("completedAt", now), TransferStatus.class).getModifiedCount();
+    }
+}
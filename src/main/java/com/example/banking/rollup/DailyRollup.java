@@ -0,0 +1,107 @@
+package com.example.banking.rollup;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionTotals;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The balance changes of one account on one day, totalled per {@link Transaction.TransactionType}. Maintained with
+ * $inc as transfer legs and ledger entries are written, so it never has to be recomputed from the transactions
+ * themselves. Transactions that were only recorded, without moving the balance, are not part of it.
+ */
+@Document(collection = "account_daily_rollups")
+public class DailyRollup {
+
+    @Id
+    private String id;
+
+    private String accountId;
+
+    private LocalDate date;
+
+    private Money net = Money.ZERO;
+
+    private Map<Transaction.TransactionType, TransactionTotals> types = new EnumMap<>(Transaction.TransactionType.class);
+
+    public DailyRollup() {
+    }
+
+    public DailyRollup(String accountId, LocalDate date) {
+        this.id = id(accountId, date);
+        this.accountId = accountId;
+        this.date = date;
+    }
+
+    public static String id(String accountId, LocalDate date) {
+        return accountId + ":" + date;
+    }
+
+    /**
+     * Adds a transaction that moved the account's balance.
+     */
+    public void add(Transaction transaction) {
+        Money change = balanceChange(transaction);
+        net = net.plus(change);
+        types.computeIfAbsent(transaction.getType(), type -> new TransactionTotals()).add(change);
+    }
+
+    /**
+     * A deposit is a credit and a withdrawal a debit whatever the sign of its amount; a transfer leg is signed by the
+     * direction the money moved.
+     */
+    static Money balanceChange(Transaction transaction) {
+        Money amount = transaction.getAmount();
+        Money magnitude = amount.isNegative() ? amount.negate() : amount;
+        return switch (transaction.getType()) {
+            case DEPOSIT -> magnitude;
+            case WITHDRAWAL -> magnitude.negate();
+            case TRANSFER -> amount;
+        };
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Money getNet() {
+        return net;
+    }
+
+    public void setNet(Money net) {
+        this.net = net;
+    }
+
+    public Map<Transaction.TransactionType, TransactionTotals> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Map<Transaction.TransactionType, TransactionTotals> types) {
+        this.types = types;
+    }
+}
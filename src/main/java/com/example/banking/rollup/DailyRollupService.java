@@ -0,0 +1,79 @@
+package com.example.banking.rollup;
+
+import com.example.banking.model.AccountPeriodSummary;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionTotals;
+import com.example.banking.repository.DailyRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a {@link DailyRollup} per account and day up to date as transactions are recorded, and answers statement
+ * summaries from them: a month is about 30 small documents instead of every transaction in it.
+ * <p>
+ * Balances are not stored per day. They are derived backwards from the account's current balance, minus the net
+ * change of every day after the one asked for; that sum is computed server-side.
+ */
+@Service
+public class DailyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyRollupService.class);
+
+    private final DailyRollupRepository rollupRepository;
+
+    public DailyRollupService(DailyRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Adds the transactions to the rollups of their account and day, with one write per account and day.
+     */
+    public void record(Collection<Transaction> transactions) {
+        Map<String, DailyRollup> deltas = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            LocalDate date = transaction.getTimestamp().toLocalDate();
+            deltas.computeIfAbsent(DailyRollup.id(transaction.getAccountId(), date),
+                    id -> new DailyRollup(transaction.getAccountId(), date)).add(transaction);
+        }
+        rollupRepository.increment(deltas.values());
+    }
+
+    /**
+     * Summarizes the days from {@code from} to {@code to}, both inclusive, of an account whose balance is
+     * {@code currentBalance} now.
+     */
+    public AccountPeriodSummary summarize(String accountId, LocalDate from, LocalDate to, Money currentBalance) {
+        if (from.isAfter(to)) {
+            logger.error("Account summary failed: Range from {} to {} is empty", from, to);
+            throw new IllegalArgumentException("Summary start date must not be after its end date");
+        }
+        List<DailyRollup> rollups = rollupRepository.findDays(accountId, from, to);
+        Money closingBalance = currentBalance.minus(rollupRepository.sumNetAfter(accountId, to));
+
+        // Walk backwards from the closing balance, each day opening at its closing balance minus its net change
+        List<AccountPeriodSummary.Day> days = new ArrayList<>(rollups.size());
+        Map<Transaction.TransactionType, TransactionTotals> totals = new EnumMap<>(Transaction.TransactionType.class);
+        Money balance = closingBalance;
+        for (int i = rollups.size() - 1; i >= 0; i--) {
+            DailyRollup rollup = rollups.get(i);
+            Money opening = balance.minus(rollup.getNet());
+            days.add(new AccountPeriodSummary.Day(rollup.getDate(), opening, balance, rollup.getTypes()));
+            rollup.getTypes().forEach((type, dayTotals) ->
+                    totals.computeIfAbsent(type, key -> new TransactionTotals()).add(dayTotals));
+            balance = opening;
+        }
+        Collections.reverse(days);
+        return new AccountPeriodSummary(accountId, from, to, balance, closingBalance, totals, days);
+    }
+}
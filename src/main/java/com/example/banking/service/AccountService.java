@@ -1,23 +1,48 @@
 package com.example.banking.service;
 
 import com.example.banking.model.Account;
-import com.example.banking.model.Transaction;
-import jakarta.validation.Valid;
+import com.example.banking.model.AccountPeriodSummary;
+import com.example.banking.model.AccountSummary;
+import com.example.banking.model.BatchTransferResponse;
+import com.example.banking.model.Money;
+import com.example.banking.model.TransferRequest;
+import com.example.banking.pagination.CursorPage;
 import jakarta.validation.constraints.NotNull;
-import org.springframework.data.domain.Page;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 public interface AccountService {
 
     Account createAccount(Account account);
 
-    void transfer(String fromAccountId, String toAccountId, BigDecimal amount);
+    void transfer(String fromAccountId, String toAccountId, Money amount);
+
+    BatchTransferResponse transferBatch(List<TransferRequest> transfers);
+
+    void enableBalanceShards(String accountId, int shards);
 
     List<Account> getAccountsByCustomerId(@NotNull String customerId);
 
     Account getAccountById(String id);
 
-    Page<Account> getAllAccounts(int page, int size);
+    /**
+     * Returns the page after {@code cursor} (the first page without one). The total is only counted on request.
+     */
+    CursorPage<Account> getAllAccounts(String cursor, int size, boolean includeTotal);
+
+    /**
+     * Like {@link #getAllAccounts}, but reads only the requested summary fields (all of them when {@code fields}
+     * is empty) with a Mongo projection.
+     */
+    CursorPage<AccountSummary> getAccountSummaries(String cursor, int size, boolean includeTotal, Set<String> fields);
+
+    List<AccountSummary> getAccountSummariesByCustomerId(@NotNull String customerId, Set<String> fields);
+
+    /**
+     * Summarizes an account's balances and transaction totals from {@code from} to {@code to}, both inclusive, from
+     * its daily rollups.
+     */
+    AccountPeriodSummary getAccountPeriodSummary(@NotNull String id, @NotNull LocalDate from, @NotNull LocalDate to);
 }
\ No newline at end of file
@@ -1,13 +1,16 @@
 package com.example.banking.service;
 
 import com.example.banking.model.Customer;
-import org.springframework.data.domain.Page;
+import com.example.banking.pagination.CursorPage;
 
 import java.awt.print.Pageable;
 import java.util.List;
 
 public interface CustomerService {
     Customer createCustomer(Customer customer);
-    Page<Customer> getAllCustomers(int page, int size);
+    /**
+     * Returns the page after {@code cursor} (the first page without one). The total is only counted on request.
+     */
+    CursorPage<Customer> getAllCustomers(String cursor, int size, boolean includeTotal);
     Customer getCustomerById(String id);
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package com.example.banking.service;
 
 import com.example.banking.model.Transaction;
-import org.springframework.data.domain.Page;
+import com.example.banking.pagination.CursorPage;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -10,7 +10,13 @@ public interface TransactionService {
     List<Transaction> recordTransactions(List<Transaction> transactions);
     List<Transaction> getTransactionsByAccountId(String accountId);
 
-    Page<Transaction> getAllTransactions(int page, int size);
+    /**
+     * Returns the page after {@code cursor} (the first page without one). The total is only counted on request.
+     * <p>
+     * Pages and total cover only the transactions still in Mongo: archived ones are stored per month and account,
+     * not in ID order, so they are left out. The per-account reads and exports and the admin dump include them.
+     */
+    CursorPage<Transaction> getAllTransactions(String cursor, int size, boolean includeTotal);
 
     List<Transaction> getFilteredTransactions(String accountId, LocalDateTime from, LocalDateTime to); // Filtered query
 }
\ No newline at end of file
@@ -1,34 +1,61 @@
 package com.example.banking.service.impl;
 
-import com.example.banking.event.EventPublisher;
+import com.example.banking.balance.ShardedBalanceService;
+import com.example.banking.cache.AccountCache;
+import com.example.banking.event.EventOutbox;
+import com.example.banking.exception.BalanceContentionException;
 import com.example.banking.event.TransferEvent;
+import com.example.banking.history.TransactionHistoryService;
+import com.example.banking.ledger.LedgerService;
+import com.example.banking.ledger.LedgerState;
+import com.example.banking.lock.AccountLockManager;
 import com.example.banking.model.Account;
+import com.example.banking.model.AccountPeriodSummary;
+import com.example.banking.model.AccountSummary;
+import com.example.banking.model.BatchTransferResponse;
+import com.example.banking.model.Money;
 import com.example.banking.model.Transaction;
+import com.example.banking.model.TransferRequest;
+import com.example.banking.pagination.CursorPage;
+import com.example.banking.pagination.PageCursor;
 import com.example.banking.repository.AccountRepository;
 import com.example.banking.repository.TransactionRepository;
+import com.example.banking.rollup.DailyRollupService;
 import com.example.banking.service.AccountService;
-import com.example.banking.util.EventUtils;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountServiceImpl.class);
 
+    private static final int MAX_LEDGER_ATTEMPTS = 3;
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
-    private final EventPublisher eventPublisher;
+    private final EventOutbox eventOutbox;
+    private final AccountLockManager accountLockManager;
+    private final ShardedBalanceService shardedBalanceService;
+    private final TransactionHistoryService transactionHistoryService;
+    private final AccountCache accountCache;
+    private final LedgerService ledgerService;
+    private final DailyRollupService dailyRollupService;
 
     @Value("${kafka.topic.account-events}")
     private String accountEventsTopic;
@@ -36,14 +63,30 @@ public class AccountServiceImpl implements AccountService {
     @Value("${kafka.topic.transfer-events}")
     private String transferEventsTopic;
 
+    @Value("${banking.transfer.batch.max-size:50000}")
+    private int maxBatchSize;
+
     public AccountServiceImpl(AccountRepository accountRepository,
                               TransactionRepository transactionRepository,
-                              EventPublisher eventPublisher) {
+                              EventOutbox eventOutbox,
+                              AccountLockManager accountLockManager,
+                              ShardedBalanceService shardedBalanceService,
+                              TransactionHistoryService transactionHistoryService,
+                              AccountCache accountCache,
+                              LedgerService ledgerService,
+                              DailyRollupService dailyRollupService) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
-        this.eventPublisher = eventPublisher;
+        this.eventOutbox = eventOutbox;
+        this.accountLockManager = accountLockManager;
+        this.shardedBalanceService = shardedBalanceService;
+        this.transactionHistoryService = transactionHistoryService;
+        this.accountCache = accountCache;
+        this.ledgerService = ledgerService;
+        this.dailyRollupService = dailyRollupService;
     }
 
+    @Transactional
     @Override
     public Account createAccount(Account account) {
         logger.info("Creating account: {}", account);
@@ -52,69 +95,380 @@ public class AccountServiceImpl implements AccountService {
             throw new IllegalArgumentException("Account cannot be null");
         }
 
+        List<Transaction> opening = ledgerService.isEnabled()
+                ? ledgerService.open(account.getId(), account.getBalance())
+                : List.of();
+
+        account.setTransactionCount(0L);
         Account savedAccount = accountRepository.save(account);
+        accountCache.invalidate(List.of(savedAccount.getId()));
+        accountCache.invalidateCustomer(savedAccount.getCustomerId());
+        if (!opening.isEmpty()) {
+            transactionHistoryService.append(opening);
+        }
         logger.info("Account created successfully: {}", savedAccount);
 
         // Publish account creation event
-        eventPublisher.publishEvent(accountEventsTopic, EventUtils.serializeEvent(savedAccount));
-        logger.info("Account creation event published for account ID: {}", savedAccount.getId());
+        eventOutbox.enqueue(accountEventsTopic, savedAccount.getId(), savedAccount);
+        logger.info("Account creation event queued for account ID: {}", savedAccount.getId());
 
         return savedAccount;
     }
 
     @Transactional
     @Override
-    public void transfer(@NotNull String fromAccountId, @NotNull String toAccountId, @NotNull BigDecimal amount) {
+    public void transfer(@NotNull String fromAccountId, @NotNull String toAccountId, @NotNull Money amount) {
         logger.info("Initiating transfer from account {} to account {} with amount {}", fromAccountId, toAccountId, amount);
 
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!amount.isPositive()) {
             logger.error("Transfer failed: Invalid transfer amount {}", amount);
             throw new IllegalArgumentException("Transfer amount must be greater than zero");
         }
 
-        Account fromAccount = accountRepository.findById(fromAccountId)
-                .orElseThrow(() -> {
-                    logger.error("Transfer failed: From account ID {} not found", fromAccountId);
-                    return new IllegalArgumentException("Invalid from account ID: " + fromAccountId);
-                });
+        if (fromAccountId.equals(toAccountId)) {
+            logger.error("Transfer failed: Source and destination account are the same ({})", fromAccountId);
+            throw new IllegalArgumentException("Cannot transfer to the same account: " + fromAccountId);
+        }
 
-        Account toAccount = accountRepository.findById(toAccountId)
-                .orElseThrow(() -> {
-                    logger.error("Transfer failed: To account ID {} not found", toAccountId);
-                    return new IllegalArgumentException("Invalid to account ID: " + toAccountId);
-                });
+        // Transfers touching the same accounts queue here instead of racing each other in Mongo.
+        // Credits to a sharded account spread over its slots, so they do not need to queue on its lock.
+        List<String> lockedAccountIds = !ledgerService.isEnabled() && shardedBalanceService.isSharded(toAccountId)
+                ? List.of(fromAccountId)
+                : List.of(fromAccountId, toAccountId);
+        try {
+            accountLockManager.executeLocked(lockedAccountIds, () -> {
+                applyTransfer(fromAccountId, toAccountId, amount);
+                // Under the lock, so the outbox sequence follows the order in which the accounts' balances moved
+                eventOutbox.enqueueTransfers(transferEventsTopic, List.of(new TransferEvent(fromAccountId, toAccountId, amount)));
+            });
+        } finally {
+            // Also after a failure: a reverted debit still changed the balance in between
+            accountCache.invalidate(List.of(fromAccountId, toAccountId));
+        }
+        logger.info("Transfer event queued successfully");
+    }
 
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
+    private void applyTransfer(String fromAccountId, String toAccountId, Money amount) {
+        if (ledgerService.isEnabled()) {
+            applyLedgerTransfer(fromAccountId, toAccountId, amount);
+            return;
+        }
+
+        // Debit only if the balance covers the amount; the check and the decrement happen in one server-side update
+        if (!debit(fromAccountId, amount)) {
+            if (!accountRepository.existsById(fromAccountId)) {
+                logger.error("Transfer failed: From account ID {} not found", fromAccountId);
+                throw new IllegalArgumentException("Invalid from account ID: " + fromAccountId);
+            }
             logger.error("Transfer failed: Insufficient balance in account ID {}", fromAccountId);
             throw new IllegalArgumentException("Insufficient balance in account: " + fromAccountId);
         }
 
-        // Update balances
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        toAccount.setBalance(toAccount.getBalance().add(amount));
-        accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
+        if (!credit(toAccountId, amount)) {
+            // Compensate the debit so the funds are not lost
+            credit(fromAccountId, amount);
+            logger.error("Transfer failed: To account ID {} not found, debit of account {} reverted", toAccountId, fromAccountId);
+            throw new IllegalArgumentException("Invalid to account ID: " + toAccountId);
+        }
 
         logger.info("Transfer successful: {} from account {} to account {}", amount, fromAccountId, toAccountId);
 
         // Record transactions
         Transaction debitTransaction = new Transaction(fromAccountId, Transaction.TransactionType.TRANSFER, amount.negate());
         Transaction creditTransaction = new Transaction(toAccountId, Transaction.TransactionType.TRANSFER, amount);
-        transactionRepository.save(debitTransaction);
-        transactionRepository.save(creditTransaction);
+        List<Transaction> transactions = transactionRepository.saveAll(List.of(debitTransaction, creditTransaction));
+        transactionHistoryService.append(transactions);
 
         logger.info("Transactions recorded for transfer: Debit={}, Credit={}", debitTransaction, creditTransaction);
+    }
+
+    /**
+     * Appends the two legs of a transfer to the ledgers, checking the balance derived from the ledger. The account
+     * locks keep other transfers on this node out; an append that races another node is retried from fresh state.
+     */
+    private void applyLedgerTransfer(String fromAccountId, String toAccountId, Money amount) {
+        for (int attempt = 1; ; attempt++) {
+            Map<String, LedgerState> states = ledgerService.load(List.of(fromAccountId, toAccountId));
+            if (!states.containsKey(fromAccountId)) {
+                logger.error("Transfer failed: From account ID {} not found", fromAccountId);
+                throw new IllegalArgumentException("Invalid from account ID: " + fromAccountId);
+            }
+            if (!states.containsKey(toAccountId)) {
+                logger.error("Transfer failed: To account ID {} not found", toAccountId);
+                throw new IllegalArgumentException("Invalid to account ID: " + toAccountId);
+            }
+            if (states.get(fromAccountId).balance().isLessThan(amount)) {
+                logger.error("Transfer failed: Insufficient balance in account ID {}", fromAccountId);
+                throw new IllegalArgumentException("Insufficient balance in account: " + fromAccountId);
+            }
+
+            Transaction debitTransaction = new Transaction(fromAccountId, Transaction.TransactionType.TRANSFER, amount.negate());
+            Transaction creditTransaction = new Transaction(toAccountId, Transaction.TransactionType.TRANSFER, amount);
+            try {
+                transactionHistoryService.append(ledgerService.append(List.of(debitTransaction, creditTransaction), states));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_LEDGER_ATTEMPTS) {
+                    logger.error("Transfer failed: Ledgers of accounts {} and {} kept changing", fromAccountId, toAccountId);
+                    throw e;
+                }
+                continue;
+            }
+
+            logger.info("Transfer successful: {} from account {} to account {}", amount, fromAccountId, toAccountId);
+            logger.info("Ledger entries recorded for transfer: Debit={}, Credit={}", debitTransaction, creditTransaction);
+            return;
+        }
+    }
+
+    private boolean debit(String accountId, Money amount) {
+        return shardedBalanceService.isSharded(accountId)
+                ? shardedBalanceService.debit(accountId, amount)
+                : accountRepository.debitIfSufficient(accountId, amount);
+    }
+
+    // In a batch, a sharded account whose slots keep changing fails its items like any other conflicting write
+    private boolean debitOrFalse(String accountId, Money amount) {
+        try {
+            return debit(accountId, amount);
+        } catch (BalanceContentionException e) {
+            return false;
+        }
+    }
 
-        // Publish transfer event
-        TransferEvent transferEvent = new TransferEvent(fromAccountId, toAccountId, amount);
-        eventPublisher.publishEvent(transferEventsTopic, EventUtils.serializeEvent(transferEvent));
-        logger.info("Transfer event published successfully");
+    private boolean credit(String accountId, Money amount) {
+        if (shardedBalanceService.isSharded(accountId)) {
+            shardedBalanceService.credit(accountId, amount);
+            return true;
+        }
+        return accountRepository.credit(accountId, amount);
+    }
+
+    @Transactional
+    @Override
+    public BatchTransferResponse transferBatch(List<TransferRequest> transfers) {
+        logger.info("Initiating batch of {} transfers", transfers.size());
+
+        if (transfers.isEmpty() || transfers.size() > maxBatchSize) {
+            logger.error("Batch transfer failed: Batch size {} outside of [1, {}]", transfers.size(), maxBatchSize);
+            throw new IllegalArgumentException("Transfer batch must contain between 1 and " + maxBatchSize + " transfers");
+        }
+
+        // Validate every item in one pass; only accounts of valid items take part in the batch
+        BatchTransferResponse.ItemResult[] results = new BatchTransferResponse.ItemResult[transfers.size()];
+        Set<String> accountIds = new HashSet<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            String error = validateTransfer(transfers.get(i));
+            if (error != null) {
+                results[i] = BatchTransferResponse.ItemResult.failure(i, error);
+            } else {
+                accountIds.add(transfers.get(i).getFromAccountId());
+                accountIds.add(transfers.get(i).getToAccountId());
+            }
+        }
+
+        if (!accountIds.isEmpty()) {
+            try {
+                accountLockManager.executeLocked(accountIds, () -> {
+                    applyBatch(transfers, results, accountIds);
+                    // Under the locks, like a single transfer, so no later transfer of these accounts is sequenced first
+                    eventOutbox.enqueueTransfers(transferEventsTopic, transferEvents(transfers, results));
+                });
+            } finally {
+                accountCache.invalidate(accountIds);
+            }
+        }
+
+        BatchTransferResponse response = new BatchTransferResponse(Arrays.asList(results));
+        logger.info("Batch transfer completed: {} succeeded, {} failed", response.getSucceeded(), response.getFailed());
+        return response;
+    }
+
+    private static List<TransferEvent> transferEvents(List<TransferRequest> transfers,
+                                                      BatchTransferResponse.ItemResult[] results) {
+        List<TransferEvent> events = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            if (results[i].isSuccess()) {
+                TransferRequest transfer = transfers.get(i);
+                events.add(new TransferEvent(transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount()));
+            }
+        }
+        return events;
+    }
+
+    private String validateTransfer(TransferRequest transfer) {
+        if (transfer == null) {
+            return "Transfer must not be null";
+        }
+        if (transfer.getFromAccountId() == null || transfer.getFromAccountId().isBlank()
+                || transfer.getToAccountId() == null || transfer.getToAccountId().isBlank()) {
+            return "Account IDs must not be blank";
+        }
+        if (transfer.getAmount() == null || !transfer.getAmount().isPositive()) {
+            return "Transfer amount must be greater than zero";
+        }
+        if (transfer.getFromAccountId().equals(transfer.getToAccountId())) {
+            return "Cannot transfer to the same account: " + transfer.getFromAccountId();
+        }
+        return null;
+    }
+
+    /**
+     * Replays the batch against the current balances, nets the accepted transfers per account and applies
+     * each account's net delta with a single write. Must run while holding the locks of all involved accounts.
+     * <p>
+     * If an account's write fails (its balance changed behind our back, or it is gone), nothing of the attempt
+     * stays applied: the items touching that account fail and the rest of the batch is replayed against fresh
+     * balances.
+     */
+    private void applyBatch(List<TransferRequest> transfers, BatchTransferResponse.ItemResult[] results, Set<String> accountIds) {
+        for (int attempt = 1; ; attempt++) {
+            Map<String, LedgerState> ledgerStates = ledgerService.isEnabled() ? ledgerService.load(accountIds) : null;
+            Map<String, Money> balances;
+            if (ledgerStates != null) {
+                balances = new HashMap<>();
+                ledgerStates.forEach((accountId, state) -> balances.put(accountId, state.balance()));
+            } else {
+                balances = accountRepository.findBalances(accountIds);
+                balances.replaceAll((accountId, balance) -> shardedBalanceService.isSharded(accountId)
+                        ? shardedBalanceService.currentBalance(accountId, balance)
+                        : balance);
+            }
+            Map<String, Money> deltas = new HashMap<>();
+            List<Transaction> legs = new ArrayList<>();
+            List<Integer> accepted = new ArrayList<>();
+
+            for (int i = 0; i < transfers.size(); i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                TransferRequest transfer = transfers.get(i);
+                String fromAccountId = transfer.getFromAccountId();
+                String toAccountId = transfer.getToAccountId();
+                Money amount = transfer.getAmount();
+                Money fromBalance = balances.get(fromAccountId);
+
+                if (fromBalance == null) {
+                    results[i] = BatchTransferResponse.ItemResult.failure(i, "Invalid from account ID: " + fromAccountId);
+                } else if (!balances.containsKey(toAccountId)) {
+                    results[i] = BatchTransferResponse.ItemResult.failure(i, "Invalid to account ID: " + toAccountId);
+                } else if (fromBalance.compareTo(amount) < 0) {
+                    results[i] = BatchTransferResponse.ItemResult.failure(i, "Insufficient balance in account: " + fromAccountId);
+                } else {
+                    balances.put(fromAccountId, fromBalance.minus(amount));
+                    balances.merge(toAccountId, amount, Money::plus);
+                    deltas.merge(fromAccountId, amount.negate(), Money::plus);
+                    deltas.merge(toAccountId, amount, Money::plus);
+                    legs.add(new Transaction(fromAccountId, Transaction.TransactionType.TRANSFER, amount.negate()));
+                    legs.add(new Transaction(toAccountId, Transaction.TransactionType.TRANSFER, amount));
+                    accepted.add(i);
+                }
+            }
+
+            if (legs.isEmpty()) {
+                return;
+            }
+
+            if (ledgerStates != null) {
+                try {
+                    transactionHistoryService.append(ledgerService.append(legs, ledgerStates));
+                } catch (OptimisticLockingFailureException e) {
+                    // Another node appended to one of the ledgers; the accepted items are replayed from fresh state
+                    if (attempt >= MAX_LEDGER_ATTEMPTS) {
+                        logger.error("Batch transfer failed: Ledgers of the batch kept changing");
+                        accepted.forEach(i -> results[i] = BatchTransferResponse.ItemResult.failure(i,
+                                "Ledgers of the batch changed concurrently, transfer not applied"));
+                        return;
+                    }
+                    continue;
+                }
+                accepted.forEach(i -> results[i] = BatchTransferResponse.ItemResult.success(i));
+                logger.info("Batch transfer applied: {} ledger entries appended", legs.size());
+                return;
+            }
+
+            String failedAccountId = applyDeltas(deltas);
+            if (failedAccountId != null) {
+                // The other accepted items are replayed against fresh balances
+                for (int i : accepted) {
+                    TransferRequest transfer = transfers.get(i);
+                    if (failedAccountId.equals(transfer.getFromAccountId())
+                            || failedAccountId.equals(transfer.getToAccountId())) {
+                        results[i] = BatchTransferResponse.ItemResult.failure(i,
+                                "Account " + failedAccountId + " changed concurrently, transfer not applied");
+                    }
+                }
+                continue;
+            }
+
+            accepted.forEach(i -> results[i] = BatchTransferResponse.ItemResult.success(i));
+            transactionHistoryService.append(transactionRepository.insert(legs));
+            logger.info("Batch transfer applied: {} account writes for {} transaction legs", deltas.size(), legs.size());
+            return;
+        }
+    }
+
+    /**
+     * Applies the net deltas: debits first, each still conditional, then the plain credits in one bulk write and
+     * the credits of sharded accounts, which cannot fail, last.
+     *
+     * @return null when all deltas were applied, otherwise an account whose write failed, after every write of
+     *         this call has been reverted.
+     */
+    private String applyDeltas(Map<String, Money> deltas) {
+        Map<String, Money> credits = new HashMap<>();
+        Map<String, Money> shardedCredits = new HashMap<>();
+        List<String> debited = new ArrayList<>();
+        for (Map.Entry<String, Money> delta : deltas.entrySet()) {
+            if (delta.getValue().signum() > 0) {
+                (shardedBalanceService.isSharded(delta.getKey()) ? shardedCredits : credits)
+                        .put(delta.getKey(), delta.getValue());
+            } else if (delta.getValue().signum() < 0) {
+                if (!debitOrFalse(delta.getKey(), delta.getValue().negate())) {
+                    debited.forEach(accountId -> credit(accountId, deltas.get(accountId).negate()));
+                    logger.error("Batch transfer: Balance of account {} changed during the batch, debits reverted", delta.getKey());
+                    return delta.getKey();
+                }
+                debited.add(delta.getKey());
+            }
+        }
+
+        int credited = accountRepository.creditAll(credits);
+        if (credited != credits.size()) {
+            // An account disappeared since the balances were read; take back what went out and what came in
+            Set<String> existing = accountRepository.findBalances(credits.keySet()).keySet();
+            String missing = credits.keySet().stream().filter(accountId -> !existing.contains(accountId))
+                    .findFirst().orElseThrow();
+            credits.forEach((accountId, amount) -> {
+                if (existing.contains(accountId) && !accountRepository.debitIfSufficient(accountId, amount)) {
+                    logger.error("Batch transfer: Could not take back the credit of {} to account {}", amount, accountId);
+                }
+            });
+            debited.forEach(accountId -> credit(accountId, deltas.get(accountId).negate()));
+            logger.error("Batch transfer: Only {} of {} accounts were credited, account {} is missing, writes reverted",
+                    credited, credits.size(), missing);
+            return missing;
+        }
+        shardedCredits.forEach(shardedBalanceService::credit);
+        return null;
+    }
+
+    @Override
+    public void enableBalanceShards(@NotNull String accountId, int shards) {
+        logger.info("Enabling balance shards for account {}: {}", accountId, shards);
+        if (ledgerService.isEnabled()) {
+            logger.error("Enabling balance shards failed: Balance shards are not used in ledger mode");
+            throw new IllegalArgumentException("Balance shards cannot be enabled in ledger mode");
+        }
+        shardedBalanceService.enableSharding(accountId, shards);
+        accountCache.invalidate(List.of(accountId));
+        logger.info("Balance shards enabled for account {}", accountId);
     }
 
     @Override
     public List<Account> getAccountsByCustomerId(@NotNull String customerId) {
         logger.info("Fetching accounts for customer ID: {}", customerId);
-        List<Account> accounts = accountRepository.findByCustomerId(customerId);
+        List<Account> accounts = accountCache.getByCustomerId(customerId);
+        withCurrentBalances(accounts);
         logger.info("Accounts fetched for customer ID {}: {}", customerId, accounts);
         return accounts;
     }
@@ -122,21 +476,122 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public Account getAccountById(@NotNull String id) {
         logger.info("Fetching account with ID: {}", id);
-        Account account = accountRepository.findById(id)
+        Account account = accountCache.get(id)
                 .orElseThrow(() -> {
                     logger.error("Account fetch failed: Account ID {} not found", id);
                     return new IllegalArgumentException("Account not found with ID: " + id);
                 });
+        withCurrentBalances(List.of(account));
         logger.info("Account fetched successfully: {}", account);
         return account;
     }
 
     @Override
-    public Page<Account> getAllAccounts(int page, int size) {
-        logger.info("Fetching all accounts, page: {}, size: {}", page, size);
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Account> accounts = accountRepository.findAll(pageable);
+    public CursorPage<Account> getAllAccounts(String cursor, int size, boolean includeTotal) {
+        logger.info("Fetching all accounts, cursor: {}, size: {}", cursor, size);
+        PageCursor.validateSize(size);
+        String afterId = PageCursor.decode(cursor);
+        List<Account> fetched = afterId == null
+                ? accountRepository.findAllBy(CursorPage.request(size))
+                : accountRepository.findByIdGreaterThan(afterId, CursorPage.request(size));
+        CursorPage<Account> accounts = CursorPage.of(fetched, size, Account::getId,
+                includeTotal ? accountRepository.count() : null);
+        withCurrentBalances(accounts.getContent());
         logger.info("Accounts fetched successfully, page content: {}", accounts.getContent());
         return accounts;
     }
+
+    @Override
+    public CursorPage<AccountSummary> getAccountSummaries(String cursor, int size, boolean includeTotal,
+                                                          Set<String> fields) {
+        logger.info("Fetching account summaries, cursor: {}, size: {}, fields: {}", cursor, size, fields);
+        PageCursor.validateSize(size);
+        Set<String> requested = summaryFields(fields);
+        List<Account> fetched = accountRepository.findProjected(null, PageCursor.decode(cursor), size + 1,
+                projectedFields(requested));
+        CursorPage<Account> accounts = CursorPage.of(fetched, size, Account::getId,
+                includeTotal ? accountRepository.count() : null);
+        CursorPage<AccountSummary> summaries = new CursorPage<>(summarize(accounts.getContent(), requested),
+                accounts.getNextCursor(), accounts.getTotal());
+        logger.info("Account summaries fetched successfully, page size: {}", summaries.getContent().size());
+        return summaries;
+    }
+
+    @Override
+    public List<AccountSummary> getAccountSummariesByCustomerId(@NotNull String customerId, Set<String> fields) {
+        logger.info("Fetching account summaries for customer ID: {}, fields: {}", customerId, fields);
+        Set<String> requested = summaryFields(fields);
+        List<AccountSummary> summaries = summarize(
+                accountRepository.findProjected(customerId, null, 0, projectedFields(requested)), requested);
+        logger.info("Account summaries fetched for customer ID {}: {}", customerId, summaries.size());
+        return summaries;
+    }
+
+    @Override
+    public AccountPeriodSummary getAccountPeriodSummary(@NotNull String id, @NotNull LocalDate from, @NotNull LocalDate to) {
+        logger.info("Fetching summary of account {} from {} to {}", id, from, to);
+        Account account = accountCache.get(id)
+                .orElseThrow(() -> {
+                    logger.error("Account summary failed: Account ID {} not found", id);
+                    return new IllegalArgumentException("Account not found with ID: " + id);
+                });
+        withCurrentBalances(List.of(account));
+        AccountPeriodSummary summary = dailyRollupService.summarize(id, from, to, account.getBalance());
+        logger.info("Summary of account {} fetched: {} days with transactions", id, summary.getDays().size());
+        return summary;
+    }
+
+    private static Set<String> summaryFields(Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return Set.copyOf(AccountSummary.FIELDS);
+        }
+        for (String field : fields) {
+            if (!AccountSummary.FIELDS.contains(field)) {
+                logger.error("Account summary fetch failed: Unknown field {}", field);
+                throw new IllegalArgumentException("Unknown field: " + field
+                        + ", must be one of " + AccountSummary.FIELDS);
+            }
+        }
+        return fields;
+    }
+
+    // The current balance of a sharded account also needs its shard count
+    private static Set<String> projectedFields(Set<String> requested) {
+        Set<String> projected = new HashSet<>(requested);
+        if (requested.contains(AccountSummary.BALANCE)) {
+            projected.add(AccountSummary.BALANCE_SHARDS);
+        }
+        return projected;
+    }
+
+    private List<AccountSummary> summarize(List<Account> accounts, Set<String> requested) {
+        if (requested.contains(AccountSummary.BALANCE)) {
+            withCurrentBalances(accounts);
+        }
+        return accounts.stream().map(account -> AccountSummary.of(account, requested)).toList();
+    }
+
+    /**
+     * Replaces the stored balances with the ledger balances in ledger mode, otherwise adds the slots of sharded accounts.
+     */
+    private void withCurrentBalances(Collection<Account> accounts) {
+        if (!ledgerService.isEnabled()) {
+            accounts.forEach(this::withShardedBalance);
+            return;
+        }
+        if (accounts.isEmpty()) {
+            return;
+        }
+        Map<String, Money> balances = ledgerService.balances(accounts.stream().map(Account::getId).toList());
+        accounts.forEach(account -> account.setBalance(balances.getOrDefault(account.getId(), account.getBalance())));
+    }
+
+    /**
+     * Reports the balance of a sharded account as the sum of its own balance and all of its slots.
+     */
+    private void withShardedBalance(Account account) {
+        if (account.getBalanceShards() > 1) {
+            account.setBalance(shardedBalanceService.totalBalance(account.getId(), account.getBalance()));
+        }
+    }
 }
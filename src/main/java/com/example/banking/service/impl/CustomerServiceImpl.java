@@ -1,17 +1,18 @@
 package com.example.banking.service.impl;
 
-import com.example.banking.event.EventPublisher;
+import com.example.banking.event.EventOutbox;
 import com.example.banking.model.Customer;
+import com.example.banking.pagination.CursorPage;
+import com.example.banking.pagination.PageCursor;
 import com.example.banking.repository.CustomerRepository;
 import com.example.banking.service.CustomerService;
-import com.example.banking.util.EventUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
@@ -19,16 +20,17 @@ public class CustomerServiceImpl implements CustomerService {
     private static final Logger logger = LoggerFactory.getLogger(CustomerServiceImpl.class);
 
     private final CustomerRepository customerRepository;
-    private final EventPublisher eventPublisher;
+    private final EventOutbox eventOutbox;
 
     @Value("${kafka.topic.customer-events}")
     private String customerEventsTopic;
 
-    public CustomerServiceImpl(CustomerRepository customerRepository, EventPublisher eventPublisher) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, EventOutbox eventOutbox) {
         this.customerRepository = customerRepository;
-        this.eventPublisher = eventPublisher;
+        this.eventOutbox = eventOutbox;
     }
 
+    @Transactional
     @Override
     public Customer createCustomer(Customer customer) {
         logger.info("Creating customer: {}", customer);
@@ -36,8 +38,8 @@ public class CustomerServiceImpl implements CustomerService {
         logger.info("Customer created successfully: {}", savedCustomer);
 
         // Publish customer creation event
-        eventPublisher.publishEvent(customerEventsTopic, EventUtils.serializeEvent(savedCustomer));
-        logger.info("Customer creation event published for customer ID: {}", savedCustomer.getId());
+        eventOutbox.enqueue(customerEventsTopic, savedCustomer.getId(), savedCustomer);
+        logger.info("Customer creation event queued for customer ID: {}", savedCustomer.getId());
 
         return savedCustomer;
     }
@@ -55,10 +57,15 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public Page<Customer> getAllCustomers(int page, int size) {
-        logger.info("Fetching all customers, page: {}, size: {}", page, size);
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Customer> customers = customerRepository.findAll(pageable);
+    public CursorPage<Customer> getAllCustomers(String cursor, int size, boolean includeTotal) {
+        logger.info("Fetching all customers, cursor: {}, size: {}", cursor, size);
+        PageCursor.validateSize(size);
+        String afterId = PageCursor.decode(cursor);
+        List<Customer> fetched = afterId == null
+                ? customerRepository.findAllBy(CursorPage.request(size))
+                : customerRepository.findByIdGreaterThan(afterId, CursorPage.request(size));
+        CursorPage<Customer> customers = CursorPage.of(fetched, size, Customer::getId,
+                includeTotal ? customerRepository.count() : null);
         logger.info("Customers fetched successfully, page content: {}", customers.getContent());
         return customers;
     }
@@ -1,17 +1,17 @@
 package com.example.banking.service.impl;
 
-import com.example.banking.event.EventPublisher;
+import com.example.banking.event.EventOutbox;
+import com.example.banking.history.TransactionHistoryService;
 import com.example.banking.model.Transaction;
+import com.example.banking.pagination.CursorPage;
+import com.example.banking.pagination.PageCursor;
 import com.example.banking.repository.TransactionRepository;
 import com.example.banking.service.TransactionService;
-import com.example.banking.util.EventUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,25 +22,31 @@ public class TransactionServiceImpl implements TransactionService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
 
     private final TransactionRepository transactionRepository;
-    private final EventPublisher eventPublisher;
+    private final EventOutbox eventOutbox;
+    private final TransactionHistoryService transactionHistoryService;
 
     @Value("${kafka.topic.transaction-events}")
     private String transactionEventsTopic;
 
-    public TransactionServiceImpl(TransactionRepository transactionRepository, EventPublisher eventPublisher) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository,
+                                  EventOutbox eventOutbox,
+                                  TransactionHistoryService transactionHistoryService) {
         this.transactionRepository = transactionRepository;
-        this.eventPublisher = eventPublisher;
+        this.eventOutbox = eventOutbox;
+        this.transactionHistoryService = transactionHistoryService;
     }
 
+    @Transactional
     @Override
     public List<Transaction> recordTransactions(List<Transaction> transactions) {
         logger.info("Recording transactions: {}", transactions);
         List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+        transactionHistoryService.appendRecorded(savedTransactions);
         logger.info("Transactions recorded successfully: {}", savedTransactions);
 
         // Publish transaction events
-        eventPublisher.publishEvent(transactionEventsTopic, EventUtils.serializeEvent(savedTransactions));
-        logger.info("Transaction events published successfully for transactions: {}", savedTransactions);
+        eventOutbox.enqueueTransactions(transactionEventsTopic, savedTransactions);
+        logger.info("Transaction events queued successfully for transactions: {}", savedTransactions);
 
         return savedTransactions;
     }
@@ -54,11 +60,17 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    public Page<Transaction> getAllTransactions(int page, int size) {
-        logger.info("Fetching all transactions, page: {}, size: {}", page, size);
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Transaction> transactions = transactionRepository.findAll(pageable);
-        logger.info("Fetched transactions: {}", transactions.getContent());
+    public CursorPage<Transaction> getAllTransactions(String cursor, int size, boolean includeTotal) {
+        logger.info("Fetching all transactions, cursor: {}, size: {}", cursor, size);
+        PageCursor.validateSize(size);
+        String afterId = PageCursor.decode(cursor);
+        // Hot tier only: the archive cannot be paged by ID
+        List<Transaction> fetched = afterId == null
+                ? transactionRepository.findAllBy(CursorPage.request(size))
+                : transactionRepository.findByIdGreaterThan(afterId, CursorPage.request(size));
+        CursorPage<Transaction> transactions = CursorPage.of(fetched, size, Transaction::getId,
+                includeTotal ? transactionRepository.count() : null);
+        logger.info("Transactions fetched successfully, page content: {}", transactions.getContent());
         return transactions;
     }
 
@@ -0,0 +1,177 @@
+package com.example.banking.transfer;
+
+import com.example.banking.exception.TransferNotFoundException;
+import com.example.banking.exception.TransferQueueFullException;
+import com.example.banking.model.Money;
+import com.example.banking.model.TransferStatus;
+import com.example.banking.repository.TransferStatusRepository;
+import com.example.banking.service.AccountService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs transfers submitted with {@code async=true} on a bounded pool, so request threads return immediately.
+ * <p>
+ * When the queue is full new submissions are rejected rather than queued without bound; callers get a 503 and
+ * can retry. Statuses are stored in Mongo, so a poll can go to any node, and expire after
+ * {@code banking.transfer.async.status-ttl} (see {@code MongoIndexManager}).
+ * <p>
+ * The queue itself is in memory, so transfers run at most once: a pending transfer is leased to this node for
+ * {@code banking.transfer.async.lease} and the lease is renewed while the node runs. Once the lease of a node that
+ * stopped has run out, any node marks its pending transfers FAILED instead of running them again, since a
+ * transfer may have been applied before its status was stored. Clients resubmit them after checking the accounts.
+ */
+@Service
+public class AsyncTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransferService.class);
+
+    static final String ABANDONED_MESSAGE = "The node running this transfer stopped before it finished; "
+            + "it may or may not have been applied, check the accounts before resubmitting";
+
+    private final AccountService accountService;
+    private final TransferStatusRepository transferStatusRepository;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejectedCounter;
+    private final Timer queueTimer;
+    private final Duration lease;
+    private final String owner = UUID.randomUUID().toString();
+
+    public AsyncTransferService(AccountService accountService,
+                                TransferStatusRepository transferStatusRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${banking.transfer.async.threads:8}") int threads,
+                                @Value("${banking.transfer.async.queue-capacity:1000}") int queueCapacity,
+                                @Value("${banking.transfer.async.lease:1m}") Duration lease) {
+        this.accountService = accountService;
+        this.transferStatusRepository = transferStatusRepository;
+        this.lease = lease;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("banking.transfer.async.queue.depth", executor, e -> e.getQueue().size())
+                .description("Async transfers waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("banking.transfer.async.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Async transfers currently executing")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("banking.transfer.async.rejected")
+                .description("Async transfers rejected because the queue was full")
+                .register(meterRegistry);
+        this.queueTimer = Timer.builder("banking.transfer.async.queue.wait")
+                .description("Time async transfers spend queued before a worker picks them up")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a transfer and returns its initial status.
+     *
+     * @throws TransferQueueFullException if the queue is full.
+     */
+    public TransferStatus submit(String fromAccountId, String toAccountId, Money amount) {
+        TransferStatus status = new TransferStatus(fromAccountId, toAccountId, amount);
+        status.lease(owner, status.getSubmittedAt().plus(lease));
+        logger.info("Queueing async transfer {}: {} from account {} to account {}", status.getId(), amount, fromAccountId, toAccountId);
+
+        long queuedAt = System.nanoTime();
+        transferStatusRepository.insert(status);
+        try {
+            executor.execute(() -> {
+                queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                run(status);
+            });
+        } catch (RejectedExecutionException e) {
+            transferStatusRepository.deleteById(status.getId());
+            rejectedCounter.increment();
+            logger.error("Async transfer rejected: Queue is full ({} waiting)", executor.getQueue().size());
+            throw new TransferQueueFullException("Transfer queue is full, retry later");
+        }
+
+        logger.info("Async transfer {} queued", status.getId());
+        return status;
+    }
+
+    public TransferStatus getStatus(String id) {
+        logger.info("Fetching status of async transfer {}", id);
+        TransferStatus status = transferStatusRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.error("Async transfer status fetch failed: Transfer ID {} not found", id);
+                    return new TransferNotFoundException("Transfer not found with ID: " + id);
+                });
+        logger.info("Async transfer status fetched: {}", status);
+        return status;
+    }
+
+    /**
+     * Renews the leases of the transfers still queued on this node, then fails the pending transfers of nodes that
+     * stopped. Also runs right after startup, which fails what this node left pending before a restart once its
+     * lease has run out.
+     */
+    @Scheduled(fixedDelayString = "${banking.transfer.async.lease-renewal-ms:20000}")
+    public void renewLeases() {
+        try {
+            Instant now = Instant.now();
+            long renewed = transferStatusRepository.renewLeases(owner, now.plus(lease));
+            logger.debug("Renewed leases of {} pending async transfers", renewed);
+            long abandoned = transferStatusRepository.failAbandoned(now, lease, ABANDONED_MESSAGE);
+            if (abandoned > 0) {
+                logger.error("Marked {} async transfers of stopped nodes as failed", abandoned);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Async transfer lease renewal failed, retrying on the next run", e);
+        }
+    }
+
+    private void run(TransferStatus status) {
+        try {
+            accountService.transfer(status.getFromAccountId(), status.getToAccountId(), status.getAmount());
+            status.complete();
+            logger.info("Async transfer {} completed", status.getId());
+        } catch (RuntimeException e) {
+            status.fail(e.getMessage());
+            logger.error("Async transfer {} failed: {}", status.getId(), e.getMessage());
+        }
+        try {
+            transferStatusRepository.save(status);
+        } catch (RuntimeException e) {
+            // The transfer itself is done; only its status stays PENDING until it expires
+            logger.error("Async transfer {}: Could not store status {}", status.getId(), status.getState(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Let queued transfers finish; they were already acknowledged to the client
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Async transfer pool did not drain in time, {} transfers still queued", executor.getQueue().size());
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "async-transfer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
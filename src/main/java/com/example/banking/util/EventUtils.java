@@ -1,26 +0,0 @@
-package com.example.banking.util;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-
-public class EventUtils {
-
-    private static final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule());
-
-    /**
-     * Serializes an object into a JSON string.
-     *
-     * @param event The object to serialize.
-     * @return The JSON string representation of the object.
-     * @throws RuntimeException if serialization fails.
-     */
-    public static String serializeEvent(Object event) {
-        try {
-            return objectMapper.writeValueAsString(event);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize event: " + event, e);
-        }
-    }
-}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.example.banking.util;
+
+import com.example.banking.model.Money;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * Reads what {@link MoneySerializer} writes: a number or numeric string in the default currency, or an object with
+ * the amount and its currency code.
+ */
+public class MoneyDeserializer extends JsonDeserializer<Money> {
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            return readObject(parser);
+        }
+        // Read numbers as decimals, never through double, so amounts like 0.1 stay exact
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT || parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+            return Money.of(parser.getDecimalValue());
+        }
+        String value = parser.getText().trim();
+        try {
+            return Money.of(new BigDecimal(value));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    private static Money readObject(JsonParser parser) throws IOException {
+        BigDecimal amount = null;
+        String currency = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (MoneySerializer.AMOUNT.equals(field)) {
+                amount = parser.currentToken().isNumeric() ? parser.getDecimalValue() : new BigDecimal(parser.getText().trim());
+            } else if (MoneySerializer.CURRENCY.equals(field)) {
+                currency = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (amount == null || currency == null) {
+            throw new IllegalArgumentException("Amount objects need an amount and a currency");
+        }
+        try {
+            return Money.of(amount, Currency.getInstance(currency));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amount.toPlainString() + " " + currency, e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.banking.util;
+
+import com.example.banking.model.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * Writes an amount of the default currency as a plain number, and any other amount as
+ * {@code {"amount": 1.00, "currency": "EUR"}} so that it does not read back as a default-currency amount.
+ */
+public class MoneySerializer extends JsonSerializer<Money> {
+
+    static final String AMOUNT = "amount";
+    static final String CURRENCY = "currency";
+
+    @Override
+    public void serialize(Money value, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        if (Money.DEFAULT_CURRENCY.equals(value.getCurrency())) {
+            generator.writeNumber(value.toBigDecimal());
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeNumberField(AMOUNT, value.toBigDecimal());
+        generator.writeStringField(CURRENCY, value.getCurrency().getCurrencyCode());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.banking.util;
+
+import com.example.banking.model.Money;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Lets the standard {@code @Positive} and {@code @PositiveOrZero} constraints validate {@link Money}.
+ * Registered through {@code META-INF/services/jakarta.validation.ConstraintValidator}.
+ */
+public final class MoneyValidators {
+
+    private MoneyValidators() {
+    }
+
+    public static class PositiveValidator implements ConstraintValidator<Positive, Money> {
+
+        @Override
+        public boolean isValid(Money value, ConstraintValidatorContext context) {
+            return value == null || value.isPositive();
+        }
+    }
+
+    public static class PositiveOrZeroValidator implements ConstraintValidator<PositiveOrZero, Money> {
+
+        @Override
+        public boolean isValid(Money value, ConstraintValidatorContext context) {
+            return value == null || !value.isNegative();
+        }
+    }
+}
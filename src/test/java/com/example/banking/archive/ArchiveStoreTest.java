@@ -0,0 +1,145 @@
+package com.example.banking.archive;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private ArchiveStore archiveStore;
+
+    @BeforeEach
+    void setUp() {
+        archiveStore = new ArchiveStore(directory, 10, Duration.ZERO);
+    }
+
+    @Test
+    void testRoundTripKeepsIdsSequencesAndAmounts() throws IOException {
+        Transaction transaction = transaction("1", START);
+        transaction.setSequence(7L);
+        archiveStore.write(YearMonth.of(2024, 1), List.of(transaction));
+
+        List<Transaction> archived = archiveStore.stream("1", null, null).toList();
+
+        assertEquals(1, archived.size());
+        assertEquals(transaction.getId(), archived.get(0).getId());
+        assertEquals(7L, archived.get(0).getSequence());
+        assertEquals(transaction.getAmount(), archived.get(0).getAmount());
+        assertEquals(START, archived.get(0).getTimestamp());
+        assertEquals(Transaction.TransactionType.DEPOSIT, archived.get(0).getType());
+    }
+
+    @Test
+    void testRangeReadsOnlyOverlappingMonthsAndBlocks() throws IOException {
+        // 100 transactions a day apart alternate between two accounts, ten per block
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            transactions.add(transaction(i % 2 == 0 ? "1" : "2", START.plusDays(i)));
+        }
+        for (YearMonth month = YearMonth.of(2024, 1); !month.isAfter(YearMonth.of(2024, 4)); month = month.plusMonths(1)) {
+            YearMonth current = month;
+            archiveStore.write(month, transactions.stream()
+                    .filter(transaction -> YearMonth.from(transaction.getTimestamp()).equals(current)).toList());
+        }
+        // Corrupt the January data file: a read that opened it would fail
+        try (Stream<Path> files = Files.list(directory.resolve("2024-01"))) {
+            Files.write(files.filter(path -> path.toString().endsWith(".gz")).findFirst().orElseThrow(), new byte[16]);
+        }
+
+        List<Transaction> february = archiveStore.stream("1", START.plusDays(31), START.plusDays(40)).toList();
+
+        assertEquals(List.of(YearMonth.of(2024, 2)), archiveStore.months(START.plusDays(31), START.plusDays(40)));
+        assertEquals(List.of(32, 34, 36, 38, 40), february.stream()
+                .map(transaction -> transaction.getTimestamp().getDayOfYear() - 1).toList());
+    }
+
+    @Test
+    void testBlocksWithoutTheAccountAreSkipped() throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            transactions.add(transaction(i < 10 ? "1" : "2", START.plusHours(i)));
+        }
+        Path index = archiveStore.write(YearMonth.of(2024, 1), transactions);
+        // Zero out the second block, which only holds account 2: a read that opened it would fail
+        SegmentIndex.Block second = archiveStore.index(index).blocks().get(1);
+        Path data = index.resolveSibling(index.getFileName().toString().replace(".idx.json", ".ndjson.gz"));
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(second.length()), second.offset());
+        }
+
+        assertEquals(10, archiveStore.stream("1", null, null).count());
+        assertThrows(UncheckedIOException.class, () -> archiveStore.stream("2", null, null).count());
+    }
+
+    @Test
+    void testEntriesArchivedTwiceAreReturnedOnce() throws IOException {
+        Transaction transaction = transaction("1", START);
+        archiveStore.write(YearMonth.of(2024, 1), List.of(transaction));
+        archiveStore.write(YearMonth.of(2024, 1), List.of(transaction));
+
+        assertEquals(1, archiveStore.stream("1", null, null).count());
+    }
+
+    @Test
+    void testWatermarkOnlyMovesForward() throws IOException {
+        assertNull(archiveStore.watermark());
+
+        archiveStore.advanceWatermark(START.plusMonths(2));
+        archiveStore.advanceWatermark(START.plusMonths(1));
+
+        assertEquals(START.plusMonths(2), archiveStore.watermark());
+    }
+
+    @Test
+    void testWatermarkIsCachedForTheRefreshInterval() throws IOException {
+        ArchiveStore writer = new ArchiveStore(directory, 10, Duration.ZERO);
+        ArchiveStore reader = new ArchiveStore(directory, 10, Duration.ofHours(1));
+        writer.advanceWatermark(START);
+        assertEquals(START, reader.watermark());
+
+        writer.advanceWatermark(START.plusMonths(1));
+
+        assertEquals(START, reader.watermark());
+        assertEquals(START.plusMonths(1), writer.watermark());
+    }
+
+    @Test
+    void testStorageIdIsCreatedOnce() throws IOException {
+        assertNull(archiveStore.storageId());
+
+        String id = archiveStore.createStorageId();
+
+        assertNotNull(id);
+        assertEquals(id, archiveStore.createStorageId());
+        assertEquals(id, new ArchiveStore(directory, 10, Duration.ZERO).storageId());
+    }
+
+    private static Transaction transaction(String accountId, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction(accountId, Transaction.TransactionType.DEPOSIT, Money.of(5));
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.banking.archive;
+
+import com.example.banking.ledger.LedgerService;
+import com.example.banking.lock.ClusterLock;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionArchiverTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ArchiveStore archiveStore;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ClusterLock clusterLock;
+
+    @Mock
+    private ArchiveStorageCheck storageCheck;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        when(clusterLock.tryAcquire(eq(TransactionArchiver.LOCK), any())).thenReturn(true);
+        archiver = archiver(Duration.ZERO);
+    }
+
+    @Test
+    void testBatchIsWrittenPerMonthBeforeWatermarkAndDelete() throws IOException {
+        Transaction january = transaction("1", LocalDateTime.of(2024, 1, 31, 23, 0));
+        Transaction february = transaction("2", LocalDateTime.of(2024, 2, 1, 1, 0));
+        when(transactionRepository.findArchivable(CUTOFF, 3)).thenReturn(List.of(january, february));
+
+        assertEquals(2, archiver.archiveBefore(CUTOFF));
+
+        InOrder order = inOrder(archiveStore, transactionRepository);
+        order.verify(archiveStore).write(YearMonth.of(2024, 1), List.of(january));
+        order.verify(archiveStore).write(YearMonth.of(2024, 2), List.of(february));
+        order.verify(archiveStore).advanceWatermark(CUTOFF);
+        order.verify(transactionRepository).deleteAllById(List.of(january.getId(), february.getId()));
+        verify(ledgerService, never()).checkpoint(any());
+        assertEquals(2, meterRegistry.get("banking.archive.transactions").counter().count());
+    }
+
+    @Test
+    void testFullBatchStopsBeforeItsLastTimestamp() throws IOException {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 10, 0, 0);
+        Transaction first = transaction("1", time);
+        Transaction second = transaction("1", time.plusHours(1));
+        Transaction third = transaction("1", time.plusHours(1));
+        when(transactionRepository.findArchivable(CUTOFF, 3))
+                .thenReturn(List.of(first, second, third))
+                .thenReturn(List.of(second, third));
+
+        assertEquals(3, archiver.archiveBefore(CUTOFF));
+
+        verify(archiveStore).advanceWatermark(time.plusHours(1));
+        verify(transactionRepository).deleteAllById(List.of(first.getId()));
+        verify(transactionRepository).deleteAllById(List.of(second.getId(), third.getId()));
+        verify(archiveStore).advanceWatermark(CUTOFF);
+    }
+
+    @Test
+    void testLedgerEntriesAreCheckpointedFirst() throws IOException {
+        Transaction entry = transaction("1", LocalDateTime.of(2024, 1, 10, 0, 0));
+        entry.setSequence(4L);
+        when(transactionRepository.findArchivable(CUTOFF, 3)).thenReturn(List.of(entry));
+
+        archiver.archiveBefore(CUTOFF);
+
+        InOrder order = inOrder(ledgerService, archiveStore, transactionRepository);
+        order.verify(ledgerService).checkpoint(Set.of("1"));
+        order.verify(archiveStore).write(YearMonth.of(2024, 1), List.of(entry));
+        order.verify(transactionRepository).deleteAllById(List.of(entry.getId()));
+    }
+
+    @Test
+    void testFailedWriteKeepsTransactionsInMongo() throws IOException {
+        Transaction transaction = transaction("1", LocalDateTime.of(2024, 1, 10, 0, 0));
+        when(transactionRepository.findArchivable(any(), anyInt())).thenReturn(List.of(transaction));
+        when(archiveStore.write(any(), anyList())).thenThrow(new IOException("disk full"));
+
+        archiver.archive();
+
+        verify(archiveStore, never()).advanceWatermark(any());
+        verify(transactionRepository, never()).deleteAllById(any());
+        verify(clusterLock).release(TransactionArchiver.LOCK);
+    }
+
+    @Test
+    void testRunIsSkippedWhileAnotherInstanceHoldsTheLock() throws IOException {
+        when(clusterLock.tryAcquire(eq(TransactionArchiver.LOCK), any())).thenReturn(false);
+
+        archiver.archive();
+
+        verify(storageCheck, never()).register();
+        verify(transactionRepository, never()).findArchivable(any(), anyInt());
+    }
+
+    @Test
+    void testUnsharedArchiveDirectoryStopsTheRun() throws IOException {
+        doThrow(new IllegalStateException("not shared")).when(storageCheck).register();
+
+        archiver.archive();
+
+        verify(transactionRepository, never()).findArchivable(any(), anyInt());
+        verify(clusterLock).release(TransactionArchiver.LOCK);
+    }
+
+    @Test
+    void testDeleteWaitsForTheWatermarkRefresh() throws IOException {
+        Transaction transaction = transaction("1", LocalDateTime.of(2024, 1, 10, 0, 0));
+        when(transactionRepository.findArchivable(CUTOFF, 3)).thenReturn(List.of(transaction));
+        long start = System.nanoTime();
+
+        archiver(Duration.ofMillis(100)).archiveBefore(CUTOFF);
+
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(100).toNanos());
+        InOrder order = inOrder(archiveStore, transactionRepository);
+        order.verify(archiveStore).advanceWatermark(CUTOFF);
+        order.verify(transactionRepository).deleteAllById(List.of(transaction.getId()));
+    }
+
+    @Test
+    void testLostLockStopsTheRun() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 10, 0, 0);
+        when(transactionRepository.findArchivable(CUTOFF, 3))
+                .thenReturn(List.of(transaction("1", time), transaction("1", time), transaction("1", time.plusHours(1))));
+        when(clusterLock.tryAcquire(eq(TransactionArchiver.LOCK), any())).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> archiver.archiveBefore(CUTOFF));
+
+        verify(transactionRepository, times(1)).findArchivable(CUTOFF, 3);
+        verify(transactionRepository).deleteAllById(anyList());
+    }
+
+    private TransactionArchiver archiver(Duration deleteDelay) {
+        return new TransactionArchiver(transactionRepository, archiveStore, ledgerService, clusterLock, storageCheck,
+                meterRegistry, Duration.ofDays(90), 3, Duration.ofMinutes(10), deleteDelay);
+    }
+
+    private static Transaction transaction(String accountId, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction(accountId, Transaction.TransactionType.DEPOSIT, Money.of(5));
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
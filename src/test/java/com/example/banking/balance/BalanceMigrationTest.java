@@ -0,0 +1,60 @@
+package com.example.banking.balance;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BalanceMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private BalanceMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        migration = new BalanceMigration(mongoTemplate);
+        ReflectionTestUtils.setField(migration, "batchSize", 10);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("accounts")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @Test
+    void testStringBalancesAreRewrittenAsRoundedDecimal128() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("accounts")))
+                .thenReturn(List.of(
+                        new Document("_id", "1").append("balance", "100.5"),
+                        new Document("_id", "2").append("balance", "7.125"),
+                        new Document("_id", "3").append("balance", "lots")))
+                .thenReturn(List.of());
+
+        assertEquals(2, migration.migrate());
+
+        verify(mongoTemplate).updateFirst(
+                argThat((Query query) -> "100.5".equals(query.getQueryObject().get("balance"))),
+                argThat((Update update) -> new Decimal128(new BigDecimal("100.50"))
+                        .equals(update.getUpdateObject().get("$set", Document.class).get("balance"))),
+                eq("accounts"));
+        verify(mongoTemplate).updateFirst(
+                argThat((Query query) -> "7.125".equals(query.getQueryObject().get("balance"))),
+                argThat((Update update) -> new Decimal128(new BigDecimal("7.12"))
+                        .equals(update.getUpdateObject().get("$set", Document.class).get("balance"))),
+                eq("accounts"));
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq("accounts"));
+    }
+}
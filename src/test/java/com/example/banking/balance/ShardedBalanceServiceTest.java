@@ -0,0 +1,218 @@
+package com.example.banking.balance;
+
+import com.example.banking.exception.BalanceContentionException;
+import com.example.banking.model.Money;
+import com.example.banking.repository.AccountBalanceShardRepository;
+import com.example.banking.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardedBalanceServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedBalanceServiceTest.class);
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountBalanceShardRepository shardRepository;
+
+    private ShardedBalanceService shardedBalanceService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        shardedBalanceService = new ShardedBalanceService(accountRepository, shardRepository, 16,
+                Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testEnableShardingOnlyGrows() {
+        when(accountRepository.findBalanceShards("1")).thenReturn(4);
+        when(accountRepository.increaseBalanceShards("1", 8)).thenReturn(true);
+
+        shardedBalanceService.enableSharding("1", 8);
+        shardedBalanceService.enableSharding("1", 4);
+
+        verify(accountRepository, times(1)).increaseBalanceShards("1", 8);
+        when(accountRepository.findBalanceShards("1")).thenReturn(8);
+        assertThrows(IllegalArgumentException.class, () -> shardedBalanceService.enableSharding("1", 2));
+        assertThrows(IllegalArgumentException.class, () -> shardedBalanceService.enableSharding("1", 32));
+    }
+
+    @Test
+    void testEnableShardingUnknownAccount() {
+        when(accountRepository.findBalanceShards("9")).thenReturn(null);
+
+        assertThrows(IllegalArgumentException.class, () -> shardedBalanceService.enableSharding("9", 4));
+        assertFalse(shardedBalanceService.isSharded("9"));
+    }
+
+    @Test
+    void testCreditGoesToOneSlot() {
+        when(accountRepository.findBalanceShards("1")).thenReturn(4);
+
+        for (int i = 0; i < 20; i++) {
+            shardedBalanceService.credit("1", Money.of(1));
+        }
+
+        verify(shardRepository, times(20)).credit(eq("1"), intThat(slot -> slot >= 0 && slot < 4), eq(Money.of(1)));
+        verify(accountRepository, times(1)).findBalanceShards("1");
+    }
+
+    @Test
+    void testDebitDrawsAcrossSlots() {
+        when(accountRepository.findBalanceShards("1")).thenReturn(3);
+        when(shardRepository.debitIfSufficient(eq("1"), anyInt(), eq(Money.of(100)))).thenReturn(false);
+        when(accountRepository.findBalances(List.of("1"))).thenReturn(new HashMap<>(Map.of("1", Money.of(10))));
+        when(shardRepository.findByAccountId("1")).thenReturn(List.of(
+                shard("1", 0, 50), shard("1", 1, 30), shard("1", 2, 20)));
+        when(shardRepository.debitIfSufficient(eq("1"), anyInt(), argThat(amount -> amount.isLessThan(Money.of(100))))).thenReturn(true);
+        when(accountRepository.debitIfSufficient(eq("1"), any())).thenReturn(true);
+
+        assertTrue(shardedBalanceService.debit("1", Money.of(100)));
+
+        verify(shardRepository, times(1)).debitIfSufficient("1", 0, Money.of(50));
+        verify(shardRepository, times(1)).debitIfSufficient("1", 1, Money.of(30));
+        verify(shardRepository, times(1)).debitIfSufficient("1", 2, Money.of(20));
+        verify(accountRepository, never()).debitIfSufficient(anyString(), any());
+    }
+
+    @Test
+    void testDebitRestoresPartialDrainWhenSlotChanged() {
+        when(accountRepository.findBalanceShards("1")).thenReturn(2);
+        when(accountRepository.findBalances(List.of("1"))).thenReturn(new HashMap<>(Map.of("1", Money.ZERO)));
+        when(shardRepository.findByAccountId("1")).thenReturn(List.of(shard("1", 0, 50), shard("1", 1, 50)));
+        when(shardRepository.debitIfSufficient("1", 0, Money.of(50))).thenReturn(true);
+        when(shardRepository.debitIfSufficient("1", 1, Money.of(30))).thenReturn(false);
+
+        assertThrows(BalanceContentionException.class, () -> shardedBalanceService.debit("1", Money.of(80)));
+
+        verify(shardRepository, times(3)).credit("1", 0, Money.of(50));
+    }
+
+    @Test
+    void testDebitInsufficientAcrossSlots() {
+        when(accountRepository.findBalanceShards("1")).thenReturn(2);
+        when(accountRepository.findBalances(List.of("1"))).thenReturn(new HashMap<>(Map.of("1", Money.ZERO)));
+        when(shardRepository.findByAccountId("1")).thenReturn(List.of(shard("1", 0, 10), shard("1", 1, 10)));
+
+        assertFalse(shardedBalanceService.debit("1", Money.of(25)));
+
+        verify(shardRepository, times(1)).debitIfSufficient(eq("1"), anyInt(), any());
+        verify(shardRepository, never()).credit(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void testTotalBalanceIsCachedBriefly() {
+        when(shardRepository.findByAccountId("1")).thenReturn(List.of(shard("1", 0, 10), shard("1", 1, 15)));
+
+        assertEquals(Money.of(30), shardedBalanceService.totalBalance("1", Money.of(5)));
+        assertEquals(Money.of(30), shardedBalanceService.totalBalance("1", Money.of(5)));
+        verify(shardRepository, times(1)).findByAccountId("1");
+
+        assertEquals(Money.of(30), shardedBalanceService.currentBalance("1", Money.of(5)));
+        verify(shardRepository, times(2)).findByAccountId("1");
+    }
+
+    /**
+     * Concurrent credits to one hot account against a stand-in where each document admits one write at a time.
+     * Spreading the credits over N slots should raise throughput roughly N-fold.
+     */
+    @Test
+    void testCreditThroughputScalesWithShards() throws InterruptedException {
+        run(8, 1); // warm up
+
+        Map<Integer, Double> rates = new HashMap<>();
+        for (int shards : List.of(1, 2, 4, 8)) {
+            rates.put(shards, run(shards, shards == 1 ? 4 : 8));
+        }
+
+        logger.info("Credits/sec by shard count: {}", rates);
+        assertTrue(rates.get(4) > 2.5 * rates.get(1), "4 shards should be well over twice as fast as 1: " + rates);
+        assertTrue(rates.get(8) > rates.get(4), "8 shards should be faster than 4: " + rates);
+    }
+
+    private double run(int shards, int creditsPerThread) throws InterruptedException {
+        int threads = 16;
+        long writeNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        Map<Integer, ReentrantLock> documents = new ConcurrentHashMap<>();
+        AccountRepository accounts = stub(AccountRepository.class, args -> shards);
+        AccountBalanceShardRepository slots = stub(AccountBalanceShardRepository.class, args -> {
+            ReentrantLock document = documents.computeIfAbsent((Integer) args[1], slot -> new ReentrantLock());
+            document.lock();
+            try {
+                LockSupport.parkNanos(writeNanos);
+            } finally {
+                document.unlock();
+            }
+            return null;
+        });
+        ShardedBalanceService service = new ShardedBalanceService(accounts, slots, 64,
+                Duration.ofMinutes(1), Duration.ofMinutes(1));
+        service.credit("hot", Money.of(1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Runnable> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < creditsPerThread; i++) {
+                    service.credit("hot", Money.of(1));
+                }
+            });
+        }
+        workers.forEach(executor::submit);
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        return threads * creditsPerThread / ((System.nanoTime() - startNanos) / 1e9);
+    }
+
+    private static AccountBalanceShard shard(String accountId, int slot, long balance) {
+        AccountBalanceShard shard = new AccountBalanceShard();
+        shard.setId(AccountBalanceShard.id(accountId, slot));
+        shard.setAccountId(accountId);
+        shard.setSlot(slot);
+        shard.setBalance(Money.of(balance));
+        return shard;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, java.util.function.Function<Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.apply(args));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
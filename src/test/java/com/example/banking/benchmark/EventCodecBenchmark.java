@@ -0,0 +1,141 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.codec.EventCodec;
+import com.example.banking.codec.SchemaRegistry;
+import com.example.banking.event.TransferEvent;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and binary encodings of {@link EventCodec} for a transfer event and a transaction event of
+ * {@code transactions} transactions: nanoseconds to encode and decode, and bytes per event, which {@link #main}
+ * prints before the run.
+ * <p>
+ * Not part of the unit test run; start {@link #main} from the IDE or with {@code java} on the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final String TRANSACTION_TOPIC = "transaction-events";
+    private static final String TRANSFER_TOPIC = "transfer-events";
+
+    @Param({"1", "20"})
+    private int transactions;
+
+    private EventCodec jsonCodec;
+    private EventCodec binaryCodec;
+    private TransferEvent transfer;
+    private List<Transaction> transactionEvent;
+    private byte[] transferJson;
+    private byte[] transferBinary;
+    private byte[] transactionsJson;
+    private byte[] transactionsBinary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SchemaRegistry registry = new SchemaRegistry(Files.createTempDirectory("schemas"));
+        jsonCodec = codec(registry, List.of());
+        binaryCodec = codec(registry, List.of(TRANSACTION_TOPIC, TRANSFER_TOPIC));
+        Random random = new Random(42);
+        transfer = new TransferEvent(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                Money.ofMinor(1 + random.nextInt(100_000)));
+        transactionEvent = new ArrayList<>(transactions);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 12, 0);
+        for (int i = 0; i < transactions; i++) {
+            transactionEvent.add(new Transaction(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                    Transaction.TransactionType.values()[i % 3], Money.ofMinor(1 + random.nextInt(100_000)),
+                    timestamp.plusSeconds(i)));
+        }
+        transferJson = jsonCodec.encode(TRANSFER_TOPIC, transfer);
+        transferBinary = binaryCodec.encode(TRANSFER_TOPIC, transfer);
+        transactionsJson = jsonCodec.encode(TRANSACTION_TOPIC, transactionEvent);
+        transactionsBinary = binaryCodec.encode(TRANSACTION_TOPIC, transactionEvent);
+    }
+
+    private static EventCodec codec(SchemaRegistry registry, List<String> binaryTopics) {
+        return new EventCodec(registry, binaryTopics, "account-events", "customer-events", TRANSACTION_TOPIC,
+                TRANSFER_TOPIC);
+    }
+
+    @Benchmark
+    public byte[] encodeTransferJson() {
+        return jsonCodec.encode(TRANSFER_TOPIC, transfer);
+    }
+
+    @Benchmark
+    public byte[] encodeTransferBinary() {
+        return binaryCodec.encode(TRANSFER_TOPIC, transfer);
+    }
+
+    @Benchmark
+    public Object decodeTransferJson() {
+        return jsonCodec.decode(TRANSFER_TOPIC, transferJson);
+    }
+
+    @Benchmark
+    public Object decodeTransferBinary() {
+        return binaryCodec.decode(TRANSFER_TOPIC, transferBinary);
+    }
+
+    @Benchmark
+    public byte[] encodeTransactionsJson() {
+        return jsonCodec.encode(TRANSACTION_TOPIC, transactionEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeTransactionsBinary() {
+        return binaryCodec.encode(TRANSACTION_TOPIC, transactionEvent);
+    }
+
+    @Benchmark
+    public Object decodeTransactionsJson() {
+        return jsonCodec.decode(TRANSACTION_TOPIC, transactionsJson);
+    }
+
+    @Benchmark
+    public Object decodeTransactionsBinary() {
+        return binaryCodec.decode(TRANSACTION_TOPIC, transactionsBinary);
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        for (int size : new int[]{1, 20}) {
+            EventCodecBenchmark sizes = new EventCodecBenchmark();
+            sizes.transactions = size;
+            sizes.setUp();
+            System.out.printf("Transfer event: %d bytes JSON, %d bytes binary%n",
+                    sizes.transferJson.length, sizes.transferBinary.length);
+            System.out.printf("Transaction event of %d: %d bytes JSON, %d bytes binary%n",
+                    size, sizes.transactionsJson.length, sizes.transactionsBinary.length);
+        }
+        new Runner(new OptionsBuilder().include(EventCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Money} with the {@link BigDecimal} arithmetic it replaced, for the balance checks and updates
+ * of a transfer and for summing the amounts of a statement.
+ * <p>
+ * Not part of the unit test run; start {@link #main} from the IDE or with {@code java} on the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"1000"})
+    private int statementSize;
+
+    private BigDecimal[] decimalAmounts;
+    private Money[] moneyAmounts;
+    private List<Money> moneyStatement;
+
+    private BigDecimal decimalFrom;
+    private BigDecimal decimalTo;
+    private Money moneyFrom;
+    private Money moneyTo;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimalAmounts = new BigDecimal[statementSize];
+        moneyAmounts = new Money[statementSize];
+        for (int i = 0; i < statementSize; i++) {
+            long cents = 1 + random.nextInt(100_000);
+            // Amounts as they come back from Decimal128, always at the currency scale
+            decimalAmounts[i] = BigDecimal.valueOf(cents, 2);
+            moneyAmounts[i] = Money.ofMinor(cents);
+        }
+        moneyStatement = Arrays.asList(moneyAmounts);
+        decimalFrom = new BigDecimal("1000000000.00");
+        decimalTo = new BigDecimal("0.00");
+        moneyFrom = Money.of(decimalFrom);
+        moneyTo = Money.of(decimalTo);
+    }
+
+    @Benchmark
+    public BigDecimal transferBigDecimal() {
+        BigDecimal amount = decimalAmounts[next++ % statementSize];
+        if (amount.signum() <= 0 || decimalFrom.compareTo(amount) < 0) {
+            throw new IllegalStateException();
+        }
+        decimalFrom = decimalFrom.subtract(amount);
+        decimalTo = decimalTo.add(amount);
+        // Move it back so the balances stay in range however long the run
+        decimalFrom = decimalFrom.add(amount);
+        decimalTo = decimalTo.subtract(amount);
+        return decimalTo;
+    }
+
+    @Benchmark
+    public Money transferMoney() {
+        Money amount = moneyAmounts[next++ % statementSize];
+        if (!amount.isPositive() || moneyFrom.isLessThan(amount)) {
+            throw new IllegalStateException();
+        }
+        moneyFrom = moneyFrom.minus(amount);
+        moneyTo = moneyTo.plus(amount);
+        moneyFrom = moneyFrom.plus(amount);
+        moneyTo = moneyTo.minus(amount);
+        return moneyTo;
+    }
+
+    @Benchmark
+    public BigDecimal statementSumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimalAmounts) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money statementSumMoney() {
+        return Money.sum(moneyStatement);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.banking.cache;
+
+import com.example.banking.model.Account;
+import com.example.banking.model.Money;
+import com.example.banking.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccountCacheTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testReadThroughAndInvalidate() {
+        AccountCache cache = cache(false, Duration.ofMinutes(1));
+        when(accountRepository.findById("1")).thenReturn(Optional.of(account("1", "c1", 100)));
+
+        assertEquals(Money.of(100), cache.get("1").orElseThrow().getBalance());
+        cache.get("1").orElseThrow().setBalance(Money.of(5));
+        assertEquals(Money.of(100), cache.get("1").orElseThrow().getBalance());
+        verify(accountRepository, times(1)).findById("1");
+
+        cache.invalidate(List.of("1"));
+        cache.get("1");
+        verify(accountRepository, times(2)).findById("1");
+
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "hit").functionCounter().count());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "miss").functionCounter().count());
+        verify(accountRepository, never()).findBalances(any());
+    }
+
+    @Test
+    void testUnknownAccountIsNotCached() {
+        AccountCache cache = cache(false, Duration.ofMinutes(1));
+        when(accountRepository.findById("9")).thenReturn(Optional.empty());
+
+        assertTrue(cache.get("9").isEmpty());
+        assertTrue(cache.get("9").isEmpty());
+        verify(accountRepository, times(2)).findById("9");
+    }
+
+    @Test
+    void testBypassReadsBalanceEveryTime() {
+        AccountCache cache = cache(true, Duration.ofMinutes(1));
+        when(accountRepository.findById("1")).thenReturn(Optional.of(account("1", "c1", 100)));
+        when(accountRepository.findBalances(Set.of("1"))).thenReturn(Map.of("1", Money.of(70)));
+
+        assertEquals(Money.of(70), cache.get("1").orElseThrow().getBalance());
+        assertEquals(Money.of(70), cache.get("1").orElseThrow().getBalance());
+
+        verify(accountRepository, times(1)).findById("1");
+        verify(accountRepository, times(2)).findBalances(Set.of("1"));
+        assertEquals(2, meterRegistry.get("banking.cache.accounts.balance.reads").counter().count());
+    }
+
+    @Test
+    void testStaleBalanceIsReRead() {
+        AccountCache cache = cache(false, Duration.ZERO);
+        when(accountRepository.findById("1")).thenReturn(Optional.of(account("1", "c1", 100)));
+        when(accountRepository.findBalances(Set.of("1"))).thenReturn(new HashMap<>(Map.of("1", Money.of(40))));
+
+        assertEquals(Money.of(40), cache.get("1").orElseThrow().getBalance());
+
+        when(accountRepository.findBalances(Set.of("1"))).thenReturn(new HashMap<>());
+        assertTrue(cache.get("1").isEmpty(), "An account deleted since it was cached must not be served");
+        verify(accountRepository, times(1)).findById("1");
+    }
+
+    @Test
+    void testCustomerAccountsAreCachedUntilAccountCreated() {
+        AccountCache cache = cache(false, Duration.ofMinutes(1));
+        when(accountRepository.findByCustomerId("c1")).thenReturn(List.of(account("1", "c1", 10), account("2", "c1", 20)));
+
+        assertEquals(2, cache.getByCustomerId("c1").size());
+        assertEquals(2, cache.getByCustomerId("c1").size());
+        assertEquals(Money.of(20), cache.get("2").orElseThrow().getBalance());
+        verify(accountRepository, times(1)).findByCustomerId("c1");
+        verify(accountRepository, never()).findById(any());
+
+        cache.invalidateCustomer("c1");
+        cache.getByCustomerId("c1");
+        verify(accountRepository, times(2)).findByCustomerId("c1");
+    }
+
+    @Test
+    void testCustomerAccountsReloadInvalidatedAccountsInOneQuery() {
+        AccountCache cache = cache(false, Duration.ofMinutes(1));
+        when(accountRepository.findByCustomerId("c1")).thenReturn(List.of(account("1", "c1", 10), account("2", "c1", 20)));
+        when(accountRepository.findAllById(any())).thenReturn(List.of(account("1", "c1", 5), account("2", "c1", 25)));
+        cache.getByCustomerId("c1");
+
+        cache.invalidate(List.of("1", "2"));
+        List<Account> accounts = cache.getByCustomerId("c1");
+
+        assertEquals(List.of(Money.of(5), Money.of(25)), accounts.stream().map(Account::getBalance).toList());
+        verify(accountRepository, times(1)).findAllById(any());
+    }
+
+    private AccountCache cache(boolean bypassBalance, Duration balanceStaleness) {
+        return new AccountCache(accountRepository, meterRegistry, 100, Duration.ofMinutes(5), bypassBalance, balanceStaleness);
+    }
+
+    private static Account account(String id, String customerId, long balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setCustomerId(customerId);
+        account.setBalance(Money.of(balance));
+        return account;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.banking.codec;
+
+import com.example.banking.event.TransferEvent;
+import com.example.banking.model.Account;
+import com.example.banking.model.Customer;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCodecTest {
+
+    @TempDir
+    Path registryDirectory;
+
+    private EventCodec eventCodec;
+
+    @BeforeEach
+    void setUp() {
+        eventCodec = codec(List.of("account-topic", "customer-topic", "transaction-topic", "transfer-topic"));
+    }
+
+    private EventCodec codec(List<String> binaryTopics) {
+        return new EventCodec(new SchemaRegistry(registryDirectory), binaryTopics,
+                "account-topic", "customer-topic", "transaction-topic", "transfer-topic");
+    }
+
+    @Test
+    void testBinaryTransactionsRoundTripWithIds() {
+        Transaction deposit = new Transaction("t1", "A1", Transaction.TransactionType.DEPOSIT, Money.ofMinor(10050),
+                LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000));
+        Transaction debit = new Transaction("t2", "A1", Transaction.TransactionType.TRANSFER,
+                Money.ofMinor(-500, Currency.getInstance("EUR")), LocalDateTime.of(1969, 12, 31, 23, 59));
+        debit.setSequence(42L);
+
+        byte[] encoded = eventCodec.encode("transaction-topic", List.of(deposit, debit));
+
+        assertEquals(EventCodec.MAGIC, encoded[0]);
+        @SuppressWarnings("unchecked")
+        List<Transaction> decoded = (List<Transaction>) eventCodec.decode("transaction-topic", encoded);
+        assertEquals(2, decoded.size());
+        assertEquals("t1", decoded.get(0).getId());
+        assertEquals("A1", decoded.get(0).getAccountId());
+        assertEquals(Transaction.TransactionType.DEPOSIT, decoded.get(0).getType());
+        assertEquals(Money.ofMinor(10050), decoded.get(0).getAmount());
+        assertEquals(deposit.getTimestamp(), decoded.get(0).getTimestamp());
+        assertNull(decoded.get(0).getSequence());
+        assertEquals(Money.ofMinor(-500, Currency.getInstance("EUR")), decoded.get(1).getAmount());
+        assertEquals(debit.getTimestamp(), decoded.get(1).getTimestamp());
+        assertEquals(42L, decoded.get(1).getSequence());
+    }
+
+    @Test
+    void testBinaryAccountCustomerAndTransferRoundTrip() {
+        Account account = new Account();
+        account.setCustomerId("C1");
+        account.setBalance(Money.ofMinor(123456));
+        account.setBalanceShards(8);
+        Customer customer = new Customer();
+        customer.setName("Zoë");
+        customer.setEmail("zoe@example.com");
+
+        Account decodedAccount = (Account) eventCodec.decode("account-topic", eventCodec.encode("account-topic", account));
+        Customer decodedCustomer = (Customer) eventCodec.decode("customer-topic",
+                eventCodec.encode("customer-topic", customer));
+        TransferEvent decodedTransfer = (TransferEvent) eventCodec.decode("transfer-topic",
+                eventCodec.encode("transfer-topic", new TransferEvent("A1", "A2", Money.ofMinor(700))));
+
+        assertEquals(account.getId(), decodedAccount.getId());
+        assertEquals("C1", decodedAccount.getCustomerId());
+        assertEquals(Money.ofMinor(123456), decodedAccount.getBalance());
+        assertEquals(8, decodedAccount.getBalanceShards());
+        assertNull(decodedAccount.getTransactionCount());
+        assertEquals(customer.getId(), decodedCustomer.getId());
+        assertEquals("Zoë", decodedCustomer.getName());
+        assertNull(decodedCustomer.getPhoneNumber());
+        assertEquals("A2", decodedTransfer.getToAccountId());
+        assertEquals(Money.ofMinor(700), decodedTransfer.getAmount());
+    }
+
+    @Test
+    void testJsonTopicsKeepTheirJsonAndDecodeEitherEncoding() {
+        EventCodec jsonCodec = codec(List.of());
+        TransferEvent transfer = new TransferEvent("A1", "A2", Money.ofMinor(700));
+
+        byte[] json = jsonCodec.encode("transfer-topic", transfer);
+        byte[] binary = eventCodec.encode("transfer-topic", transfer);
+
+        assertEquals("{\"fromAccountId\":\"A1\",\"toAccountId\":\"A2\",\"amount\":7.00}",
+                new String(json, StandardCharsets.UTF_8));
+        assertTrue(binary.length < json.length);
+        assertEquals("A1", ((TransferEvent) jsonCodec.decode("transfer-topic", binary)).getFromAccountId());
+        assertEquals("A1", ((TransferEvent) eventCodec.decode("transfer-topic", json)).getFromAccountId());
+    }
+
+    @Test
+    void testInvalidBinaryEventsAreRejected() {
+        byte[] encoded = eventCodec.encode("transfer-topic", new TransferEvent("A1", "A2", Money.ofMinor(700)));
+        byte[] unknownSchema = encoded.clone();
+        unknownSchema[4] = 99;
+
+        assertThrows(IllegalArgumentException.class,
+                () -> eventCodec.decode("transfer-topic", Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> eventCodec.decode("transfer-topic", unknownSchema));
+        assertThrows(IllegalArgumentException.class, () -> eventCodec.encode("transfer-topic", "not an event"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.banking.codec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRegisteringAgainReturnsTheSameId() {
+        SchemaRegistry registry = new SchemaRegistry(directory);
+
+        int account = registry.register(EventSchema.ACCOUNT);
+        int transfer = registry.register(EventSchema.TRANSFER);
+
+        assertNotEquals(account, transfer);
+        assertEquals(account, registry.register(EventSchema.ACCOUNT));
+        assertEquals(account, new SchemaRegistry(directory).register(EventSchema.ACCOUNT));
+    }
+
+    @Test
+    void testLookupFindsSchemasRegisteredByAnotherInstance() {
+        SchemaRegistry reader = new SchemaRegistry(directory);
+        assertThrows(IllegalArgumentException.class, () -> reader.lookup(1));
+
+        int id = new SchemaRegistry(directory).register(EventSchema.TRANSACTIONS);
+
+        assertEquals(EventSchema.TRANSACTIONS, reader.lookup(id));
+    }
+
+    @Test
+    void testChangedFieldsNeedANewVersion() {
+        SchemaRegistry registry = new SchemaRegistry(directory);
+        registry.register(EventSchema.TRANSFER);
+
+        EventSchema changed = new EventSchema("transfer", 1, List.of("fromAccountId:string", "amount:money"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(changed));
+        assertNotEquals(registry.register(EventSchema.TRANSFER),
+                registry.register(new EventSchema("transfer", 2, changed.fields())));
+    }
+}
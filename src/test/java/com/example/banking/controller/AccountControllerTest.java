@@ -1,17 +1,28 @@
 package com.example.banking.controller;
 
+import com.example.banking.idempotency.IdempotencyService;
 import com.example.banking.model.Account;
+import com.example.banking.model.AccountPeriodSummary;
+import com.example.banking.model.AccountSummary;
+import com.example.banking.model.BatchTransferResponse;
+import com.example.banking.model.Money;
+import com.example.banking.model.TransferRequest;
+import com.example.banking.model.TransferStatus;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.service.AccountService;
+import com.example.banking.transfer.AsyncTransferService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -21,11 +32,19 @@ class AccountControllerTest {
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
     @InjectMocks
     private AccountController accountController;
 
     public AccountControllerTest() {
         MockitoAnnotations.openMocks(this);
+        when(idempotencyService.execute(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
     }
 
     @Test
@@ -47,13 +66,59 @@ class AccountControllerTest {
         String to = "2";
         BigDecimal amount = BigDecimal.valueOf(100);
 
-        doNothing().when(accountService).transfer(from, to, amount);
+        doNothing().when(accountService).transfer(from, to, Money.of(100));
 
-        ResponseEntity<String> response = accountController.transfer(from, to, amount);
+        ResponseEntity<String> response = accountController.transfer(from, to, amount, false, "key-1");
 
         assertEquals(201, response.getStatusCodeValue());
         assertEquals("Transfer successful", response.getBody());
-        verify(accountService, times(1)).transfer(from, to, amount);
+        verify(accountService, times(1)).transfer(from, to, Money.of(100));
+        verify(idempotencyService, times(1)).execute(eq("transfer"), eq("key-1"), any(), any(), any());
+    }
+
+    @Test
+    void testTransferAsync() {
+        TransferStatus status = new TransferStatus("1", "2", Money.of(10));
+        when(asyncTransferService.submit("1", "2", Money.of(10))).thenReturn(status);
+
+        ResponseEntity<String> response = accountController.transfer("1", "2", BigDecimal.TEN, true, null);
+
+        assertEquals(202, response.getStatusCodeValue());
+        assertEquals(status.getId(), response.getBody());
+        verify(accountService, never()).transfer(any(), any(), any());
+    }
+
+    @Test
+    void testGetTransferStatus() {
+        TransferStatus status = new TransferStatus("1", "2", Money.of(10));
+        when(asyncTransferService.getStatus(status.getId())).thenReturn(status);
+
+        ResponseEntity<TransferStatus> response = accountController.getTransferStatus(status.getId());
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(TransferStatus.State.PENDING, response.getBody().getState());
+    }
+
+    @Test
+    void testTransferBatch() {
+        List<TransferRequest> transfers = List.of(new TransferRequest("1", "2", Money.of(10)));
+        BatchTransferResponse batchResponse = new BatchTransferResponse(
+                List.of(BatchTransferResponse.ItemResult.success(0)));
+        when(accountService.transferBatch(transfers)).thenReturn(batchResponse);
+
+        ResponseEntity<BatchTransferResponse> response = accountController.transferBatch(transfers);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(1, response.getBody().getSucceeded());
+        verify(accountService, times(1)).transferBatch(transfers);
+    }
+
+    @Test
+    void testEnableBalanceShards() {
+        ResponseEntity<String> response = accountController.enableBalanceShards("1", 8);
+
+        assertEquals(200, response.getStatusCodeValue());
+        verify(accountService, times(1)).enableBalanceShards("1", 8);
     }
 
     @Test
@@ -69,15 +134,42 @@ class AccountControllerTest {
         verify(accountService, times(1)).getAccountById("1");
     }
 
+    @Test
+    void testGetAccountSummaries() {
+        CursorPage<AccountSummary> page = new CursorPage<>(List.of(new AccountSummary()), null, null);
+        when(accountService.getAccountSummaries(null, 10, false, Set.of("balance"))).thenReturn(page);
+
+        ResponseEntity<CursorPage<AccountSummary>> response = accountController.getAccountSummaries(null, 10, false,
+                Set.of("balance"));
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(page, response.getBody());
+        verify(accountService, never()).getAllAccounts(any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void testGetAccountPeriodSummary() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        AccountPeriodSummary summary = new AccountPeriodSummary("1", from, to, Money.of(5), Money.of(7),
+                Collections.emptyMap(), Collections.emptyList());
+        when(accountService.getAccountPeriodSummary("1", from, to)).thenReturn(summary);
+
+        ResponseEntity<AccountPeriodSummary> response = accountController.getAccountPeriodSummary("1", from, to);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(summary, response.getBody());
+    }
+
     @Test
     void testGetAllAccounts() {
-        Page<Account> page = new PageImpl<>(Collections.singletonList(new Account()));
-        when(accountService.getAllAccounts(0, 10)).thenReturn(page);
+        CursorPage<Account> page = new CursorPage<>(Collections.singletonList(new Account()), "Yg", null);
+        when(accountService.getAllAccounts("YQ", 10, false)).thenReturn(page);
 
-        ResponseEntity<Page<Account>> response = accountController.getAllAccounts(0, 10);
+        ResponseEntity<CursorPage<Account>> response = accountController.getAllAccounts("YQ", 10, false);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(page, response.getBody());
-        verify(accountService, times(1)).getAllAccounts(0, 10);
+        verify(accountService, times(1)).getAllAccounts("YQ", 10, false);
     }
 }
@@ -0,0 +1,42 @@
+package com.example.banking.controller;
+
+import com.example.banking.export.TransactionDumpService;
+import com.example.banking.model.DumpStatus;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class AdminControllerTest {
+
+    @Mock
+    private TransactionDumpService transactionDumpService;
+
+    @InjectMocks
+    private AdminController adminController;
+
+    public AdminControllerTest() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testStartDumpIsAccepted() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 12, 31, 23, 59, 59);
+        DumpStatus status = new DumpStatus("d1", from, to, 16, "/dumps/d1");
+        when(transactionDumpService.start(from, to)).thenReturn(status);
+
+        ResponseEntity<DumpStatus> response = adminController.startDump(from, to);
+
+        assertEquals(202, response.getStatusCodeValue());
+        assertEquals(status, response.getBody());
+        when(transactionDumpService.getStatus("d1")).thenReturn(status);
+        assertEquals(status, adminController.getDumpStatus("d1").getBody());
+    }
+}
@@ -1,13 +1,12 @@
 package com.example.banking.controller;
 
 import com.example.banking.model.Customer;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.service.CustomerService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Collections;
@@ -42,14 +41,14 @@ class CustomerControllerTest {
 
     @Test
     void testGetAllCustomers() {
-        Page<Customer> page = new PageImpl<>(Collections.singletonList(new Customer()));
-        when(customerService.getAllCustomers(0, 10)).thenReturn(page);
+        CursorPage<Customer> page = new CursorPage<>(Collections.singletonList(new Customer()), null, 1L);
+        when(customerService.getAllCustomers(null, 10, true)).thenReturn(page);
 
-        ResponseEntity<Page<Customer>> response = customerController.getAllCustomers(0, 10);
+        ResponseEntity<CursorPage<Customer>> response = customerController.getAllCustomers(null, 10, true);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(page, response.getBody());
-        verify(customerService, times(1)).getAllCustomers(0, 10);
+        verify(customerService, times(1)).getAllCustomers(null, 10, true);
     }
 
     @Test
@@ -1,21 +1,31 @@
 package com.example.banking.controller;
 
+import com.example.banking.exception.IngestionFailedException;
+import com.example.banking.export.TransactionExportService;
+import com.example.banking.idempotency.IdempotencyService;
+import com.example.banking.ingest.TransactionIngestionService;
+import com.example.banking.model.IngestionResponse;
+import com.example.banking.model.Money;
 import com.example.banking.model.Transaction;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import java.math.BigDecimal;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -31,16 +41,31 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @MockBean
+    private TransactionIngestionService transactionIngestionService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void setUp() {
+        when(idempotencyService.execute(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+    }
+
     @Test
     void testRecordTransactions_ValidTransactions() throws Exception {
         // Arrange
         Transaction transaction = new Transaction();
         transaction.setAccountId("123");
         transaction.setType(Transaction.TransactionType.DEPOSIT);
-        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setAmount(Money.of(100));
         transaction.setTimestamp(LocalDateTime.now());
 
         List<Transaction> transactions = Collections.singletonList(transaction);
@@ -49,6 +74,7 @@ class TransactionControllerTest {
 
         // Act & Assert
         mockMvc.perform(post("/transactions")
+                        .header(IdempotencyService.HEADER, "key-1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(transactions)))
                 .andExpect(status().isCreated())
@@ -56,6 +82,7 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$[0].amount").value(100));
 
         verify(transactionService, times(1)).recordTransactions(any());
+        verify(idempotencyService, times(1)).execute(eq("transactions"), eq("key-1"), any(), any(), any());
     }
 
     @Test
@@ -64,7 +91,7 @@ class TransactionControllerTest {
         Transaction transaction = new Transaction();
         transaction.setAccountId(""); // Invalid accountId
         transaction.setType(Transaction.TransactionType.DEPOSIT);
-        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setAmount(Money.of(100));
         transaction.setTimestamp(LocalDateTime.now());
 
         List<Transaction> transactions = Collections.singletonList(transaction);
@@ -79,13 +106,51 @@ class TransactionControllerTest {
         verify(transactionService, never()).recordTransactions(any());
     }
 
+    @Test
+    void testIngestTransactionsReportsFailedItems() throws Exception {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId("123");
+        transaction.setType(Transaction.TransactionType.DEPOSIT);
+        transaction.setAmount(Money.of(100));
+        transaction.setTimestamp(LocalDateTime.now());
+        Transaction invalid = new Transaction();
+        invalid.setAccountId("");
+
+        when(transactionIngestionService.ingest(any(), any())).thenReturn(
+                new IngestionResponse(2, List.of(new IngestionResponse.Failure(1, "accountId: must not be blank"))));
+
+        mockMvc.perform(post("/transactions/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(transaction, invalid))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.failures[0].index").value(1));
+
+        verify(transactionIngestionService, times(1)).ingest(any(InputStream.class), isNull());
+        verify(transactionService, never()).recordTransactions(any());
+    }
+
+    @Test
+    void testFailedIngestionReportsTheCommittedCount() throws Exception {
+        when(transactionIngestionService.ingest(any(), eq("key-1"))).thenThrow(
+                new IngestionFailedException("Ingestion failed: Mongo unavailable", 3000, new IllegalStateException()));
+
+        mockMvc.perform(post("/transactions/bulk")
+                        .header(IdempotencyService.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.committed").value(3000))
+                .andExpect(jsonPath("$.error").value("Ingestion failed: Mongo unavailable"));
+    }
+
     @Test
     void testGetTransactionsByAccountId() throws Exception {
         // Arrange
         Transaction transaction = new Transaction();
         transaction.setAccountId("123");
         transaction.setType(Transaction.TransactionType.DEPOSIT);
-        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setAmount(Money.of(100));
         transaction.setTimestamp(LocalDateTime.now());
 
         List<Transaction> transactions = Collections.singletonList(transaction);
@@ -108,23 +173,45 @@ class TransactionControllerTest {
         Transaction transaction = new Transaction();
         transaction.setAccountId("123");
         transaction.setType(Transaction.TransactionType.DEPOSIT);
-        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setAmount(Money.of(100));
         transaction.setTimestamp(LocalDateTime.now());
 
-        Page<Transaction> transactionPage = new PageImpl<>(Collections.singletonList(transaction));
+        CursorPage<Transaction> transactionPage = new CursorPage<>(Collections.singletonList(transaction), "MTIz", null);
 
-        when(transactionService.getAllTransactions(0, 10)).thenReturn(transactionPage);
+        when(transactionService.getAllTransactions("YWJj", 10, false)).thenReturn(transactionPage);
 
         // Act & Assert
         mockMvc.perform(get("/transactions")
-                        .param("page", "0")
+                        .param("cursor", "YWJj")
                         .param("size", "10")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].accountId").value("123"))
-                .andExpect(jsonPath("$.content[0].amount").value(100));
+                .andExpect(jsonPath("$.content[0].amount").value(100))
+                .andExpect(jsonPath("$.nextCursor").value("MTIz"));
 
-        verify(transactionService, times(1)).getAllTransactions(0, 10);
+        verify(transactionService, times(1)).getAllTransactions("YWJj", 10, false);
+    }
+
+    @Test
+    void testExportTransactionsStreamsNdjson() throws Exception {
+        when(transactionExportService.exportNdjson(eq("123"), any(), isNull(), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write("{\"accountId\":\"123\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/transactions/123/export")
+                        .param("from", "2024-01-01T00:00:00")
+                        .accept(TransactionExportService.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TransactionExportService.NDJSON))
+                .andExpect(content().string("{\"accountId\":\"123\"}\n"));
+        verify(transactionExportService, times(1))
+                .exportNdjson(eq("123"), eq(LocalDateTime.of(2024, 1, 1, 0, 0)), isNull(), any());
     }
 
     @Test
@@ -133,7 +220,7 @@ class TransactionControllerTest {
         Transaction transaction = new Transaction();
         transaction.setAccountId("123");
         transaction.setType(Transaction.TransactionType.DEPOSIT);
-        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setAmount(Money.of(100));
         transaction.setTimestamp(LocalDateTime.now());
 
         List<Transaction> transactions = Collections.singletonList(transaction);
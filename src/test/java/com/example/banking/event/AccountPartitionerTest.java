@@ -0,0 +1,62 @@
+package com.example.banking.event;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountPartitionerTest {
+
+    private static final int PARTITIONS = 12;
+
+    private final Node node = new Node(0, "localhost", 9092);
+    private final Cluster cluster = new Cluster("cluster", List.of(node),
+            IntStream.range(0, PARTITIONS).mapToObj(i -> new PartitionInfo("transfer-events", i, node, null, null)).toList(),
+            Set.of(), Set.of());
+    private final AccountPartitioner partitioner = new AccountPartitioner();
+
+    private int partition(String key) {
+        byte[] keyBytes = key == null ? null : key.getBytes(StandardCharsets.UTF_8);
+        return partitioner.partition("transfer-events", key, keyBytes, null, new byte[0], cluster);
+    }
+
+    @Test
+    void testSameAccountAlwaysGoesToTheSamePartition() {
+        int partition = partition("A1");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(partition, partition("A1"));
+        }
+        // Same assignment as Kafka's default partitioner, so other producers keyed by account ID agree
+        assertEquals(Utils.toPositive(Utils.murmur2("A1".getBytes(StandardCharsets.UTF_8))) % PARTITIONS, partition);
+    }
+
+    @Test
+    void testAccountsSpreadOverPartitions() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            used.add(partition("account-" + i));
+        }
+
+        assertEquals(PARTITIONS, used.size());
+    }
+
+    @Test
+    void testUnkeyedEventsAreSpreadRoundRobin() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            used.add(partition(null));
+        }
+
+        assertEquals(PARTITIONS, used.size());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.banking.event;
+
+import com.example.banking.codec.EventCodec;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EventOutboxTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private EventCodec eventCodec;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(eventCodec.encode(anyString(), any())).thenReturn(new byte[]{1});
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> inserted() {
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).insert(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void testTransactionsAreGroupedByAccountInOrder() {
+        EventOutbox eventOutbox = new EventOutbox(outboxRepository, eventCodec, EventOutbox.TransferRouting.BOTH_ACCOUNTS, 10);
+        Transaction first = new Transaction("A2", Transaction.TransactionType.DEPOSIT, Money.of(1));
+        Transaction second = new Transaction("A1", Transaction.TransactionType.DEPOSIT, Money.of(2));
+        Transaction third = new Transaction("A2", Transaction.TransactionType.WITHDRAWAL, Money.of(3));
+
+        eventOutbox.enqueueTransactions("transaction-topic", List.of(first, second, third));
+
+        List<OutboxEvent> events = inserted();
+        assertEquals(List.of("A2", "A1"), events.stream().map(OutboxEvent::getKey).toList());
+        verify(eventCodec).encode("transaction-topic", List.of(first, third));
+        verify(eventCodec).encode("transaction-topic", List.of(second));
+    }
+
+    @Test
+    void testTransactionsAreSplitIntoEventsOfAtMostTheConfiguredSize() {
+        EventOutbox eventOutbox = new EventOutbox(outboxRepository, eventCodec, EventOutbox.TransferRouting.BOTH_ACCOUNTS, 2);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            transactions.add(new Transaction("A1", Transaction.TransactionType.DEPOSIT, Money.of(i + 1)));
+        }
+
+        eventOutbox.enqueueTransactions("transaction-topic", transactions);
+
+        assertEquals(List.of("A1", "A1", "A1"), inserted().stream().map(OutboxEvent::getKey).toList());
+        InOrder inOrder = inOrder(eventCodec);
+        inOrder.verify(eventCodec).encode("transaction-topic", transactions.subList(0, 2));
+        inOrder.verify(eventCodec).encode("transaction-topic", transactions.subList(2, 4));
+        inOrder.verify(eventCodec).encode("transaction-topic", transactions.subList(4, 5));
+    }
+
+    @Test
+    void testTransactionsPerEventMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new EventOutbox(outboxRepository, eventCodec, EventOutbox.TransferRouting.BOTH_ACCOUNTS, 0));
+    }
+
+    @Test
+    void testEventsAreSequencedInTheOrderTheyAreRecorded() {
+        EventOutbox eventOutbox = new EventOutbox(outboxRepository, eventCodec, EventOutbox.TransferRouting.BOTH_ACCOUNTS, 1);
+        List<TransferEvent> transfers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            transfers.add(new TransferEvent("A" + i, "B" + i, Money.of(i + 1)));
+        }
+
+        eventOutbox.enqueueTransfers("transfer-topic", transfers);
+        eventOutbox.enqueue("account-topic", "A1", "account");
+
+        List<OutboxEvent> events = new ArrayList<>(inserted());
+        ArgumentCaptor<OutboxEvent> single = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).insert(single.capture());
+        events.add(single.getValue());
+        // The relay sends by creation time, then ID
+        List<OutboxEvent> sent = events.stream()
+                .sorted(Comparator.comparing(OutboxEvent::getCreatedAt).thenComparing(OutboxEvent::getId))
+                .toList();
+        assertEquals(events, sent);
+    }
+
+    @Test
+    void testSequenceNeverGoesBackwards() {
+        EventOutbox eventOutbox = new EventOutbox(outboxRepository, eventCodec, EventOutbox.TransferRouting.BOTH_ACCOUNTS, 1);
+
+        long previous = eventOutbox.nextSequence();
+        for (int i = 0; i < 10_000; i++) {
+            long next = eventOutbox.nextSequence();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testTransferIsKeyedByBothAccounts() {
+        EventOutbox eventOutbox = new EventOutbox(outboxRepository, eventCodec, EventOutbox.TransferRouting.BOTH_ACCOUNTS, 1);
+
+        eventOutbox.enqueueTransfers("transfer-topic", List.of(new TransferEvent("A1", "A2", Money.of(5))));
+
+        assertEquals(List.of("A1", "A2"), inserted().stream().map(OutboxEvent::getKey).toList());
+        verify(eventCodec, times(1)).encode(eq("transfer-topic"), any());
+    }
+
+    @Test
+    void testTransferIsKeyedBySourceAccountOnly() {
+        EventOutbox eventOutbox = new EventOutbox(outboxRepository, eventCodec, EventOutbox.TransferRouting.SOURCE_ACCOUNT, 1);
+
+        eventOutbox.enqueueTransfers("transfer-topic", List.of(new TransferEvent("A1", "A2", Money.of(5)),
+                new TransferEvent("A3", "A1", Money.of(6))));
+
+        assertEquals(List.of("A1", "A3"), inserted().stream().map(OutboxEvent::getKey).toList());
+    }
+}
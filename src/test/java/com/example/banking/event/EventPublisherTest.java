@@ -0,0 +1,144 @@
+package com.example.banking.event;
+
+import com.example.banking.exception.EventBackpressureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @TempDir
+    Path spillDirectory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        eventPublisher.shutdown();
+    }
+
+    private EventPublisher publisher(int maxInFlight, EventPublisher.BackpressurePolicy policy) {
+        return new EventPublisher(kafkaTemplate, meterRegistry, 10, Duration.ofMillis(5), maxInFlight, policy,
+                Duration.ofMillis(50), spillDirectory);
+    }
+
+    @Test
+    void testPublishedEventsCompleteWhenAcknowledged() throws Exception {
+        eventPublisher = publisher(100, EventPublisher.BackpressurePolicy.BLOCK);
+        SendResult<String, byte[]> result = new SendResult<>(null, null);
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class))).thenReturn(CompletableFuture.completedFuture(result));
+
+        CompletableFuture<SendResult<String, byte[]>> first = eventPublisher.publishEvent("topic", "A1", bytes("a"));
+        CompletableFuture<SendResult<String, byte[]>> second = eventPublisher.publishEvent("topic", "A1", bytes("b"));
+
+        assertSame(result, first.get(1, TimeUnit.SECONDS));
+        assertSame(result, second.get(1, TimeUnit.SECONDS));
+        verify(kafkaTemplate).send("topic", "A1", bytes("a"));
+        verify(kafkaTemplate).send("topic", "A1", bytes("b"));
+        assertEquals(2, meterRegistry.get("banking.events.send").timer().count());
+        assertEquals(2, meterRegistry.get("banking.events.batch.size").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("banking.events.in-flight").gauge().value());
+    }
+
+    @Test
+    void testFailedSendFailsTheEventWithoutResending() {
+        eventPublisher = publisher(100, EventPublisher.BackpressurePolicy.BLOCK);
+        // Left to the outbox even when retriable: the producer has already retried it
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("Send failed", new TimeoutException("timed out"))));
+
+        CompletableFuture<SendResult<String, byte[]>> future = eventPublisher.publishEvent("topic", "A1", bytes("a"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(KafkaException.class, e.getCause());
+        verify(kafkaTemplate, times(1)).send("topic", "A1", bytes("a"));
+        assertEquals(1, meterRegistry.get("banking.events.failed").counter().count());
+        assertEquals(0, meterRegistry.get("banking.events.in-flight").gauge().value());
+    }
+
+    @Test
+    void testFailPolicyRejectsEventsBeyondTheInFlightLimit() {
+        eventPublisher = publisher(1, EventPublisher.BackpressurePolicy.FAIL);
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class))).thenReturn(new CompletableFuture<>());
+
+        CompletableFuture<SendResult<String, byte[]>> first = eventPublisher.publishEvent("topic", "A1", bytes("a"));
+        CompletableFuture<SendResult<String, byte[]>> second = eventPublisher.publishEvent("topic", "A1", bytes("b"));
+
+        assertFalse(first.isDone());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(EventBackpressureException.class, e.getCause());
+        assertEquals(1, meterRegistry.get("banking.events.rejected").counter().count());
+    }
+
+    @Test
+    void testBlockPolicyFailsAfterTheBlockTimeout() {
+        eventPublisher = publisher(1, EventPublisher.BackpressurePolicy.BLOCK);
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class))).thenReturn(new CompletableFuture<>());
+
+        eventPublisher.publishEvent("topic", "A1", bytes("a"));
+        CompletableFuture<SendResult<String, byte[]>> second = eventPublisher.publishEvent("topic", "A1", bytes("b"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(EventBackpressureException.class, e.getCause());
+    }
+
+    @Test
+    void testSpillPolicyReplaysSpilledEventsInOrder() throws Exception {
+        eventPublisher = publisher(1, EventPublisher.BackpressurePolicy.SPILL);
+        CompletableFuture<SendResult<String, byte[]>> firstSend = new CompletableFuture<>();
+        SendResult<String, byte[]> result = new SendResult<>(null, null);
+        when(kafkaTemplate.send("topic", "A1", bytes("a"))).thenReturn(firstSend);
+        when(kafkaTemplate.send("topic", "A1", bytes("b"))).thenReturn(CompletableFuture.completedFuture(result));
+        when(kafkaTemplate.send("topic", null, bytes("c"))).thenReturn(CompletableFuture.completedFuture(result));
+
+        CompletableFuture<SendResult<String, byte[]>> first = eventPublisher.publishEvent("topic", "A1", bytes("a"));
+        CompletableFuture<SendResult<String, byte[]>> second = eventPublisher.publishEvent("topic", "A1", bytes("b"));
+        CompletableFuture<SendResult<String, byte[]>> third = eventPublisher.publishEvent("topic", null, bytes("c"));
+
+        assertEquals(2, meterRegistry.get("banking.events.spilled").gauge().value());
+        verify(kafkaTemplate, timeout(1000)).send("topic", "A1", bytes("a"));
+        firstSend.complete(result);
+
+        assertSame(result, first.get(1, TimeUnit.SECONDS));
+        assertSame(result, second.get(1, TimeUnit.SECONDS));
+        assertSame(result, third.get(1, TimeUnit.SECONDS));
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send("topic", "A1", bytes("a"));
+        inOrder.verify(kafkaTemplate).send("topic", "A1", bytes("b"));
+        inOrder.verify(kafkaTemplate).send("topic", null, bytes("c"));
+        assertEquals(0, meterRegistry.get("banking.events.spilled").gauge().value());
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
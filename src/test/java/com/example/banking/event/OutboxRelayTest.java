@@ -0,0 +1,131 @@
+package com.example.banking.event;
+
+import com.example.banking.lock.ClusterLock;
+import com.example.banking.repository.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    @Mock
+    private ClusterLock clusterLock;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxRepository, eventPublisher, clusterLock, meterRegistry, Duration.ofMinutes(1));
+        when(clusterLock.tryAcquire(OutboxRelay.LOCK, Duration.ofMinutes(1))).thenReturn(true);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 3);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMillis", 1000L);
+    }
+
+    @Test
+    void testRelayBatchMarksAllSentEntries() {
+        OutboxEvent first = new OutboxEvent("topic", "A1", bytes("a"));
+        OutboxEvent second = new OutboxEvent("topic", "A1", bytes("b"));
+        when(outboxRepository.findBySentAtIsNullOrderByCreatedAtAscIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(eventPublisher.publishEvent(anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        int sent = outboxRelay.relayBatch();
+
+        assertEquals(2, sent);
+        verify(eventPublisher).publishEvent("topic", "A1", bytes("a"));
+        verify(eventPublisher).publishEvent("topic", "A1", bytes("b"));
+        verify(outboxRepository, times(1)).markSent(eq(List.of(first.getId(), second.getId())), any(Instant.class));
+        assertEquals(2, meterRegistry.get("banking.outbox.sent").counter().count());
+    }
+
+    @Test
+    void testRelayBatchStopsAtFirstFailedSend() {
+        OutboxEvent first = new OutboxEvent("topic", "A1", bytes("a"));
+        OutboxEvent second = new OutboxEvent("topic", "A1", bytes("b"));
+        OutboxEvent third = new OutboxEvent("topic", "A1", bytes("c"));
+        when(outboxRepository.findBySentAtIsNullOrderByCreatedAtAscIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(first, second, third));
+        when(eventPublisher.publishEvent("topic", "A1", bytes("a"))).thenReturn(CompletableFuture.completedFuture(null));
+        when(eventPublisher.publishEvent("topic", "A1", bytes("b"))).thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(eventPublisher.publishEvent("topic", "A1", bytes("c"))).thenReturn(CompletableFuture.completedFuture(null));
+
+        int sent = outboxRelay.relayBatch();
+
+        assertEquals(1, sent);
+        verify(outboxRepository, times(1)).markSent(eq(List.of(first.getId())), any(Instant.class));
+    }
+
+    @Test
+    void testRelayBatchWithEmptyOutboxResetsLag() {
+        when(outboxRepository.findBySentAtIsNullOrderByCreatedAtAscIdAsc(any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(0, outboxRelay.relayBatch());
+        assertEquals(0, meterRegistry.get("banking.outbox.lag").gauge().value());
+        verify(outboxRepository, never()).markSent(any(), any());
+    }
+
+    @Test
+    void testRelayBatchSendsLegacyJsonPayloadsAsUtf8() {
+        OutboxEvent legacy = new OutboxEvent();
+        legacy.setTopic("topic");
+        legacy.setPayload("{\"customerId\":\"c1\"}");
+        legacy.setCreatedAt(Instant.now());
+        when(outboxRepository.findBySentAtIsNullOrderByCreatedAtAscIdAsc(any(Pageable.class))).thenReturn(List.of(legacy));
+        when(eventPublisher.publishEvent(anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(1, outboxRelay.relayBatch());
+        verify(eventPublisher).publishEvent("topic", null, bytes("{\"customerId\":\"c1\"}"));
+    }
+
+    @Test
+    void testRelayIsSkippedWhileAnotherInstanceHoldsTheLock() {
+        when(clusterLock.tryAcquire(OutboxRelay.LOCK, Duration.ofMinutes(1))).thenReturn(false);
+
+        outboxRelay.relay();
+
+        verifyNoInteractions(outboxRepository, eventPublisher);
+    }
+
+    @Test
+    void testRelayStopsDrainingOnceTheLockIsLost() {
+        when(clusterLock.tryAcquire(OutboxRelay.LOCK, Duration.ofMinutes(1))).thenReturn(true, false);
+        when(outboxRepository.findBySentAtIsNullOrderByCreatedAtAscIdAsc(any(Pageable.class))).thenReturn(List.of(
+                new OutboxEvent("topic", "A1", bytes("a")),
+                new OutboxEvent("topic", "A1", bytes("b")),
+                new OutboxEvent("topic", "A1", bytes("c"))));
+        when(eventPublisher.publishEvent(anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxRelay.relay();
+
+        // A full batch would otherwise be followed by another
+        verify(outboxRepository, times(1)).findBySentAtIsNullOrderByCreatedAtAscIdAsc(any(Pageable.class));
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
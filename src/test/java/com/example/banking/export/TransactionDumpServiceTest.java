@@ -0,0 +1,161 @@
+package com.example.banking.export;
+
+import com.example.banking.exception.DumpNotFoundException;
+import com.example.banking.model.DumpStatus;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.DumpStatusRepository;
+import com.example.banking.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionDumpServiceTest {
+
+    private static final LocalDateTime JANUARY_1 = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private DumpStatusRepository dumpStatusRepository;
+
+    @TempDir
+    Path directory;
+
+    private TransactionDumpService dumpService;
+    private final List<Transaction> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        dumpService = new TransactionDumpService(transactionRepository, dumpStatusRepository, new SimpleMeterRegistry(),
+                directory, 2, 4, 10);
+        for (int hour = 0; hour < 48; hour++) {
+            Transaction transaction = new Transaction("A" + hour % 3, Transaction.TransactionType.DEPOSIT, Money.of(hour + 1));
+            transaction.setTimestamp(JANUARY_1.plusHours(hour));
+            stored.add(transaction);
+        }
+        when(transactionRepository.streamByTimestamp(any(), any(), eq(10))).thenAnswer(invocation -> {
+            LocalDateTime from = invocation.getArgument(0);
+            LocalDateTime to = invocation.getArgument(1);
+            return stored.stream().filter(transaction -> !transaction.getTimestamp().isBefore(from)
+                    && transaction.getTimestamp().isBefore(to));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        dumpService.shutdown();
+    }
+
+    @Test
+    void testShardsCoverTheInclusiveRangeWithoutGaps() {
+        LocalDateTime to = JANUARY_1.plusDays(1);
+        List<TransactionDumpService.Shard> shards = dumpService.shards(JANUARY_1, to);
+
+        assertEquals(4, shards.size());
+        assertEquals(JANUARY_1, shards.get(0).from());
+        for (int i = 1; i < shards.size(); i++) {
+            assertEquals(shards.get(i - 1).to(), shards.get(i).from());
+        }
+        assertEquals(to.plusNanos(1), shards.get(3).to());
+        assertEquals(1, dumpService.shards(JANUARY_1, JANUARY_1).size());
+    }
+
+    @Test
+    void testDumpWritesCompressedRecordsAndManifestWithChecksums() throws Exception {
+        DumpStatus status = dumpService.start(JANUARY_1, JANUARY_1.plusHours(47));
+        awaitCompletion(status);
+
+        assertEquals(DumpStatus.State.COMPLETED, status.getState(), status.getMessage());
+        assertEquals(48, status.getTransactions());
+        assertEquals(4, status.getShardsCompleted());
+        Path dump = directory.resolve(status.getId());
+        JsonNode manifest = new ObjectMapper().readTree(dump.resolve(TransactionDumpService.MANIFEST).toFile());
+        assertEquals(48, manifest.get("transactions").asLong());
+        verify(dumpStatusRepository, times(1)).insert(status);
+        // Once per shard and once when the dump ends
+        verify(dumpStatusRepository, timeout(1000).times(5)).save(status);
+
+        List<String> ids = new ArrayList<>();
+        for (JsonNode shard : manifest.get("shards")) {
+            Path file = dump.resolve(shard.get("file").asText());
+            byte[] bytes = Files.readAllBytes(file);
+            assertEquals(shard.get("sha256").asText(), HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)));
+            List<JsonNode> records = readRecords(file);
+            assertEquals(shard.get("transactions").asLong(), records.size());
+            records.forEach(record -> ids.add(record.get("id").asText()));
+        }
+        assertEquals(stored.stream().map(Transaction::getId).toList(), ids);
+    }
+
+    @Test
+    void testFailedShardFailsTheDumpWithoutManifest() throws Exception {
+        when(transactionRepository.streamByTimestamp(any(), any(), eq(10))).thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        DumpStatus status = dumpService.start(JANUARY_1, JANUARY_1.plusHours(47));
+        awaitCompletion(status);
+
+        assertEquals(DumpStatus.State.FAILED, status.getState());
+        assertFalse(Files.exists(directory.resolve(status.getId()).resolve(TransactionDumpService.MANIFEST)));
+    }
+
+    @Test
+    void testEmptyRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> dumpService.start(JANUARY_1, JANUARY_1.minusNanos(1)));
+    }
+
+    @Test
+    void testStatusIsReadFromTheRepository() {
+        DumpStatus status = new DumpStatus("d1", JANUARY_1, JANUARY_1.plusHours(1), 1, "/dumps/d1");
+        when(dumpStatusRepository.findById("d1")).thenReturn(Optional.of(status));
+
+        assertSame(status, dumpService.getStatus("d1"));
+        assertThrows(DumpNotFoundException.class, () -> dumpService.getStatus("unknown"));
+    }
+
+    private static List<JsonNode> readRecords(Path file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException end) {
+                    return records;
+                }
+                records.add(mapper.readTree(in.readNBytes(length)));
+            }
+        }
+    }
+
+    private static void awaitCompletion(DumpStatus status) throws InterruptedException {
+        for (int i = 0; i < 500 && status.getState() == DumpStatus.State.RUNNING; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.banking.export;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private TransactionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new TransactionExportService(transactionRepository, objectMapper, 2);
+    }
+
+    @Test
+    void testWritesOneJsonObjectPerLine() throws IOException {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(transactionRepository.streamByAccountId("1", from, null, 2)).thenReturn(transactions(3));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.exportNdjson("1", from, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, written);
+        assertEquals(4, lines.length, "Every line ends with a newline");
+        assertEquals("", lines[3]);
+        for (int i = 0; i < 3; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertTrue(lines[i].startsWith("{"));
+            assertEquals("1", line.get("accountId").asText());
+            assertEquals(i + 1, line.get("amount").intValue());
+        }
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testFlushesOncePerBatch() throws IOException {
+        when(transactionRepository.streamByAccountId("1", null, null, 2)).thenReturn(transactions(5));
+        AtomicInteger flushes = new AtomicInteger();
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        exportService.exportNdjson("1", null, null, out);
+
+        // After rows 2 and 4, and once more when the generator is closed
+        assertEquals(3, flushes.get());
+    }
+
+    @Test
+    void testClientDisconnectClosesCursor() {
+        when(transactionRepository.streamByAccountId("1", null, null, 2)).thenReturn(transactions(10));
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> exportService.exportNdjson("1", null, null, out));
+        assertTrue(closed.get());
+    }
+
+    private Stream<Transaction> transactions(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> new Transaction("1", Transaction.TransactionType.DEPOSIT, Money.of(i)))
+                .onClose(() -> closed.set(true));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.banking.history;
+
+import com.example.banking.repository.TransactionBucketRepository;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class TransactionBucketMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TransactionBucketRepository bucketRepository;
+
+    private TransactionBucketMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        migration = new TransactionBucketMigration(mongoTemplate, bucketRepository, 2);
+        ReflectionTestUtils.setField(migration, "batchSize", 10);
+    }
+
+    @Test
+    void testEmbeddedHistoryMovesToBucketsBeforeExistingOnes() {
+        Document account = new Document("_id", "1")
+                .append("transactionHistory", List.of("t1", "t2", "t3"))
+                .append("transactions", List.of(new DBRef("transactions", "t3"), new DBRef("transactions", "t4"),
+                        new DBRef("transactions", "t5")));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("accounts")))
+                .thenReturn(List.of(account))
+                .thenReturn(List.of());
+
+        migration.migrate();
+
+        verify(bucketRepository).replaceBucket("1", -3, List.of("t1", "t2"));
+        verify(bucketRepository).replaceBucket("1", -2, List.of("t3", "t4"));
+        verify(bucketRepository).replaceBucket("1", -1, List.of("t5"));
+        verify(mongoTemplate).updateFirst(any(Query.class),
+                argThat((Update update) -> update.getUpdateObject().get("$unset", Document.class).containsKey("transactionHistory")),
+                eq("accounts"));
+    }
+
+    @Test
+    void testTransactionCountIsSetWithTheEmbeddedHistoryRemoved() {
+        Document account = new Document("_id", "1").append("transactionHistory", List.of("t1", "t2", "t3"));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("accounts")))
+                .thenReturn(List.of(account))
+                .thenReturn(List.of());
+        // Appended to buckets since the upgrade, which left the missing count alone
+        when(bucketRepository.countFrom("1", 0)).thenReturn(2L);
+
+        migration.migrate();
+
+        verify(mongoTemplate).updateFirst(any(Query.class), argThat((Update update) ->
+                update.getUpdateObject().get("$unset", Document.class).containsKey("transactionHistory")
+                        && Long.valueOf(5).equals(update.getUpdateObject().get("$set", Document.class).get("transactionCount"))),
+                eq("accounts"));
+    }
+}
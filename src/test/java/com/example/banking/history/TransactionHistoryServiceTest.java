@@ -0,0 +1,120 @@
+package com.example.banking.history;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.TransactionBucketRepository;
+import com.example.banking.rollup.DailyRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionHistoryServiceTest {
+
+    @Mock
+    private TransactionBucketRepository bucketRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private DailyRollupService dailyRollupService;
+
+    private TransactionHistoryService transactionHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transactionHistoryService = new TransactionHistoryService(bucketRepository, accountRepository, dailyRollupService, 3);
+        when(bucketRepository.appendToHeads(anyMap(), anyMap(), eq(3))).thenReturn(Set.of());
+    }
+
+    @Test
+    void testAppendGoesToHeadBucketAndCachesHead() {
+        when(accountRepository.findTransactionBucketHeads(Set.of("1", "2"))).thenReturn(Map.of("1", 4L, "2", 0L));
+        Transaction debit = transaction("1");
+        Transaction credit = transaction("2");
+
+        transactionHistoryService.append(List.of(debit, credit));
+        transactionHistoryService.append(List.of(transaction("1")));
+
+        verify(bucketRepository, times(1)).appendToHeads(
+                Map.of("1", List.of(debit.getId()), "2", List.of(credit.getId())), Map.of("1", 4L, "2", 0L), 3);
+        verify(accountRepository, times(1)).findTransactionBucketHeads(anySet());
+        verify(dailyRollupService, times(1)).record(List.of(debit, credit));
+    }
+
+    @Test
+    void testFullHeadAdvancesToNextBucket() {
+        when(accountRepository.findTransactionBucketHeads(Set.of("1"))).thenReturn(Map.of("1", 2L));
+        when(bucketRepository.appendToHeads(anyMap(), eq(Map.of("1", 2L)), eq(3))).thenReturn(Set.of("1"));
+
+        transactionHistoryService.append(List.of(transaction("1")));
+
+        verify(accountRepository, times(1)).advanceTransactionBucket("1", 3L);
+        verify(bucketRepository, times(1)).appendToHeads(anyMap(), eq(Map.of("1", 3L)), eq(3));
+    }
+
+    @Test
+    void testLargeAppendIsSplitIntoBucketSizedChunks() {
+        when(accountRepository.findTransactionBucketHeads(Set.of("1"))).thenReturn(Map.of("1", 0L));
+        List<Map<String, List<String>>> appended = new ArrayList<>();
+        when(bucketRepository.appendToHeads(anyMap(), anyMap(), eq(3))).thenAnswer(invocation -> {
+            appended.add(new HashMap<>(invocation.getArgument(0)));
+            // Every chunk after the first finds the head full, as it would in Mongo
+            return appended.size() % 2 == 0 ? Set.of("1") : Set.of();
+        });
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            transactions.add(transaction("1"));
+        }
+        transactionHistoryService.append(transactions);
+
+        List<Integer> chunkSizes = appended.stream().map(round -> round.get("1").size()).toList();
+        assertEquals(List.of(3, 3, 3, 1, 1), chunkSizes);
+        verify(accountRepository, times(1)).advanceTransactionBucket("1", 1L);
+        verify(accountRepository, times(1)).advanceTransactionBucket("1", 2L);
+        verify(accountRepository, times(1)).incrementTransactionCounts(Map.of("1", 7L));
+    }
+
+    @Test
+    void testRetriedAppendSkipsTransactionsAlreadyInHistory() {
+        when(accountRepository.findTransactionBucketHeads(Set.of("1"))).thenReturn(Map.of("1", 0L));
+        Transaction stored = transaction("1");
+        Transaction missing = transaction("1");
+        when(bucketRepository.findAppended(Map.of("1", List.of(stored.getId(), missing.getId()))))
+                .thenReturn(Set.of(stored.getId()));
+
+        transactionHistoryService.appendRecordedIfMissing(List.of(stored, missing));
+
+        verify(bucketRepository, times(1)).appendToHeads(Map.of("1", List.of(missing.getId())), Map.of("1", 0L), 3);
+        verify(accountRepository, times(1)).incrementTransactionCounts(Map.of("1", 1L));
+        verify(dailyRollupService, never()).record(anyList());
+    }
+
+    @Test
+    void testUnknownAccountIsSkipped() {
+        when(accountRepository.findTransactionBucketHeads(Set.of("9"))).thenReturn(Map.of());
+
+        transactionHistoryService.append(List.of(transaction("9")));
+
+        verify(bucketRepository, never()).appendToHeads(anyMap(), anyMap(), anyInt());
+        verify(accountRepository, times(1)).incrementTransactionCounts(Map.of());
+        verify(dailyRollupService, times(1)).record(List.of());
+    }
+
+    private static Transaction transaction(String accountId) {
+        return new Transaction(accountId, Transaction.TransactionType.TRANSFER, Money.of(1));
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.banking.idempotency;
+
+import com.example.banking.exception.IdempotencyConflictException;
+import com.example.banking.exception.IdempotencyKeyReusedException;
+import com.example.banking.exception.IngestionFailedException;
+import com.example.banking.repository.IdempotencyRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.security.DigestInputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private static final TypeReference<String> STRING_BODY = new TypeReference<>() {};
+    private static final Supplier<String> FINGERPRINT = () -> "fingerprint-1";
+
+    @Mock
+    private IdempotencyRepository idempotencyRepository;
+
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(idempotencyRepository, new ObjectMapper(),
+                Duration.ofHours(1), 100, Duration.ofMinutes(5));
+        when(idempotencyRepository.complete(any(IdempotencyRecord.class), anyString())).thenReturn(true);
+        when(idempotencyRepository.release(anyString(), anyString())).thenReturn(true);
+    }
+
+    @Test
+    void testWithoutKeyAlwaysExecutes() {
+        idempotencyService.execute("transfer", null, FINGERPRINT, STRING_BODY, this::transfer);
+        idempotencyService.execute("transfer", null, FINGERPRINT, STRING_BODY, this::transfer);
+
+        assertEquals(2, executions.get());
+        verifyNoInteractions(idempotencyRepository);
+    }
+
+    @Test
+    void testRepeatedKeyReplaysResponse() {
+        ResponseEntity<String> first = idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer);
+        ResponseEntity<String> second = idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(idempotencyRepository, times(1)).insert(any(IdempotencyRecord.class));
+        verify(idempotencyRepository, times(1)).complete(argThat(record ->
+                record.getStatus() == IdempotencyRecord.Status.COMPLETED && record.getResponseStatus() == 201), anyString());
+    }
+
+    @Test
+    void testKeyCompletedOnAnotherNodeIsReplayedFromMongo() {
+        IdempotencyRecord stored = new IdempotencyRecord("transfer:key-1");
+        stored.setStatus(IdempotencyRecord.Status.COMPLETED);
+        stored.setResponseStatus(201);
+        stored.setResponseBody("\"Transfer successful\"");
+        stored.setFingerprint("fingerprint-1");
+        when(idempotencyRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRepository.findById("transfer:key-1")).thenReturn(Optional.of(stored));
+
+        ResponseEntity<String> response = idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer);
+
+        assertEquals(0, executions.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("Transfer successful", response.getBody());
+    }
+
+    @Test
+    void testKeyReusedForAnotherRequestIsRejected() {
+        idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute("transfer", "key-1", () -> "fingerprint-2", STRING_BODY, this::transfer));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testKeyInProgressOnAnotherNodeIsRejected() {
+        IdempotencyRecord claim = new IdempotencyRecord("transfer:key-1");
+        claim.setLeaseExpiresAt(Instant.now().plusSeconds(60));
+        when(idempotencyRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRepository.findById("transfer:key-1")).thenReturn(Optional.of(claim));
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void testClaimWithExpiredLeaseIsTakenOver() {
+        IdempotencyRecord claim = new IdempotencyRecord("transfer:key-1");
+        claim.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+        when(idempotencyRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRepository.findById("transfer:key-1")).thenReturn(Optional.of(claim));
+        when(idempotencyRepository.takeOver(eq("transfer:key-1"), eq(claim.getLeaseExpiresAt()), any(), anyString())).thenReturn(true);
+
+        ResponseEntity<String> response = idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, executions.get());
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyRepository).takeOver(eq("transfer:key-1"), any(), any(), owner.capture());
+        verify(idempotencyRepository).complete(argThat(record -> "fingerprint-1".equals(record.getFingerprint())),
+                eq(owner.getValue()));
+    }
+
+    @Test
+    void testCompletionAfterTakeOverDoesNotOverwriteNewOwner() {
+        when(idempotencyRepository.complete(any(IdempotencyRecord.class), anyString())).thenReturn(false);
+
+        ResponseEntity<String> response = idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(idempotencyRepository, never()).save(any(IdempotencyRecord.class));
+        verify(idempotencyRepository, never()).deleteById(anyString());
+
+        // The response was not recorded, so it is not replayed from this node either
+        idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer);
+        verify(idempotencyRepository, times(2)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testStreamedBodyFingerprintCoversUnreadBytes() throws Exception {
+        DigestInputStream read = IdempotencyService.digesting(new ByteArrayInputStream("[1,2,3]".getBytes()));
+        read.readNBytes(3);
+        read.close();
+        DigestInputStream unread = IdempotencyService.digesting(new ByteArrayInputStream("[1,2,3]".getBytes()));
+
+        assertEquals(IdempotencyService.fingerprint(unread), IdempotencyService.fingerprint(read));
+    }
+
+    @Test
+    void testFailedExecutionReleasesKey() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, () -> {
+            throw new IllegalArgumentException("Insufficient balance in account: 1");
+        }));
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRepository).insert(claim.capture());
+        verify(idempotencyRepository, times(1)).release("transfer:key-1", claim.getValue().getOwner());
+        verify(idempotencyRepository, never()).complete(any(IdempotencyRecord.class), anyString());
+
+        idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testFailureAfterWritesKeepsKeyAsFailed() {
+        assertThrows(IngestionFailedException.class, () -> idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, () -> {
+            throw new IngestionFailedException("Bulk ingestion failed", 500, new IllegalStateException("connection reset"));
+        }));
+
+        verify(idempotencyRepository, never()).release(anyString(), anyString());
+        verify(idempotencyRepository).complete(argThat(record ->
+                record.getStatus() == IdempotencyRecord.Status.FAILED), anyString());
+    }
+
+    @Test
+    void testKeyOfRequestFailedAfterWritesIsRejected() {
+        IdempotencyRecord stored = new IdempotencyRecord("transfer:key-1");
+        stored.setStatus(IdempotencyRecord.Status.FAILED);
+        when(idempotencyRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRepository.findById("transfer:key-1")).thenReturn(Optional.of(stored));
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void testConcurrentRequestsWithSameKeyCollapse() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<String>> first = executor.submit(() ->
+                    idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, () -> {
+                        started.countDown();
+                        awaitQuietly(release);
+                        return transfer();
+                    }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<ResponseEntity<String>> second = executor.submit(() ->
+                    idempotencyService.execute("transfer", "key-1", FINGERPRINT, STRING_BODY, this::transfer));
+            release.countDown();
+
+            assertEquals("Transfer successful", first.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals("Transfer successful", second.get(5, TimeUnit.SECONDS).getBody());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        verify(idempotencyRepository, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    private ResponseEntity<String> transfer() {
+        executions.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED).body("Transfer successful");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.banking.index;
+
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MongoIndexManagerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    private final Map<String, List<Document>> existing = new HashMap<>();
+
+    private MongoIndexManager indexManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        indexManager = new MongoIndexManager(mongoTemplate, Duration.ofHours(24), Duration.ofHours(1), Duration.ofHours(24),
+                Duration.ofSeconds(10));
+        when(mongoTemplate.getCollectionName(any())).thenAnswer(invocation ->
+                ((Class<?>) invocation.getArgument(0)).getSimpleName());
+        when(mongoTemplate.getCollection(anyString())).thenAnswer(invocation -> {
+            List<Document> indexes = existing.computeIfAbsent(invocation.getArgument(0), name -> new ArrayList<>());
+            MongoCollection<Document> collection = mock(MongoCollection.class);
+            ListIndexesIterable<Document> listIndexes = mock(ListIndexesIterable.class);
+            when(collection.listIndexes()).thenReturn(listIndexes);
+            when(listIndexes.into(any())).thenAnswer(into -> {
+                Collection<Document> target = into.getArgument(0);
+                target.addAll(indexes);
+                return target;
+            });
+            return collection;
+        });
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOperations);
+        when(indexOperations.ensureIndex(any())).thenReturn("built");
+    }
+
+    @Test
+    void testMissingIndexesAreBuilt() {
+        existing.put("Account", new ArrayList<>(List.of(new Document("name", "_id_").append("key", new Document("_id", 1)))));
+
+        indexManager.reconcile();
+
+        verify(indexOperations, times(indexManager.requiredIndexes().size())).ensureIndex(any());
+    }
+
+    @Test
+    void testIdenticalIndexesAreLeftAlone() {
+        for (MongoIndexManager.RequiredIndex index : indexManager.requiredIndexes()) {
+            existing.computeIfAbsent(index.entityClass().getSimpleName(), name -> new ArrayList<>()).add(serverView(index));
+        }
+
+        indexManager.reconcile();
+
+        verify(indexOperations, never()).ensureIndex(any());
+        verify(mongoTemplate, never()).executeCommand(any(Document.class));
+    }
+
+    @Test
+    void testSameKeysUnderAnotherNameCountAsPresent() {
+        MongoIndexManager.RequiredIndex index = required("customerId");
+        Document current = serverView(index).append("name", "customerId_1");
+        existing.put("Account", new ArrayList<>(List.of(current)));
+
+        assertTrue(indexManager.isPresent("Account", index));
+    }
+
+    @Test
+    void testConflictingDefinitionFailsStartup() {
+        MongoIndexManager.RequiredIndex index = required("customerId");
+        existing.put("Account", new ArrayList<>(List.of(serverView(index).append("unique", true))));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> indexManager.reconcile());
+
+        assertTrue(e.getMessage().contains("customerId"));
+        verify(indexOperations, never()).ensureIndex(index.index());
+    }
+
+    @Test
+    void testChangedTtlIsUpdatedInPlace() {
+        MongoIndexManager.RequiredIndex index = required("createdAt_ttl");
+        existing.put("IdempotencyRecord", new ArrayList<>(List.of(serverView(index).append("expireAfterSeconds", 3600))));
+
+        assertTrue(indexManager.isPresent("IdempotencyRecord", index));
+
+        verify(mongoTemplate, times(1)).executeCommand(new Document("collMod", "IdempotencyRecord").append("index",
+                new Document("name", "createdAt_ttl").append("expireAfterSeconds", 86400L)));
+    }
+
+    private MongoIndexManager.RequiredIndex required(String name) {
+        return indexManager.requiredIndexes().stream().filter(index -> index.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    // listIndexes returns the key pattern as doubles and omits options that are not set
+    private static Document serverView(MongoIndexManager.RequiredIndex index) {
+        Document key = new Document();
+        index.index().getIndexKeys().forEach((field, direction) -> key.append(field, ((Number) direction).doubleValue()));
+        Document current = new Document("v", 2).append("key", key);
+        current.putAll(index.index().getIndexOptions());
+        return current;
+    }
+}
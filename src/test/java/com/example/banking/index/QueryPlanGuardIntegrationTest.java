@@ -0,0 +1,96 @@
+package com.example.banking.index;
+
+import com.example.banking.event.OutboxEvent;
+import com.example.banking.model.Account;
+import com.example.banking.model.Transaction;
+import com.example.banking.rollup.DailyRollup;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link QueryPlanGuard} against the explain output of a real server, with the indexes of
+ * {@link MongoIndexManager}. Skipped unless {@code BANKING_IT_MONGO_URI} points at a MongoDB instance, e.g.
+ * {@code BANKING_IT_MONGO_URI=mongodb://localhost:27017 mvn test -Dtest=QueryPlanGuardIntegrationTest}.
+ * Each run works in a throwaway database that is dropped afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "BANKING_IT_MONGO_URI", matches = ".+")
+class QueryPlanGuardIntegrationTest {
+
+    private MongoClient client;
+    private String databaseName;
+    private MongoTemplate unguarded;
+    private MongoTemplate guarded;
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(System.getenv("BANKING_IT_MONGO_URI"));
+        databaseName = "banking_plan_guard_" + UUID.randomUUID().toString().substring(0, 8);
+        unguarded = new MongoTemplate(client, databaseName);
+        new MongoIndexManager(unguarded, Duration.ofHours(24), Duration.ofHours(1), Duration.ofHours(24),
+                Duration.ofSeconds(10)).reconcile();
+
+        insert(Transaction.class, new Document("_id", "t1").append("accountId", "A1")
+                .append("timestamp", Instant.now()).append("type", "DEPOSIT"));
+        insert(Account.class, new Document("_id", "A1").append("customerId", "C1"));
+        insert(OutboxEvent.class, new Document("_id", "e1").append("createdAt", Instant.now()));
+        insert(DailyRollup.class, new Document("_id", "A1:1").append("accountId", "A1").append("date", LocalDate.now()));
+
+        MongoDatabaseFactory factory = (MongoDatabaseFactory) new QueryPlanGuard()
+                .postProcessAfterInitialization(new SimpleMongoClientDatabaseFactory(client, databaseName), "factory");
+        guarded = new MongoTemplate(factory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.getDatabase(databaseName).drop();
+        client.close();
+    }
+
+    @Test
+    void testRepositoryQueriesUseTheDeclaredIndexes() {
+        Instant now = Instant.now();
+
+        assertDoesNotThrow(() -> {
+            find(Transaction.class, Query.query(Criteria.where("accountId").is("A1")
+                    .and("timestamp").gte(now.minusSeconds(3600)).lte(now)));
+            find(Transaction.class, Query.query(Criteria.where("timestamp").lt(now)).with(Sort.by("timestamp")));
+            find(Account.class, Query.query(Criteria.where("customerId").is("C1")));
+            find(OutboxEvent.class, Query.query(Criteria.where("sentAt").is(null))
+                    .with(Sort.by("createdAt", "_id")).limit(10));
+            find(DailyRollup.class, Query.query(Criteria.where("accountId").is("A1")
+                    .and("date").gte(LocalDate.now().minusDays(7)).lte(LocalDate.now())));
+        });
+    }
+
+    @Test
+    void testUnindexedQueryIsRejected() {
+        assertThrows(IllegalStateException.class,
+                () -> find(Transaction.class, Query.query(Criteria.where("type").is("DEPOSIT"))));
+    }
+
+    private void insert(Class<?> entityClass, Document document) {
+        unguarded.getCollection(unguarded.getCollectionName(entityClass)).insertOne(document);
+    }
+
+    private void find(Class<?> entityClass, Query query) {
+        guarded.find(query, Document.class, guarded.getCollectionName(entityClass));
+    }
+}
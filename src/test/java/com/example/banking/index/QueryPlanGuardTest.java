@@ -0,0 +1,85 @@
+package com.example.banking.index;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class QueryPlanGuardTest {
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private FindIterable<Document> findIterable;
+
+    private final QueryPlanGuard guard = new QueryPlanGuard();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(collection.getNamespace()).thenReturn(new MongoNamespace("bank.transactions"));
+        when(collection.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(collection.find(any(Bson.class))).thenReturn(findIterable);
+    }
+
+    @Test
+    void testCollectionScanIsRejected() {
+        when(findIterable.explain()).thenReturn(plan(new Document("queryPlan", new Document("stage", "LIMIT")
+                .append("inputStage", new Document("stage", "COLLSCAN")))));
+
+        assertThrows(IllegalStateException.class, () -> guard.check(collection, Filters.eq("description", "rent")));
+    }
+
+    @Test
+    void testIndexedShapeIsExplainedOnce() {
+        when(findIterable.explain()).thenReturn(plan(new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "accountId_timestamp"))));
+
+        guard.check(collection, Filters.eq("accountId", "1"));
+        guard.check(collection, Filters.eq("accountId", "2"));
+        guard.check(collection, Filters.and(Filters.eq("accountId", "2"), Filters.in("type", List.of("DEPOSIT"))));
+
+        verify(findIterable, times(2)).explain();
+    }
+
+    @Test
+    void testUnfilteredQueryIsNotExplained() {
+        guard.check(collection, new Document());
+
+        verify(collection, never()).find(any(Bson.class));
+    }
+
+    @Test
+    void testRepositoryQueriesThroughTheFactoryAreChecked() {
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(factory.getMongoDatabase()).thenReturn(database);
+        when(database.getCollection("transactions", Document.class)).thenReturn(collection);
+        when(findIterable.explain()).thenReturn(plan(new Document("stage", "COLLSCAN")));
+
+        MongoDatabaseFactory guarded = (MongoDatabaseFactory) guard.postProcessAfterInitialization(factory, "mongoDatabaseFactory");
+        MongoCollection<Document> transactions = guarded.getMongoDatabase().getCollection("transactions", Document.class);
+
+        assertThrows(IllegalStateException.class, () -> transactions.countDocuments(Filters.eq("description", "rent")));
+        verify(collection, never()).countDocuments(any(Bson.class));
+    }
+
+    private static Document plan(Document winningPlan) {
+        return new Document("queryPlanner", new Document("namespace", "bank.transactions").append("winningPlan", winningPlan));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.banking.ingest;
+
+import com.example.banking.history.TransactionHistoryService;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.ImportCheckpointRepository;
+import com.example.banking.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CsvTransactionImporterTest {
+
+    private static final int ROWS = 50;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionHistoryService transactionHistoryService;
+
+    @Mock
+    private ImportCheckpointRepository checkpointRepository;
+
+    @TempDir
+    Path directory;
+
+    private CsvTransactionImporter importer;
+    private Path file;
+    private final Set<String> insertedIds = Collections.synchronizedSet(new HashSet<>());
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        importer = new CsvTransactionImporter(transactionRepository, transactionHistoryService, checkpointRepository,
+                List.of(), 3, DataSize.ofBytes(200), 4, Duration.ofSeconds(10));
+        file = directory.resolve("transactions.csv");
+        Files.writeString(file, "id,accountId,type,amount,timestamp\n" + IntStream.range(0, ROWS)
+                .mapToObj(i -> "t" + i + ",A" + i % 7 + ",DEPOSIT," + (i + 1) + ".25,2024-01-01T00:00:" + (10 + i % 50))
+                .collect(Collectors.joining("\n")));
+        when(transactionRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            List<Transaction> batch = invocation.getArgument(0);
+            batch.forEach(transaction -> insertedIds.add(transaction.getId()));
+            return Map.of();
+        });
+        when(checkpointRepository.findAllById(anyIterable())).thenReturn(List.of());
+    }
+
+    @Test
+    void testSplitsEndAtLineBoundariesAndEveryRowIsImportedOnce() throws IOException {
+        List<CsvTransactionImporter.Split> splits = importer.splits(file);
+        assertTrue(splits.size() > 5);
+        byte[] bytes = Files.readAllBytes(file);
+        for (int i = 1; i < splits.size(); i++) {
+            assertEquals(splits.get(i - 1).end(), splits.get(i).start());
+            assertEquals('\n', bytes[(int) splits.get(i).start() - 1]);
+        }
+
+        CsvTransactionImporter.ImportResult result = importer.importFiles(List.of(file));
+
+        assertEquals(ROWS, result.rows());
+        assertEquals(ROWS, result.inserted());
+        assertEquals(0, result.failed());
+        assertEquals(IntStream.range(0, ROWS).mapToObj(i -> "t" + i).collect(Collectors.toSet()), insertedIds);
+        verify(checkpointRepository, times(splits.size())).save(any(ImportCheckpoint.class));
+    }
+
+    @Test
+    void testResumeSkipsCheckpointedSplitsAndCountsRowsAlreadyStored() throws IOException {
+        List<CsvTransactionImporter.Split> splits = importer.splits(file);
+        when(checkpointRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(new ImportCheckpoint(importer.checkpointId(splits.get(0)), 4, 0)));
+        // The first row of every batch was stored by the interrupted run
+        when(transactionRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            Map<Integer, String> rejected = new HashMap<>();
+            rejected.put(0, TransactionRepository.ALREADY_RECORDED);
+            return rejected;
+        });
+
+        CsvTransactionImporter.ImportResult result = importer.importFiles(List.of(file));
+
+        assertEquals(1, result.skippedSplits());
+        assertTrue(result.duplicates() > 0);
+        assertEquals(result.rows(), result.inserted() + result.duplicates());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> appended = ArgumentCaptor.forClass(List.class);
+        verify(transactionHistoryService, atLeastOnce()).appendRecorded(appended.capture());
+        assertEquals(result.inserted(), appended.getAllValues().stream().mapToLong(List::size).sum());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> stored = ArgumentCaptor.forClass(List.class);
+        verify(transactionHistoryService, atLeastOnce()).appendRecordedIfMissing(stored.capture());
+        assertEquals(result.duplicates(), stored.getAllValues().stream().mapToLong(List::size).sum());
+        verify(checkpointRepository, times(splits.size() - 1)).save(any(ImportCheckpoint.class));
+    }
+
+    @Test
+    void testCheckpointsStillMatchAfterTheFileIsMoved() throws IOException {
+        importer.importFiles(List.of(file));
+        ArgumentCaptor<ImportCheckpoint> saved = ArgumentCaptor.forClass(ImportCheckpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(saved.capture());
+        Set<String> checkpointIds = saved.getAllValues().stream().map(ImportCheckpoint::getId).collect(Collectors.toSet());
+        when(checkpointRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<String> ids = invocation.getArgument(0);
+            List<ImportCheckpoint> found = new ArrayList<>();
+            ids.forEach(id -> {
+                if (checkpointIds.contains(id)) {
+                    found.add(new ImportCheckpoint(id, 0, 0));
+                }
+            });
+            return found;
+        });
+        Path moved = Files.move(file, Files.createDirectory(directory.resolve("done")).resolve("renamed.csv"));
+
+        CsvTransactionImporter.ImportResult result = importer.importFiles(List.of(moved));
+
+        assertEquals(importer.splits(moved).size(), result.skippedSplits());
+        assertEquals(0, result.rows());
+    }
+
+    @Test
+    void testDerivedIdsStayTheSameAfterTheFileIsMoved() throws IOException {
+        Files.writeString(file, IntStream.range(0, ROWS)
+                .mapToObj(i -> ",A" + i % 7 + ",DEPOSIT," + (i + 1) + ".25,2024-01-01T00:00:" + (10 + i % 50))
+                .collect(Collectors.joining("\n")));
+        importer.importFiles(List.of(file));
+        Set<String> firstRun = new HashSet<>(insertedIds);
+        insertedIds.clear();
+        Path moved = Files.move(file, Files.createDirectory(directory.resolve("done")).resolve("renamed.csv"));
+
+        importer.importFiles(List.of(moved));
+
+        assertEquals(ROWS, firstRun.size());
+        assertEquals(firstRun, insertedIds);
+    }
+
+    @Test
+    void testExitCodeReportsRejectedRows() throws Exception {
+        Files.writeString(file, "id,accountId,type,amount,timestamp\nt1,A1,DEPOSIT,not-a-number,2024-01-01T00:00:10\n");
+        importer = new CsvTransactionImporter(transactionRepository, transactionHistoryService, checkpointRepository,
+                List.of(file.toString()), 3, DataSize.ofBytes(200), 4, Duration.ofSeconds(10));
+
+        importer.run(null);
+
+        assertEquals(1, importer.getExitCode());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.banking.ingest;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTransactionParserTest {
+
+    @Test
+    void testRowsAreParsedAfterTheHeader() {
+        CsvTransactionParser parser = parser("id,accountId,type,amount,timestamp\r\n"
+                + "t1,A1,deposit,100.5,2024-01-31T23:59:58.25Z\r\n"
+                + "\n"
+                + "t2,A2,TRANSFER,-0.07,2024-02-01T08:30");
+
+        assertTrue(parser.hasNext());
+        Transaction first = parser.next();
+        assertEquals("t1", first.getId());
+        assertEquals("A1", first.getAccountId());
+        assertEquals(Transaction.TransactionType.DEPOSIT, first.getType());
+        assertEquals(Money.ofMinor(10050), first.getAmount());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 23, 59, 58, 250_000_000), first.getTimestamp());
+
+        assertTrue(parser.hasNext());
+        Transaction second = parser.next();
+        assertEquals(Transaction.TransactionType.TRANSFER, second.getType());
+        assertEquals(Money.ofMinor(-7), second.getAmount());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 8, 30), second.getTimestamp());
+        assertFalse(parser.hasNext());
+    }
+
+    @Test
+    void testRowsWithoutIdGetTheSameIdOnEveryRun() {
+        String rows = "x,A1,DEPOSIT,1,2024-01-01T00:00:00\n,A1,DEPOSIT,1.000,2024-01-01T00:00:00\n";
+
+        CsvTransactionParser parser = parser(rows);
+        parser.next();
+        Transaction derived = parser.next();
+
+        CsvTransactionParser again = parser(rows);
+        again.next();
+        assertEquals(derived.getId(), again.next().getId());
+        assertEquals(Money.of(1), derived.getAmount());
+        assertEquals(rows.indexOf("\n,A1") + 1, parser.rowOffset());
+    }
+
+    @Test
+    void testInvalidRowsAreRejectedAndSkipped() {
+        List<String> errors = new ArrayList<>();
+        CsvTransactionParser parser = parser(String.join("\n",
+                "t1,,DEPOSIT,1,2024-01-01T00:00:00",
+                "t2,A1,REFUND,1,2024-01-01T00:00:00",
+                "t3,A1,DEPOSIT,1.001,2024-01-01T00:00:00",
+                "t4,A1,DEPOSIT,0,2024-01-01T00:00:00",
+                "t5,A1,DEPOSIT,1,2024-02-30T00:00:00",
+                "t6,A1,DEPOSIT,1",
+                "t7,A1,DEPOSIT,1,2024-01-01T00:00:00,extra",
+                "t8,A1,DEPOSIT,1,2024-01-01T00:00:00"));
+
+        Transaction valid = null;
+        while (parser.hasNext()) {
+            try {
+                valid = parser.next();
+            } catch (IllegalArgumentException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        assertEquals(7, errors.size());
+        assertEquals("Account ID must not be blank", errors.get(0));
+        assertEquals("Invalid transaction type", errors.get(1));
+        assertEquals("Amount must not be zero", errors.get(3));
+        assertEquals("t8", valid.getId());
+    }
+
+    private static CsvTransactionParser parser(String rows) {
+        return new CsvTransactionParser(ByteBuffer.wrap(rows.getBytes(StandardCharsets.UTF_8)), 0, "split-1");
+    }
+}
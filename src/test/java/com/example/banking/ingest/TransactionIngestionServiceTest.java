@@ -0,0 +1,196 @@
+package com.example.banking.ingest;
+
+import com.example.banking.event.EventOutbox;
+import com.example.banking.exception.IngestionFailedException;
+import com.example.banking.exception.MalformedUploadException;
+import com.example.banking.history.TransactionHistoryService;
+import com.example.banking.model.IngestionResponse;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionIngestionServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionHistoryService transactionHistoryService;
+
+    @Mock
+    private EventOutbox eventOutbox;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        ingestionService = new TransactionIngestionService(transactionRepository, transactionHistoryService, eventOutbox,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), meterRegistry, 3, 2);
+        ReflectionTestUtils.setField(ingestionService, "transactionEventsTopic", "transaction-topic");
+        when(transactionRepository.insertUnordered(anyList())).thenReturn(Map.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestionService.shutdown();
+    }
+
+    @Test
+    void testUploadIsWrittenInChunks() {
+        IngestionResponse response = ingestionService.ingest(upload(7), null);
+
+        assertEquals(7, response.getReceived());
+        assertEquals(7, response.getInserted());
+        assertEquals(0, response.getFailed());
+        verify(transactionRepository, times(2)).insertUnordered(argThat(chunk -> chunk.size() == 3));
+        verify(transactionRepository, times(1)).insertUnordered(argThat(chunk -> chunk.size() == 1));
+        verify(transactionHistoryService, times(3)).appendRecorded(anyList());
+        verify(eventOutbox, times(3)).enqueueTransactions(eq("transaction-topic"), anyList());
+        assertEquals(7, meterRegistry.get("banking.ingest.inserted").counter().count());
+    }
+
+    @Test
+    void testInvalidUnreadableAndRejectedItemsAreReportedByUploadIndex() {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            items.add(item(i));
+        }
+        items.set(1, items.get(1).replace("\"accountId\":\"1\"", "\"accountId\":\"\""));
+        items.set(2, items.get(2).replace("DEPOSIT", "FOO"));
+        // Item 5 is the third valid item of the second chunk
+        when(transactionRepository.insertUnordered(argThat(chunk -> chunk != null && chunk.size() == 3)))
+                .thenReturn(Map.of(2, "E11000 duplicate key"));
+
+        IngestionResponse response = ingestionService.ingest(stream("[" + String.join(",", items) + "]"), null);
+
+        assertEquals(6, response.getReceived());
+        assertEquals(3, response.getInserted());
+        List<IngestionResponse.Failure> failures = response.getFailures();
+        assertEquals(List.of(1L, 2L, 5L), failures.stream().map(IngestionResponse.Failure::getIndex).toList());
+        assertTrue(failures.get(0).getMessage().startsWith("accountId:"));
+        assertTrue(failures.get(1).getMessage().contains("Invalid transaction type: FOO"));
+        assertEquals("E11000 duplicate key", failures.get(2).getMessage());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> appended = ArgumentCaptor.forClass(List.class);
+        verify(transactionHistoryService, times(2)).appendRecorded(appended.capture());
+        assertEquals(List.of(Money.of(1), Money.of(4), Money.of(5)), appended.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(Transaction::getAmount)
+                .sorted(Comparator.comparing(Money::toBigDecimal))
+                .toList());
+    }
+
+    @Test
+    void testChunksRunInParallelUpToTheCap() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(transactionRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            running.decrementAndGet();
+            return Map.of();
+        });
+
+        IngestionResponse response = ingestionService.ingest(upload(12), null);
+
+        assertEquals(12, response.getInserted());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void testFailedChunkFailsTheUpload() {
+        when(transactionRepository.insertUnordered(anyList())).thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        IngestionFailedException e = assertThrows(IngestionFailedException.class, () -> ingestionService.ingest(upload(2), null));
+        assertEquals(0, e.getCommitted());
+        verify(transactionHistoryService, never()).appendRecorded(any());
+    }
+
+    @Test
+    void testMalformedUploadIsRejectedAfterEarlierChunksAreWritten() {
+        String upload = "[" + item(0) + "," + item(1) + "," + item(2) + "," + item(3) + ",{\"accountId\":";
+
+        MalformedUploadException e = assertThrows(MalformedUploadException.class, () -> ingestionService.ingest(stream(upload), null));
+        assertEquals(3, e.getCommitted());
+        verify(transactionRepository, times(1)).insertUnordered(anyList());
+        assertThrows(MalformedUploadException.class, () -> ingestionService.ingest(stream("{\"accountId\":\"1\"}"), null));
+    }
+
+    @Test
+    void testItemsKeepTheirIdOrGetOneDerivedFromTheIdempotencyKey() {
+        String upload = "[" + item(0).replace("{", "{\"id\":\"client-1\",") + "," + item(1) + "]";
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+
+        ingestionService.ingest(stream(upload), "key-1");
+        ingestionService.ingest(stream(upload), "key-1");
+        ingestionService.ingest(stream(upload), "key-2");
+
+        verify(transactionRepository, times(3)).insertUnordered(inserted.capture());
+        List<List<String>> ids = inserted.getAllValues().stream()
+                .map(chunk -> chunk.stream().map(Transaction::getId).toList())
+                .toList();
+        assertEquals("client-1", ids.get(0).get(0));
+        assertEquals(ids.get(0), ids.get(1));
+        assertEquals("client-1", ids.get(2).get(0));
+        assertNotEquals(ids.get(0).get(1), ids.get(2).get(1));
+    }
+
+    @Test
+    void testRetriedItemsAreReportedAsAlreadyRecorded() {
+        when(transactionRepository.insertUnordered(anyList())).thenReturn(Map.of(0, TransactionRepository.ALREADY_RECORDED));
+
+        IngestionResponse response = ingestionService.ingest(upload(2), "key-1");
+
+        assertEquals(1, response.getInserted());
+        assertEquals(TransactionRepository.ALREADY_RECORDED, response.getFailures().get(0).getMessage());
+    }
+
+    private static InputStream upload(int count) {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(item(i));
+        }
+        return stream("[" + String.join(",", items) + "]");
+    }
+
+    private static String item(int i) {
+        return "{\"accountId\":\"1\",\"type\":\"DEPOSIT\",\"amount\":" + (i + 1)
+                + ",\"timestamp\":\"" + LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i) + ":00\"}";
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
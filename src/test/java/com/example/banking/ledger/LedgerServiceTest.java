@@ -0,0 +1,136 @@
+package com.example.banking.ledger;
+
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.LedgerCheckpointRepository;
+import com.example.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LedgerServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private LedgerCheckpointRepository checkpointRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private LedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ledgerService = new LedgerService(transactionRepository, checkpointRepository, accountRepository,
+                new SimpleMeterRegistry(), true, 4);
+        when(transactionRepository.insert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testBalanceIsCheckpointPlusTail() {
+        when(checkpointRepository.findAllById(List.of("1"))).thenReturn(List.of(new LedgerCheckpoint("1", 8, Money.of(100))));
+        when(transactionRepository.findLedgerEntriesAfter(Map.of("1", 8L))).thenReturn(List.of(
+                entry("1", 9, -30), entry("1", 10, 5)));
+
+        LedgerState state = ledgerService.load(List.of("1")).get("1");
+
+        assertEquals(new LedgerState("1", 10, Money.of(75)), state);
+        verify(accountRepository, never()).findBalances(any());
+    }
+
+    @Test
+    void testAccountsWithoutCheckpointStartFromStoredBalance() {
+        when(checkpointRepository.findAllById(List.of("1", "9"))).thenReturn(List.of());
+        when(accountRepository.findBalances(List.of("1", "9"))).thenReturn(new HashMap<>(Map.of("1", Money.of(20))));
+        when(transactionRepository.findLedgerEntriesAfter(Map.of("1", 0L))).thenReturn(List.of());
+
+        Map<String, LedgerState> states = ledgerService.load(List.of("1", "9"));
+
+        assertEquals(Map.of("1", new LedgerState("1", 0, Money.of(20))), states);
+        verify(checkpointRepository, times(1)).insertMissing(argThat(seeds -> seeds.size() == 1));
+    }
+
+    @Test
+    void testAppendNumbersEntriesAndAdvancesCheckpoints() {
+        Map<String, LedgerState> states = new HashMap<>(Map.of(
+                "1", new LedgerState("1", 3, Money.of(100)),
+                "2", new LedgerState("2", 1, Money.ZERO)));
+
+        List<Transaction> appended = ledgerService.append(List.of(
+                new Transaction("1", Transaction.TransactionType.TRANSFER, Money.of(-10)),
+                new Transaction("2", Transaction.TransactionType.TRANSFER, Money.of(10)),
+                new Transaction("1", Transaction.TransactionType.TRANSFER, Money.of(-10))), states);
+
+        assertEquals(List.of(4L, 2L, 5L), appended.stream().map(Transaction::getSequence).toList());
+        assertEquals(new LedgerState("1", 5, Money.of(80)), states.get("1"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<LedgerCheckpoint>> checkpoints = ArgumentCaptor.forClass(Collection.class);
+        verify(checkpointRepository).advance(checkpoints.capture());
+        LedgerCheckpoint checkpoint = checkpoints.getValue().iterator().next();
+        assertEquals(1, checkpoints.getValue().size());
+        assertEquals("1", checkpoint.getAccountId());
+        assertEquals(5, checkpoint.getSequence());
+        assertEquals(Money.of(80), checkpoint.getBalance());
+    }
+
+    @Test
+    void testConcurrentAppendIsTakenBack() {
+        when(transactionRepository.insert(anyList())).thenThrow(new DuplicateKeyException("E11000"));
+        Map<String, LedgerState> states = new HashMap<>(Map.of("1", new LedgerState("1", 3, Money.of(100))));
+        Transaction entry = new Transaction("1", Transaction.TransactionType.TRANSFER, Money.of(-10));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> ledgerService.append(List.of(entry), states));
+
+        verify(transactionRepository, times(1)).deleteAllById(List.of(entry.getId()));
+        assertEquals(new LedgerState("1", 3, Money.of(100)), states.get("1"));
+        verify(checkpointRepository, never()).advance(any());
+    }
+
+    @Test
+    void testCheckpointMovesToCurrentState() {
+        when(checkpointRepository.findAllById(List.of("1"))).thenReturn(List.of(new LedgerCheckpoint("1", 8, Money.of(100))));
+        when(transactionRepository.findLedgerEntriesAfter(Map.of("1", 8L))).thenReturn(List.of(entry("1", 9, -30)));
+
+        ledgerService.checkpoint(List.of("1"));
+
+        verify(checkpointRepository).advance(argThat(checkpoints -> {
+            LedgerCheckpoint checkpoint = checkpoints.iterator().next();
+            return checkpoints.size() == 1 && checkpoint.getSequence() == 9 && checkpoint.getBalance().equals(Money.of(70));
+        }));
+    }
+
+    @Test
+    void testOpenRecordsOpeningDeposit() {
+        List<Transaction> opening = ledgerService.open("1", Money.of(5));
+
+        assertEquals(1, opening.size());
+        assertEquals(Transaction.TransactionType.DEPOSIT, opening.get(0).getType());
+        assertEquals(1L, opening.get(0).getSequence());
+        verify(checkpointRepository, times(1)).insertMissing(argThat(checkpoints ->
+                checkpoints.iterator().next().getSequence() == 0 && checkpoints.iterator().next().getBalance().isZero()));
+    }
+
+    private static Transaction entry(String accountId, long sequence, long amount) {
+        Transaction transaction = new Transaction(accountId, Transaction.TransactionType.TRANSFER, Money.of(amount));
+        transaction.setSequence(sequence);
+        return transaction;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.banking.lock;
+
+import com.example.banking.exception.AccountLockTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLockManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccountLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lockManager = new AccountLockManager(meterRegistry, 50, 200);
+    }
+
+    @Test
+    void testStripeCountIsRoundedToPowerOfTwo() {
+        assertEquals(64, lockManager.stripeCount());
+        assertEquals(1, new AccountLockManager(new SimpleMeterRegistry(), 1, 200).stripeCount());
+    }
+
+    @Test
+    void testOppositeDirectionTransfersDoNotDeadlock() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicInteger counter = new AtomicInteger();
+        try {
+            Future<?> forward = executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    lockManager.executeLocked(List.of("A", "B"), (Runnable) counter::incrementAndGet);
+                }
+            });
+            Future<?> backward = executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    lockManager.executeLocked(List.of("B", "A"), (Runnable) counter::incrementAndGet);
+                }
+            });
+            forward.get(10, TimeUnit.SECONDS);
+            backward.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2_000, counter.get());
+    }
+
+    @Test
+    void testDifferentStripesDoNotBlockEachOther() throws Exception {
+        String held = "account-1";
+        String other = findAccountOnOtherStripe(held);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> lockManager.executeLocked(List.of(held), () -> {
+                locked.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            assertEquals("done", lockManager.executeLocked(List.of(other), () -> "done"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(0, meterRegistry.get("banking.account.lock.contended")
+                .tag("stripe", String.valueOf(lockManager.stripeIndex(other))).counter().count());
+    }
+
+    @Test
+    void testTimeoutWhenStripeIsHeld() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> lockManager.executeLocked(List.of("A"), () -> {
+                locked.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            assertThrows(AccountLockTimeoutException.class,
+                    () -> lockManager.executeLocked(List.of("A", "B"), () -> "never"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(1, meterRegistry.get("banking.account.lock.timeouts").counter().count());
+        assertEquals(1, meterRegistry.get("banking.account.lock.contended")
+                .tag("stripe", String.valueOf(lockManager.stripeIndex("A"))).counter().count());
+        // The stripe of B must have been released again after the timeout
+        assertEquals("ok", lockManager.executeLocked(List.of("B"), () -> "ok"));
+    }
+
+    private String findAccountOnOtherStripe(String accountId) {
+        int stripe = lockManager.stripeIndex(accountId);
+        for (int i = 0; ; i++) {
+            String candidate = "other-" + i;
+            if (lockManager.stripeIndex(candidate) != stripe) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
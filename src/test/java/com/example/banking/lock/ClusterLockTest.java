@@ -0,0 +1,45 @@
+package com.example.banking.lock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClusterLockTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ClusterLock clusterLock;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clusterLock = new ClusterLock(mongoTemplate);
+    }
+
+    @Test
+    void testFreeOrOwnLockIsAcquired() {
+        assertTrue(clusterLock.tryAcquire("job", Duration.ofMinutes(1)));
+
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(ClusterLock.COLLECTION));
+    }
+
+    @Test
+    void testLockHeldElsewhereIsNotAcquired() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ClusterLock.COLLECTION)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        assertFalse(clusterLock.tryAcquire("job", Duration.ofMinutes(1)));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.banking.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testJsonLinksToTransactionsInsteadOfEmbeddingThem() throws Exception {
+        Account account = new Account();
+        account.setId("A1");
+        account.setCustomerId("C1");
+        account.setTransactionCount(3L);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(account));
+
+        assertEquals("/transactions/A1", json.get("transactionsUrl").asText());
+        assertEquals(3, json.get("transactionCount").asLong());
+        assertFalse(json.has("transactionHistory"));
+        assertFalse(json.has("transactionBuckets"));
+    }
+
+    @Test
+    void testTransactionsUrlIsIgnoredOnInput() throws Exception {
+        Account account = objectMapper.readValue("{\"customerId\":\"C1\",\"transactionsUrl\":\"/elsewhere\"}",
+                Account.class);
+
+        assertEquals("/transactions/" + account.getId(), account.getTransactionsUrl());
+    }
+
+    @Test
+    void testBalanceShardsAreIgnoredOnInput() throws Exception {
+        Account account = objectMapper.readValue("{\"customerId\":\"C1\",\"balanceShards\":8}", Account.class);
+        assertEquals(0, account.getBalanceShards());
+
+        account.setBalanceShards(8);
+        assertEquals(8, objectMapper.readTree(objectMapper.writeValueAsString(account)).get("balanceShards").asInt());
+    }
+}
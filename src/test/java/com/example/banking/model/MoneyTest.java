@@ -0,0 +1,99 @@
+package com.example.banking.model;
+
+import com.example.banking.config.MoneyConverters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testArithmeticIsExact() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.of(new BigDecimal("0.10")));
+        }
+
+        assertEquals(Money.of(1), total);
+        assertEquals(Money.ofMinor(30), Money.sum(List.of(Money.ofMinor(10), Money.ofMinor(20))));
+        assertEquals(Money.ofMinor(-5), Money.of(new BigDecimal("0.95")).minus(Money.of(1)));
+        assertEquals(new BigDecimal("100.50"), Money.ofMinor(10_050).toBigDecimal());
+        assertEquals("100.50 USD", Money.ofMinor(10_050).toString());
+    }
+
+    @Test
+    void testOverflowThrows() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.sum(List.of(max, Money.ofMinor(1))));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).negate());
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void testRejectsAmountsFinerThanCurrency() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1.005")));
+        assertEquals(Money.of(1), Money.of(new BigDecimal("1.000")));
+        assertEquals(Money.ofMinor(5, Currency.getInstance("JPY")), Money.of(BigDecimal.valueOf(5), Currency.getInstance("JPY")));
+    }
+
+    @Test
+    void testCurrenciesDoNotMix() {
+        Money euros = Money.of(BigDecimal.ONE, Currency.getInstance("EUR"));
+
+        assertThrows(IllegalArgumentException.class, () -> Money.of(1).plus(euros));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(1).compareTo(euros));
+        assertNotEquals(Money.of(1), euros);
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Exception {
+        assertEquals("100.50", objectMapper.writeValueAsString(Money.ofMinor(10_050)));
+        assertEquals(Money.ofMinor(10), objectMapper.readValue("0.1", Money.class));
+        assertEquals(Money.of(7), objectMapper.readValue("\"7\"", Money.class));
+    }
+
+    @Test
+    void testJsonRoundTripKeepsOtherCurrencies() throws Exception {
+        Money euros = Money.ofMinor(10_050, Currency.getInstance("EUR"));
+        Money yen = Money.ofMinor(500, Currency.getInstance("JPY"));
+
+        String json = objectMapper.writeValueAsString(euros);
+
+        assertEquals("{\"amount\":100.50,\"currency\":\"EUR\"}", json);
+        assertEquals(euros, objectMapper.readValue(json, Money.class));
+        assertEquals(yen, objectMapper.readValue(objectMapper.writeValueAsString(yen), Money.class));
+    }
+
+    @Test
+    void testDecimal128RefusesOtherCurrencies() {
+        Money euros = Money.of(BigDecimal.ONE, Currency.getInstance("EUR"));
+
+        assertThrows(IllegalArgumentException.class, () -> MoneyConverters.toDecimal128(euros));
+    }
+
+    @Test
+    void testDecimal128Conversion() {
+        Decimal128 stored = MoneyConverters.toDecimal128(Money.ofMinor(12_345));
+
+        assertEquals(new Decimal128(new BigDecimal("123.45")), stored);
+        assertEquals(Money.ofMinor(12_345), Money.of(stored.bigDecimalValue()));
+    }
+
+    @Test
+    void testStoredAmountsWithMoreDecimalPlacesAreRoundedOnRead() {
+        assertEquals(Money.ofMinor(12_346), MoneyConverters.toMoney(new BigDecimal("123.455")));
+        assertEquals(Money.ofMinor(12_344), MoneyConverters.toMoney(new BigDecimal("123.445")));
+        assertEquals(Money.ofMinor(10), MoneyConverters.toMoney(BigDecimal.valueOf(0.1)));
+        assertEquals(Money.ofMinor(12_345), MoneyConverters.toMoney(new BigDecimal("123.4500")));
+    }
+}
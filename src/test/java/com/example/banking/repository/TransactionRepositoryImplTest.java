@@ -0,0 +1,135 @@
+package com.example.banking.repository;
+
+import com.example.banking.archive.ArchiveStore;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionRepositoryImplTest {
+
+    private static final LocalDateTime WATERMARK = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private TransactionRepositoryImpl repository;
+
+    // Archived only, archived and not deleted yet, inserted below the watermark later, and live
+    private final Transaction archived = transaction("a", LocalDateTime.of(2024, 1, 5, 0, 0));
+    private final Transaction leftOver = transaction("b", LocalDateTime.of(2024, 1, 10, 0, 0));
+    private final Transaction late = transaction("c", LocalDateTime.of(2024, 1, 20, 0, 0));
+    private final Transaction live = transaction("d", LocalDateTime.of(2024, 2, 10, 0, 0));
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        ArchiveStore archiveStore = new ArchiveStore(directory, 10, Duration.ZERO);
+        archiveStore.write(YearMonth.of(2024, 1), List.of(archived, leftOver));
+        archiveStore.advanceWatermark(WATERMARK);
+        repository = new TransactionRepositoryImpl(mongoTemplate, archiveStore);
+    }
+
+    @Test
+    void testFindReadsBothTiersBelowTheWatermarkOnce() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of(leftOver, late, live));
+
+        List<Transaction> transactions = repository.findByAccountId("1");
+
+        assertEquals(List.of("a", "b", "c", "d"), transactions.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    void testStreamMergesMongoRowsBelowTheWatermarkIntoTheArchive() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of(leftOver, late));
+        when(mongoTemplate.stream(any(Query.class), eq(Transaction.class))).thenReturn(Stream.of(live));
+
+        try (Stream<Transaction> transactions = repository.streamByAccountId("1", null, null, 100)) {
+            assertEquals(List.of("a", "b", "c", "d"), transactions.map(Transaction::getId).toList());
+        }
+    }
+
+    @Test
+    void testStreamByTimestampReadsTheArchiveBelowTheWatermark() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 3, 1, 0, 0);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of(leftOver, late));
+        when(mongoTemplate.stream(any(Query.class), eq(Transaction.class))).thenReturn(Stream.of(live));
+
+        try (Stream<Transaction> transactions = repository.streamByTimestamp(from, to, 100)) {
+            assertEquals(List.of("a", "b", "c", "d"), transactions.map(Transaction::getId).toList());
+        }
+        try (Stream<Transaction> transactions = repository.streamByTimestamp(from, WATERMARK, 100)) {
+            assertEquals(List.of("a", "b", "c"), transactions.map(Transaction::getId).toList());
+        }
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Transaction.class));
+    }
+
+    @Test
+    void testStreamReadsTheMongoCursorOnlyAsFarAsTheConsumer() {
+        AtomicInteger pulled = new AtomicInteger();
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of());
+        when(mongoTemplate.stream(any(Query.class), eq(Transaction.class))).thenReturn(counting(100_000, pulled));
+
+        try (Stream<Transaction> transactions = repository.streamByAccountId("1", null, null, 100)) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            // The archived part first, then the first transaction of the cursor
+            for (int i = 0; i < 3; i++) {
+                iterator.next();
+            }
+            assertTrue(pulled.get() <= 100, pulled + " transactions read ahead of the consumer");
+        }
+    }
+
+    @Test
+    void testStreamByTimestampReadsTheHotPartOnlyAsFarAsTheConsumer() {
+        AtomicInteger pulled = new AtomicInteger();
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of());
+        when(mongoTemplate.stream(any(Query.class), eq(Transaction.class))).thenReturn(counting(100_000, pulled));
+
+        try (Stream<Transaction> transactions = repository.streamByTimestamp(
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 1, 0, 0), 100)) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            for (int i = 0; i < 3; i++) {
+                iterator.next();
+            }
+            assertTrue(pulled.get() <= 100, pulled + " transactions read ahead of the consumer");
+        }
+    }
+
+    // A Mongo cursor stand-in of the given length that counts the transactions read from it
+    private static Stream<Transaction> counting(int size, AtomicInteger pulled) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> {
+                    pulled.incrementAndGet();
+                    return transaction("live-" + i, WATERMARK.plusSeconds(i));
+                });
+    }
+
+    private static Transaction transaction(String id, LocalDateTime timestamp) {
+        return new Transaction(id, "1", Transaction.TransactionType.DEPOSIT, Money.of(5), timestamp);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.banking.rollup;
+
+import com.example.banking.event.EventOutbox;
+import com.example.banking.history.TransactionHistoryService;
+import com.example.banking.model.AccountPeriodSummary;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionTotals;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.DailyRollupRepository;
+import com.example.banking.repository.TransactionBucketRepository;
+import com.example.banking.repository.TransactionRepository;
+import com.example.banking.service.impl.TransactionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DailyRollupServiceTest {
+
+    private static final LocalDate JANUARY_1 = LocalDate.of(2024, 1, 1);
+
+    @Mock
+    private DailyRollupRepository rollupRepository;
+
+    private DailyRollupService dailyRollupService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        dailyRollupService = new DailyRollupService(rollupRepository);
+    }
+
+    @Test
+    void testRecordWritesOneDeltaPerAccountAndDay() {
+        dailyRollupService.record(List.of(
+                transaction("1", JANUARY_1, Transaction.TransactionType.TRANSFER, -30),
+                transaction("1", JANUARY_1, Transaction.TransactionType.TRANSFER, 10),
+                transaction("1", JANUARY_1, Transaction.TransactionType.DEPOSIT, 5),
+                transaction("2", JANUARY_1, Transaction.TransactionType.TRANSFER, 30),
+                transaction("1", JANUARY_1.plusDays(1), Transaction.TransactionType.WITHDRAWAL, -1)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<DailyRollup>> deltas = ArgumentCaptor.forClass(Collection.class);
+        verify(rollupRepository, times(1)).increment(deltas.capture());
+        List<DailyRollup> written = new ArrayList<>(deltas.getValue());
+        assertEquals(List.of("1:2024-01-01", "2:2024-01-01", "1:2024-01-02"), written.stream().map(DailyRollup::getId).toList());
+
+        DailyRollup first = written.get(0);
+        assertEquals(Money.of(-15), first.getNet());
+        TransactionTotals transfers = first.getTypes().get(Transaction.TransactionType.TRANSFER);
+        assertEquals(1, transfers.getDebitCount());
+        assertEquals(Money.of(30), transfers.getDebitTotal());
+        assertEquals(1, transfers.getCreditCount());
+        assertEquals(Money.of(10), transfers.getCreditTotal());
+        assertEquals(Money.of(5), first.getTypes().get(Transaction.TransactionType.DEPOSIT).getCreditTotal());
+    }
+
+    @Test
+    void testWithdrawalIsADebitWhateverTheSignOfItsAmount() {
+        DailyRollup rollup = rollup(JANUARY_1, Transaction.TransactionType.WITHDRAWAL, 20);
+
+        assertEquals(Money.of(-20), rollup.getNet());
+        assertEquals(Money.of(20), rollup.getTypes().get(Transaction.TransactionType.WITHDRAWAL).getDebitTotal());
+    }
+
+    @Test
+    void testRecordedWithdrawalLeavesTheOpeningBalanceAlone() {
+        Map<String, DailyRollup> stored = storeRollupsInMemory();
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findTransactionBucketHeads(anySet())).thenReturn(Map.of("1", 0L));
+        TransactionHistoryService transactionHistoryService = new TransactionHistoryService(
+                mock(TransactionBucketRepository.class), accountRepository, dailyRollupService, 200);
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionServiceImpl transactionService = new TransactionServiceImpl(transactionRepository,
+                mock(EventOutbox.class), transactionHistoryService);
+
+        // The ledger opened the account with 100, then it sent 30 away: both moved the balance
+        Transaction opening = transaction("1", JANUARY_1, Transaction.TransactionType.DEPOSIT, 100);
+        opening.setSequence(1L);
+        transactionHistoryService.append(List.of(opening, transaction("1", JANUARY_1, Transaction.TransactionType.TRANSFER, -30)));
+        // A withdrawal recorded through POST /transactions does not
+        transactionService.recordTransactions(List.of(transaction("1", JANUARY_1, Transaction.TransactionType.WITHDRAWAL, 50)));
+
+        AccountPeriodSummary summary = dailyRollupService.summarize("1", JANUARY_1, JANUARY_1, Money.of(70));
+
+        assertEquals(1, stored.size());
+        assertEquals(Money.ZERO, summary.getOpeningBalance());
+        assertEquals(Money.of(70), summary.getClosingBalance());
+        assertNull(summary.getTotals().get(Transaction.TransactionType.WITHDRAWAL));
+    }
+
+    @Test
+    void testSummaryBalancesAreDerivedBackwardsFromCurrentBalance() {
+        LocalDate to = JANUARY_1.plusDays(30);
+        when(rollupRepository.findDays("1", JANUARY_1, to)).thenReturn(List.of(
+                rollup(JANUARY_1.plusDays(2), Transaction.TransactionType.DEPOSIT, 100),
+                rollup(JANUARY_1.plusDays(9), Transaction.TransactionType.TRANSFER, -40)));
+        // February brought the balance from 160 to the current 200
+        when(rollupRepository.sumNetAfter("1", to)).thenReturn(Money.of(40));
+
+        AccountPeriodSummary summary = dailyRollupService.summarize("1", JANUARY_1, to, Money.of(200));
+
+        assertEquals(Money.of(100), summary.getOpeningBalance());
+        assertEquals(Money.of(160), summary.getClosingBalance());
+        assertEquals(2, summary.getDays().size());
+        assertEquals(JANUARY_1.plusDays(2), summary.getDays().get(0).getDate());
+        assertEquals(Money.of(100), summary.getDays().get(0).getOpeningBalance());
+        assertEquals(Money.of(200), summary.getDays().get(0).getClosingBalance());
+        assertEquals(Money.of(200), summary.getDays().get(1).getOpeningBalance());
+        assertEquals(Money.of(40), summary.getTotals().get(Transaction.TransactionType.TRANSFER).getDebitTotal());
+        assertEquals(Money.of(100), summary.getTotals().get(Transaction.TransactionType.DEPOSIT).getCreditTotal());
+    }
+
+    @Test
+    void testEmptyRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> dailyRollupService.summarize("1", JANUARY_1, JANUARY_1.minusDays(1), Money.ZERO));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    // Answers the repository from a map, merging increments the way $inc would
+    private Map<String, DailyRollup> storeRollupsInMemory() {
+        Map<String, DailyRollup> stored = new TreeMap<>();
+        doAnswer(invocation -> {
+            Collection<DailyRollup> deltas = invocation.getArgument(0);
+            for (DailyRollup delta : deltas) {
+                DailyRollup rollup = stored.computeIfAbsent(delta.getId(), id -> new DailyRollup(delta.getAccountId(), delta.getDate()));
+                rollup.setNet(rollup.getNet().plus(delta.getNet()));
+                delta.getTypes().forEach((type, totals) ->
+                        rollup.getTypes().computeIfAbsent(type, key -> new TransactionTotals()).add(totals));
+            }
+            return null;
+        }).when(rollupRepository).increment(any());
+        when(rollupRepository.findDays(anyString(), any(), any())).thenAnswer(invocation -> stored.values().stream()
+                .filter(rollup -> rollup.getAccountId().equals(invocation.getArgument(0))
+                        && !rollup.getDate().isBefore(invocation.getArgument(1))
+                        && !rollup.getDate().isAfter(invocation.getArgument(2)))
+                .toList());
+        when(rollupRepository.sumNetAfter(anyString(), any())).thenAnswer(invocation -> Money.sum(stored.values().stream()
+                .filter(rollup -> rollup.getAccountId().equals(invocation.getArgument(0))
+                        && rollup.getDate().isAfter(invocation.getArgument(1)))
+                .map(DailyRollup::getNet)
+                .toList()));
+        return stored;
+    }
+
+    private static DailyRollup rollup(LocalDate date, Transaction.TransactionType type, long amount) {
+        DailyRollup rollup = new DailyRollup("1", date);
+        rollup.add(transaction("1", date, type, amount));
+        return rollup;
+    }
+
+    private static Transaction transaction(String accountId, LocalDate date, Transaction.TransactionType type, long amount) {
+        Transaction transaction = new Transaction(accountId, type, Money.of(amount));
+        transaction.setTimestamp(date.atTime(12, 0));
+        return transaction;
+    }
+}
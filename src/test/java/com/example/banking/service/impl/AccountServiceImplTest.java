@@ -1,25 +1,46 @@
 package com.example.banking.service.impl;
 
-import com.example.banking.event.EventPublisher;
+import com.example.banking.balance.ShardedBalanceService;
+import com.example.banking.cache.AccountCache;
+import com.example.banking.event.EventOutbox;
+import com.example.banking.exception.BalanceContentionException;
+import com.example.banking.history.TransactionHistoryService;
+import com.example.banking.ledger.LedgerService;
+import com.example.banking.ledger.LedgerState;
+import com.example.banking.lock.AccountLockManager;
 import com.example.banking.model.Account;
+import com.example.banking.model.AccountPeriodSummary;
+import com.example.banking.model.AccountSummary;
+import com.example.banking.model.BatchTransferResponse;
+import com.example.banking.model.Money;
 import com.example.banking.model.Transaction;
+import com.example.banking.model.TransferRequest;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.repository.AccountRepository;
 import com.example.banking.repository.TransactionRepository;
-import com.example.banking.util.EventUtils;
+import com.example.banking.rollup.DailyRollupService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,7 +54,22 @@ class AccountServiceImplTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private EventPublisher eventPublisher;
+    private EventOutbox eventOutbox;
+
+    @Mock
+    private ShardedBalanceService shardedBalanceService;
+
+    @Mock
+    private TransactionHistoryService transactionHistoryService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private DailyRollupService dailyRollupService;
+
+    @Spy
+    private AccountLockManager accountLockManager = new AccountLockManager(new SimpleMeterRegistry(), 16, 1000);
 
     @InjectMocks
     private AccountServiceImpl accountService;
@@ -45,6 +81,9 @@ class AccountServiceImplTest {
         // Inject mock values for @Value properties
         ReflectionTestUtils.setField(accountService, "accountEventsTopic", "account-topic");
         ReflectionTestUtils.setField(accountService, "transferEventsTopic", "transfer-topic");
+        ReflectionTestUtils.setField(accountService, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(accountService, "accountCache", new AccountCache(accountRepository,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), false, Duration.ofMinutes(1)));
     }
 
     @Test
@@ -58,31 +97,259 @@ class AccountServiceImplTest {
 
         assertNotNull(savedAccount);
         assertEquals("1", savedAccount.getId());
+        assertEquals(0L, savedAccount.getTransactionCount());
         verify(accountRepository, times(1)).save(account);
-        verify(eventPublisher, times(1)).publishEvent(anyString(), anyString());
+        verify(eventOutbox, times(1)).enqueue(anyString(), eq("1"), any());
     }
 
     @Test
     void testTransfer() {
-        Account fromAccount = new Account();
-        fromAccount.setId("1");
-        fromAccount.setBalance(BigDecimal.valueOf(200));
+        when(accountRepository.debitIfSufficient("1", Money.of(50))).thenReturn(true);
+        when(accountRepository.credit("2", Money.of(50))).thenReturn(true);
+
+        accountService.transfer("1", "2", Money.of(50));
+
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(accountLockManager, times(1)).executeLocked(eq(List.of("1", "2")), any(Runnable.class));
+        verify(transactionRepository, times(1)).saveAll(anyList());
+        verify(transactionHistoryService, times(1)).append(any());
+        verify(eventOutbox, times(1)).enqueueTransfers(anyString(), argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    void testTransferEventsAreQueuedUnderTheAccountLocks() {
+        AtomicBoolean locked = new AtomicBoolean();
+        doAnswer(invocation -> {
+            locked.set(true);
+            try {
+                return invocation.callRealMethod();
+            } finally {
+                locked.set(false);
+            }
+        }).when(accountLockManager).executeLocked(anyCollection(), any(Runnable.class));
+        List<Boolean> queuedLocked = new ArrayList<>();
+        doAnswer(invocation -> queuedLocked.add(locked.get())).when(eventOutbox).enqueueTransfers(anyString(), anyList());
+        when(accountRepository.debitIfSufficient("1", Money.of(50))).thenReturn(true);
+        when(accountRepository.credit("2", Money.of(50))).thenReturn(true);
+        when(accountRepository.findBalances(Set.of("1", "2"))).thenReturn(new HashMap<>(Map.of(
+                "1", Money.of(100),
+                "2", Money.ZERO)));
+        when(accountRepository.creditAll(anyMap())).thenReturn(1);
+
+        accountService.transfer("1", "2", Money.of(50));
+        accountService.transferBatch(List.of(new TransferRequest("1", "2", Money.of(50))));
+
+        assertEquals(List.of(true, true), queuedLocked);
+    }
+
+    @Test
+    void testTransfer_InsufficientBalance() {
+        when(accountRepository.debitIfSufficient("1", Money.of(500))).thenReturn(false);
+        when(accountRepository.existsById("1")).thenReturn(true);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> accountService.transfer("1", "2", Money.of(500)));
+
+        assertEquals("Insufficient balance in account: 1", ex.getMessage());
+        verify(accountRepository, never()).credit(anyString(), any());
+        verify(transactionRepository, never()).saveAll(anyList());
+        verify(eventOutbox, never()).enqueueTransfers(anyString(), any());
+    }
+
+    @Test
+    void testTransfer_UnknownToAccountCompensatesDebit() {
+        when(accountRepository.debitIfSufficient("1", Money.of(50))).thenReturn(true);
+        when(accountRepository.credit("2", Money.of(50))).thenReturn(false);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> accountService.transfer("1", "2", Money.of(50)));
+
+        assertEquals("Invalid to account ID: 2", ex.getMessage());
+        verify(accountRepository, times(1)).credit("1", Money.of(50));
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testTransfer_ToShardedAccountCreditsSlotWithoutLockingIt() {
+        when(shardedBalanceService.isSharded("2")).thenReturn(true);
+        when(accountRepository.debitIfSufficient("1", Money.of(50))).thenReturn(true);
+
+        accountService.transfer("1", "2", Money.of(50));
+
+        verify(accountLockManager, times(1)).executeLocked(eq(List.of("1")), any(Runnable.class));
+        verify(shardedBalanceService, times(1)).credit("2", Money.of(50));
+        verify(accountRepository, never()).credit(anyString(), any());
+        verify(transactionRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testTransfer_FromShardedAccountDrawsAcrossSlots() {
+        when(shardedBalanceService.isSharded("1")).thenReturn(true);
+        when(shardedBalanceService.debit("1", Money.of(50))).thenReturn(true);
+        when(accountRepository.credit("2", Money.of(50))).thenReturn(true);
+
+        accountService.transfer("1", "2", Money.of(50));
+
+        verify(accountRepository, never()).debitIfSufficient(anyString(), any());
+        verify(accountLockManager, times(1)).executeLocked(eq(List.of("1", "2")), any(Runnable.class));
+    }
+
+    @Test
+    void testTransfer_ContendedShardedAccountIsNotReportedAsInsufficient() {
+        when(shardedBalanceService.isSharded("1")).thenReturn(true);
+        when(shardedBalanceService.debit("1", Money.of(50))).thenThrow(new BalanceContentionException("changing"));
+
+        assertThrows(BalanceContentionException.class, () -> accountService.transfer("1", "2", Money.of(50)));
+
+        verify(accountRepository, never()).credit(anyString(), any());
+        verify(eventOutbox, never()).enqueueTransfers(anyString(), anyList());
+    }
+
+    @Test
+    void testTransfer_LedgerModeAppendsEntries() {
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(ledgerService.load(List.of("1", "2"))).thenReturn(new HashMap<>(Map.of(
+                "1", new LedgerState("1", 7, Money.of(100)),
+                "2", new LedgerState("2", 3, Money.ZERO))));
+
+        accountService.transfer("1", "2", Money.of(50));
+
+        verify(ledgerService, times(1)).append(argThat(entries -> entries.size() == 2
+                && entries.get(0).getAmount().equals(Money.of(-50))
+                && entries.get(1).getAmount().equals(Money.of(50))), anyMap());
+        verify(accountRepository, never()).debitIfSufficient(anyString(), any());
+        verify(accountRepository, never()).credit(anyString(), any());
+        verify(accountLockManager, times(1)).executeLocked(eq(List.of("1", "2")), any(Runnable.class));
+    }
+
+    @Test
+    void testTransfer_LedgerModeChecksDerivedBalance() {
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(ledgerService.load(List.of("1", "2"))).thenReturn(new HashMap<>(Map.of(
+                "1", new LedgerState("1", 7, Money.of(10)),
+                "2", new LedgerState("2", 3, Money.ZERO))));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> accountService.transfer("1", "2", Money.of(50)));
+
+        assertEquals("Insufficient balance in account: 1", ex.getMessage());
+        verify(ledgerService, never()).append(anyList(), anyMap());
+    }
+
+    @Test
+    void testTransfer_LedgerModeRetriesConcurrentAppend() {
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(ledgerService.load(List.of("1", "2"))).thenAnswer(invocation -> new HashMap<>(Map.of(
+                "1", new LedgerState("1", 7, Money.of(100)),
+                "2", new LedgerState("2", 3, Money.ZERO))));
+        when(ledgerService.append(anyList(), anyMap()))
+                .thenThrow(new OptimisticLockingFailureException("changed"))
+                .thenReturn(List.of());
+
+        accountService.transfer("1", "2", Money.of(50));
+
+        verify(ledgerService, times(2)).load(List.of("1", "2"));
+        verify(ledgerService, times(2)).append(anyList(), anyMap());
+    }
+
+    @Test
+    void testGetAccountById_LedgerModeReportsDerivedBalance() {
+        Account account = new Account();
+        account.setId("1");
+        account.setBalance(Money.of(10));
 
-        Account toAccount = new Account();
-        toAccount.setId("2");
-        toAccount.setBalance(BigDecimal.valueOf(100));
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(accountRepository.findById("1")).thenReturn(Optional.of(account));
+        when(ledgerService.balances(List.of("1"))).thenReturn(Map.of("1", Money.of(42)));
+
+        assertEquals(Money.of(42), accountService.getAccountById("1").getBalance());
+    }
+
+    @Test
+    void testTransferBatch_NetsMovementsPerAccount() {
+        when(accountRepository.findBalances(Set.of("1", "2", "3"))).thenReturn(new HashMap<>(Map.of(
+                "1", Money.of(100),
+                "2", Money.ZERO,
+                "3", Money.ZERO)));
+        when(accountRepository.debitIfSufficient("1", Money.of(60))).thenReturn(true);
+        when(accountRepository.creditAll(anyMap())).thenReturn(2);
+
+        BatchTransferResponse response = accountService.transferBatch(List.of(
+                new TransferRequest("1", "2", Money.of(60)),
+                new TransferRequest("2", "3", Money.of(50)),
+                new TransferRequest("1", "3", Money.of(50)),
+                new TransferRequest("1", "2", Money.ZERO)));
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertTrue(response.getResults().get(1).isSuccess());
+        assertEquals("Insufficient balance in account: 1", response.getResults().get(2).getMessage());
+        assertEquals("Transfer amount must be greater than zero", response.getResults().get(3).getMessage());
+
+        verify(accountRepository, times(1)).debitIfSufficient("1", Money.of(60));
+        verify(accountRepository, times(1)).creditAll(Map.of("2", Money.of(10), "3", Money.of(50)));
+        verify(transactionRepository, times(1)).insert(argThat((List<Transaction> legs) -> legs.size() == 4));
+        verify(eventOutbox, times(1)).enqueueTransfers(eq("transfer-topic"), argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void testTransferBatch_UnknownAccountFailsOnlyItsItems() {
+        when(accountRepository.findBalances(Set.of("1", "2", "9"))).thenReturn(new HashMap<>(Map.of(
+                "1", Money.of(100),
+                "2", Money.ZERO)));
+        when(accountRepository.debitIfSufficient("1", Money.of(10))).thenReturn(true);
+        when(accountRepository.creditAll(anyMap())).thenReturn(1);
+
+        BatchTransferResponse response = accountService.transferBatch(List.of(
+                new TransferRequest("1", "9", Money.of(10)),
+                new TransferRequest("1", "2", Money.of(10))));
 
-        when(accountRepository.findById("1")).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findById("2")).thenReturn(Optional.of(toAccount));
+        assertEquals("Invalid to account ID: 9", response.getResults().get(0).getMessage());
+        assertTrue(response.getResults().get(1).isSuccess());
+        verify(accountRepository, times(1)).creditAll(Map.of("2", Money.of(10)));
+    }
 
-        accountService.transfer("1", "2", BigDecimal.valueOf(50));
+    @Test
+    void testTransferBatch_ConcurrentDebitFailsOnlyItsItems() {
+        when(accountRepository.findBalances(Set.of("1", "2", "3", "4"))).thenAnswer(invocation -> new HashMap<>(Map.of(
+                "1", Money.of(100),
+                "2", Money.ZERO,
+                "3", Money.of(100),
+                "4", Money.ZERO)));
+        when(accountRepository.debitIfSufficient("1", Money.of(10))).thenReturn(false);
+        when(accountRepository.debitIfSufficient("3", Money.of(20))).thenReturn(true);
+        when(accountRepository.credit(anyString(), any(Money.class))).thenReturn(true);
+        when(accountRepository.creditAll(anyMap())).thenAnswer(invocation -> ((Map<?, ?>) invocation.getArgument(0)).size());
 
-        assertEquals(BigDecimal.valueOf(150), fromAccount.getBalance());
-        assertEquals(BigDecimal.valueOf(150), toAccount.getBalance());
+        BatchTransferResponse response = accountService.transferBatch(List.of(
+                new TransferRequest("1", "2", Money.of(10)),
+                new TransferRequest("3", "4", Money.of(20))));
 
-        verify(accountRepository, times(2)).save(any(Account.class));
-        verify(transactionRepository, times(2)).save(any(Transaction.class));
-        verify(eventPublisher, times(1)).publishEvent(anyString(), anyString());
+        assertEquals("Account 1 changed concurrently, transfer not applied", response.getResults().get(0).getMessage());
+        assertTrue(response.getResults().get(1).isSuccess());
+        verify(accountRepository, times(1)).creditAll(Map.of("4", Money.of(20)));
+        verify(accountRepository, never()).creditAll(Map.of("2", Money.of(10), "4", Money.of(20)));
+        verify(transactionRepository, times(1)).insert(argThat((List<Transaction> legs) -> legs.size() == 2));
+        verify(eventOutbox, times(1)).enqueueTransfers(eq("transfer-topic"), argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    void testTransferBatch_MissingCreditRevertsDebits() {
+        when(accountRepository.findBalances(Set.of("1", "2"))).thenReturn(new HashMap<>(Map.of(
+                "1", Money.of(100),
+                "2", Money.ZERO)));
+        when(accountRepository.findBalances(Set.of("2"))).thenReturn(new HashMap<>());
+        when(accountRepository.debitIfSufficient("1", Money.of(10))).thenReturn(true);
+        when(accountRepository.creditAll(anyMap())).thenReturn(0);
+
+        BatchTransferResponse response = accountService.transferBatch(List.of(
+                new TransferRequest("1", "2", Money.of(10))));
+
+        assertFalse(response.getResults().get(0).isSuccess());
+        verify(accountRepository).credit("1", Money.of(10));
+        verify(transactionRepository, never()).insert(anyList());
+        verify(eventOutbox, times(1)).enqueueTransfers(eq("transfer-topic"), argThat(List::isEmpty));
     }
 
     @Test
@@ -99,15 +366,116 @@ class AccountServiceImplTest {
         verify(accountRepository, times(1)).findById("1");
     }
 
+    @Test
+    void testGetAccountById_CachedUntilTransfer() {
+        Account account = new Account();
+        account.setId("1");
+        account.setBalance(Money.of(100));
+
+        when(accountRepository.findById("1")).thenReturn(Optional.of(account));
+        when(accountRepository.debitIfSufficient("1", Money.of(10))).thenReturn(true);
+        when(accountRepository.credit("2", Money.of(10))).thenReturn(true);
+
+        accountService.getAccountById("1");
+        accountService.getAccountById("1");
+        verify(accountRepository, times(1)).findById("1");
+
+        accountService.transfer("1", "2", Money.of(10));
+        accountService.getAccountById("1");
+        verify(accountRepository, times(2)).findById("1");
+    }
+
+    @Test
+    void testGetAccountById_ShardedAccountReportsTotalBalance() {
+        Account account = new Account();
+        account.setId("1");
+        account.setBalance(Money.of(10));
+        account.setBalanceShards(4);
+
+        when(accountRepository.findById("1")).thenReturn(Optional.of(account));
+        when(shardedBalanceService.totalBalance("1", Money.of(10))).thenReturn(Money.of(110));
+
+        assertEquals(Money.of(110), accountService.getAccountById("1").getBalance());
+    }
+
+    @Test
+    void testAccountPeriodSummaryStartsFromCurrentBalance() {
+        Account account = new Account();
+        account.setId("1");
+        account.setBalance(Money.of(10));
+        account.setBalanceShards(4);
+        when(accountRepository.findById("1")).thenReturn(Optional.of(account));
+        when(shardedBalanceService.totalBalance("1", Money.of(10))).thenReturn(Money.of(110));
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        AccountPeriodSummary summary = new AccountPeriodSummary("1", from, to, Money.ZERO, Money.ZERO, Map.of(), List.of());
+        when(dailyRollupService.summarize("1", from, to, Money.of(110))).thenReturn(summary);
+
+        assertSame(summary, accountService.getAccountPeriodSummary("1", from, to));
+    }
+
+    @Test
+    void testAccountPeriodSummaryOfUnknownAccount() {
+        when(accountRepository.findById("9")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> accountService.getAccountPeriodSummary("9", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        verifyNoInteractions(dailyRollupService);
+    }
+
+    @Test
+    void testAccountSummariesAreProjected() {
+        Account projected = new Account();
+        projected.setId("a");
+        projected.setBalance(Money.of(40));
+        projected.setBalanceShards(2);
+        when(accountRepository.findProjected(isNull(), isNull(), eq(3), any())).thenReturn(List.of(projected));
+        when(shardedBalanceService.totalBalance("a", Money.of(40))).thenReturn(Money.of(55));
+
+        CursorPage<AccountSummary> summaries = accountService.getAccountSummaries(null, 2, false, Set.of("id", "balance"));
+
+        AccountSummary summary = summaries.getContent().get(0);
+        assertEquals("a", summary.getId());
+        assertEquals(Money.of(55), summary.getBalance());
+        assertNull(summary.getBalanceShards(), "Projected for the balance, but not requested");
+        assertNull(summary.getCustomerId());
+        verify(accountRepository, times(1)).findProjected(null, null, 3, Set.of("id", "balance", "balanceShards"));
+        verify(accountRepository, never()).findAll();
+        verify(accountRepository, never()).count();
+    }
+
+    @Test
+    void testCustomerAccountSummariesSkipBalanceWhenNotRequested() {
+        Account projected = new Account();
+        projected.setCustomerId("c1");
+        projected.setTransactionCount(12L);
+        when(accountRepository.findProjected("c1", null, 0, Set.of("customerId", "transactionCount")))
+                .thenReturn(List.of(projected));
+
+        List<AccountSummary> summaries = accountService.getAccountSummariesByCustomerId("c1",
+                Set.of("customerId", "transactionCount"));
+
+        assertEquals(12L, summaries.get(0).getTransactionCount());
+        verifyNoInteractions(shardedBalanceService, ledgerService);
+    }
+
+    @Test
+    void testAccountSummariesRejectUnknownField() {
+        assertThrows(IllegalArgumentException.class,
+                () -> accountService.getAccountSummaries(null, 10, false, Set.of("transactionHistory")));
+        verify(accountRepository, never()).findProjected(any(), any(), anyInt(), any());
+    }
+
     @Test
     void testGetAllAccounts() {
-        Page<Account> page = new PageImpl<>(Collections.singletonList(new Account()));
-        when(accountRepository.findAll(any(Pageable.class))).thenReturn(page);
+        when(accountRepository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(new Account()));
 
-        Page<Account> accounts = accountService.getAllAccounts(0, 10);
+        CursorPage<Account> accounts = accountService.getAllAccounts(null, 10, false);
 
         assertNotNull(accounts);
-        assertEquals(1, accounts.getTotalElements());
-        verify(accountRepository, times(1)).findAll(any(Pageable.class));
+        assertEquals(1, accounts.getContent().size());
+        assertNull(accounts.getTotal());
+        verify(accountRepository, times(1)).findAllBy(any(Pageable.class));
+        verify(accountRepository, never()).count();
     }
 }
@@ -0,0 +1,231 @@
+package com.example.banking.service.impl;
+
+import com.example.banking.balance.ShardedBalanceService;
+import com.example.banking.cache.AccountCache;
+import com.example.banking.event.EventOutbox;
+import com.example.banking.event.TransferEvent;
+import com.example.banking.history.TransactionHistoryService;
+import com.example.banking.ledger.LedgerService;
+import com.example.banking.lock.AccountLockManager;
+import com.example.banking.model.Account;
+import com.example.banking.model.Money;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads transferring between a handful of accounts against an in-memory stand-in for Mongo.
+ * Every repository call costs a simulated round trip and is counted; the two paths are compared by round trips per
+ * transfer, which do not depend on how busy the machine is. Throughput is only logged.
+ */
+class AccountTransferContentionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountTransferContentionTest.class);
+    private static final Logger serviceLogger = LoggerFactory.getLogger(AccountServiceImpl.class);
+
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 40;
+    private static final Money INITIAL_BALANCE = Money.of(10_000);
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(1_000);
+
+    private static final AtomicLong roundTrips = new AtomicLong();
+
+    private final Map<String, Money> balances = new ConcurrentHashMap<>();
+
+    private AccountRepository accountRepository;
+    private AccountLockManager lockManager;
+    private AccountServiceImpl accountService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            balances.put("acc-" + i, INITIAL_BALANCE);
+        }
+
+        accountRepository = stub(AccountRepository.class, (method, args) -> {
+            roundTrip();
+            String id = (String) args[0];
+            switch (method) {
+                case "debitIfSufficient": {
+                    Money amount = (Money) args[1];
+                    boolean[] debited = new boolean[1];
+                    balances.computeIfPresent(id, (key, balance) -> {
+                        if (balance.compareTo(amount) < 0) {
+                            return balance;
+                        }
+                        debited[0] = true;
+                        return balance.minus(amount);
+                    });
+                    return debited[0];
+                }
+                case "credit":
+                    return balances.computeIfPresent(id, (key, balance) -> balance.plus((Money) args[1])) != null;
+                case "findBalanceShards":
+                    return 0;
+                case "existsById":
+                    return balances.containsKey(id);
+                case "findById": {
+                    Account account = new Account();
+                    account.setId(id);
+                    account.setBalance(balances.get(id));
+                    return Optional.of(account);
+                }
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        TransactionRepository transactionRepository = stub(TransactionRepository.class, (method, args) -> {
+            roundTrip();
+            return args[0];
+        });
+        EventOutbox eventOutbox = new EventOutbox(null, null, EventOutbox.TransferRouting.BOTH_ACCOUNTS, 1) {
+            @Override
+            public void enqueueTransfers(String topic, List<TransferEvent> transfers) {
+            }
+        };
+
+        lockManager = new AccountLockManager(new SimpleMeterRegistry(), 64, 10_000);
+        ShardedBalanceService shardedBalanceService = new ShardedBalanceService(accountRepository, null, 64,
+                Duration.ofMinutes(1), Duration.ofMillis(500));
+        TransactionHistoryService transactionHistoryService = new TransactionHistoryService(null, null, null, 200) {
+            @Override
+            public void append(Collection<Transaction> transactions) {
+                roundTrip();
+            }
+        };
+        accountService = new AccountServiceImpl(accountRepository, transactionRepository, eventOutbox, lockManager,
+                shardedBalanceService, transactionHistoryService,
+                new AccountCache(accountRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), false, Duration.ofSeconds(1)),
+                new LedgerService(null, null, null, new SimpleMeterRegistry(), false, 100), null);
+        ReflectionTestUtils.setField(accountService, "accountEventsTopic", "account-topic");
+        ReflectionTestUtils.setField(accountService, "transferEventsTopic", "transfer-topic");
+    }
+
+    @Test
+    void testConditionalTransfersConserveBalancesUnderContention() throws InterruptedException {
+        double conditionalRoundTrips = run(accountService::transfer);
+
+        Money total = balances.values().stream().reduce(Money.ZERO, Money::plus);
+        assertEquals(Money.ofMinor(INITIAL_BALANCE.getMinorUnits() * ACCOUNTS), total);
+        balances.values().forEach(balance -> assertTrue(balance.signum() >= 0, "Balance went negative: " + balance));
+
+        balances.clear();
+        setUp();
+        double readModifyWriteRoundTrips = run(this::readModifyWriteTransfer);
+
+        assertTrue(conditionalRoundTrips < readModifyWriteRoundTrips,
+                "Conditional transfers (" + conditionalRoundTrips + " round trips each) should need fewer than "
+                        + "read-modify-write (" + readModifyWriteRoundTrips + ")");
+    }
+
+    /**
+     * The previous transfer path: two reads, a balance check in Java, two full saves and two transaction inserts.
+     * It runs under the same account locks and logging as the service, so it stays correct and only the round trips differ.
+     */
+    private void readModifyWriteTransfer(String fromAccountId, String toAccountId, Money amount) {
+        lockManager.executeLocked(List.of(fromAccountId, toAccountId), () -> readModifyWrite(fromAccountId, toAccountId, amount));
+    }
+
+    private void readModifyWrite(String fromAccountId, String toAccountId, Money amount) {
+        serviceLogger.info("Initiating transfer from account {} to account {} with amount {}", fromAccountId, toAccountId, amount);
+        Account fromAccount = accountRepository.findById(fromAccountId).orElseThrow();
+        Account toAccount = accountRepository.findById(toAccountId).orElseThrow();
+        if (fromAccount.getBalance().compareTo(amount) < 0) {
+            throw new IllegalArgumentException("Insufficient balance in account: " + fromAccountId);
+        }
+        fromAccount.setBalance(fromAccount.getBalance().minus(amount));
+        toAccount.setBalance(toAccount.getBalance().plus(amount));
+        roundTrip();
+        balances.put(fromAccountId, fromAccount.getBalance());
+        roundTrip();
+        balances.put(toAccountId, toAccount.getBalance());
+        serviceLogger.info("Transfer successful: {} from account {} to account {}", amount, fromAccountId, toAccountId);
+        roundTrip();
+        roundTrip();
+        serviceLogger.info("Transactions recorded for transfer: {} -> {}", fromAccountId, toAccountId);
+        serviceLogger.info("Transfer event published successfully");
+    }
+
+    /**
+     * @return the round trips per attempted transfer.
+     */
+    private double run(TransferOperation operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger attempted = new AtomicInteger();
+        List<String> accountIds = List.copyOf(balances.keySet());
+
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    try {
+                        operation.transfer(accountIds.get(from), accountIds.get(to), Money.of(random.nextInt(1, 50)));
+                    } catch (IllegalArgumentException ignored) {
+                        // Insufficient balance is an expected outcome under contention
+                    }
+                    attempted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        roundTrips.set(0);
+        long startNanos = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        double perTransfer = (double) roundTrips.get() / attempted.get();
+        logger.info("{} transfers/sec, {} round trips per transfer", attempted.get() / seconds, perTransfer);
+        return perTransfer;
+    }
+
+    /**
+     * Repository stand-in without Mockito's per-invocation bookkeeping, which would dominate the measurement.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.apply(method.getName(), args));
+    }
+
+    private static void roundTrip() {
+        roundTrips.incrementAndGet();
+        LockSupport.parkNanos(ROUND_TRIP_NANOS);
+    }
+
+    @FunctionalInterface
+    private interface TransferOperation {
+        void transfer(String fromAccountId, String toAccountId, Money amount);
+    }
+}
@@ -1,15 +1,14 @@
 package com.example.banking.service.impl;
 
-import com.example.banking.event.EventPublisher;
+import com.example.banking.event.EventOutbox;
 import com.example.banking.model.Customer;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.repository.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -25,7 +24,7 @@ class CustomerServiceImplTest {
     private CustomerRepository customerRepository;
 
     @Mock
-    private EventPublisher eventPublisher;
+    private EventOutbox eventOutbox;
 
     @InjectMocks
     private CustomerServiceImpl customerService;
@@ -49,7 +48,7 @@ class CustomerServiceImplTest {
         assertNotNull(savedCustomer);
         assertEquals("1", savedCustomer.getId());
         verify(customerRepository, times(1)).save(customer);
-        verify(eventPublisher, times(1)).publishEvent(anyString(), anyString());
+        verify(eventOutbox, times(1)).enqueue(anyString(), eq("1"), any());
     }
 
     @Test
@@ -68,13 +67,14 @@ class CustomerServiceImplTest {
 
     @Test
     void testGetAllCustomers() {
-        Page<Customer> page = new PageImpl<>(Collections.singletonList(new Customer()));
-        when(customerRepository.findAll(any(Pageable.class))).thenReturn(page);
+        when(customerRepository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(new Customer()));
+        when(customerRepository.count()).thenReturn(1L);
 
-        Page<Customer> customers = customerService.getAllCustomers(0, 10);
+        CursorPage<Customer> customers = customerService.getAllCustomers(null, 10, true);
 
         assertNotNull(customers);
-        assertEquals(1, customers.getTotalElements());
-        verify(customerRepository, times(1)).findAll(any(Pageable.class));
+        assertEquals(1, customers.getTotal());
+        assertNull(customers.getNextCursor());
+        verify(customerRepository, times(1)).findAllBy(any(Pageable.class));
     }
 }
@@ -1,16 +1,18 @@
 package com.example.banking.service.impl;
 
-import com.example.banking.event.EventPublisher;
+import com.example.banking.event.EventOutbox;
+import com.example.banking.history.TransactionHistoryService;
 import com.example.banking.model.Transaction;
+import com.example.banking.pagination.CursorPage;
 import com.example.banking.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
@@ -26,7 +28,10 @@ class TransactionServiceImplTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private EventPublisher eventPublisher;
+    private EventOutbox eventOutbox;
+
+    @Mock
+    private TransactionHistoryService transactionHistoryService;
 
     @InjectMocks
     private TransactionServiceImpl transactionService;
@@ -49,7 +54,8 @@ class TransactionServiceImplTest {
         assertNotNull(savedTransactions);
         assertEquals(1, savedTransactions.size());
         verify(transactionRepository, times(1)).saveAll(transactions);
-        verify(eventPublisher, times(1)).publishEvent(anyString(), anyString());
+        verify(transactionHistoryService, times(1)).appendRecorded(transactions);
+        verify(eventOutbox, times(1)).enqueueTransactions(anyString(), anyList());
     }
 
     @Test
@@ -84,13 +90,42 @@ class TransactionServiceImplTest {
 
     @Test
     void testGetAllTransactions() {
-        Page<Transaction> page = new PageImpl<>(Collections.singletonList(new Transaction()));
-        when(transactionRepository.findAll(any(Pageable.class))).thenReturn(page);
+        when(transactionRepository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(new Transaction()));
 
-        Page<Transaction> transactions = transactionService.getAllTransactions(0, 10);
+        CursorPage<Transaction> transactions = transactionService.getAllTransactions(null, 10, false);
 
         assertNotNull(transactions);
-        assertEquals(1, transactions.getTotalElements());
-        verify(transactionRepository, times(1)).findAll(any(Pageable.class));
+        assertEquals(1, transactions.getContent().size());
+        assertNull(transactions.getNextCursor());
+        verify(transactionRepository, times(1)).findAllBy(PageRequest.of(0, 11, Sort.by("id")));
+        verify(transactionRepository, never()).count();
+    }
+
+    @Test
+    void testGetAllTransactionsContinuesAfterCursor() {
+        List<Transaction> firstPage = List.of(transaction("a"), transaction("b"), transaction("c"));
+        when(transactionRepository.findAllBy(any(Pageable.class))).thenReturn(firstPage);
+        when(transactionRepository.findByIdGreaterThan(eq("b"), any(Pageable.class))).thenReturn(List.of(transaction("c")));
+
+        CursorPage<Transaction> first = transactionService.getAllTransactions(null, 2, false);
+        CursorPage<Transaction> second = transactionService.getAllTransactions(first.getNextCursor(), 2, false);
+
+        assertEquals(List.of("a", "b"), first.getContent().stream().map(Transaction::getId).toList());
+        assertEquals(List.of("c"), second.getContent().stream().map(Transaction::getId).toList());
+        assertNull(second.getNextCursor());
+        verify(transactionRepository, times(1)).findByIdGreaterThan("b", PageRequest.of(0, 3, Sort.by("id")));
+    }
+
+    @Test
+    void testGetAllTransactionsRejectsBadCursorAndSize() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getAllTransactions("not base64!", 10, false));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getAllTransactions(null, 0, false));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private static Transaction transaction(String id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        return transaction;
     }
 }
@@ -0,0 +1,141 @@
+package com.example.banking.transfer;
+
+import com.example.banking.exception.TransferNotFoundException;
+import com.example.banking.exception.TransferQueueFullException;
+import com.example.banking.model.Money;
+import com.example.banking.model.TransferStatus;
+import com.example.banking.repository.TransferStatusRepository;
+import com.example.banking.service.AccountService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AsyncTransferServiceTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private TransferStatusRepository transferStatusRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AsyncTransferService asyncTransferService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        asyncTransferService = new AsyncTransferService(accountService, transferStatusRepository, meterRegistry, 1, 2,
+                Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        asyncTransferService.shutdown();
+    }
+
+    @Test
+    void testSubmittedTransferCompletes() throws InterruptedException {
+        TransferStatus status = asyncTransferService.submit("1", "2", Money.of(10));
+
+        awaitDone(status);
+        assertEquals(TransferStatus.State.COMPLETED, status.getState());
+        verify(accountService, times(1)).transfer("1", "2", Money.of(10));
+        verify(transferStatusRepository).insert(status);
+        verify(transferStatusRepository, timeout(1000)).save(argThat(saved ->
+                saved.getState() == TransferStatus.State.COMPLETED));
+    }
+
+    @Test
+    void testStatusIsReadFromTheStore() {
+        TransferStatus stored = new TransferStatus("1", "2", Money.of(10));
+        stored.complete();
+        when(transferStatusRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        assertEquals(TransferStatus.State.COMPLETED, asyncTransferService.getStatus(stored.getId()).getState());
+    }
+
+    @Test
+    void testFailedTransferReportsReason() throws InterruptedException {
+        doThrow(new IllegalArgumentException("Insufficient balance in account: 1"))
+                .when(accountService).transfer("1", "2", Money.of(10));
+
+        TransferStatus status = asyncTransferService.submit("1", "2", Money.of(10));
+
+        awaitDone(status);
+        assertEquals(TransferStatus.State.FAILED, status.getState());
+        assertEquals("Insufficient balance in account: 1", status.getMessage());
+    }
+
+    @Test
+    void testFullQueueRejectsWithoutBlocking() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(accountService).transfer(any(), any(), any());
+
+        asyncTransferService.submit("1", "2", Money.of(1));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        asyncTransferService.submit("1", "2", Money.of(1));
+        asyncTransferService.submit("1", "2", Money.of(1));
+        assertEquals(2, meterRegistry.get("banking.transfer.async.queue.depth").gauge().value());
+
+        long startNanos = System.nanoTime();
+        assertThrows(TransferQueueFullException.class, () -> asyncTransferService.submit("1", "2", Money.of(1)));
+        verify(transferStatusRepository, times(1)).deleteById(anyString());
+        assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(1), "Rejection must not wait for the queue");
+        assertEquals(1, meterRegistry.get("banking.transfer.async.rejected").counter().count());
+
+        release.countDown();
+    }
+
+    @Test
+    void testLeasesOfQueuedTransfersAreRenewedAndAbandonedOnesFailed() {
+        TransferStatus status = asyncTransferService.submit("1", "2", Money.of(10));
+        assertNotNull(status.getOwner());
+        assertEquals(status.getSubmittedAt().plus(Duration.ofMinutes(1)), status.getLeaseExpiresAt());
+
+        asyncTransferService.renewLeases();
+
+        verify(transferStatusRepository).renewLeases(eq(status.getOwner()), any(Instant.class));
+        verify(transferStatusRepository).failAbandoned(any(Instant.class), eq(Duration.ofMinutes(1)),
+                eq(AsyncTransferService.ABANDONED_MESSAGE));
+    }
+
+    @Test
+    void testLeaseRenewalFailureIsRetriedOnTheNextRun() {
+        when(transferStatusRepository.renewLeases(anyString(), any())).thenThrow(new IllegalStateException("Mongo is down"));
+
+        assertDoesNotThrow(() -> asyncTransferService.renewLeases());
+        verify(transferStatusRepository, never()).failAbandoned(any(), any(), anyString());
+    }
+
+    @Test
+    void testUnknownTransferId() {
+        when(transferStatusRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(TransferNotFoundException.class, () -> asyncTransferService.getStatus("missing"));
+    }
+
+    private static void awaitDone(TransferStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (status.getState() == TransferStatus.State.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}